@@ -0,0 +1,86 @@
+package com.mantenimiento.morado.benchmark;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mantenimiento.morado.code.counter.SourceFileAnalyzer;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+
+/**
+ * Measures a full {@link SourceFileAnalyzer#analyzePath(AnalysisListener)} run, from the traversal
+ * to the last total, with the results sent to a listener instead of the console.
+ * <p>
+ * The {@code threads} parameter compares the sequential run with the multi-threaded mode.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzePathBenchmark {
+
+    @Param({"SMALL_FILES", "HUGE_FILES", "DEEP_TREE"})
+    public SyntheticCorpus corpus;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Path root;
+    private int fileCount;
+    private long totalBytes;
+
+    /**
+     * Creates the corpus once for all iterations.
+     */
+    @Setup
+    public void createCorpus() {
+        root = corpus.createTemporary();
+        List<String> javaFiles = SyntheticCorpus.listJavaFiles(root);
+        fileCount = javaFiles.size();
+        totalBytes = SyntheticCorpus.totalBytes(javaFiles);
+    }
+
+    /**
+     * Deletes the corpus.
+     */
+    @TearDown
+    public void deleteCorpus() {
+        SyntheticCorpus.delete(root);
+    }
+
+    @Benchmark
+    public void analyzePath(Blackhole blackhole, Processed processed) {
+        new SourceFileAnalyzer(root.toString(), threads).analyzePath(new AnalysisListener() {
+            @Override
+            public void onFile(SourceFile file) {
+                blackhole.consume(file);
+            }
+
+            @Override
+            public void onProjectEnd(int totalPhysicalLOC) {
+                blackhole.consume(totalPhysicalLOC);
+            }
+        });
+        processed.add(fileCount, totalBytes);
+    }
+}
@@ -0,0 +1,76 @@
+package com.mantenimiento.morado.benchmark;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mantenimiento.morado.code.counter.DirectoryScanner;
+
+/**
+ * Measures the traversal of a tree by the {@link DirectoryScanner}, without reading any file.
+ *
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectoryScannerBenchmark {
+
+    @Param({"SMALL_FILES", "DEEP_TREE"})
+    public SyntheticCorpus corpus;
+
+    private Path root;
+    private int javaFiles;
+
+    /**
+     * Creates the corpus once for all iterations.
+     */
+    @Setup
+    public void createCorpus() {
+        root = corpus.createTemporary();
+        javaFiles = SyntheticCorpus.listJavaFiles(root).size();
+    }
+
+    /**
+     * Deletes the corpus.
+     */
+    @TearDown
+    public void deleteCorpus() {
+        SyntheticCorpus.delete(root);
+    }
+
+    @Benchmark
+    public Map<Path, List<String>> getJavaFilesByDirectory(Processed processed) {
+        processed.add(javaFiles, 0);
+        return new DirectoryScanner(root.toString()).getJavaFilesByDirectory();
+    }
+
+    @Benchmark
+    public int iterateJavaFilesByDirectory(Processed processed) {
+        processed.add(javaFiles, 0);
+        int files = 0;
+        Iterator<Map.Entry<Path, List<String>>> directories = new DirectoryScanner(root.toString()).iterateJavaFilesByDirectory();
+        while (directories.hasNext()) {
+            files += directories.next().getValue().size();
+        }
+        return files;
+    }
+}
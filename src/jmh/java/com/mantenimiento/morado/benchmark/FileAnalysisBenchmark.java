@@ -0,0 +1,90 @@
+package com.mantenimiento.morado.benchmark;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mantenimiento.morado.code.counter.AnalysisEngine;
+import com.mantenimiento.morado.code.counter.LOCCounter;
+import com.mantenimiento.morado.code.syntax.SyntaxAnalyzer;
+
+/**
+ * Measures the per-file hot paths: LOC counting, the syntax check and the single-pass engine.
+ * <p>
+ * Each invocation processes every file of the corpus. The {@link Processed} counters give the
+ * throughput in files and bytes per second.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileAnalysisBenchmark {
+
+    @Param({"SMALL_FILES", "HUGE_FILES"})
+    public SyntheticCorpus corpus;
+
+    private Path root;
+    private List<String> javaFiles;
+    private long totalBytes;
+
+    /**
+     * Creates the corpus once for all iterations.
+     */
+    @Setup
+    public void createCorpus() {
+        root = corpus.createTemporary();
+        javaFiles = SyntheticCorpus.listJavaFiles(root);
+        totalBytes = SyntheticCorpus.totalBytes(javaFiles);
+    }
+
+    /**
+     * Deletes the corpus.
+     */
+    @TearDown
+    public void deleteCorpus() {
+        SyntheticCorpus.delete(root);
+    }
+
+    @Benchmark
+    public void countLOC(Blackhole blackhole, Processed processed) {
+        for (String javaFile : javaFiles) {
+            blackhole.consume(LOCCounter.countLOC(javaFile));
+        }
+        processed.add(javaFiles.size(), totalBytes);
+    }
+
+    @Benchmark
+    public void isJavaFileWellWritten(Blackhole blackhole, Processed processed) {
+        for (String javaFile : javaFiles) {
+            blackhole.consume(SyntaxAnalyzer.isJavaFileWellWritten(javaFile));
+        }
+        processed.add(javaFiles.size(), totalBytes);
+    }
+
+    @Benchmark
+    public void analysisEngine(Blackhole blackhole, Processed processed) {
+        for (String javaFile : javaFiles) {
+            blackhole.consume(AnalysisEngine.analyze(javaFile));
+        }
+        processed.add(javaFiles.size(), totalBytes);
+    }
+}
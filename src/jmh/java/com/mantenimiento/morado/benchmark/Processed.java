@@ -0,0 +1,43 @@
+package com.mantenimiento.morado.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results of a benchmark: the number of files and bytes processed.
+ * <p>
+ * JMH reports these counters as rates next to the primary result, which gives the cost
+ * per file and per MB of each hot path.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Processed {
+    public long files;
+    public long bytes;
+
+    /**
+     * Clears the counters before every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        files = 0;
+        bytes = 0;
+    }
+
+    /**
+     * Adds a processed batch of files.
+     *
+     * @param batchFiles The number of files of the batch.
+     * @param batchBytes The size of the batch in bytes.
+     */
+    public void add(long batchFiles, long batchBytes) {
+        files += batchFiles;
+        bytes += batchBytes;
+    }
+}
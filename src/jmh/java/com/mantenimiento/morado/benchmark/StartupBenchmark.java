@@ -0,0 +1,116 @@
+package com.mantenimiento.morado.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the whole run of the application on a single small file, in a new JVM every time, from the
+ * start of the process to its exit.
+ * <p>
+ * The {@code launch} parameter compares a plain start from the compiled classes with the fast-startup mode:
+ * the JAR and the class-data-sharing archive built by {@code mvn -Pstartup package}, with only the C1
+ * compiler and the serial collector. The fast-startup mode needs that build to have run first; the archive
+ * is only valid for the JDK that created it.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StartupBenchmark {
+    private static final Path TARGET = Paths.get("target");
+    private static final Path ARCHIVE = TARGET.resolve("proyecto-morado.jsa");
+    private static final Path JAR = TARGET.resolve("proyecto-morado-1.0.jar");
+
+    /**
+     * The ways the application is started.
+     */
+    public enum Launch {
+        /**
+         * The classes of {@code target/classes} with the default options of the JVM.
+         */
+        CLASSES,
+
+        /**
+         * The JAR with the class-data-sharing archive, the C1 compiler only and the serial collector.
+         */
+        CDS_ARCHIVE
+    }
+
+    @Param({"CLASSES", "CDS_ARCHIVE"})
+    public Launch launch;
+
+    private Path root;
+    private List<String> command;
+
+    /**
+     * Creates the file to analyze and the command that starts the application.
+     */
+    @Setup
+    public void prepare() {
+        root = SyntheticCorpus.SINGLE_FILE.createTemporary();
+        String file = SyntheticCorpus.listJavaFiles(root).get(0);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+        command = new ArrayList<>();
+        command.add(java);
+        if (launch == Launch.CLASSES) {
+            command.add("-cp");
+            command.add(TARGET.resolve("classes").toString());
+            command.add("com.mantenimiento.morado.Main");
+        } else {
+            if (!Files.isRegularFile(ARCHIVE) || !Files.isRegularFile(JAR)) {
+                throw new IllegalStateException("Missing " + ARCHIVE + ", build it with: mvn -Pstartup package");
+            }
+            command.add("-XX:SharedArchiveFile=" + ARCHIVE);
+            command.add("-XX:TieredStopAtLevel=1");
+            command.add("-XX:+UseSerialGC");
+            command.add("-jar");
+            command.add(JAR.toString());
+        }
+        command.add(file);
+    }
+
+    /**
+     * Deletes the analyzed file.
+     */
+    @TearDown
+    public void deleteCorpus() {
+        SyntheticCorpus.delete(root);
+    }
+
+    @Benchmark
+    public int analyzeSingleFile() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("The application exited with code " + exitCode);
+        }
+        return exitCode;
+    }
+}
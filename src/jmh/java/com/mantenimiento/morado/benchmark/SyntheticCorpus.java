@@ -0,0 +1,179 @@
+package com.mantenimiento.morado.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic source trees used by the benchmarks.
+ * <p>
+ * Every generated file is well written according to the rules of the analyzer, so the whole file is
+ * always classified. Each file has a package line, a documentation comment, a class and methods with
+ * a body, line comments and blank lines.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public enum SyntheticCorpus {
+    /**
+     * 40 directories with 50 small files each (2,000 files of about 80 lines).
+     */
+    SMALL_FILES {
+        @Override
+        void create(Path root) throws IOException {
+            for (int directory = 0; directory < 40; directory++) {
+                Path program = Files.createDirectories(root.resolve("program" + directory));
+                for (int file = 0; file < 50; file++) {
+                    writeJavaFile(program, "Small" + file, 5);
+                }
+            }
+        }
+    },
+
+    /**
+     * 3 huge files of about 260,000 lines (around 7 MB) each, like generated parsers.
+     */
+    HUGE_FILES {
+        @Override
+        void create(Path root) throws IOException {
+            Path program = Files.createDirectories(root.resolve("generated"));
+            for (int file = 0; file < 3; file++) {
+                writeJavaFile(program, "Huge" + file, 20_000);
+            }
+        }
+    },
+
+    /**
+     * A chain of 64 nested directories with 3 small files on each level.
+     */
+    DEEP_TREE {
+        @Override
+        void create(Path root) throws IOException {
+            Path level = root;
+            for (int depth = 0; depth < 64; depth++) {
+                level = Files.createDirectories(level.resolve("level" + depth));
+                for (int file = 0; file < 3; file++) {
+                    writeJavaFile(level, "Deep" + file, 5);
+                }
+            }
+        }
+    },
+
+    /**
+     * A single small file, like the ones a pre-commit hook analyzes one at a time.
+     */
+    SINGLE_FILE {
+        @Override
+        void create(Path root) throws IOException {
+            writeJavaFile(root, "Single", 5);
+        }
+    };
+
+    /**
+     * Writes the files of the corpus under the given directory.
+     *
+     * @param root The directory where the corpus is written.
+     * @throws IOException If a file cannot be written.
+     */
+    abstract void create(Path root) throws IOException;
+
+    /**
+     * Creates the corpus in a new temporary directory.
+     *
+     * @return The root directory of the corpus.
+     */
+    public Path createTemporary() {
+        try {
+            Path root = Files.createTempDirectory("morado-" + name().toLowerCase() + "-");
+            create(root);
+            return root;
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     * Lists the Java files of a corpus.
+     *
+     * @param root The root directory of the corpus.
+     * @return The paths of all Java files, as strings.
+     */
+    public static List<String> listJavaFiles(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<String> javaFiles = new ArrayList<>();
+            paths.filter(path -> path.toString().endsWith(".java")).forEach(path -> javaFiles.add(path.toString()));
+            return javaFiles;
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     * Sums the size of the given files.
+     *
+     * @param files The paths of the files.
+     * @return The total size in bytes.
+     */
+    public static long totalBytes(List<String> files) {
+        long bytes = 0;
+        for (String file : files) {
+            try {
+                bytes += Files.size(Path.of(file));
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Deletes a corpus created by {@link #createTemporary()}.
+     *
+     * @param root The root directory of the corpus.
+     */
+    public static void delete(Path root) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     * Writes a well written Java class with the given number of methods.
+     *
+     * @param directory The directory of the file.
+     * @param className The name of the class and of the file.
+     * @param methods   The number of methods of the class.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeJavaFile(Path directory, String className, int methods) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(className + ".java"))) {
+            writer.write("package com.example.generated;\n\n");
+            writer.write("import java.util.List;\n\n");
+            writer.write("/**\n * Generated class used by the benchmarks.\n *\n * @version 1.0\n */\n");
+            writer.write("public class " + className + " {\n");
+            writer.write("    private final List<String> values;\n\n");
+            for (int method = 0; method < methods; method++) {
+                writer.write("    /**\n     * Computes value " + method + ".\n     */\n");
+                writer.write("    public int compute" + method + "(int input) {\n");
+                writer.write("        // Adds the index of the method\n");
+                writer.write("        int result = input + " + method + ";\n");
+                writer.write("        if (result > values.size()) {\n");
+                writer.write("            result = values.size();\n");
+                writer.write("        }\n\n");
+                writer.write("        return result;\n");
+                writer.write("    }\n\n");
+            }
+            writer.write("}\n");
+        }
+    }
+}
@@ -1,16 +1,295 @@
 package com.mantenimiento.morado;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import com.mantenimiento.morado.code.cache.AnalysisCache;
+import com.mantenimiento.morado.code.cache.ContentCache;
 import com.mantenimiento.morado.code.counter.SourceFileAnalyzer;
+import com.mantenimiento.morado.code.git.GitChangeAnalyzer;
+import com.mantenimiento.morado.code.ignore.IgnoreRules;
+import com.mantenimiento.morado.code.language.LanguageTotals;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+import com.mantenimiento.morado.code.report.ReportWriter;
+import com.mantenimiento.morado.code.server.AnalysisServer;
+import com.mantenimiento.morado.code.stats.AnalysisStatistics;
+import com.mantenimiento.morado.code.stats.MetricsRegistry;
+import com.mantenimiento.morado.code.tree.AggregationTree;
+import com.mantenimiento.morado.code.watch.SourceWatcher;
+import com.mantenimiento.morado.util.CommandLineOptions;
 
 public class Main {
     public static void main(String[] args) {
-        if (args.length == 0 || args[0].isEmpty()) {
+        CommandLineOptions options;
+        try {
+            options = CommandLineOptions.parse(args);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            System.out.println(illegalArgumentException.getMessage());
             System.out.println("Review the User Manual");
             return;
         }
+        if (options.getServePort() > 0) {
+            serve(options);
+            return;
+        }
+
+        SourceFileAnalyzer analyzer = new SourceFileAnalyzer(
+            options.getPath(),
+            options.getThreads(),
+            options.getConcurrentReads()
+        );
+
+        MetricsRegistry metrics = null;
+        if (options.getMetricsFile() != null) {
+            metrics = new MetricsRegistry();
+            analyzer.setMetrics(metrics);
+        }
+
+        AnalysisStatistics statistics = null;
+        if (options.isStats() || options.getStatsFile() != null || metrics != null) {
+            statistics = new AnalysisStatistics();
+            statistics.setMetrics(metrics);
+            analyzer.setStatistics(statistics);
+        }
+
+        AggregationTree tree = null;
+        if (options.getTopCount() > 0) {
+            tree = new AggregationTree();
+            analyzer.setAggregationTree(tree);
+        }
+
+        IgnoreRules ignoreRules = null;
+        boolean ignoring = options.isGitignore() || options.getIgnoreFile() != null;
+        if (ignoring && !SourceFileAnalyzer.isArchive(options.getPath())) {
+            try {
+                ignoreRules = loadIgnoreRules(options);
+                analyzer.setIgnoreRules(ignoreRules);
+            } catch (IOException ioException) {
+                System.err.println("Error while reading ignore file: " + ioException.getMessage());
+                return;
+            }
+        }
+
+        LanguageTotals languageTotals = null;
+        if (options.getLanguages() != null) {
+            analyzer.setLanguages(options.getLanguages());
+            if (!options.isWatch() && options.getBaseRevision() == null) {
+                languageTotals = new LanguageTotals();
+                analyzer.setLanguageTotals(languageTotals);
+            }
+        }
+
+        ContentCache contents = null;
+        if (options.isDedupe()) {
+            contents = new ContentCache(ContentCache.DEFAULT_CAPACITY);
+            analyzer.setContentCache(contents);
+        }
+
+        AnalysisCache cache = null;
+        if (options.getCacheFile() != null) {
+            cache = AnalysisCache.load(Paths.get(options.getCacheFile()));
+            analyzer.setCache(cache);
+        }
+
+        try (ReportWriter writer = openReport(options.getOutputFile())) {
+            if (options.getBaseRevision() != null) {
+                analyzeChanges(options, writer);
+            } else if (options.isWatch()) {
+                watch(options, ignoreRules, contents, options.getFormat().createListener(writer), writer);
+            } else {
+                analyzer.analyzePath(options.getFormat().createListener(writer));
+            }
+        } catch (IOException ioException) {
+            System.err.println("Error while creating report file: " + ioException.getMessage());
+            return;
+        }
 
-        SourceFileAnalyzer analyzer = new SourceFileAnalyzer(args[0]);
-        analyzer.analyzePath();
+        if (cache != null) {
+            cache.save();
+        }
+        if (statistics != null) {
+            reportStatistics(options, statistics);
+        }
+        if (metrics != null) {
+            writeMetrics(Paths.get(options.getMetricsFile()), metrics);
+        }
+        if (tree != null) {
+            tree.printLargest(System.err, options.getTopCount());
+        }
+        if (languageTotals != null) {
+            languageTotals.printSummary(System.err);
+        }
+        if (contents != null) {
+            contents.printSummary(System.err);
+        }
     }
 
+    /**
+     * Loads the ignore rules of the analyzed directory.
+     *
+     * @param options The parsed options.
+     * @return The rules given by {@code --gitignore} and {@code --ignore-file}.
+     * @throws IOException If the file given to {@code --ignore-file} cannot be read.
+     */
+    private static IgnoreRules loadIgnoreRules(CommandLineOptions options) throws IOException {
+        Path rulesFile = options.getIgnoreFile() == null ? null : Paths.get(options.getIgnoreFile());
+        return IgnoreRules.load(Paths.get(options.getPath()), rulesFile, options.isGitignore());
+    }
+
+    /**
+     * Prints the statistics of the analysis and writes them to the JSON file, as requested by the options.
+     *
+     * @param options    The parsed options.
+     * @param statistics The recorded statistics.
+     */
+    private static void reportStatistics(CommandLineOptions options, AnalysisStatistics statistics) {
+        statistics.stop();
+        if (options.isStats()) {
+            statistics.printSummary(System.err);
+        }
+        if (options.getStatsFile() != null) {
+            try (ReportWriter writer = ReportWriter.toFile(Paths.get(options.getStatsFile()))) {
+                statistics.writeJson(writer);
+            } catch (IOException ioException) {
+                System.err.println("Error while creating statistics file: " + ioException.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the metrics to a file in the OpenMetrics text format. They are written to a temporary file first,
+     * which then replaces the file, so a collector reading it never finds half of the metrics.
+     *
+     * @param metricsFile The file where the metrics are written.
+     * @param metrics     The recorded metrics.
+     */
+    private static void writeMetrics(Path metricsFile, MetricsRegistry metrics) {
+        Path temporaryFile = metricsFile.resolveSibling(metricsFile.getFileName() + ".tmp");
+        try {
+            try (ReportWriter writer = ReportWriter.toFile(temporaryFile)) {
+                metrics.writeOpenMetrics(writer);
+            }
+            Files.move(temporaryFile, metricsFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioException) {
+            System.err.println("Error while creating metrics file: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Analyzes only the source files that changed between the revisions given to {@code --git}.
+     *
+     * @param options The parsed options.
+     * @param writer  The writer of the report.
+     */
+    private static void analyzeChanges(CommandLineOptions options, ReportWriter writer) {
+        GitChangeAnalyzer analyzer = new GitChangeAnalyzer(
+            options.getPath(),
+            options.getBaseRevision(),
+            options.getTargetRevision()
+        );
+        if (options.getLanguages() != null) {
+            analyzer.setLanguages(options.getLanguages());
+        }
+        try {
+            analyzer.analyzeChanges(options.getFormat().createChangeListener(writer));
+        } catch (IOException ioException) {
+            System.err.println("Error while reading git changes: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Analyzes the directory and keeps printing the programs whose files change, flushing the report after
+     * every update.
+     *
+     * @param options     The parsed options.
+     * @param ignoreRules The rules given by {@code --gitignore} and {@code --ignore-file}, or {@code null}.
+     * @param contents    The results of the contents seen so far, or {@code null} when {@code --dedupe} is not given.
+     * @param listener    The listener that prints the results.
+     * @param writer      The writer of the report.
+     */
+    private static void watch(CommandLineOptions options, IgnoreRules ignoreRules, ContentCache contents,
+                              AnalysisListener listener, ReportWriter writer) {
+        if (!Files.isDirectory(Paths.get(options.getPath()))) {
+            listener.onInvalidPath(options.getPath());
+            return;
+        }
+
+        try (SourceWatcher watcher = new SourceWatcher(options.getPath(), options.getThreads())) {
+            watcher.setIgnoreRules(ignoreRules);
+            if (options.getLanguages() != null) {
+                watcher.setLanguages(options.getLanguages());
+            }
+            watcher.setContentCache(contents);
+            watcher.watch(listener, writer::flush);
+        } catch (IOException ioException) {
+            System.err.println("Error while watching directory: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Answers analysis requests over HTTP until a shutdown request arrives, then saves the cache and the
+     * metrics. Every request builds its own analyzer, so none is built for the path here.
+     *
+     * @param options The parsed options.
+     */
+    private static void serve(CommandLineOptions options) {
+        AnalysisCache cache = null;
+        if (options.getCacheFile() != null) {
+            cache = AnalysisCache.load(Paths.get(options.getCacheFile()));
+        }
+        ContentCache contents = null;
+        if (options.isDedupe()) {
+            contents = new ContentCache(ContentCache.DEFAULT_CAPACITY);
+        }
+        MetricsRegistry metrics = null;
+        if (options.getMetricsFile() != null) {
+            metrics = new MetricsRegistry();
+        }
+
+        try (AnalysisServer server = new AnalysisServer(
+            options.getPath(),
+            options.getServePort(),
+            options.getThreads(),
+            options.getConcurrentReads()
+        )) {
+            if (cache != null) {
+                server.setCache(cache);
+            }
+            server.setContentCache(contents);
+            if (metrics != null) {
+                server.setMetrics(metrics);
+            }
+            server.serve();
+        } catch (IOException ioException) {
+            System.err.println("Error while starting server: " + ioException.getMessage());
+        }
+
+        if (cache != null) {
+            cache.save();
+        }
+        if (metrics != null) {
+            writeMetrics(Paths.get(options.getMetricsFile()), metrics);
+        }
+        if (contents != null) {
+            contents.printSummary(System.err);
+        }
+    }
+
+    /**
+     * Opens the writer of the report.
+     *
+     * @param outputFile The file where the report is written, or {@code null} for the standard output.
+     * @return The writer of the report.
+     * @throws IOException If the file cannot be created.
+     */
+    private static ReportWriter openReport(String outputFile) throws IOException {
+        if (outputFile == null) {
+            return ReportWriter.toStandardOutput();
+        }
+        return ReportWriter.toFile(Paths.get(outputFile));
+    }
 }
@@ -0,0 +1,426 @@
+package com.mantenimiento.morado.code.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code AnalysisCache} class keeps the results of previous runs on disk, so that only the files
+ * that changed since then have to be read and analyzed again.
+ * <p>
+ * Each result is stored with the size and last-modified time the file had when it was analyzed.
+ * A stored result is reused only when both still match. The cache is safe to use from several threads.
+ * </p>
+ * <p>
+ * The file is a compact binary list sorted by path. Each path is stored as the length of the prefix it
+ * shares with the previous path plus the remaining characters, followed by the size, the last-modified
+ * time, the LOC, the number of methods and a one-byte status. A save writes the results of the files seen
+ * in the last run and keeps the stored results of the other files as long as they still exist, so analyzing
+ * part of a tree does not drop the rest, and deleted files leave the cache on the next save.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class AnalysisCache {
+    /**
+     * The number of files whose results an in-memory cache keeps by default.
+     */
+    public static final int DEFAULT_MEMORY_CAPACITY = 32768;
+
+    private static final int MAGIC = 0x4D4C4F43;
+    private static final int VERSION = 6;
+    private static final String[] STATUSES = {
+        Constants.JAVA_FILE_STATUS_OK,
+        Constants.JAVA_FILE_STATUS_ERROR,
+        Constants.JAVA_FILE_STATUS_NO_CLASS
+    };
+    private static final String[] TYPE_KINDS = {
+        Constants.TYPE_KIND_CLASS,
+        Constants.TYPE_KIND_INTERFACE,
+        Constants.TYPE_KIND_ENUM,
+        Constants.TYPE_KIND_RECORD,
+        Constants.TYPE_KIND_ANNOTATION,
+        Constants.TYPE_KIND_OBJECT,
+        Constants.TYPE_KIND_TABLE,
+        Constants.TYPE_KIND_VIEW,
+        Constants.TYPE_KIND_MODULE
+    };
+    private static final Map<String, Integer> TYPE_KIND_CODES = new HashMap<>();
+
+    static {
+        for (int code = 0; code < TYPE_KINDS.length; code++) {
+            TYPE_KIND_CODES.put(TYPE_KINDS[code], code);
+        }
+    }
+
+    private final Path cacheFile;
+    private final int capacity;
+    private final Map<String, Entry> previousEntries;
+    private final Map<String, Entry> currentEntries = new ConcurrentHashMap<>();
+
+    /**
+     * The size and last-modified time of a file when it was analyzed.
+     *
+     * @param size         the size of the file in bytes
+     * @param lastModified the last-modified time of the file in nanoseconds
+     */
+    public record FileStamp(long size, long lastModified) {
+        // Written by hand so that comparing stamps does not bootstrap the generated methods of the record,
+        // which takes longer than a whole run on a single file
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof FileStamp other && size == other.size && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(lastModified);
+        }
+    }
+
+    /**
+     * A stored result with the stamp of the file it belongs to.
+     *
+     * @param stamp the stamp of the file when it was analyzed
+     * @param file  the result of the analysis
+     */
+    private record Entry(FileStamp stamp, SourceFile file) {
+    }
+
+    /**
+     * Constructs a cache with the given stored entries.
+     *
+     * @param cacheFile       The file where the cache is saved, or {@code null} if it is only kept in memory.
+     * @param capacity        The number of results stored before some are evicted.
+     * @param previousEntries The entries loaded from the file.
+     */
+    private AnalysisCache(Path cacheFile, int capacity, Map<String, Entry> previousEntries) {
+        this.cacheFile = cacheFile;
+        this.capacity = capacity;
+        this.previousEntries = previousEntries;
+    }
+
+    /**
+     * Loads the cache stored in the specified file.
+     * <p>
+     * A missing file gives an empty cache. A file that cannot be read or was written by another version
+     * is reported and ignored; it is replaced on the next save.
+     * </p>
+     *
+     * @param cacheFile The file where the cache is stored.
+     * @return The loaded cache.
+     */
+    public static AnalysisCache load(Path cacheFile) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                System.err.println("Ignoring cache with an unknown format: " + cacheFile);
+                return new AnalysisCache(cacheFile, Integer.MAX_VALUE, entries);
+            }
+
+            int count = input.readInt();
+            String previousPath = "";
+            for (int i = 0; i < count; i++) {
+                int sharedPrefix = input.readUnsignedShort();
+                String path = previousPath.substring(0, sharedPrefix) + input.readUTF();
+                FileStamp stamp = new FileStamp(input.readLong(), input.readLong());
+                int physicalLOC = input.readInt();
+                int numOfMethods = input.readInt();
+                String status = STATUSES[input.readByte()];
+                String packageName = input.readUTF();
+                SourceFile file = new SourceFile(getFilename(path), physicalLOC, numOfMethods, status, packageName,
+                    readTypes(input));
+                entries.put(path, new Entry(stamp, file));
+                previousPath = path;
+            }
+        } catch (NoSuchFileException noSuchFileException) {
+            return new AnalysisCache(cacheFile, Integer.MAX_VALUE, entries);
+        } catch (IOException | RuntimeException exception) {
+            System.err.println("Ignoring unreadable cache " + cacheFile + ": " + exception.getMessage());
+            entries.clear();
+        }
+        return new AnalysisCache(cacheFile, Integer.MAX_VALUE, entries);
+    }
+
+    /**
+     * Creates an empty cache that is only kept in memory, for a process that analyzes the same trees
+     * several times.
+     * <p>
+     * The cache holds the results of at most {@code capacity} files, so a long-running process does not grow
+     * without bound. When a new result goes over the capacity, a quarter of the stored results are evicted,
+     * in no particular order; their files are simply analyzed again the next time they are seen.
+     * </p>
+     *
+     * @param capacity The maximum number of results kept.
+     * @return The new cache; {@link #save()} does nothing on it.
+     * @throws IllegalArgumentException if {@code capacity} is less than 1.
+     */
+    public static AnalysisCache inMemory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1: " + capacity);
+        }
+        return new AnalysisCache(null, capacity, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Checks whether the result of a file can be stored. Only the files of the default file system are stored,
+     * since the entries of an archive have no path of their own on disk.
+     *
+     * @param path The path of the file.
+     * @return {@code true} if the file belongs to the default file system.
+     */
+    public static boolean canStore(Path path) {
+        return path.getFileSystem() == FileSystems.getDefault();
+    }
+
+    /**
+     * Reads the size and last-modified time of a file.
+     *
+     * @param filePath The path of the file.
+     * @return The stamp of the file, or {@code null} if its attributes cannot be read.
+     */
+    public FileStamp getStamp(String filePath) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(Paths.get(filePath), BasicFileAttributes.class);
+            return new FileStamp(attributes.size(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+        } catch (IOException ioException) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the stored result of a file if the file did not change since it was stored.
+     *
+     * @param filePath The path of the file.
+     * @param stamp    The current stamp of the file.
+     * @return The stored result, or {@code null} if there is none or the file changed.
+     */
+    public SourceFile get(String filePath, FileStamp stamp) {
+        if (stamp == null) {
+            return null;
+        }
+        String key = getKey(filePath);
+        Entry entry = currentEntries.get(key);
+        if (entry == null) {
+            entry = previousEntries.get(key);
+        }
+        if (entry == null || !entry.stamp().equals(stamp)) {
+            return null;
+        }
+        currentEntries.put(key, entry);
+        return entry.file();
+    }
+
+    /**
+     * Stores the result of a file.
+     *
+     * @param filePath The path of the file.
+     * @param stamp    The stamp the file had before it was analyzed; nothing is stored when it is {@code null}.
+     * @param file     The result of the analysis.
+     */
+    public void put(String filePath, FileStamp stamp, SourceFile file) {
+        if (stamp != null) {
+            currentEntries.put(getKey(filePath), new Entry(stamp, file));
+            if (currentEntries.size() > capacity) {
+                evict();
+            }
+        }
+    }
+
+    /**
+     * Removes results until a quarter of the capacity is free again. Several threads may evict at the same
+     * time, which only evicts a few more results.
+     */
+    private void evict() {
+        int target = capacity - capacity / 4;
+        Iterator<String> paths = currentEntries.keySet().iterator();
+        while (currentEntries.size() > target && paths.hasNext()) {
+            paths.next();
+            paths.remove();
+        }
+    }
+
+    /**
+     * Returns the key of a file in the cache, so that the same file is found whatever the working directory.
+     *
+     * @param filePath The path of the file.
+     * @return The absolute path of the file.
+     */
+    private static String getKey(String filePath) {
+        return Paths.get(filePath).toAbsolutePath().toString();
+    }
+
+    /**
+     * Writes the results of the files seen since the cache was loaded to the cache file, with the loaded
+     * results of the files that were not seen but still exist.
+     * <p>
+     * The cache is written to a temporary file that then replaces the previous one, so an interrupted
+     * save never leaves a broken cache behind. Errors are reported and otherwise ignored.
+     * </p>
+     */
+    public void save() {
+        if (cacheFile == null) {
+            return;
+        }
+
+        Map<String, Entry> entries = new TreeMap<>(currentEntries);
+        for (Map.Entry<String, Entry> previousEntry : previousEntries.entrySet()) {
+            String path = previousEntry.getKey();
+            if (!entries.containsKey(path) && Files.exists(Paths.get(path))) {
+                entries.put(path, previousEntry.getValue());
+            }
+        }
+
+        try {
+            Path directory = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(entries.size());
+                String previousPath = "";
+                for (Map.Entry<String, Entry> pathEntry : entries.entrySet()) {
+                    String path = pathEntry.getKey();
+                    Entry entry = pathEntry.getValue();
+                    int sharedPrefix = getSharedPrefixLength(previousPath, path);
+                    output.writeShort(sharedPrefix);
+                    output.writeUTF(path.substring(sharedPrefix));
+                    output.writeLong(entry.stamp().size());
+                    output.writeLong(entry.stamp().lastModified());
+                    output.writeInt(entry.file().physicalLOC());
+                    output.writeInt(entry.file().numOfMethods());
+                    output.writeByte(getStatusCode(entry.file().status()));
+                    output.writeUTF(entry.file().packageName());
+                    writeTypes(output, entry.file().types());
+                    previousPath = path;
+                }
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioException) {
+            System.err.println("Error while saving cache: " + ioException.getMessage());
+        }
+    }
+
+    /**
+     * Returns the length of the prefix two paths share, limited to what fits in an unsigned short.
+     *
+     * @param previousPath The previous path in the cache file.
+     * @param path         The path being written.
+     * @return The number of leading characters both paths have in common.
+     */
+    private static int getSharedPrefixLength(String previousPath, String path) {
+        int limit = Math.min(Math.min(previousPath.length(), path.length()), 0xFFFF);
+        int length = 0;
+        while (length < limit && previousPath.charAt(length) == path.charAt(length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the code stored for a status.
+     *
+     * @param status One of the status constants of {@link Constants}.
+     * @return The position of the status in {@link #STATUSES}.
+     */
+    private static int getStatusCode(String status) {
+        for (int code = 0; code < STATUSES.length; code++) {
+            if (STATUSES[code].equals(status)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status: " + status);
+    }
+
+    /**
+     * @param kind One of the type kind constants of {@link Constants}.
+     * @return The position of the kind in {@link #TYPE_KINDS}.
+     */
+    private static int getTypeKindCode(String kind) {
+        Integer code = TYPE_KIND_CODES.get(kind);
+        if (code == null) {
+            throw new IllegalArgumentException("Unknown type kind: " + kind);
+        }
+        return code;
+    }
+
+    /**
+     * Reads the types of a stored file, with their methods.
+     *
+     * @param input The stream positioned on the number of types.
+     * @return The types of the file.
+     * @throws IOException If the types cannot be read.
+     */
+    private static List<SourceType> readTypes(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<SourceType> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = input.readUTF();
+            String kind = TYPE_KINDS[input.readByte()];
+            int physicalLOC = input.readInt();
+            int methodCount = input.readInt();
+            List<SourceMethod> methods = new ArrayList<>(methodCount);
+            for (int j = 0; j < methodCount; j++) {
+                methods.add(new SourceMethod(input.readUTF(), input.readInt()));
+            }
+            types.add(new SourceType(name, kind, physicalLOC, methods));
+        }
+        return types;
+    }
+
+    /**
+     * Writes the types of a file, with their methods.
+     *
+     * @param output The stream that receives the types.
+     * @param types  The types of the file.
+     * @throws IOException If the types cannot be written.
+     */
+    private static void writeTypes(DataOutputStream output, List<SourceType> types) throws IOException {
+        output.writeInt(types.size());
+        for (SourceType type : types) {
+            output.writeUTF(type.name());
+            output.writeByte(getTypeKindCode(type.kind()));
+            output.writeInt(type.physicalLOC());
+            output.writeInt(type.numOfMethods());
+            for (SourceMethod method : type.methods()) {
+                output.writeUTF(method.name());
+                output.writeInt(method.physicalLOC());
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the file of a path without creating a {@link Path}.
+     *
+     * @param path The path of the file.
+     * @return The last element of the path.
+     */
+    private static String getFilename(String path) {
+        int separator = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        return path.substring(separator + 1);
+    }
+}
@@ -0,0 +1,269 @@
+package com.mantenimiento.morado.code.cache;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code ContentCache} class reuses the result of a source file for every other file with the same bytes,
+ * and measures how much of the analyzed code is duplicated.
+ * <p>
+ * The content of each file is hashed with a fast 64-bit non-cryptographic hash once it is read. Files are
+ * taken as identical when their hash, size and extension are the same; the extension is part of the key
+ * because it decides the language the bytes are analyzed as. A reused result gets the name of the new file,
+ * and so does the module type of the languages that have one.
+ * </p>
+ * <p>
+ * The results are kept in a map in least-recently-used order that holds at most {@code capacity} entries,
+ * so the memory used stays the same whatever the size of the tree. A copy seen after its result was evicted
+ * is analyzed again and is not counted as a duplicate, so the reported duplication is a lower bound once
+ * results start being evicted. The cache lives for a single run and is safe to use from several threads.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class ContentCache {
+    /**
+     * The number of results kept by default.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final int capacity;
+    private final Map<Key, SourceFile> results;
+    private final LongAdder files = new LongAdder();
+    private final LongAdder physicalLOC = new LongAdder();
+    private final LongAdder duplicateFiles = new LongAdder();
+    private final LongAdder duplicatePhysicalLOC = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * What identifies the content of a file.
+     *
+     * @param hash      the hash of the bytes of the file
+     * @param size      the size of the file in bytes
+     * @param extension the extension of the file, which decides its language
+     */
+    private record Key(long hash, int size, String extension) {
+    }
+
+    /**
+     * Constructs a cache that keeps the results of at most {@code capacity} distinct contents.
+     *
+     * @param capacity The maximum number of results kept.
+     * @throws IllegalArgumentException if {@code capacity} is less than 1.
+     */
+    public ContentCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SourceFile> eldest) {
+                if (size() > ContentCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the result of a file with the same content, or analyzes the content and stores its result.
+     * <p>
+     * The position of the buffer is not changed by the hash, so the analyzer reads the whole content.
+     * </p>
+     *
+     * @param filename The name of the source file.
+     * @param content  The bytes of the source file.
+     * @param analyzer The analysis to run when no file with the same content was seen.
+     * @return The result of the analysis of the file.
+     */
+    public SourceFile analyze(String filename, ByteBuffer content,
+                              BiFunction<String, ByteBuffer, SourceFile> analyzer) {
+        Key key = new Key(hash(content), content.remaining(), getExtension(filename));
+        SourceFile file;
+        synchronized (results) {
+            file = results.get(key);
+        }
+        if (file != null) {
+            file = withFilename(file, filename);
+            record(file, true);
+            return file;
+        }
+
+        file = analyzer.apply(filename, content);
+        SourceFile previous;
+        synchronized (results) {
+            previous = results.putIfAbsent(key, file);
+        }
+        // Another thread may have analyzed a copy of the same content meanwhile
+        record(file, previous != null);
+        return file;
+    }
+
+    /**
+     * Adds a file to the totals.
+     *
+     * @param file      The result of the file.
+     * @param duplicate {@code true} if a file with the same content was seen before.
+     */
+    private void record(SourceFile file, boolean duplicate) {
+        files.increment();
+        physicalLOC.add(file.physicalLOC());
+        if (duplicate) {
+            duplicateFiles.increment();
+            duplicatePhysicalLOC.add(file.physicalLOC());
+        }
+    }
+
+    /**
+     * Hashes the remaining bytes of a buffer without changing its position.
+     * <p>
+     * The bytes are read eight at a time and mixed with the multiply-rotate rounds of xxHash64, and the
+     * result is finished with the avalanche of MurmurHash3, so files that differ in a single byte get
+     * unrelated hashes.
+     * </p>
+     *
+     * @param content The bytes to hash.
+     * @return The 64-bit hash of the bytes.
+     */
+    static long hash(ByteBuffer content) {
+        ByteBuffer bytes = content.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int index = bytes.position();
+        int end = bytes.limit();
+        long hash = PRIME_2 ^ (end - index);
+        for (; index + Long.BYTES <= end; index += Long.BYTES) {
+            hash = Long.rotateLeft(hash ^ bytes.getLong(index) * PRIME_2, 31) * PRIME_1;
+        }
+
+        long tail = 0;
+        for (int shift = 0; index < end; index++, shift += Byte.SIZE) {
+            tail |= (bytes.get(index) & 0xFFL) << shift;
+        }
+        hash = Long.rotateLeft(hash ^ tail * PRIME_2, 31) * PRIME_1;
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Returns the result of a file under the name of another file with the same content.
+     *
+     * @param file     The stored result.
+     * @param filename The name of the other file.
+     * @return The result with the name of the other file, and its module type renamed after it.
+     */
+    private static SourceFile withFilename(SourceFile file, String filename) {
+        if (file.filename().equals(filename)) {
+            return file;
+        }
+
+        String moduleName = getStem(file.filename());
+        List<SourceType> types = file.types();
+        if (types.stream().anyMatch(type -> isModule(type, moduleName))) {
+            types = new ArrayList<>(types);
+            types.replaceAll(type -> isModule(type, moduleName)
+                ? new SourceType(getStem(filename), type.kind(), type.physicalLOC(), type.methods())
+                : type);
+        }
+        return new SourceFile(filename, file.physicalLOC(), file.numOfMethods(), file.status(), file.packageName(),
+            types);
+    }
+
+    /**
+     * @param type       A type of a file.
+     * @param moduleName The name of the module of the file.
+     * @return {@code true} if the type is the module of the file.
+     */
+    private static boolean isModule(SourceType type, String moduleName) {
+        return type.kind().equals(Constants.TYPE_KIND_MODULE) && type.name().equals(moduleName);
+    }
+
+    /**
+     * @param filename The name of a file.
+     * @return The extension of the file with its dot, or an empty string when it has none.
+     */
+    private static String getExtension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot);
+    }
+
+    /**
+     * @param filename The name of a file.
+     * @return The name of the file without its extension.
+     */
+    private static String getStem(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? filename : filename.substring(0, dot);
+    }
+
+    /**
+     * @return The number of files seen.
+     */
+    public long getFiles() {
+        return files.sum();
+    }
+
+    /**
+     * @return The number of files whose content was seen in a previous file.
+     */
+    public long getDuplicateFiles() {
+        return duplicateFiles.sum();
+    }
+
+    /**
+     * @return The physical LOC of the files whose content was seen in a previous file.
+     */
+    public long getDuplicatePhysicalLOC() {
+        return duplicatePhysicalLOC.sum();
+    }
+
+    /**
+     * Prints how many files and lines of code are copies of a previous file.
+     *
+     * @param output The stream where the summary is printed, usually the standard error.
+     */
+    public void printSummary(PrintStream output) {
+        long totalFiles = files.sum();
+        long totalLOC = physicalLOC.sum();
+        int cachedResults;
+        synchronized (results) {
+            cachedResults = results.size();
+        }
+        output.println("Duplicates");
+        output.printf(Locale.ROOT, "%-16s %10d of %10d (%5.1f%%)%n", "Files",
+            duplicateFiles.sum(), totalFiles, getPercentage(duplicateFiles.sum(), totalFiles));
+        output.printf(Locale.ROOT, "%-16s %10d of %10d (%5.1f%%)%n", "LOC",
+            duplicatePhysicalLOC.sum(), totalLOC, getPercentage(duplicatePhysicalLOC.sum(), totalLOC));
+        output.printf(Locale.ROOT, "%-16s %10d of %10d, %d evicted%n", "Cached results",
+            cachedResults, capacity, evictions.sum());
+    }
+
+    /**
+     * @param part  A part of the total.
+     * @param total The total.
+     * @return The part as a percentage of the total, {@code 0} when the total is {@code 0}.
+     */
+    private static double getPercentage(long part, long total) {
+        return total == 0 ? 0 : 100.0 * part / total;
+    }
+}
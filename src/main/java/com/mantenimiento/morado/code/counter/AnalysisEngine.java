@@ -0,0 +1,294 @@
+package com.mantenimiento.morado.code.counter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import com.mantenimiento.morado.code.cache.AnalysisCache;
+import com.mantenimiento.morado.code.cache.ContentCache;
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.stats.AnalysisStatistics;
+import com.mantenimiento.morado.code.syntax.ByteLineScanner;
+import com.mantenimiento.morado.code.syntax.FileScanner;
+import com.mantenimiento.morado.code.syntax.JavaLexer;
+import com.mantenimiento.morado.code.syntax.JavaStructure;
+import com.mantenimiento.morado.code.syntax.LineMatcher;
+import com.mantenimiento.morado.code.syntax.SourceLexer;
+import com.mantenimiento.morado.code.syntax.SourceStructure;
+import com.mantenimiento.morado.code.syntax.SyntaxAnalyzer;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code AnalysisEngine} class analyzes a Java source file in a single pass over its lines.
+ * <p>
+ * Each file is read only once, as bytes. While walking its lines, the engine checks the style rules of
+ * {@link SyntaxAnalyzer}, separates code from comments with a {@link JavaLexer}, counts the physical lines
+ * of code the same way {@link LOCCounter} does, and follows the types and methods of the file with a
+ * {@link JavaStructure}. The style rules are applied by a single {@link LineMatcher} per file.
+ * </p>
+ * <p>
+ * The resulting {@link SourceFile} has the same values and status that the separate calls to
+ * {@link SyntaxAnalyzer#isJavaFileWellWritten(String)}, {@link LOCCounter#countLOC(String)} and
+ * {@link SyntaxAnalyzer#isClassJavaFile(String)} produce.
+ * </p>
+ * <p>
+ * Files of the other languages of the {@link LanguageRegistry} are analyzed in the same single pass by a
+ * {@link SourceLexer} and a {@link SourceStructure} configured with the profile of their language. The
+ * {@link FileScanner} of the language of each file makes that choice.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class AnalysisEngine {
+    /**
+     * Size in bytes from which a file is memory-mapped instead of read into the heap.
+     */
+    public static final int MAPPING_THRESHOLD = 1 << 20;
+
+    /**
+     * Reads the specified file once and analyzes its content.
+     * <p>
+     * If the file cannot be read, an error message is printed and a {@code SourceFile} with zero LOC and
+     * the error status is returned.
+     * </p>
+     *
+     * @param filePath The path of the Java source file to be analyzed.
+     * @return A {@code SourceFile} object with the file's name, physical LOC, number of methods
+     *         and the Java file status constant from {@link Constants}.
+     */
+    public static SourceFile analyze(String filePath) {
+        return analyze(filePath, (AnalysisStatistics) null);
+    }
+
+    /**
+     * Reads the specified file once and analyzes its content, recording the time spent in each step.
+     *
+     * @param filePath   The path of the Java source file to be analyzed.
+     * @param statistics The statistics where the file is recorded, or {@code null} to record nothing.
+     * @return A {@code SourceFile} object with the file's name, physical LOC, number of methods
+     *         and the Java file status constant from {@link Constants}.
+     */
+    public static SourceFile analyze(String filePath, AnalysisStatistics statistics) {
+        return analyze(filePath, statistics, null);
+    }
+
+    /**
+     * Reads the specified file once and analyzes its content, reusing the result of a previous file with the
+     * same content.
+     *
+     * @param filePath   The path of the Java source file to be analyzed.
+     * @param statistics The statistics where the file is recorded, or {@code null} to record nothing.
+     * @param contents   The results of the contents seen so far, or {@code null} to analyze every file.
+     * @return A {@code SourceFile} object with the file's name, physical LOC, number of methods
+     *         and the Java file status constant from {@link Constants}.
+     */
+    public static SourceFile analyze(String filePath, AnalysisStatistics statistics, ContentCache contents) {
+        return analyze(Paths.get(filePath), statistics, contents);
+    }
+
+    /**
+     * Reads a file of any file system once and analyzes its content, reusing the result of a previous file
+     * with the same content.
+     * <p>
+     * The file may be an entry of a JAR or ZIP archive opened as a file system, in which case it is read
+     * directly from the archive.
+     * </p>
+     *
+     * @param path       The path of the Java source file to be analyzed.
+     * @param statistics The statistics where the file is recorded, or {@code null} to record nothing.
+     * @param contents   The results of the contents seen so far, or {@code null} to analyze every file.
+     * @return A {@code SourceFile} object with the file's name, physical LOC, number of methods
+     *         and the Java file status constant from {@link Constants}.
+     */
+    public static SourceFile analyze(Path path, AnalysisStatistics statistics, ContentCache contents) {
+        long start = statistics == null ? 0 : System.nanoTime();
+        ByteBuffer content;
+        try {
+            content = readContent(path);
+        } catch (IOException ioException) {
+            return getUnreadableFile(path.getFileName().toString(), ioException);
+        }
+        return analyzeContent(path, content, start, statistics, contents);
+    }
+
+    /**
+     * Reads a file of any file system once and analyzes its content, unless a cache has a result stored
+     * since the file last changed.
+     * <p>
+     * Only the files of the default file system are looked up in the cache and stored in it. The result of a
+     * file that cannot be read is never stored, so the file is read again as soon as it can be, even if its
+     * size and last-modified time stay the same.
+     * </p>
+     *
+     * @param path       The path of the Java source file to be analyzed.
+     * @param statistics The statistics where the file is recorded, or {@code null} to record nothing.
+     * @param contents   The results of the contents seen so far, or {@code null} to analyze every file.
+     * @param cache      The cache of previous results, or {@code null} to analyze every file.
+     * @return A {@code SourceFile} object with the file's name, physical LOC, number of methods
+     *         and the Java file status constant from {@link Constants}.
+     */
+    public static SourceFile analyze(Path path, AnalysisStatistics statistics, ContentCache contents,
+                                     AnalysisCache cache) {
+        if (cache == null || !AnalysisCache.canStore(path)) {
+            return analyze(path, statistics, contents);
+        }
+
+        // The stamp is read before the analysis, so a file changed meanwhile is analyzed again next time
+        String filePath = path.toString();
+        AnalysisCache.FileStamp stamp = cache.getStamp(filePath);
+        SourceFile file = cache.get(filePath, stamp);
+        if (file != null) {
+            return file;
+        }
+
+        long start = statistics == null ? 0 : System.nanoTime();
+        ByteBuffer content;
+        try {
+            content = readContent(path);
+        } catch (IOException ioException) {
+            return getUnreadableFile(path.getFileName().toString(), ioException);
+        }
+        file = analyzeContent(path, content, start, statistics, contents);
+        cache.put(filePath, stamp, file);
+        return file;
+    }
+
+    /**
+     * Analyzes the content read from a file, reusing the result of a previous file with the same content.
+     *
+     * @param path       The path of the file.
+     * @param content    The content of the file.
+     * @param start      When the file started to be read, used only when there are statistics.
+     * @param statistics The statistics where the file is recorded, or {@code null} to record nothing.
+     * @param contents   The results of the contents seen so far, or {@code null} to analyze every file.
+     * @return The result of the analysis.
+     */
+    private static SourceFile analyzeContent(Path path, ByteBuffer content, long start,
+                                             AnalysisStatistics statistics, ContentCache contents) {
+        String filename = path.getFileName().toString();
+        if (statistics == null) {
+            return contents == null ? analyze(filename, content) : contents.analyze(filename, content,
+                AnalysisEngine::analyze);
+        }
+
+        long read = System.nanoTime();
+        int size = content.remaining();
+        SourceFile file = contents == null ? analyze(filename, content, statistics) : contents.analyze(filename,
+            content, (name, bytes) -> analyze(name, bytes, statistics));
+        statistics.recordFile(path.toString(), size, read - start, System.nanoTime() - read);
+        return file;
+    }
+
+    /**
+     * Reports a file that could not be read.
+     * <p>
+     * An error message is printed and the file is counted with zero LOC and an error status, so it is not
+     * mistaken for an empty file that was analyzed.
+     * </p>
+     *
+     * @param filename    The name of the source file.
+     * @param ioException The error raised while reading the file.
+     * @return A {@code SourceFile} with zero LOC and the error status.
+     */
+    static SourceFile getUnreadableFile(String filename, IOException ioException) {
+        System.err.println("Error while processing file: " + ioException.getMessage());
+        return new SourceFile(filename, 0, 0, Constants.JAVA_FILE_STATUS_ERROR);
+    }
+
+    /**
+     * Reads the content of a file as bytes.
+     * <p>
+     * Files of at least {@value #MAPPING_THRESHOLD} bytes are memory-mapped, so their content is never
+     * copied to the heap. Smaller files are read into a heap buffer, which is cheaper than mapping them.
+     * Entries of an archive cannot be mapped, so they are always inflated into a heap buffer.
+     * </p>
+     *
+     * @param path The path of the file.
+     * @return A buffer with the content of the file, positioned at its first byte.
+     * @throws IOException If the file cannot be read or is too large to be mapped.
+     */
+    public static ByteBuffer readContent(Path path) throws IOException {
+        if (path.getFileSystem() != FileSystems.getDefault()) {
+            return ByteBuffer.wrap(Files.readAllBytes(path));
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            ByteBuffer content = ByteBuffer.allocate((int) size);
+            while (content.hasRemaining() && channel.read(content) >= 0) {
+                // Reads until the buffer is full or the end of the file
+            }
+            return content.flip();
+        }
+    }
+
+    /**
+     * Analyzes the content of a Java source file in a single pass over its bytes.
+     * <p>
+     * Lines are classified with a {@link ByteLineScanner} without building a {@code String} per line; a line is
+     * decoded only when it may match one of the regular expressions of {@link LineMatcher}. The analysis stops
+     * at the first line that breaks a style rule, since a file that is not well written is reported with zero LOC.
+     * </p>
+     *
+     * @param filename The name of the source file.
+     * @param content  The bytes of the source file, encoded in UTF-8.
+     * @return A {@code SourceFile} with status OK, "No class" or "Bad file".
+     */
+    public static SourceFile analyze(String filename, ByteBuffer content) {
+        return analyzeLines(filename, new ByteLineScanner(content));
+    }
+
+    /**
+     * Analyzes the content of a Java source file and records the number of lines scanned.
+     *
+     * @param filename   The name of the source file.
+     * @param content    The bytes of the source file, encoded in UTF-8.
+     * @param statistics The statistics where the lines are added.
+     * @return A {@code SourceFile} with status OK, "No class" or "Bad file".
+     */
+    public static SourceFile analyze(String filename, ByteBuffer content, AnalysisStatistics statistics) {
+        ByteLineScanner line = new ByteLineScanner(content);
+        SourceFile file = analyzeLines(filename, line);
+        statistics.addLines(line.getLineNumber());
+        return file;
+    }
+
+    /**
+     * Analyzes the lines of a source file as the scanner walks them.
+     * <p>
+     * The lines are scanned by the {@link FileScanner} of the language of the file; files of unknown languages
+     * are scanned as Java. The style rules of the language are checked on every line, and the first line that
+     * breaks them makes the file a "Bad file".
+     * </p>
+     *
+     * @param filename The name of the source file.
+     * @param line     The scanner over the content of the file, before its first line.
+     * @return A {@code SourceFile} with status OK and the types of the file, "No class" or "Bad file".
+     */
+    private static SourceFile analyzeLines(String filename, ByteLineScanner line) {
+        LanguageProfile profile = LanguageRegistry.forFilename(filename);
+        FileScanner scanner = FileScanner.forProfile(profile == null ? LanguageRegistry.JAVA : profile);
+        int physicalLOC = 0;
+        while (line.nextLine()) {
+            if (!scanner.isWellWrittenLine(line)) {
+                return new SourceFile(filename, 0, 0, Constants.JAVA_FILE_STATUS_ERROR);
+            }
+
+            if (scanner.scanLine(line)) {
+                physicalLOC++;
+            }
+        }
+        return scanner.getResult(filename, physicalLOC);
+    }
+}
@@ -0,0 +1,336 @@
+package com.mantenimiento.morado.code.counter;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.mantenimiento.morado.code.cache.AnalysisCache;
+import com.mantenimiento.morado.code.cache.ContentCache;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.stats.AnalysisStatistics;
+
+/**
+ * The {@code AnalysisPipeline} class separates reading source files from analyzing them.
+ * <p>
+ * Reads are issued by many reader threads at once, which suits file systems where reading
+ * mostly waits on latency, such as NFS mounts. When the runtime supports virtual threads,
+ * every read runs on its own virtual thread; otherwise a fixed pool of platform threads is used.
+ * The bytes read are handed through a bounded queue to a small fixed pool of workers that run
+ * the {@link AnalysisEngine} on them, so the CPU is not oversubscribed.
+ * </p>
+ * <p>
+ * At most {@code capacity} files are being read or waiting in the queue at any time.
+ * {@link #submit(String)} blocks once that limit is reached, which keeps the heap bounded
+ * whatever the size of the tree.
+ * </p>
+ * <p>
+ * When an {@link AnalysisCache} is given, the readers look up each file first and skip reading the
+ * files that did not change.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class AnalysisPipeline implements AutoCloseable {
+    private static final ReadFile END_OF_FILES = new ReadFile(null, null, null, null, 0, null);
+
+    private final ExecutorService readers;
+    private final Thread[] workers;
+    private final BlockingQueue<ReadFile> readFiles;
+    private final Semaphore inFlight;
+    private final AnalysisCache cache;
+    private final AnalysisStatistics statistics;
+    private final ContentCache contents;
+
+    /**
+     * Content of a file that was read and waits to be analyzed.
+     *
+     * @param filePath  the path of the source file
+     * @param filename  the name of the source file
+     * @param stamp     the stamp of the file before it was read, used to store the result in the cache
+     * @param content   the bytes of the file
+     * @param readNanos the time spent reading the file
+     * @param result    the pending result of the analysis
+     */
+    private record ReadFile(String filePath, String filename, AnalysisCache.FileStamp stamp,
+                            ByteBuffer content, long readNanos, CompletableFuture<SourceFile> result) {
+    }
+
+    /**
+     * Constructs a new pipeline and starts its workers.
+     *
+     * @param capacity The maximum number of files being read or waiting to be analyzed.
+     * @param workers  The number of threads that analyze the files.
+     * @throws IllegalArgumentException if {@code capacity} or {@code workers} is less than 1.
+     */
+    public AnalysisPipeline(int capacity, int workers) {
+        this(capacity, workers, null);
+    }
+
+    /**
+     * Constructs a new pipeline that reuses the results stored in a cache, and starts its workers.
+     *
+     * @param capacity The maximum number of files being read or waiting to be analyzed.
+     * @param workers  The number of threads that analyze the files.
+     * @param cache    The cache of previous results, or {@code null} to analyze every file.
+     * @throws IllegalArgumentException if {@code capacity} or {@code workers} is less than 1.
+     */
+    public AnalysisPipeline(int capacity, int workers, AnalysisCache cache) {
+        this(capacity, workers, cache, null);
+    }
+
+    /**
+     * Constructs a new pipeline that reuses the results stored in a cache and records the time spent reading
+     * and analyzing each file, and starts its workers.
+     *
+     * @param capacity   The maximum number of files being read or waiting to be analyzed.
+     * @param workers    The number of threads that analyze the files.
+     * @param cache      The cache of previous results, or {@code null} to analyze every file.
+     * @param statistics The statistics where the files are recorded, or {@code null} to record nothing.
+     * @throws IllegalArgumentException if {@code capacity} or {@code workers} is less than 1.
+     */
+    public AnalysisPipeline(int capacity, int workers, AnalysisCache cache, AnalysisStatistics statistics) {
+        this(capacity, workers, cache, statistics, null);
+    }
+
+    /**
+     * Constructs a new pipeline that also reuses the result of a previous file with the same content, and
+     * starts its workers.
+     *
+     * @param capacity   The maximum number of files being read or waiting to be analyzed.
+     * @param workers    The number of threads that analyze the files.
+     * @param cache      The cache of previous results, or {@code null} to analyze every file.
+     * @param statistics The statistics where the files are recorded, or {@code null} to record nothing.
+     * @param contents   The results of the contents seen so far, or {@code null} to analyze every content.
+     * @throws IllegalArgumentException if {@code capacity} or {@code workers} is less than 1.
+     */
+    public AnalysisPipeline(int capacity, int workers, AnalysisCache cache, AnalysisStatistics statistics,
+                            ContentCache contents) {
+        if (capacity < 1 || workers < 1) {
+            throw new IllegalArgumentException("The capacity and the number of workers must be at least 1");
+        }
+
+        this.cache = cache;
+        this.statistics = statistics;
+        this.contents = contents;
+        this.readers = newReaderExecutor(capacity);
+        this.readFiles = new ArrayBlockingQueue<>(capacity);
+        this.inFlight = new Semaphore(capacity);
+        this.workers = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Thread(this::analyzeReadFiles, "analysis-worker-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Submits a file to be read and analyzed.
+     * <p>
+     * This method blocks while the pipeline is full.
+     * </p>
+     *
+     * @param filePath The path of the Java source file.
+     * @return The pending result of the analysis.
+     * @throws IllegalStateException if the thread is interrupted while waiting for room in the pipeline.
+     */
+    public Future<SourceFile> submit(String filePath) {
+        return submit(Paths.get(filePath));
+    }
+
+    /**
+     * Submits a file of any file system, such as an entry of an archive, to be read and analyzed.
+     * <p>
+     * This method blocks while the pipeline is full. The cache is only used for the files of the default
+     * file system.
+     * </p>
+     *
+     * @param path The path of the Java source file.
+     * @return The pending result of the analysis.
+     * @throws IllegalStateException if the thread is interrupted while waiting for room in the pipeline.
+     */
+    public Future<SourceFile> submit(Path path) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to submit a file", interruptedException);
+        }
+
+        CompletableFuture<SourceFile> result = new CompletableFuture<>();
+        readers.execute(() -> read(path, result));
+        return result;
+    }
+
+    /**
+     * Reads a file and puts its lines in the queue of the workers.
+     * A file that cannot be read, or whose result is in the cache, is completed right away without going
+     * through the queue.
+     *
+     * @param path   The path of the Java source file.
+     * @param result The pending result of the analysis.
+     */
+    private void read(Path path, CompletableFuture<SourceFile> result) {
+        String filePath = path.toString();
+        String filename = path.getFileName().toString();
+        try {
+            AnalysisCache.FileStamp stamp = null;
+            if (cache != null && AnalysisCache.canStore(path)) {
+                stamp = cache.getStamp(filePath);
+                SourceFile cachedFile = cache.get(filePath, stamp);
+                if (cachedFile != null) {
+                    complete(result, cachedFile);
+                    return;
+                }
+            }
+            long start = System.nanoTime();
+            ByteBuffer content = AnalysisEngine.readContent(path);
+            readFiles.put(new ReadFile(filePath, filename, stamp, content, System.nanoTime() - start, result));
+        } catch (IOException ioException) {
+            complete(result, AnalysisEngine.getUnreadableFile(filename, ioException));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            inFlight.release();
+            result.completeExceptionally(interruptedException);
+        } catch (RuntimeException runtimeException) {
+            inFlight.release();
+            result.completeExceptionally(runtimeException);
+        }
+    }
+
+    /**
+     * Takes read files from the queue and analyzes them until the pipeline is closed.
+     */
+    private void analyzeReadFiles() {
+        try {
+            ReadFile readFile;
+            while ((readFile = readFiles.take()) != END_OF_FILES) {
+                try {
+                    SourceFile file = analyze(readFile);
+                    if (cache != null) {
+                        cache.put(readFile.filePath(), readFile.stamp(), file);
+                    }
+                    complete(readFile.result(), file);
+                } catch (RuntimeException runtimeException) {
+                    inFlight.release();
+                    readFile.result().completeExceptionally(runtimeException);
+                }
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Analyzes a read file, recording it in the statistics when there are any.
+     *
+     * @param readFile The read file.
+     * @return The result of the analysis.
+     */
+    private SourceFile analyze(ReadFile readFile) {
+        if (statistics == null) {
+            return analyzeContent(readFile.filename(), readFile.content());
+        }
+
+        long start = System.nanoTime();
+        int size = readFile.content().remaining();
+        SourceFile file = analyzeContent(readFile.filename(), readFile.content());
+        statistics.recordFile(readFile.filePath(), size, readFile.readNanos(), System.nanoTime() - start);
+        return file;
+    }
+
+    /**
+     * Analyzes the content of a file, or reuses the result of a previous file with the same content.
+     *
+     * @param filename The name of the file.
+     * @param content  The bytes of the file.
+     * @return The result of the analysis.
+     */
+    private SourceFile analyzeContent(String filename, ByteBuffer content) {
+        if (contents == null) {
+            return analyzeBytes(filename, content);
+        }
+        return contents.analyze(filename, content, this::analyzeBytes);
+    }
+
+    /**
+     * Analyzes the bytes of a file, adding its lines to the statistics when there are any.
+     *
+     * @param filename The name of the file.
+     * @param content  The bytes of the file.
+     * @return The result of the analysis.
+     */
+    private SourceFile analyzeBytes(String filename, ByteBuffer content) {
+        if (statistics == null) {
+            return AnalysisEngine.analyze(filename, content);
+        }
+        return AnalysisEngine.analyze(filename, content, statistics);
+    }
+
+    /**
+     * Completes a result and frees its place in the pipeline.
+     *
+     * @param result The pending result.
+     * @param file   The analyzed file.
+     */
+    private void complete(CompletableFuture<SourceFile> result, SourceFile file) {
+        inFlight.release();
+        result.complete(file);
+    }
+
+    /**
+     * Waits for the submitted files to be analyzed and stops the readers and workers.
+     */
+    @Override
+    public void close() {
+        readers.shutdown();
+        try {
+            readers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            for (int i = 0; i < workers.length; i++) {
+                readFiles.put(END_OF_FILES);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            readers.shutdownNow();
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Creates the executor that reads the files.
+     * <p>
+     * Virtual threads are used when the runtime provides them (Java 21 or later). The method is looked up
+     * reflectively so the application still runs on older runtimes, where a fixed pool of
+     * {@code concurrentReads} platform threads is used instead.
+     * </p>
+     *
+     * @param concurrentReads The maximum number of reads in progress at the same time.
+     * @return The executor for the reads.
+     */
+    private static ExecutorService newReaderExecutor(int concurrentReads) {
+        try {
+            Method newVirtualThreadExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) newVirtualThreadExecutor.invoke(null);
+        } catch (ReflectiveOperationException reflectiveOperationException) {
+            return Executors.newFixedThreadPool(concurrentReads, runnable -> {
+                Thread thread = new Thread(runnable, "file-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
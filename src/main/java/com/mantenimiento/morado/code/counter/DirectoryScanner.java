@@ -2,16 +2,35 @@ package com.mantenimiento.morado.code.counter;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.mantenimiento.morado.code.ignore.IgnoreRules;
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+
 /**
  * The {@code DirectoryScanner} class is responsible for scanning a given directory and its
  * subdirectories to retrieve Java source files and subdirectories.
+ * <p>
+ * By default only Java files are retrieved. A scanner can be given other languages of the
+ * {@link LanguageRegistry}, whose files are then retrieved in the same walk as the "Java files".
+ * </p>
  *
  * @author Rubén Alvarado
  * @author Diana Vazquez
@@ -20,6 +39,8 @@ import java.util.stream.Stream;
  */
 public class DirectoryScanner {
     private final String directoryPath;
+    private final IgnoreRules ignoreRules;
+    private final List<LanguageProfile> languages;
 
     /**
      * Constructs a new DirectoryScanner with the specified directory path
@@ -27,7 +48,31 @@ public class DirectoryScanner {
      * @param directoryPath The path to the directory containing Java source files or subdirectories.
      */
     public DirectoryScanner(String directoryPath) {
+        this(directoryPath, null);
+    }
+
+    /**
+     * Constructs a new DirectoryScanner that leaves out the files and directories excluded by ignore rules
+     * while it walks the tree.
+     *
+     * @param directoryPath The path to the directory containing Java source files or subdirectories.
+     * @param ignoreRules   The rules of the directory, or {@code null} to walk every directory.
+     */
+    public DirectoryScanner(String directoryPath, IgnoreRules ignoreRules) {
+        this(directoryPath, ignoreRules, List.of(LanguageRegistry.JAVA));
+    }
+
+    /**
+     * Constructs a new DirectoryScanner that retrieves the source files of several languages.
+     *
+     * @param directoryPath The path to the directory containing source files or subdirectories.
+     * @param ignoreRules   The rules of the directory, or {@code null} to walk every directory.
+     * @param languages     The languages whose files are retrieved.
+     */
+    public DirectoryScanner(String directoryPath, IgnoreRules ignoreRules, List<LanguageProfile> languages) {
         this.directoryPath = directoryPath;
+        this.ignoreRules = ignoreRules;
+        this.languages = languages;
     }
 
     /**
@@ -42,7 +87,7 @@ public class DirectoryScanner {
      */
     public List<String> getJavaFiles(Path subdirectory) {
         if (Files.isRegularFile(subdirectory)) {
-            return subdirectory.toString().endsWith(".java") ? List.of(subdirectory.toString()) : List.of();
+            return isSourceFilename(subdirectory.toString()) ? List.of(subdirectory.toString()) : List.of();
         }
 
         try (Stream<Path> paths = getFilePaths(subdirectory)) {
@@ -58,19 +103,93 @@ public class DirectoryScanner {
      * This method walks through the directory tree recursively and collects all directories found.
      *
      * @return A list of Paths representing all subdirectories in the given directory.
-     *         If an error occurs while accessing the directory, an empty list is returned.
+     *         Directories that cannot be read are left out.
      */
     public List<Path> getSubdirectories () {
-        try {
-            Stream<Path> paths = Files.walk(Paths.get(directoryPath));
-            return paths
-            .filter(Files::isDirectory)
-            .collect(Collectors.toList());
-            
-        } catch (IOException ioException) {
-            System.err.println("Error while trying to read directory path: " + ioException.getMessage());
+        return new ArrayList<>(getJavaFilesByDirectory().keySet());
+    }
+
+    /**
+     * Retrieves the Java source files (*.java) of the directory and all its subdirectories, grouped by directory.
+     * <p>
+     * The directories come in the same order as {@link #iterateJavaFilesByDirectory()}, each one before its
+     * subdirectories, and the files of a directory keep the order in which the directory lists them.
+     * Directories without Java files are included with an empty list.
+     * </p>
+     * <p>
+     * The whole tree is held in memory. Use {@link #iterateJavaFilesByDirectory()} to process the directories
+     * while the tree is walked.
+     * </p>
+     *
+     * @return A map from each directory to the absolute paths of its Java files.
+     */
+    public Map<Path, List<String>> getJavaFilesByDirectory() {
+        Map<Path, List<String>> javaFilesByDirectory = new LinkedHashMap<>();
+        Iterator<Map.Entry<Path, List<String>>> directories = iterateJavaFilesByDirectory();
+        while (directories.hasNext()) {
+            Map.Entry<Path, List<String>> directory = directories.next();
+            javaFilesByDirectory.put(directory.getKey(), directory.getValue());
         }
-        return List.of();
+        return javaFilesByDirectory;
+    }
+
+    /**
+     * Walks the directory and all its subdirectories lazily, listing each directory only when the iterator
+     * reaches it.
+     * <p>
+     * The tree is walked in pre-order with an explicit stack: each directory is opened once with a
+     * {@link DirectoryStream}, its Java files are returned with it and its subdirectories are pushed on the
+     * stack in the order the directory lists them. Only the Java files of the current directory and the
+     * subdirectories still to be visited along the current path are held in memory, so the memory used does
+     * not grow with the number of files in the tree and the first directory is returned before the rest of
+     * the tree is read. Symbolic links to directories are not followed.
+     * </p>
+     * <p>
+     * The order is the same as a walk with {@link Files#walkFileTree}. Directories that cannot be read are
+     * reported on the standard error and skipped. When the scanner has {@link IgnoreRules}, excluded files are
+     * left out and excluded directories are never opened.
+     * </p>
+     *
+     * @return An iterator over every directory with the absolute paths of its Java files.
+     */
+    public Iterator<Map.Entry<Path, List<String>>> iterateJavaFilesByDirectory() {
+        return iterateJavaFilesByDirectory(Paths.get(directoryPath));
+    }
+
+    /**
+     * Walks a directory and all its subdirectories lazily, in the same way as
+     * {@link #iterateJavaFilesByDirectory()}.
+     * <p>
+     * The directory may belong to another file system than the default one, such as the root of a JAR or ZIP
+     * archive opened as a file system, so its entries are listed without extracting them. The paths of the
+     * files are then those of that file system.
+     * </p>
+     *
+     * @param root The directory where the walk starts.
+     * @return An iterator over every directory with the paths of its Java files.
+     */
+    public Iterator<Map.Entry<Path, List<String>>> iterateJavaFilesByDirectory(Path root) {
+        return new DirectoryIterator(root);
+    }
+
+    /**
+     * Checks whether an entry found while walking the tree is a source file of the scanned languages.
+     * Symbolic links are resolved only when they have the extension of a scanned language, the attributes of
+     * any other entry are reused.
+     *
+     * @param file       The path of the entry.
+     * @param attributes The attributes read for the entry during the walk.
+     * @return {@code true} if the entry is a regular file with the extension of a scanned language.
+     * @throws IOException If the target of a symbolic link cannot be read.
+     */
+    private boolean isJavaFile(Path file, BasicFileAttributes attributes) throws IOException {
+        if (!isSourceFilename(file.getFileName().toString())) {
+            return false;
+        }
+        if (attributes.isSymbolicLink()) {
+            return Files.readAttributes(file, BasicFileAttributes.class).isRegularFile();
+        }
+        return attributes.isRegularFile();
     }
 
     /**
@@ -104,7 +223,7 @@ public class DirectoryScanner {
     }
 
     /**
-     * Filters a stream of file paths to include only Java source files.
+     * Filters a stream of file paths to include only source files of the scanned languages.
      * A Java source file is determined by a filename that ends with ".java".
      *
      * @param paths A {@code Stream<Path>} containing file paths to be filtered
@@ -113,10 +232,128 @@ public class DirectoryScanner {
     private List<String> filterJavaFiles(Stream<Path> paths) {
         return paths
                 .map(Path::toString)
-                .filter(string -> string.endsWith(".java"))
+                .filter(this::isSourceFilename)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Iterator that lists one directory at a time and keeps the directories still to be visited on a stack.
+     */
+    private final class DirectoryIterator implements Iterator<Map.Entry<Path, List<String>>> {
+        private final Deque<Path> pending = new ArrayDeque<>();
+        private final Deque<IgnoreRules> pendingRules = new ArrayDeque<>();
+        private Map.Entry<Path, List<String>> next;
+
+        /**
+         * Constructs an iterator that starts at the given directory.
+         *
+         * @param root The directory where the walk starts.
+         */
+        private DirectoryIterator(Path root) {
+            pending.push(root);
+            if (ignoreRules != null) {
+                pendingRules.push(ignoreRules);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !pending.isEmpty()) {
+                Path directory = pending.pop();
+                IgnoreRules rules = ignoreRules == null ? null : pendingRules.pop().forDirectory(directory);
+                next = listDirectory(directory, rules);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Path, List<String>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Path, List<String>> directory = next;
+            next = null;
+            return directory;
+        }
+
+        /**
+         * Lists a directory, keeping its Java files and pushing its subdirectories on the stack so that the
+         * first one is visited next.
+         *
+         * @param directory The directory to list.
+         * @param rules     The ignore rules that apply inside the directory, or {@code null}.
+         * @return The directory with the absolute paths of its Java files, or {@code null} if it cannot be read.
+         */
+        private Map.Entry<Path, List<String>> listDirectory(Path directory, IgnoreRules rules) {
+            List<String> javaFiles = new ArrayList<>();
+            List<Path> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    addEntry(entry, rules, javaFiles, subdirectories);
+                }
+            } catch (IOException | DirectoryIteratorException exception) {
+                System.err.println("Error while trying to read directory path: " + exception.getMessage());
+                return null;
+            }
+
+            for (int i = subdirectories.size() - 1; i >= 0; i--) {
+                pending.push(subdirectories.get(i));
+                if (rules != null) {
+                    pendingRules.push(rules);
+                }
+            }
+            return Map.entry(directory, javaFiles);
+        }
+
+        /**
+         * Sorts an entry of a directory into its Java files or its subdirectories, leaving it out if it is
+         * excluded by the ignore rules.
+         *
+         * @param entry          The entry of the directory.
+         * @param rules          The ignore rules that apply inside the directory, or {@code null}.
+         * @param javaFiles      Collects the absolute paths of the Java files.
+         * @param subdirectories Collects the subdirectories.
+         */
+        private void addEntry(Path entry, IgnoreRules rules, List<String> javaFiles, List<Path> subdirectories) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    if (!isIgnored(rules, entry, true)) {
+                        subdirectories.add(entry);
+                    }
+                } else if (isJavaFile(entry, attributes) && !isIgnored(rules, entry, false)) {
+                    javaFiles.add(entry.toString());
+                }
+            } catch (IOException ioException) {
+                System.err.println("Error while trying to read directory path: " + ioException.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks whether a file has the extension of one of the scanned languages.
+     *
+     * @param filename The name or path of the file.
+     * @return {@code true} if the file is a source file of a scanned language.
+     */
+    private boolean isSourceFilename(String filename) {
+        LanguageProfile profile = LanguageRegistry.forFilename(filename);
+        return profile != null && LanguageRegistry.indexOf(languages, profile) >= 0;
+    }
+
+    /**
+     * Checks whether an entry is excluded by the ignore rules.
+     *
+     * @param rules     The ignore rules that apply to the entry, or {@code null}.
+     * @param entry     The entry of a directory.
+     * @param directory Whether the entry is a directory.
+     * @return {@code true} if the entry must be left out.
+     */
+    private static boolean isIgnored(IgnoreRules rules, Path entry, boolean directory) {
+        return rules != null && rules.isIgnored(entry.toString(), entry.getFileName().toString(), directory);
+    }
+
     /**
      * Checks if the specified path corresponds to an existing file.
      *
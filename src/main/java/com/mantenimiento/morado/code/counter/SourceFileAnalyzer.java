@@ -1,17 +1,60 @@
 package com.mantenimiento.morado.code.counter;
 
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.ProviderNotFoundException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.mantenimiento.morado.code.cache.AnalysisCache;
+import com.mantenimiento.morado.code.cache.ContentCache;
+import com.mantenimiento.morado.code.ignore.IgnoreRules;
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.language.LanguageTotals;
+import com.mantenimiento.morado.code.language.LanguageTotalsListener;
 import com.mantenimiento.morado.code.model.SourceFile;
-import com.mantenimiento.morado.code.syntax.SyntaxAnalyzer;
-import com.mantenimiento.morado.util.Constants;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+import com.mantenimiento.morado.code.report.ReportWriter;
+import com.mantenimiento.morado.code.report.TablePrinter;
+import com.mantenimiento.morado.code.stats.AnalysisStatistics;
+import com.mantenimiento.morado.code.stats.MetricsListener;
+import com.mantenimiento.morado.code.stats.MetricsRegistry;
+import com.mantenimiento.morado.code.stats.TimedListener;
+import com.mantenimiento.morado.code.tree.AggregatingListener;
+import com.mantenimiento.morado.code.tree.AggregationTree;
 
 /**
  * Analyzes Java source files in a given directory by scanning for files,
- * checking their syntax, counting lines of code (LOC), and printing the results
- * in a formatted table.
+ * checking their syntax, counting lines of code (LOC), and reporting the results
+ * to an {@link AnalysisListener} as they are produced. By default the results are
+ * printed in a formatted table by a {@link TablePrinter}.
+ * <p>
+ * Files can be analyzed by a pool of threads, or read and analyzed through an
+ * {@link AnalysisPipeline}. The results are still reported in the same directory and file order
+ * as a sequential run.
+ * </p>
+ * <p>
+ * The path may also be a JAR or ZIP archive, whose entries are walked and analyzed in place.
+ * </p>
  *
  * @author Ruben Alvarado
  * @author Reynaldo Couoh
@@ -19,7 +62,22 @@ import com.mantenimiento.morado.util.Constants;
  * @version 2.0.0
  */
 public class SourceFileAnalyzer {
+    /**
+     * The number of files that can be submitted ahead of the one being reported, for each thread.
+     */
+    private static final int IN_FLIGHT_FILES_PER_THREAD = 16;
+
     private final String directoryPath;
+    private final int threads;
+    private final int concurrentReads;
+    private AnalysisCache cache;
+    private ContentCache contents;
+    private AnalysisStatistics statistics;
+    private MetricsRegistry metrics;
+    private AggregationTree tree;
+    private IgnoreRules ignoreRules;
+    private List<LanguageProfile> languages = List.of(LanguageRegistry.JAVA);
+    private LanguageTotals languageTotals;
 
     /**
      * Constructs a new {@code SourceFileAnalyzer} with the specified directory path
@@ -27,7 +85,117 @@ public class SourceFileAnalyzer {
      * @param directoryPath The path to the directory containing Java source files.
      */
     public SourceFileAnalyzer(String directoryPath) {
+        this(directoryPath, 1);
+    }
+
+    /**
+     * Constructs a new {@code SourceFileAnalyzer} that analyzes the files of a directory with several threads.
+     *
+     * @param directoryPath The path to the directory containing Java source files.
+     * @param threads The number of threads used to analyze files; {@code 1} analyzes them on the calling thread.
+     * @throws IllegalArgumentException if {@code threads} is less than 1.
+     */
+    public SourceFileAnalyzer(String directoryPath, int threads) {
+        this(directoryPath, threads, 0);
+    }
+
+    /**
+     * Constructs a new {@code SourceFileAnalyzer} that can read the files of a directory through an {@link AnalysisPipeline}.
+     *
+     * @param directoryPath The path to the directory containing Java source files.
+     * @param threads The number of threads used to analyze files; {@code 1} analyzes them on the calling thread
+     *                unless the pipeline is used.
+     * @param concurrentReads The maximum number of files read at the same time by the pipeline;
+     *                        {@code 0} does not use the pipeline.
+     * @throws IllegalArgumentException if {@code threads} is less than 1 or {@code concurrentReads} is negative.
+     */
+    public SourceFileAnalyzer(String directoryPath, int threads, int concurrentReads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1: " + threads);
+        }
+        if (concurrentReads < 0) {
+            throw new IllegalArgumentException("The number of concurrent reads cannot be negative: " + concurrentReads);
+        }
         this.directoryPath = directoryPath;
+        this.threads = threads;
+        this.concurrentReads = concurrentReads;
+    }
+
+    /**
+     * Sets the cache of previous results. Files that did not change since they were stored in the cache
+     * are not read again, and the new results are stored in it.
+     *
+     * @param cache The cache to use, or {@code null} to analyze every file.
+     */
+    public void setCache(AnalysisCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets the results of the contents seen so far. A file with the same bytes as a previous one gets the
+     * result of that file instead of being analyzed again.
+     *
+     * @param contents The results to reuse and fill, or {@code null} to analyze every file.
+     */
+    public void setContentCache(ContentCache contents) {
+        this.contents = contents;
+    }
+
+    /**
+     * Sets the statistics where the time spent walking the tree, reading, analyzing and reporting each file
+     * is recorded.
+     *
+     * @param statistics The statistics to record, or {@code null} to record nothing.
+     */
+    public void setStatistics(AnalysisStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Sets the registry where the status of every reported file, the LOC of every program and the duration of
+     * the scan are recorded. The size and time of every file are recorded by the
+     * {@link AnalysisStatistics} that has the registry.
+     *
+     * @param metrics The registry to fill, or {@code null} to record no metrics.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the tree where every analyzed file is added with its types and methods.
+     *
+     * @param tree The tree to fill, or {@code null} to build no tree.
+     */
+    public void setAggregationTree(AggregationTree tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Sets the rules that leave files and directories out of the analysis. Excluded directories are not walked.
+     *
+     * @param ignoreRules The rules of the analyzed directory, or {@code null} to analyze every Java file.
+     */
+    public void setIgnoreRules(IgnoreRules ignoreRules) {
+        this.ignoreRules = ignoreRules;
+    }
+
+    /**
+     * Sets the languages whose source files are analyzed. All of them are found in the same walk of the tree.
+     *
+     * @param languages The languages to analyze; only Java by default.
+     */
+    public void setLanguages(List<LanguageProfile> languages) {
+        this.languages = languages;
+    }
+
+    /**
+     * Sets the totals where every analyzed file is added to its language.
+     *
+     * @param languageTotals The totals to fill, or {@code null} to keep no totals.
+     */
+    public void setLanguageTotals(LanguageTotals languageTotals) {
+        this.languageTotals = languageTotals;
     }
 
     /**
@@ -41,197 +209,455 @@ public class SourceFileAnalyzer {
      *   <li><b>If the path is invalid</b>: A message is printed indicating that the path is neither a file nor a directory.</li>
      * </ul>
      * <p>
-     * The results are displayed in a tabular format in the console.
+     * The results are displayed in a tabular format in the console, written through a single buffered {@link ReportWriter}.
      * </p>
      */
     public void analyzePath() {
-        DirectoryScanner scanner = new DirectoryScanner(directoryPath);
-        if (scanner.isFile(directoryPath)) {
-            List<String> javaFilesPaths = scanner.getJavaFiles(Paths.get(directoryPath));
-            printHeader(); 
-            analyzeJavaFiles("", javaFilesPaths);
-        } else if (scanner.isDirectory(directoryPath)) {
-            List<Path> javaDirectoriesPaths = scanner.getSubdirectories();
-            printHeader();
-            analyzeDirectory(javaDirectoriesPaths, scanner);
-        } else {
-            System.out.println("The specified path is not a valid file or directory.");
+        try (ReportWriter writer = ReportWriter.toStandardOutput()) {
+            analyzePath(new TablePrinter(writer));
         }
     }
 
     /**
-     * Scans the directory for Java source files and subdirectories. When there are no subdirectories, it analyzes every file, if there are, analyzes each one.
+     * Analyzes the specified path and reports every result to the given listener as soon as it is available.
      * <p>
-     * If the directory has no subdirectories:
+     * Nothing is printed by this method; the listener decides what to do with each file and with the
+     * program and project totals. See {@link AnalysisListener} for the order of the calls.
      * </p>
-     * <ul>
-     *   <li>Get every java file and count them.</li>
-     * </ul>
+     *
+     * @param listener The listener that receives the results.
+     */
+    public void analyzePath(AnalysisListener listener) {
+        if (tree != null) {
+            listener = new AggregatingListener(listener, tree);
+        }
+        if (languageTotals != null) {
+            listener = new LanguageTotalsListener(listener, languageTotals);
+        }
+        if (metrics != null) {
+            listener = new MetricsListener(listener, metrics);
+        }
+        if (statistics != null) {
+            listener = new TimedListener(listener, statistics);
+        }
+
+        DirectoryScanner scanner = new DirectoryScanner(directoryPath, ignoreRules, languages);
+        if (isArchive(directoryPath)) {
+            analyzeArchive(listener);
+        } else if (scanner.isFile(directoryPath)) {
+            // A plain loop: the first stream and lambda of a run cost more than analyzing a single file
+            List<SourceFile> javaFiles = new ArrayList<>();
+            for (String filePath : scanner.getJavaFiles(Paths.get(directoryPath))) {
+                javaFiles.add(analyzeFile(filePath));
+            }
+            listener.onStart();
+            analyzeJavaFiles("", ".", javaFiles.iterator(), listener);
+        } else if (scanner.isDirectory(directoryPath)) {
+            listener.onStart();
+            analyzeDirectory(scanner.iterateJavaFilesByDirectory(), Paths.get(directoryPath), listener);
+        } else {
+            listener.onInvalidPath(directoryPath);
+        }
+    }
+
+    /**
+     * Checks whether a path is a JAR or ZIP archive whose source files can be analyzed.
+     *
+     * @param path The path to check.
+     * @return {@code true} if the path is a regular file with a {@code .jar} or {@code .zip} extension.
+     */
+    public static boolean isArchive(String path) {
+        String name = path.toLowerCase(Locale.ROOT);
+        return (name.endsWith(".jar") || name.endsWith(".zip")) && Files.isRegularFile(Paths.get(path));
+    }
+
+    /**
+     * Analyzes the source files of a JAR or ZIP archive, such as a {@code -sources.jar}, without extracting it.
      * <p>
-     * Otherwise, analyze every subdirectory and scan for its files.
+     * The archive is opened as a file system and its entries are walked and read like the files of a
+     * directory, with the same threads or pipeline, so nothing is written to disk. The ignore rules and the
+     * cache of previous results only apply to directories on disk and are not used inside an archive.
      * </p>
+     *
+     * @param listener The listener that receives the results.
+     */
+    private void analyzeArchive(AnalysisListener listener) {
+        try (FileSystem archive = FileSystems.newFileSystem(Paths.get(directoryPath))) {
+            DirectoryScanner scanner = new DirectoryScanner(directoryPath, null, languages);
+            listener.onStart();
+            Path root = archive.getPath("/");
+            analyzeDirectory(scanner.iterateJavaFilesByDirectory(root), root, listener);
+        } catch (IOException | ProviderNotFoundException exception) {
+            System.err.println("Error while reading archive: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Returns the analyzed Java files of the specified path as a lazy stream.
      * <p>
-     * The results are printed to the console in a tabular format.
+     * Each file is read and analyzed only when the stream reaches it, in the same order as
+     * {@link #analyzePath(AnalysisListener)}, so the results never have to be held in memory together.
+     * The tree is walked as the stream advances.
+     * The files are analyzed on the thread that consumes the stream. The stream is empty when the path
+     * is neither a file nor a directory. The stream of an archive keeps it open until the stream is closed.
      * </p>
+     *
+     * @return A stream with the result of every Java file.
      */
-    private void analyzeDirectory(List<Path> javaSubdirectoriesPaths, DirectoryScanner scanner) {
-        int totalPhysicalLOC = 0;
-        for (Path subdirectoryPath : javaSubdirectoriesPaths) {
-            List<String> javaFilesPaths = scanner.getJavaFiles(subdirectoryPath);
-            totalPhysicalLOC += analyzeJavaFiles(subdirectoryPath.getFileName().toString(), javaFilesPaths);
+    public Stream<SourceFile> streamFiles() {
+        DirectoryScanner scanner = new DirectoryScanner(directoryPath, ignoreRules, languages);
+        if (isArchive(directoryPath)) {
+            try {
+                FileSystem archive = FileSystems.newFileSystem(Paths.get(directoryPath));
+                scanner = new DirectoryScanner(directoryPath, null, languages);
+                return streamFiles(scanner.iterateJavaFilesByDirectory(archive.getPath("/")), archive)
+                    .onClose(() -> closeArchive(archive));
+            } catch (IOException | ProviderNotFoundException exception) {
+                System.err.println("Error while reading archive: " + exception.getMessage());
+            }
+        } else if (scanner.isFile(directoryPath)) {
+            return scanner.getJavaFiles(Paths.get(directoryPath)).stream().map(this::analyzeFile);
+        } else if (scanner.isDirectory(directoryPath)) {
+            return streamFiles(scanner.iterateJavaFilesByDirectory(), FileSystems.getDefault());
         }
+        return Stream.empty();
+    }
+
+    /**
+     * Returns the analyzed files of the directories of a walk as a lazy stream.
+     *
+     * @param directories The Java files of every directory, in the order the tree is walked.
+     * @param fileSystem  The file system of the files.
+     * @return A stream with the result of every file.
+     */
+    private Stream<SourceFile> streamFiles(Iterator<Map.Entry<Path, List<String>>> directories,
+                                           FileSystem fileSystem) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(directories, Spliterator.ORDERED), false)
+            .flatMap(directory -> directory.getValue().stream())
+            .map(filePath -> analyzeFile(fileSystem.getPath(filePath)));
+    }
 
-        if (totalPhysicalLOC > 0) {
-            printTotalProyectLOC(totalPhysicalLOC + "");
+    /**
+     * Closes an archive opened as a file system, reporting the errors.
+     *
+     * @param archive The archive to close.
+     */
+    private static void closeArchive(FileSystem archive) {
+        try {
+            archive.close();
+        } catch (IOException ioException) {
+            System.err.println("Error while closing archive: " + ioException.getMessage());
         }
     }
 
     /**
-     * Analyzes a list of Java files, checks if they are well-written, and counts their physical lines of code.
+     * Scans the directory for Java source files and subdirectories. When there are no subdirectories, it analyzes every file, if there are, analyzes each one.
      * <p>
-     * If the file is well-written:
+     * If the directory has no subdirectories:
      * </p>
      * <ul>
-     *   <li>Counts LOC, marks it as having no class if not.</li>
+     *   <li>Get every java file and count them.</li>
      * </ul>
      * <p>
-     * If the file is not well-written, it is marked with an error status.
+     * Otherwise, analyze every subdirectory and scan for its files.
      * </p>
      * <p>
-     * The results, including file details and total physical LOC, are printed in a tabular format.
+     * The directories are analyzed while the tree is walked, so the first results are reported before the
+     * rest of the tree is read. The results are reported to the listener, followed by the total of the project.
      * </p>
-     * 
-     * @param directoryName The name of the directory containing the Java files.
-     * @param javaFilesPaths The list of paths to the Java files.
+     *
+     * @param directories The Java files of every subdirectory, in the order the tree is walked.
+     * @param root The directory where the walk starts, whose file system is not the default one inside an archive.
+     * @param listener The listener that receives the results.
      */
-    private int analyzeJavaFiles(String directoryName, List<String> javaFilesPaths){
+    private void analyzeDirectory(Iterator<Map.Entry<Path, List<String>>> directories, Path root,
+                                  AnalysisListener listener) {
+        FileSystem fileSystem = root.getFileSystem();
         int totalPhysicalLOC = 0;
-        for (String filePath : javaFilesPaths) {
-            SourceFile file;
-            if (SyntaxAnalyzer.isJavaFileWellWritten(filePath)) {
-                file = LOCCounter.countLOC(filePath);
-                totalPhysicalLOC += file.physicalLOC();
-                if (!SyntaxAnalyzer.isClassJavaFile(filePath)) {
-                    file = getNoClassFile(filePath, file.physicalLOC());
-                }              
-            } else {
-                file = getBadSourceFile(filePath);
+        if (concurrentReads > 0) {
+            try (AnalysisPipeline pipeline = new AnalysisPipeline(concurrentReads, threads, cache, statistics,
+                contents)) {
+                int window = IN_FLIGHT_FILES_PER_THREAD * (threads + concurrentReads);
+                totalPhysicalLOC = analyzeDirectoryInParallel(
+                    directories,
+                    filePath -> pipeline.submit(fileSystem.getPath(filePath)),
+                    root,
+                    window,
+                    listener
+                );
+            }
+        } else if (threads > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                totalPhysicalLOC = analyzeDirectoryInParallel(
+                    directories,
+                    filePath -> executor.submit(() -> analyzeFile(fileSystem.getPath(filePath))),
+                    root,
+                    IN_FLIGHT_FILES_PER_THREAD * threads,
+                    listener
+                );
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            Map.Entry<Path, List<String>> directory;
+            while ((directory = nextDirectory(directories)) != null) {
+                totalPhysicalLOC += analyzeJavaFiles(
+                    getDirectoryName(directory.getKey()),
+                    getProgramPath(root, directory.getKey()),
+                    directory.getValue().stream().map(filePath -> analyzeFile(fileSystem.getPath(filePath))).iterator(),
+                    listener
+                );
             }
-            printDetails(file, directoryName);
-            directoryName = "";
-        }
-        
-        if (totalPhysicalLOC > 0) {
-            printTotalProgramLOC(totalPhysicalLOC + "");
-            return totalPhysicalLOC;
         }
 
-        return 0;
+        listener.onProjectEnd(totalPhysicalLOC);
     }
 
     /**
-     * Prints the header for the LOC analysis results table.
+     * Analyzes the Java files of every subdirectory on other threads.
      * <p>
-     * The header includes the columns: "Program", "Logical LOC", "Physical LOC", and "Status".
+     * Files are submitted ahead of the one being reported, so the analysis of the next files and directories
+     * goes on while the current results are printed. At most {@code window} results are pending at any time:
+     * once the limit is reached, the oldest result is reported before the next file is submitted, which keeps
+     * the memory used bounded whatever the size of the tree. The results are printed in the order in which the
+     * files were submitted.
      * </p>
+     *
+     * @param directories The Java files of every subdirectory, in the order the tree is walked.
+     * @param submitter Starts the analysis of a file and returns its pending result.
+     * @param root The directory where the walk starts.
+     * @param window The maximum number of files submitted and not yet reported.
+     * @param listener The listener that receives the results.
+     * @return The total physical LOC of all subdirectories.
      */
-    private void printHeader() {
-        System.out.printf("%-18s %-30s %-18s %-18s %-18s %-10s%n", "Program", "Class", "Number of methods", "Physical LOC", "Total physical LOC", "Status");
-        System.out.println("---------------------------------------------------------------------------------------------------------------------------");
+    private int analyzeDirectoryInParallel(Iterator<Map.Entry<Path, List<String>>> directories,
+                                           Function<String, Future<SourceFile>> submitter,
+                                           Path root,
+                                           int window,
+                                           AnalysisListener listener) {
+        OrderedResults results = new OrderedResults(listener);
+        Map.Entry<Path, List<String>> directory;
+        while ((directory = nextDirectory(directories)) != null) {
+            results.startDirectory(getDirectoryName(directory.getKey()), getProgramPath(root, directory.getKey()));
+            for (String filePath : directory.getValue()) {
+                results.report(window - 1);
+                results.add(submitter.apply(filePath));
+            }
+            results.endDirectory();
+        }
+
+        results.report(0);
+        return results.totalPhysicalLOC;
     }
 
     /**
-     * Prints the details of a Java source file.
-     * <p>
-     * The details include the file name, logical LOC, physical LOC, and status.
-     * </p>
-     * @param file the {@link SourceFile} object containing the filename, logical LOC,
-     *             physical LOC, and status to be printed
-     * @see SourceFile
+     * Takes the next directory of the walk, recording the time spent reading the tree.
+     *
+     * @param directories The directories of the walk.
+     * @return The next directory with its Java files, or {@code null} when the walk is over.
      */
-    private void printDetails(SourceFile file, String directoryName) {
-        System.out.printf(
-            "%-18s %-30s %-18s %-18s %-18s %-10s%n",
-            directoryName,
-            file.filename().replaceFirst("\\.java$", ""),
-            file.numOfMethods(),
-            file.physicalLOC(),
-            "",
-            file.status()
-        );
+    private Map.Entry<Path, List<String>> nextDirectory(Iterator<Map.Entry<Path, List<String>>> directories) {
+        long start = System.nanoTime();
+        Map.Entry<Path, List<String>> directory = directories.hasNext() ? directories.next() : null;
+        if (statistics != null) {
+            statistics.addWalkTime(System.nanoTime() - start);
+        }
+        return directory;
     }
 
     /**
-     * Prints the total physical lines of code (LOC) of a program in a formatted table.
-     * 
-     * @param totalPhysicalLOC The total number of physical LOC to print.
+     * @param directory A directory of the walk.
+     * @return The name reported for the directory.
      */
-    private void printTotalProgramLOC(String totalPhysicalLOC) {
-        System.out.printf(
-            "%-18s %-30s %-18s %-18s %-18s %-10s%n",
-            "",
-            "",
-            "",
-            "",
-            totalPhysicalLOC,
-            ""
-        );
+    private static String getDirectoryName(Path directory) {
+        Path name = directory.getFileName();
+        return name == null ? directory.toString() : name.toString();
     }
 
     /**
-     * Prints the total physical lines of code (LOC) of a proyect in a formatted table.
-     * 
-     * @param totalPhysicalLOC The total number of physical LOC to print.
+     * @param root      The directory where the walk starts.
+     * @param directory A directory of the walk.
+     * @return The path reported for the directory: relative to the root with {@code /} separators, or
+     *         {@code "."} for the root itself.
      */
-    private void printTotalProyectLOC(String totalPhysicalLOC) {
-        System.out.println("---------------------------------------------------------------------------------------------------------------------------");
-        System.out.printf(
-            "%-18s %-30s %-18s %-18s %-18s %-10s%n",
-            "Total Lines",
-            "",
-            "",
-            "",
-            totalPhysicalLOC,
-            ""
-        );
+    private static String getProgramPath(Path root, Path directory) {
+        String path = root.relativize(directory).toString();
+        if (path.isEmpty()) {
+            return ".";
+        }
+        String separator = directory.getFileSystem().getSeparator();
+        return separator.equals("/") ? path : path.replace(separator, "/");
     }
 
+    /**
+     * Analyzes a single file with the {@link AnalysisEngine}, reusing the cached result when the file did not change
+     * and the result of a previous file with the same content.
+     *
+     * @param filePath The path of the Java source file.
+     * @return The result of the analysis.
+     */
+    private SourceFile analyzeFile(String filePath) {
+        return analyzeFile(Paths.get(filePath));
+    }
+
+    /**
+     * Analyzes a single file of any file system with the {@link AnalysisEngine}. The cache is only used for
+     * the files of the default file system.
+     *
+     * @param path The path of the Java source file.
+     * @return The result of the analysis.
+     */
+    private SourceFile analyzeFile(Path path) {
+        return AnalysisEngine.analyze(path, statistics, contents, cache);
+    }
+
+    /**
+     * Waits for the analysis of a file submitted to the thread pool.
+     *
+     * @param result The pending result of the analysis.
+     * @return The analyzed {@code SourceFile}.
+     * @throws IllegalStateException if the analysis failed or the thread was interrupted while waiting.
+     */
+    private SourceFile awaitResult(Future<SourceFile> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the analysis of a file", interruptedException);
+        } catch (ExecutionException executionException) {
+            throw new IllegalStateException("Error while analyzing file", executionException.getCause());
+        }
+    }
 
     /**
-     * Creates a {@code SourceFile} object representing a Java file that failed syntax analysis.
+     * Analyzes a list of Java files, checks if they are well-written, and counts their physical lines of code.
+     * Each file is read once by the {@link AnalysisEngine}.
+     * <p>
+     * If the file is well-written:
+     * </p>
+     * <ul>
+     *   <li>Counts LOC, marks it as having no class if not.</li>
+     * </ul>
+     * <p>
+     * If the file is not well-written, it is marked with an error status.
+     * </p>
      * <p>
-     * The returned object has zero logical and physical LOC and a status indicating an error.
+     * The results, including file details and total physical LOC, are reported to the listener.
      * </p>
-     * @param filepath the path to the Java file that is considered not well written
-     * @return a {@link SourceFile} instance with error status
+     * 
+     * @param directoryName The name of the directory containing the Java files.
+     * @param programPath The path of the directory relative to the analyzed path.
+     * @param javaFiles The analyzed Java files, in the order they are reported.
+     * @param listener The listener that receives the results.
+     * @return The total physical LOC of the files.
      */
-    private SourceFile getBadSourceFile(String filepath) {
-        Path file = Paths.get(filepath);
+    private int analyzeJavaFiles(String directoryName, String programPath, Iterator<SourceFile> javaFiles,
+                                 AnalysisListener listener){
+        int totalPhysicalLOC = 0;
+        listener.onProgramStart(directoryName, programPath);
+        while (javaFiles.hasNext()) {
+            SourceFile file = javaFiles.next();
+            totalPhysicalLOC += file.physicalLOC();
+            listener.onFile(file);
+        }
 
-        return new SourceFile(
-            file.getFileName().toString(),
-            0,
-            0,
-            Constants.JAVA_FILE_STATUS_ERROR
-        );
+        listener.onProgramEnd(directoryName, totalPhysicalLOC);
+        return totalPhysicalLOC;
     }
 
     /**
-     * Creates a SourceFile object for a Java file .
-     * This gets relevant info of the class to print.
-     * 
-     * @param filepath The path to the Java file.
-     * @return A SourceFile object with a status of "no class".
+     * The results submitted to other threads and not yet reported, grouped by directory in the order they
+     * were submitted.
      */
-    private SourceFile getNoClassFile(String filepath, int physicalLOC) {
-        Path file = Paths.get(filepath);
+    private final class OrderedResults {
+        private final AnalysisListener listener;
+        private final Deque<PendingDirectory> directories = new ArrayDeque<>();
+        private int pendingFiles;
+        private int totalPhysicalLOC;
+
+        /**
+         * @param listener The listener that receives the results.
+         */
+        private OrderedResults(AnalysisListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Starts a directory whose files are submitted next.
+         *
+         * @param name The name of the directory.
+         * @param path The path of the directory relative to the analyzed path.
+         */
+        private void startDirectory(String name, String path) {
+            directories.addLast(new PendingDirectory(name, path));
+        }
+
+        /**
+         * Adds the pending result of a file of the last directory started.
+         *
+         * @param result The pending result of the analysis.
+         */
+        private void add(Future<SourceFile> result) {
+            directories.getLast().results.addLast(result);
+            pendingFiles++;
+        }
 
-        return new SourceFile(
-            file.getFileName().toString(),
-            physicalLOC,
-            0,
-            Constants.JAVA_FILE_STATUS_NO_CLASS
-        );
+        /**
+         * Marks the last directory started as complete, so it can be ended once its results are reported.
+         */
+        private void endDirectory() {
+            directories.getLast().complete = true;
+        }
+
+        /**
+         * Reports the oldest results, waiting for them if needed, until no more than {@code limit} are pending.
+         * The directories whose results were all reported are ended on the way.
+         *
+         * @param limit The number of results that can stay pending.
+         */
+        private void report(int limit) {
+            while (!directories.isEmpty()) {
+                PendingDirectory directory = directories.getFirst();
+                if (!directory.started) {
+                    listener.onProgramStart(directory.name, directory.path);
+                    directory.started = true;
+                }
+                while (pendingFiles > limit && !directory.results.isEmpty()) {
+                    SourceFile file = awaitResult(directory.results.removeFirst());
+                    pendingFiles--;
+                    directory.physicalLOC += file.physicalLOC();
+                    listener.onFile(file);
+                }
+                if (!directory.complete || !directory.results.isEmpty()) {
+                    return;
+                }
+
+                listener.onProgramEnd(directory.name, directory.physicalLOC);
+                totalPhysicalLOC += directory.physicalLOC;
+                directories.removeFirst();
+            }
+        }
     }
 
+    /**
+     * A directory whose results are not all reported yet.
+     */
+    private static final class PendingDirectory {
+        private final String name;
+        private final String path;
+        private final Deque<Future<SourceFile>> results = new ArrayDeque<>();
+        private boolean started;
+        private boolean complete;
+        private int physicalLOC;
+
+        /**
+         * @param name The name of the directory.
+         * @param path The path of the directory relative to the analyzed path.
+         */
+        private PendingDirectory(String name, String path) {
+            this.name = name;
+            this.path = path;
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package com.mantenimiento.morado.code.git;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code GitBlobReader} class reads the content of files as they are stored in a revision of a repository.
+ * <p>
+ * All files are read through a single {@code git cat-file --batch} process, so reading many files does not
+ * start a process for each one. A {@code GitBlobReader} is not thread-safe and must be closed after use.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class GitBlobReader implements AutoCloseable {
+    private final Process process;
+    private final OutputStream requests;
+    private final InputStream responses;
+
+    /**
+     * Constructs a reader over a started {@code git cat-file --batch} process.
+     *
+     * @param process The started process.
+     */
+    GitBlobReader(Process process) {
+        this.process = process;
+        this.requests = new BufferedOutputStream(process.getOutputStream());
+        this.responses = new BufferedInputStream(process.getInputStream());
+    }
+
+    /**
+     * Reads a file as it is stored in a revision.
+     *
+     * @param revision The revision.
+     * @param path     The path of the file, relative to the directory of the {@link GitRepository}.
+     * @return The content of the file, or {@code null} if the file does not exist in that revision.
+     * @throws IOException If git stopped or its answer cannot be read.
+     */
+    public ByteBuffer read(String revision, String path) throws IOException {
+        // The "./" prefix makes git resolve the path from the directory instead of the root of the repository
+        requests.write((revision + ":./" + path + "\n").getBytes(StandardCharsets.UTF_8));
+        requests.flush();
+
+        String header = readLine();
+        if (header.endsWith(" missing") || header.endsWith(" ambiguous")) {
+            return null;
+        }
+
+        String[] fields = header.split(" ");
+        if (fields.length != 3) {
+            throw new IOException("Unexpected answer from git cat-file: " + header);
+        }
+        if (!fields[1].equals("blob")) {
+            // The path names a directory or a submodule, not a file
+            skip(Long.parseLong(fields[2]) + 1);
+            return null;
+        }
+
+        byte[] content = responses.readNBytes(Integer.parseInt(fields[2]));
+        if (content.length != Integer.parseInt(fields[2]) || responses.read() != '\n') {
+            throw new EOFException("Incomplete answer from git cat-file for " + path);
+        }
+        return ByteBuffer.wrap(content);
+    }
+
+    /**
+     * Ends the git process.
+     *
+     * @throws IOException If the process cannot be stopped.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            requests.close();
+            process.waitFor();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+            throw new InterruptedIOException("Interrupted while waiting for git");
+        } finally {
+            responses.close();
+        }
+    }
+
+    /**
+     * Reads the header line of an answer.
+     *
+     * @return The line without its line feed.
+     * @throws IOException If the process ended before the end of the line.
+     */
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int character;
+        while ((character = responses.read()) != '\n') {
+            if (character < 0) {
+                throw new EOFException("git cat-file ended unexpectedly");
+            }
+            line.write(character);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips a number of bytes of an answer.
+     *
+     * @param count The number of bytes to skip.
+     * @throws IOException If the process ended before.
+     */
+    private void skip(long count) throws IOException {
+        for (long skipped = 0; skipped < count; skipped++) {
+            if (responses.read() < 0) {
+                throw new EOFException("git cat-file ended unexpectedly");
+            }
+        }
+    }
+}
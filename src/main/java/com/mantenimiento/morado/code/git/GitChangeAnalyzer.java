@@ -0,0 +1,131 @@
+package com.mantenimiento.morado.code.git;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mantenimiento.morado.code.counter.AnalysisEngine;
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.model.FileChange;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.ChangeListener;
+
+/**
+ * Analyzes only the source files that changed between two revisions of a local git repository.
+ * <p>
+ * The changed files are listed by {@code git diff}, and each of them is analyzed by the
+ * {@link AnalysisEngine} as it is in the base revision and in the target revision, which can also be the
+ * working tree. The rest of the tree is neither walked nor read, so the cost depends on the size of the
+ * change instead of the size of the repository.
+ * </p>
+ * <p>
+ * The changes are reported grouped by program, the directory of each file, with the LOC delta of every
+ * program and of the whole change.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class GitChangeAnalyzer {
+    private final String directoryPath;
+    private final String baseRevision;
+    private final String targetRevision;
+    private List<LanguageProfile> languages = List.of(LanguageRegistry.JAVA);
+
+    /**
+     * Constructs a new {@code GitChangeAnalyzer} for a directory of a repository.
+     *
+     * @param directoryPath  The path to a directory inside the working tree of the repository.
+     * @param baseRevision   The revision the changes start from.
+     * @param targetRevision The revision the changes end at, or {@code null} to compare with the working tree.
+     */
+    public GitChangeAnalyzer(String directoryPath, String baseRevision, String targetRevision) {
+        this.directoryPath = directoryPath;
+        this.baseRevision = baseRevision;
+        this.targetRevision = targetRevision;
+    }
+
+    /**
+     * Sets the languages whose changed files are analyzed. By default only Java files are analyzed.
+     *
+     * @param languages The languages to analyze.
+     */
+    public void setLanguages(List<LanguageProfile> languages) {
+        this.languages = languages;
+    }
+
+    /**
+     * Analyzes the changed files and reports them to the listener.
+     *
+     * @param listener The listener that receives the changes.
+     * @throws IOException If git fails, for example because the directory is not in a repository or a
+     *                     revision does not exist.
+     */
+    public void analyzeChanges(ChangeListener listener) throws IOException {
+        Path directory = Paths.get(directoryPath);
+        GitRepository repository = new GitRepository(directory);
+        List<String> changedFiles = repository.getChangedFiles(baseRevision, targetRevision, languages);
+
+        Map<Path, List<FileChange>> changesByDirectory = new LinkedHashMap<>();
+        try (GitBlobReader reader = repository.openBlobReader()) {
+            for (String path : changedFiles) {
+                Path file = directory.resolve(path);
+                String filename = file.getFileName().toString();
+                SourceFile previousFile = analyze(filename, reader.read(baseRevision, path));
+                SourceFile currentFile = analyze(filename, readTarget(reader, file, path));
+                if (previousFile != null || currentFile != null) {
+                    changesByDirectory.computeIfAbsent(file.getParent(), key -> new ArrayList<>())
+                        .add(new FileChange(path, previousFile, currentFile));
+                }
+            }
+        }
+
+        listener.onStart();
+        int projectDelta = 0;
+        for (Map.Entry<Path, List<FileChange>> entry : changesByDirectory.entrySet()) {
+            String programName = entry.getKey().getFileName().toString();
+            int programDelta = 0;
+            listener.onProgramStart(programName);
+            for (FileChange change : entry.getValue()) {
+                programDelta += change.getDelta();
+                listener.onChange(change);
+            }
+            listener.onProgramEnd(programName, programDelta);
+            projectDelta += programDelta;
+        }
+        listener.onProjectEnd(projectDelta);
+    }
+
+    /**
+     * Reads a changed file as it is in the target revision.
+     *
+     * @param reader The reader of the repository.
+     * @param file   The path of the file in the working tree.
+     * @param path   The path of the file relative to the directory.
+     * @return The content of the file, or {@code null} if it does not exist in the target revision.
+     * @throws IOException If the file cannot be read.
+     */
+    private ByteBuffer readTarget(GitBlobReader reader, Path file, String path) throws IOException {
+        if (targetRevision != null) {
+            return reader.read(targetRevision, path);
+        }
+        return Files.isRegularFile(file) ? AnalysisEngine.readContent(file) : null;
+    }
+
+    /**
+     * Analyzes one revision of a file.
+     *
+     * @param filename The name of the file.
+     * @param content  The content of the file, or {@code null} if it does not exist in that revision.
+     * @return The result of the analysis, or {@code null} if the file does not exist.
+     */
+    private static SourceFile analyze(String filename, ByteBuffer content) {
+        return content == null ? null : AnalysisEngine.analyze(filename, content);
+    }
+}
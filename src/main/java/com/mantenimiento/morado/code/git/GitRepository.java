@@ -0,0 +1,149 @@
+package com.mantenimiento.morado.code.git;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+
+/**
+ * The {@code GitRepository} class reads the changes of a local git repository by running the {@code git} command
+ * in one of its directories.
+ * <p>
+ * All paths are relative to that directory, and only the changes inside it are considered.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class GitRepository {
+    private final Path directory;
+
+    /**
+     * Constructs a repository for the specified directory.
+     *
+     * @param directory A directory inside the working tree of the repository.
+     */
+    public GitRepository(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the source files of some languages that changed between two revisions, in the order git lists
+     * them.
+     * <p>
+     * Renamed files are listed as a deleted file and an added file, so that each path can be read from
+     * both revisions. When comparing with the working tree, files that git does not track yet are not listed.
+     * </p>
+     *
+     * @param baseRevision   The revision the changes start from.
+     * @param targetRevision The revision the changes end at, or {@code null} for the working tree.
+     * @param languages      The languages whose files are listed, by the extensions of their files.
+     * @return The paths of the changed source files, relative to the directory.
+     * @throws IOException If git fails, for example because a revision does not exist.
+     */
+    public List<String> getChangedFiles(String baseRevision, String targetRevision, List<LanguageProfile> languages)
+        throws IOException {
+        List<String> command = new ArrayList<>(
+            List.of("diff", "--name-only", "-z", "--no-renames", "--relative", baseRevision));
+        if (targetRevision != null) {
+            command.add(targetRevision);
+        }
+        command.add("--");
+        for (LanguageProfile language : languages) {
+            for (String extension : language.extensions()) {
+                command.add("*" + extension);
+            }
+        }
+
+        String output = new String(run(command), StandardCharsets.UTF_8);
+        List<String> paths = new ArrayList<>();
+        int start = 0;
+        for (int end = output.indexOf('\0'); end >= 0; end = output.indexOf('\0', start)) {
+            paths.add(output.substring(start, end));
+            start = end + 1;
+        }
+        return paths;
+    }
+
+    /**
+     * Starts a reader of the files stored in the repository.
+     *
+     * @return A reader that must be closed after use.
+     * @throws IOException If git cannot be started.
+     */
+    public GitBlobReader openBlobReader() throws IOException {
+        // Missing objects are reported on the standard output, so errors can go straight to the console
+        return new GitBlobReader(start(List.of("cat-file", "--batch"), ProcessBuilder.Redirect.INHERIT));
+    }
+
+    /**
+     * Runs a git command and returns its output.
+     * <p>
+     * The standard error goes to a temporary file instead of a pipe, so git never blocks writing to it while
+     * the standard output is read. It is read only when the command fails, to report the reason.
+     * </p>
+     *
+     * @param arguments The arguments of the command, after {@code git}.
+     * @return The standard output of the command.
+     * @throws IOException If the command cannot be run or ends with an error.
+     */
+    private byte[] run(List<String> arguments) throws IOException {
+        Path errorFile = Files.createTempFile("morado-git", ".err");
+        try {
+            Process process = start(arguments, ProcessBuilder.Redirect.to(errorFile.toFile()));
+            process.getOutputStream().close();
+            byte[] output;
+            try (InputStream standardOutput = process.getInputStream()) {
+                output = standardOutput.readAllBytes();
+            }
+
+            int exitCode = waitFor(process);
+            if (exitCode != 0) {
+                String error = new String(Files.readAllBytes(errorFile), StandardCharsets.UTF_8).trim();
+                throw new IOException("git " + arguments.get(0) + " failed with exit code " + exitCode + ": " + error);
+            }
+            return output;
+        } finally {
+            Files.deleteIfExists(errorFile);
+        }
+    }
+
+    /**
+     * Waits for a git command to end.
+     *
+     * @param process The process of the command.
+     * @return The exit code of the command.
+     * @throws InterruptedIOException If the thread is interrupted while waiting; the process is then stopped.
+     */
+    private static int waitFor(Process process) throws InterruptedIOException {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+            throw new InterruptedIOException("Interrupted while waiting for git");
+        }
+    }
+
+    /**
+     * Starts a git command in the directory.
+     *
+     * @param arguments     The arguments of the command, after {@code git}.
+     * @param errorRedirect Where the standard error of the command goes.
+     * @return The started process.
+     * @throws IOException If git cannot be started.
+     */
+    private Process start(List<String> arguments, ProcessBuilder.Redirect errorRedirect) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("-C");
+        command.add(directory.toString());
+        command.addAll(arguments);
+        return new ProcessBuilder(command).redirectError(errorRedirect).start();
+    }
+}
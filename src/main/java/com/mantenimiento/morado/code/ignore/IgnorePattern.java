@@ -0,0 +1,354 @@
+package com.mantenimiento.morado.code.ignore;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IgnorePattern} class is one compiled line of an ignore file, in the syntax of {@code .gitignore}.
+ * <p>
+ * A pattern without a slash, or with only a trailing one, matches the name of a file or directory at any
+ * depth below the directory of the ignore file. Any other pattern is anchored to that directory and matches
+ * the relative path. A trailing slash matches only directories and a leading {@code !} re-includes what an
+ * earlier pattern excluded. The wildcards are {@code *} and {@code ?}, which do not match a slash, character
+ * classes such as {@code [a-z]} and {@code **}, which matches any number of directories.
+ * </p>
+ * <p>
+ * The patterns are classified when they are compiled: a plain name is compared with {@code equals}, a
+ * pattern like {@code *.class} is checked with {@code endsWith}, and only the others go through the glob
+ * matcher, which works on the characters without building a regular expression. A glob with at most one
+ * {@code *} or {@code **} backtracks over that star only, so it is matched directly. With more stars, the
+ * matcher remembers the positions of the glob and the text it already failed from in a bit set kept by each
+ * thread, so it tries each pair once and takes polynomial time instead of exponential time.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+final class IgnorePattern {
+    private static final int LITERAL = 0;
+    private static final int SUFFIX = 1;
+    private static final int GLOB = 2;
+    private static final ThreadLocal<long[]> FAILED = ThreadLocal.withInitial(() -> new long[16]);
+
+    private final String glob;
+    private final String literal;
+    private final int kind;
+    private final boolean memoized;
+    private final boolean negated;
+    private final boolean directoryOnly;
+    private final boolean anchored;
+
+    /**
+     * Constructs a compiled pattern.
+     *
+     * @param glob          The pattern without its negation, trailing slash and leading slash.
+     * @param negated       Whether the pattern re-includes what it matches.
+     * @param directoryOnly Whether the pattern matches only directories.
+     * @param anchored      Whether the pattern matches the relative path instead of the name.
+     */
+    private IgnorePattern(String glob, boolean negated, boolean directoryOnly, boolean anchored) {
+        this.glob = glob;
+        this.negated = negated;
+        this.directoryOnly = directoryOnly;
+        this.anchored = anchored;
+        if (!hasWildcard(glob, 0)) {
+            this.kind = LITERAL;
+            this.literal = unescape(glob);
+            this.memoized = false;
+        } else if (glob.length() > 1 && glob.charAt(0) == '*' && !hasWildcard(glob, 1) && glob.indexOf('/') < 0) {
+            this.kind = SUFFIX;
+            this.literal = unescape(glob.substring(1));
+            this.memoized = false;
+        } else {
+            this.kind = GLOB;
+            this.literal = null;
+            this.memoized = countStars(glob) > 1;
+        }
+    }
+
+    /**
+     * Compiles a line of an ignore file.
+     *
+     * @param line The line as written in the file.
+     * @return The compiled pattern, or {@code null} if the line is blank or a comment.
+     */
+    static IgnorePattern compile(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ' && !(end > 1 && line.charAt(end - 2) == '\\')) {
+            end--;
+        }
+        String pattern = line.substring(0, end);
+        if (pattern.isEmpty() || pattern.charAt(0) == '#') {
+            return null;
+        }
+
+        boolean negated = pattern.charAt(0) == '!';
+        if (negated) {
+            pattern = pattern.substring(1);
+        }
+        boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        boolean anchored = pattern.indexOf('/') >= 0;
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.isEmpty()) {
+            return null;
+        }
+        return new IgnorePattern(pattern, negated, directoryOnly, anchored);
+    }
+
+    /**
+     * @return {@code true} if the pattern re-includes what it matches.
+     */
+    boolean isNegated() {
+        return negated;
+    }
+
+    /**
+     * @return {@code true} if the pattern matches the path relative to the directory of its ignore file.
+     */
+    boolean isAnchored() {
+        return anchored;
+    }
+
+    /**
+     * Checks whether the pattern matches a file or directory.
+     *
+     * @param name         The name of the file or directory.
+     * @param relativePath The path relative to the directory of the ignore file, with {@code /} as separator,
+     *                     or {@code null} if the pattern is not anchored.
+     * @param directory    Whether the entry is a directory.
+     * @return {@code true} if the pattern matches the entry.
+     */
+    boolean matches(String name, String relativePath, boolean directory) {
+        if (directoryOnly && !directory) {
+            return false;
+        }
+
+        String text = anchored ? relativePath : name;
+        switch (kind) {
+            case LITERAL:
+                return text.equals(literal);
+            case SUFFIX:
+                return text.endsWith(literal) && text.lastIndexOf('/') < text.length() - literal.length();
+            default:
+                return matchGlob(0, text, 0, memoized ? getFailed(text) : null);
+        }
+    }
+
+    /**
+     * Returns the bit set of the current thread, cleared for the positions of the glob and a text.
+     *
+     * @param text The text to match.
+     * @return A bit set with one clear bit for each pair of positions.
+     */
+    private long[] getFailed(String text) {
+        int words = ((glob.length() + 1) * (text.length() + 1) + 63) / 64;
+        long[] failed = FAILED.get();
+        if (failed.length < words) {
+            failed = new long[Math.max(words, failed.length * 2)];
+            FAILED.set(failed);
+        } else {
+            Arrays.fill(failed, 0, words, 0L);
+        }
+        return failed;
+    }
+
+    /**
+     * Matches the rest of the glob against the rest of a text, unless the same positions already failed.
+     *
+     * @param globIndex The position in the glob.
+     * @param text      The text to match.
+     * @param textIndex The position in the text.
+     * @param failed    The positions of the glob and the text known not to match, one bit for each pair, or
+     *                  {@code null} if the glob has at most one star.
+     * @return {@code true} if the rest of the glob matches the whole rest of the text.
+     */
+    private boolean matchGlob(int globIndex, String text, int textIndex, long[] failed) {
+        if (failed == null) {
+            return matchRest(globIndex, text, textIndex, null);
+        }
+        int state = globIndex * (text.length() + 1) + textIndex;
+        if ((failed[state >>> 6] & 1L << state) != 0) {
+            return false;
+        }
+        if (matchRest(globIndex, text, textIndex, failed)) {
+            return true;
+        }
+        failed[state >>> 6] |= 1L << state;
+        return false;
+    }
+
+    /**
+     * Matches the rest of the glob against the rest of a text.
+     *
+     * @param globIndex The position in the glob.
+     * @param text      The text to match.
+     * @param textIndex The position in the text.
+     * @param failed    The positions of the glob and the text known not to match, or {@code null}.
+     * @return {@code true} if the rest of the glob matches the whole rest of the text.
+     */
+    private boolean matchRest(int globIndex, String text, int textIndex, long[] failed) {
+        while (globIndex < glob.length()) {
+            char character = glob.charAt(globIndex);
+            if (character == '*' && globIndex + 1 < glob.length() && glob.charAt(globIndex + 1) == '*') {
+                return matchAnyDirectories(globIndex + 2, text, textIndex, failed);
+            }
+
+            if (character == '*') {
+                for (int position = textIndex; position <= text.length(); position++) {
+                    if (matchGlob(globIndex + 1, text, position, failed)) {
+                        return true;
+                    }
+                    if (position < text.length() && text.charAt(position) == '/') {
+                        return false;
+                    }
+                }
+                return false;
+            }
+
+            if (textIndex >= text.length()) {
+                return false;
+            }
+            char textCharacter = text.charAt(textIndex);
+            if (character == '?') {
+                if (textCharacter == '/') {
+                    return false;
+                }
+                globIndex++;
+            } else if (character == '[' && glob.indexOf(']', globIndex + 2) > 0) {
+                int classEnd = glob.indexOf(']', globIndex + 2);
+                if (textCharacter == '/' || !matchClass(globIndex + 1, classEnd, textCharacter)) {
+                    return false;
+                }
+                globIndex = classEnd + 1;
+            } else {
+                if (character == '\\' && globIndex + 1 < glob.length()) {
+                    character = glob.charAt(++globIndex);
+                }
+                if (character != textCharacter) {
+                    return false;
+                }
+                globIndex++;
+            }
+            textIndex++;
+        }
+        return textIndex == text.length();
+    }
+
+    /**
+     * Matches a {@code **} of the glob, which crosses directories.
+     *
+     * @param globIndex The position in the glob after the {@code **}.
+     * @param text      The text to match.
+     * @param textIndex The position in the text where the {@code **} starts.
+     * @param failed    The positions of the glob and the text known not to match, or {@code null}.
+     * @return {@code true} if the rest of the glob matches after some number of characters or directories.
+     */
+    private boolean matchAnyDirectories(int globIndex, String text, int textIndex, long[] failed) {
+        if (globIndex < glob.length() && glob.charAt(globIndex) == '/') {
+            // "**/" matches zero or more whole directories
+            if (matchGlob(globIndex + 1, text, textIndex, failed)) {
+                return true;
+            }
+            for (int position = textIndex; position < text.length(); position++) {
+                if (text.charAt(position) == '/' && matchGlob(globIndex + 1, text, position + 1, failed)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (int position = textIndex; position <= text.length(); position++) {
+            if (matchGlob(globIndex, text, position, failed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Matches a character against a class such as {@code [a-z]} or {@code [!0-9]}.
+     *
+     * @param start     The position after the opening bracket.
+     * @param end       The position of the closing bracket.
+     * @param character The character to match.
+     * @return {@code true} if the character belongs to the class.
+     */
+    private boolean matchClass(int start, int end, char character) {
+        boolean negatedClass = glob.charAt(start) == '!' || glob.charAt(start) == '^';
+        int index = negatedClass ? start + 1 : start;
+        boolean found = false;
+        while (index < end) {
+            char first = glob.charAt(index);
+            if (index + 2 < end && glob.charAt(index + 1) == '-') {
+                found |= character >= first && character <= glob.charAt(index + 2);
+                index += 3;
+            } else {
+                found |= character == first;
+                index++;
+            }
+        }
+        return found != negatedClass;
+    }
+
+    /**
+     * Checks whether a glob has a wildcard or an escape from a position on.
+     *
+     * @param glob  The glob.
+     * @param start The first position to check.
+     * @return {@code true} if the glob has {@code *}, {@code ?} or {@code [} after the position.
+     */
+    private static boolean hasWildcard(String glob, int start) {
+        for (int i = start; i < glob.length(); i++) {
+            char character = glob.charAt(i);
+            if (character == '*' || character == '?' || character == '[') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the stars of a glob, taking a {@code **} as one star and skipping escaped characters.
+     *
+     * @param glob The glob.
+     * @return The number of places where the matcher may backtrack.
+     */
+    private static int countStars(String glob) {
+        int stars = 0;
+        boolean star = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char character = glob.charAt(i);
+            if (character == '*' && !star) {
+                stars++;
+            } else if (character == '\\') {
+                i++;
+            }
+            star = character == '*';
+        }
+        return stars;
+    }
+
+    /**
+     * Removes the backslashes that escape the characters of a glob without wildcards.
+     *
+     * @param glob The glob.
+     * @return The text the glob matches.
+     */
+    private static String unescape(String glob) {
+        if (glob.indexOf('\\') < 0) {
+            return glob;
+        }
+        StringBuilder text = new StringBuilder(glob.length());
+        for (int i = 0; i < glob.length(); i++) {
+            char character = glob.charAt(i);
+            if (character == '\\' && i + 1 < glob.length()) {
+                character = glob.charAt(++i);
+            }
+            text.append(character);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package com.mantenimiento.morado.code.ignore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code IgnoreRules} class decides which files and directories are left out of an analysis, using
+ * patterns in the syntax of {@code .gitignore}.
+ * <p>
+ * The rules of a directory are the patterns of its own ignore file followed by the rules of its parent. Within
+ * an ignore file the last pattern that matches an entry decides, and a file deeper in the tree overrides its
+ * parents, like git does. The rules are checked while the tree is walked, so an excluded directory is never
+ * opened and nothing below it can be included again.
+ * </p>
+ * <p>
+ * The rules of the root come from a rules file given by the user, relative to the analyzed directory, and,
+ * when ignore files are read, from {@code .git/info/exclude}. When ignore files are read, the
+ * {@code .git} directory is always excluded and the {@code .gitignore} file of every directory is added to
+ * its rules. Rules are immutable and can be shared by several threads.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class IgnoreRules {
+    /**
+     * The name of the ignore file read in every directory.
+     */
+    public static final String IGNORE_FILE_NAME = ".gitignore";
+
+    private static final IgnorePattern[] NO_PATTERNS = new IgnorePattern[0];
+
+    private final IgnoreRules parent;
+    private final String directory;
+    private final IgnorePattern[] patterns;
+    private final boolean anchored;
+    private final boolean readIgnoreFiles;
+
+    /**
+     * Constructs the rules of a directory.
+     *
+     * @param parent          The rules of the parent directory, or {@code null} for the root.
+     * @param directory       The directory the patterns are relative to.
+     * @param patterns        The compiled patterns, in the order they were written.
+     * @param readIgnoreFiles Whether the ignore file of every subdirectory is read.
+     */
+    private IgnoreRules(IgnoreRules parent, String directory, IgnorePattern[] patterns, boolean readIgnoreFiles) {
+        this.parent = parent;
+        this.directory = directory;
+        this.patterns = patterns;
+        this.readIgnoreFiles = readIgnoreFiles;
+        boolean anyAnchored = false;
+        for (IgnorePattern pattern : patterns) {
+            anyAnchored |= pattern.isAnchored();
+        }
+        this.anchored = anyAnchored;
+    }
+
+    /**
+     * Loads the rules of the root of an analysis.
+     *
+     * @param root            The analyzed directory.
+     * @param rulesFile       A file with more patterns relative to the root, or {@code null} for none.
+     * @param readIgnoreFiles Whether the {@code .gitignore} file of every directory and
+     *                        {@code .git/info/exclude} are read.
+     * @return The rules of the root.
+     * @throws IOException If the rules file cannot be read.
+     */
+    public static IgnoreRules load(Path root, Path rulesFile, boolean readIgnoreFiles) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (readIgnoreFiles) {
+            lines.add(".git/");
+            lines.addAll(readLines(root.resolve(".git").resolve("info").resolve("exclude")));
+        }
+        if (rulesFile != null) {
+            lines.addAll(Files.readAllLines(rulesFile, StandardCharsets.UTF_8));
+        }
+        return new IgnoreRules(null, root.toString(), compile(lines), readIgnoreFiles);
+    }
+
+    /**
+     * Returns the rules that apply inside a directory, adding the patterns of its ignore file when ignore files
+     * are read and the directory has one.
+     *
+     * @param directory A directory that is not excluded by these rules.
+     * @return The rules of the directory, or these rules if it adds no pattern.
+     */
+    public IgnoreRules forDirectory(Path directory) {
+        if (!readIgnoreFiles) {
+            return this;
+        }
+
+        List<String> lines;
+        try {
+            lines = readLines(directory.resolve(IGNORE_FILE_NAME));
+        } catch (IOException ioException) {
+            System.err.println("Error while reading ignore file: " + ioException.getMessage());
+            return this;
+        }
+        IgnorePattern[] directoryPatterns = compile(lines);
+        if (directoryPatterns.length == 0) {
+            return this;
+        }
+        return new IgnoreRules(this, directory.toString(), directoryPatterns, true);
+    }
+
+    /**
+     * Checks whether a file or directory is excluded.
+     *
+     * @param path      The path of the entry, below the directory of these rules.
+     * @param name      The name of the entry.
+     * @param directory Whether the entry is a directory.
+     * @return {@code true} if the entry is excluded and must not be analyzed or walked.
+     */
+    public boolean isIgnored(String path, String name, boolean directory) {
+        for (IgnoreRules rules = this; rules != null; rules = rules.parent) {
+            String relativePath = rules.anchored ? rules.relativize(path) : null;
+            for (int i = rules.patterns.length - 1; i >= 0; i--) {
+                IgnorePattern pattern = rules.patterns[i];
+                if (pattern.matches(name, relativePath, directory)) {
+                    return !pattern.isNegated();
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the path of an entry relative to the directory of these rules, with {@code /} as separator.
+     *
+     * @param path The path of an entry below the directory.
+     * @return The relative path.
+     */
+    private String relativize(String path) {
+        int start = directory.length();
+        if (start < path.length() && path.charAt(start) == File.separatorChar) {
+            start++;
+        }
+        String relativePath = path.substring(start);
+        return File.separatorChar == '/' ? relativePath : relativePath.replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Compiles the lines of ignore files, leaving out blank lines and comments.
+     *
+     * @param lines The lines to compile.
+     * @return The compiled patterns.
+     */
+    private static IgnorePattern[] compile(List<String> lines) {
+        List<IgnorePattern> compiled = new ArrayList<>();
+        for (String line : lines) {
+            IgnorePattern pattern = IgnorePattern.compile(line);
+            if (pattern != null) {
+                compiled.add(pattern);
+            }
+        }
+        return compiled.isEmpty() ? NO_PATTERNS : compiled.toArray(NO_PATTERNS);
+    }
+
+    /**
+     * Reads the lines of an optional ignore file.
+     *
+     * @param file The ignore file.
+     * @return The lines of the file, or an empty list if it does not exist.
+     * @throws IOException If the file exists but cannot be read.
+     */
+    private static List<String> readLines(Path file) throws IOException {
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException noSuchFileException) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mantenimiento.morado.code.language;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rules a language follows for comments, strings and declarations, used to count its lines of code and
+ * find its types and methods without a parser of its own.
+ * <p>
+ * Keywords are written in lower case. When the language is not case-sensitive they are matched in any case.
+ * </p>
+ *
+ * @param name              the name of the language, as given to {@code --languages} in lower case
+ * @param extensions        the extensions of its source files, with the dot
+ * @param lineComments      the markers that start a comment up to the end of the line
+ * @param blockCommentStart the marker that opens a block comment, or {@code null} if there are none
+ * @param blockCommentEnd   the marker that closes a block comment, or {@code null} if there are none
+ * @param nestedComments    whether block comments can be nested
+ * @param quotes            the quotes of string and character literals that end on the same line
+ * @param multiLineStrings  the delimiters that open and close literals that can span lines
+ * @param backslashEscapes  whether a backslash escapes the next character of a literal
+ * @param caseSensitive     whether keywords must match in case
+ * @param lexer             the lexer and structure that scan the files of the language
+ * @param blocks            how the end of the body of a type or a method is found
+ * @param typeKeywords      the keywords that declare a type, with the kind of the type
+ * @param methodKeywords    the keywords that declare a method or a function
+ * @param declarationLeader the keyword a statement must start with to declare anything, or {@code null} if
+ *                          any statement can declare
+ * @param skippedWords      the words between a keyword and the declared name that are not the name
+ * @version 2.0.0
+ */
+public record LanguageProfile(
+    String name,
+    List<String> extensions,
+    List<String> lineComments,
+    String blockCommentStart,
+    String blockCommentEnd,
+    boolean nestedComments,
+    String quotes,
+    List<String> multiLineStrings,
+    boolean backslashEscapes,
+    boolean caseSensitive,
+    Lexer lexer,
+    BlockStyle blocks,
+    Map<String, String> typeKeywords,
+    List<String> methodKeywords,
+    String declarationLeader,
+    List<String> skippedWords
+) {
+    /**
+     * The lexer and the structure that scan the files of a language.
+     */
+    public enum Lexer {
+        /**
+         * The dedicated {@code JavaLexer} and {@code JavaStructure}, which also check the style rules.
+         */
+        JAVA,
+
+        /**
+         * The {@code SourceLexer} and {@code SourceStructure}, driven by the rest of the profile.
+         */
+        PROFILE
+    }
+
+    /**
+     * How the body of a declaration is delimited.
+     */
+    public enum BlockStyle {
+        /**
+         * The body is enclosed in braces, as in Java and Kotlin.
+         */
+        BRACES,
+
+        /**
+         * The body is made of the following lines that are indented deeper than the declaration, as in Python.
+         */
+        INDENTATION,
+
+        /**
+         * The declaration ends with the statement, at a semicolon outside any {@code BEGIN ... END} block,
+         * as in SQL.
+         */
+        STATEMENTS
+    }
+}
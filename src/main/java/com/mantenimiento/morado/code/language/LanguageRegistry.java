@@ -0,0 +1,154 @@
+package com.mantenimiento.morado.code.language;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.mantenimiento.morado.code.language.LanguageProfile.BlockStyle;
+import com.mantenimiento.morado.code.language.LanguageProfile.Lexer;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code LanguageRegistry} class holds the profiles of the languages that can be analyzed and finds the
+ * profile of a file from its extension.
+ * <p>
+ * The profiles are a table: adding a language is adding an entry with its extensions, comment and string
+ * rules and declaration keywords. The lexer of the profile chooses how its files are scanned: Java files by the
+ * dedicated {@code JavaLexer} and {@code JavaStructure}, which also check the style rules, and the other
+ * languages by a lexer and a structure driven by their profile. A file is looked up with a single hash lookup on its extension, so a tree that
+ * mixes languages is still walked once and each file is read once.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class LanguageRegistry {
+    /**
+     * The Java language.
+     */
+    public static final LanguageProfile JAVA = new LanguageProfile(
+        "java", List.of(".java"),
+        List.of("//"), "/*", "*/", false,
+        "\"'", List.of("\"\"\""), true, true,
+        Lexer.JAVA, BlockStyle.BRACES,
+        Map.of("class", Constants.TYPE_KIND_CLASS, "interface", Constants.TYPE_KIND_INTERFACE,
+            "enum", Constants.TYPE_KIND_ENUM, "record", Constants.TYPE_KIND_RECORD),
+        List.of(), null, List.of()
+    );
+
+    /**
+     * The Kotlin language.
+     */
+    public static final LanguageProfile KOTLIN = new LanguageProfile(
+        "kotlin", List.of(".kt", ".kts"),
+        List.of("//"), "/*", "*/", true,
+        "\"'", List.of("\"\"\""), true, true,
+        Lexer.PROFILE, BlockStyle.BRACES,
+        Map.of("class", Constants.TYPE_KIND_CLASS, "interface", Constants.TYPE_KIND_INTERFACE,
+            "object", Constants.TYPE_KIND_OBJECT),
+        List.of("fun"), null, List.of()
+    );
+
+    /**
+     * The Python language.
+     */
+    public static final LanguageProfile PYTHON = new LanguageProfile(
+        "python", List.of(".py"),
+        List.of("#"), null, null, false,
+        "\"'", List.of("\"\"\"", "'''"), true, true,
+        Lexer.PROFILE, BlockStyle.INDENTATION,
+        Map.of("class", Constants.TYPE_KIND_CLASS),
+        List.of("def"), null, List.of()
+    );
+
+    /**
+     * The SQL language. Tables and views are its types, and functions and procedures its methods.
+     */
+    public static final LanguageProfile SQL = new LanguageProfile(
+        "sql", List.of(".sql"),
+        List.of("--"), "/*", "*/", false,
+        "", List.of("'", "\"", "$$"), false, false,
+        Lexer.PROFILE, BlockStyle.STATEMENTS,
+        Map.of("table", Constants.TYPE_KIND_TABLE, "view", Constants.TYPE_KIND_VIEW),
+        List.of("function", "procedure"), "create", List.of("if", "not", "exists")
+    );
+
+    private static final List<LanguageProfile> PROFILES = List.of(JAVA, KOTLIN, PYTHON, SQL);
+    private static final Map<String, LanguageProfile> PROFILES_BY_EXTENSION = new HashMap<>();
+
+    static {
+        for (LanguageProfile profile : PROFILES) {
+            for (String extension : profile.extensions()) {
+                PROFILES_BY_EXTENSION.put(extension, profile);
+            }
+        }
+    }
+
+    /**
+     * @return The profiles of all the languages, Java first.
+     */
+    public static List<LanguageProfile> getProfiles() {
+        return PROFILES;
+    }
+
+    /**
+     * Finds the profile of a file from its extension.
+     *
+     * @param filename The name or path of the file.
+     * @return The profile of the language of the file, or {@code null} if no language uses its extension.
+     */
+    public static LanguageProfile forFilename(String filename) {
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        return PROFILES_BY_EXTENSION.get(filename.substring(dot));
+    }
+
+    /**
+     * Finds the position of a profile in a list of profiles.
+     * <p>
+     * The profiles are the single instances held by the registry, so they are compared by identity. This also
+     * keeps the generated {@code equals} of the record out of short runs, where its first call alone costs
+     * tens of milliseconds of bootstrapping.
+     * </p>
+     *
+     * @param profiles The list of profiles.
+     * @param profile  The profile to find, or {@code null}.
+     * @return The position of the profile in the list, or {@code -1} if it is not in the list.
+     */
+    public static int indexOf(List<LanguageProfile> profiles, LanguageProfile profile) {
+        for (int i = 0; i < profiles.size(); i++) {
+            if (profiles.get(i) == profile) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a list of language names separated by commas.
+     *
+     * @param names The names of the languages, or {@code all} for every language.
+     * @return The profiles of the languages, without repetitions, in the order they were given.
+     * @throws IllegalArgumentException if a name is not the name of a language.
+     */
+    public static List<LanguageProfile> parse(String names) {
+        if (names.equalsIgnoreCase("all")) {
+            return PROFILES;
+        }
+
+        Map<String, LanguageProfile> profiles = new LinkedHashMap<>();
+        for (String name : names.split(",")) {
+            String key = name.trim().toLowerCase(Locale.ROOT);
+            LanguageProfile profile = PROFILES.stream()
+                .filter(candidate -> candidate.name().equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown language: " + name));
+            profiles.put(key, profile);
+        }
+        return new ArrayList<>(profiles.values());
+    }
+}
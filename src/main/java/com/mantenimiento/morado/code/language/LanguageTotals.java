@@ -0,0 +1,83 @@
+package com.mantenimiento.morado.code.language;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code LanguageTotals} class adds up the results of an analysis per language: the number of files,
+ * their physical LOC, and the number of types and methods they declare. The module that holds the top-level
+ * functions of a file is not one of its types, so it is not counted.
+ * <p>
+ * The totals are kept in arrays indexed by the position of the language in the registry, so adding a file
+ * is a lookup of its extension and a few additions. A {@code LanguageTotals} is not thread-safe; it is
+ * filled from the thread that reports the results.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class LanguageTotals {
+    private final List<LanguageProfile> profiles = LanguageRegistry.getProfiles();
+    private final int[] files = new int[profiles.size()];
+    private final long[] physicalLOC = new long[profiles.size()];
+    private final long[] types = new long[profiles.size()];
+    private final long[] methods = new long[profiles.size()];
+
+    /**
+     * Adds a file to the totals of its language.
+     *
+     * @param file The result of the analysis of the file.
+     */
+    public void add(SourceFile file) {
+        int index = LanguageRegistry.indexOf(profiles, LanguageRegistry.forFilename(file.filename()));
+        if (index < 0) {
+            return;
+        }
+        files[index]++;
+        physicalLOC[index] += file.physicalLOC();
+        for (SourceType type : file.types()) {
+            if (!type.kind().equals(Constants.TYPE_KIND_MODULE)) {
+                types[index]++;
+            }
+        }
+        methods[index] += file.numOfMethods();
+    }
+
+    /**
+     * @param profile A language of the registry.
+     * @return The number of files of the language, or {@code 0} if it is not counted.
+     */
+    public int getFiles(LanguageProfile profile) {
+        int index = LanguageRegistry.indexOf(profiles, profile);
+        return index < 0 ? 0 : files[index];
+    }
+
+    /**
+     * @param profile A language of the registry.
+     * @return The physical LOC of the files of the language, or {@code 0} if it is not counted.
+     */
+    public long getPhysicalLOC(LanguageProfile profile) {
+        int index = LanguageRegistry.indexOf(profiles, profile);
+        return index < 0 ? 0 : physicalLOC[index];
+    }
+
+    /**
+     * Prints the totals of the languages that have files.
+     *
+     * @param output The stream where the totals are printed, usually the standard error.
+     */
+    public void printSummary(PrintStream output) {
+        output.println("Languages");
+        output.printf(Locale.ROOT, "%-10s %8s %12s %8s %8s%n", "Language", "Files", "LOC", "Types", "Methods");
+        for (int i = 0; i < profiles.size(); i++) {
+            if (files[i] > 0) {
+                output.printf(Locale.ROOT, "%-10s %8d %12d %8d %8d%n",
+                    profiles.get(i).name(), files[i], physicalLOC[i], types[i], methods[i]);
+            }
+        }
+    }
+}
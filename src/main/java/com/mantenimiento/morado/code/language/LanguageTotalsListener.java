@@ -0,0 +1,62 @@
+package com.mantenimiento.morado.code.language;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+
+/**
+ * An {@link AnalysisListener} that passes every call to another listener and adds every file to the
+ * {@link LanguageTotals} of its language.
+ *
+ * @version 2.0.0
+ */
+public class LanguageTotalsListener implements AnalysisListener {
+    private final AnalysisListener listener;
+    private final LanguageTotals totals;
+
+    /**
+     * Constructs a listener that adds up the files reported to another one.
+     *
+     * @param listener The listener that receives the calls.
+     * @param totals   The totals where the files are added.
+     */
+    public LanguageTotalsListener(AnalysisListener listener, LanguageTotals totals) {
+        this.listener = listener;
+        this.totals = totals;
+    }
+
+    @Override
+    public void onStart() {
+        listener.onStart();
+    }
+
+    @Override
+    public void onProgramStart(String programName) {
+        listener.onProgramStart(programName);
+    }
+
+    @Override
+    public void onProgramStart(String programName, String programPath) {
+        listener.onProgramStart(programName, programPath);
+    }
+
+    @Override
+    public void onFile(SourceFile file) {
+        totals.add(file);
+        listener.onFile(file);
+    }
+
+    @Override
+    public void onProgramEnd(String programName, int totalPhysicalLOC) {
+        listener.onProgramEnd(programName, totalPhysicalLOC);
+    }
+
+    @Override
+    public void onProjectEnd(int totalPhysicalLOC) {
+        listener.onProjectEnd(totalPhysicalLOC);
+    }
+
+    @Override
+    public void onInvalidPath(String path) {
+        listener.onInvalidPath(path);
+    }
+}
@@ -0,0 +1,54 @@
+package com.mantenimiento.morado.code.model;
+
+/**
+ * Represents a Java source file that changed between two revisions, with its analysis in each of them.
+ * <p>
+ * A file added in the current revision has no previous analysis, and a deleted file has no current one.
+ * </p>
+ *
+ * @version 2.0.0
+ *
+ * @param path         the path of the file, relative to the analyzed directory
+ * @param previousFile the analysis of the file in the base revision, or {@code null} if it was added
+ * @param currentFile  the analysis of the file in the current revision, or {@code null} if it was deleted
+ */
+public record FileChange(String path, SourceFile previousFile, SourceFile currentFile) {
+
+    /**
+     * @return The physical LOC of the file in the base revision, {@code 0} if it was added.
+     */
+    public int getPreviousLOC() {
+        return previousFile == null ? 0 : previousFile.physicalLOC();
+    }
+
+    /**
+     * @return The physical LOC of the file in the current revision, {@code 0} if it was deleted.
+     */
+    public int getCurrentLOC() {
+        return currentFile == null ? 0 : currentFile.physicalLOC();
+    }
+
+    /**
+     * @return The difference between the current and the previous physical LOC of the file.
+     */
+    public int getDelta() {
+        return getCurrentLOC() - getPreviousLOC();
+    }
+
+    /**
+     * @return "Added", "Deleted" or "Modified", depending on the revisions where the file exists.
+     */
+    public String getChangeType() {
+        if (previousFile == null) {
+            return "Added";
+        }
+        return currentFile == null ? "Deleted" : "Modified";
+    }
+
+    /**
+     * @return The name of the file, without its directories.
+     */
+    public String getFilename() {
+        return currentFile != null ? currentFile.filename() : previousFile.filename();
+    }
+}
@@ -1,13 +1,17 @@
 package com.mantenimiento.morado.code.model;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import com.mantenimiento.morado.code.syntax.SourceCharset;
 
 /**
  * Represents a source file with its name, logical lines of code, physical lines of code,
- * and a status indicating its state.
+ * a status indicating its state, its package and the types it declares.
  * <p>
  * This record is used to encapsulate basic information about a Java source file.
  * It provides a static method to read all lines from a file.
@@ -21,21 +25,39 @@ import java.util.List;
  * @param physicalLOC the number of physical lines of code in the file
  * @param numOfMethods the number of methods of code in the file
  * @param status     the status of the source file (e.g., "well-written", "error", etc.)
+ * @param packageName the name of the package declared in the file, empty for the default package
+ * @param types      the types declared in the file, in the order they are declared
  *
  */
-public record SourceFile(String filename, int physicalLOC, int numOfMethods, String status) {
+public record SourceFile(String filename, int physicalLOC, int numOfMethods, String status, String packageName,
+                         List<SourceType> types) {
+
+    /**
+     * Creates a {@code SourceFile} whose package and types are not known, such as a file that could not
+     * be analyzed.
+     *
+     * @param filename     the name of the source file
+     * @param physicalLOC  the number of physical lines of code in the file
+     * @param numOfMethods the number of methods of code in the file
+     * @param status       the status of the source file
+     */
+    public SourceFile(String filename, int physicalLOC, int numOfMethods, String status) {
+        this(filename, physicalLOC, numOfMethods, status, "", List.of());
+    }
 
     /**
      * Reads all lines from the specified file.
      *
-     * <p>This method uses {@link java.nio.file.Files#readAllLines(java.nio.file.Path)}.
-     * to read the file content and return it as a list of strings.</p>
+     * <p>The lines are split like {@link java.nio.file.Files#readAllLines(java.nio.file.Path)} does, but the
+     * encoding of the file is detected by {@link SourceCharset} instead of assuming UTF-8, and bytes that are
+     * not valid in it are decoded as replacement characters, so a Latin-1 file does not fail.</p>
      *
      * @param filepath the path to the file
      * @return a {@code List<String>} containing all lines from the file
-     * @throws IOException if an I/O error occurs reading from the file or a malformed or unmappable byte sequence is read
+     * @throws IOException if an I/O error occurs reading from the file
      */
     public static List<String> getAllLinesFromFile(String filepath) throws IOException {
-        return Files.readAllLines(Paths.get(filepath));
+        String content = SourceCharset.decode(ByteBuffer.wrap(Files.readAllBytes(Paths.get(filepath))));
+        return content.lines().collect(Collectors.toList());
     }
 }
@@ -0,0 +1,13 @@
+package com.mantenimiento.morado.code.model;
+
+/**
+ * Represents a method or constructor with a body, declared in a {@link SourceType}.
+ *
+ * @version 2.0.0
+ *
+ * @param name        the name of the method, or of the type for a constructor
+ * @param physicalLOC the number of physical lines of code from the start of the declaration, annotations
+ *                    included, to the closing brace of the body
+ */
+public record SourceMethod(String name, int physicalLOC) {
+}
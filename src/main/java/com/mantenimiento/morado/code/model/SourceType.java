@@ -0,0 +1,30 @@
+package com.mantenimiento.morado.code.model;
+
+import java.util.List;
+
+/**
+ * Represents a type declared in a source file, with its size and the methods it declares.
+ * <p>
+ * Nested and local types are separate entries, named after their enclosing types, and their lines are
+ * also part of the lines of the enclosing types. The methods of anonymous classes and enum constant bodies
+ * are counted in the named type that contains them.
+ * </p>
+ *
+ * @version 2.0.0
+ *
+ * @param name        the name of the type, qualified by its enclosing types (e.g. "Outer.Inner")
+ * @param kind        the kind of the type, given by one of the type kind constants of
+ *                    {@link com.mantenimiento.morado.util.Constants} and written in lower case
+ * @param physicalLOC the number of physical lines of code from the start of the declaration to the closing
+ *                    brace of the body
+ * @param methods     the methods and constructors with a body declared in the type, in declaration order
+ */
+public record SourceType(String name, String kind, int physicalLOC, List<SourceMethod> methods) {
+
+    /**
+     * @return the number of methods and constructors with a body declared in the type
+     */
+    public int numOfMethods() {
+        return methods.size();
+    }
+}
@@ -0,0 +1,84 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+
+/**
+ * Receives the results of an analysis as they are produced.
+ * <p>
+ * A program is a directory with its Java files, or the single file given to the analyzer.
+ * For every program the listener receives, in order:
+ * </p>
+ * <ol>
+ *   <li>{@link #onProgramStart(String, String)} with the name and the path of the directory, which calls
+ *   {@link #onProgramStart(String)} unless it is overridden.</li>
+ *   <li>{@link #onFile(SourceFile)} for each analyzed file, in directory order.</li>
+ *   <li>{@link #onProgramEnd(String, int)} with the total physical LOC of the program.</li>
+ * </ol>
+ * <p>
+ * When a directory is analyzed, {@link #onProjectEnd(int)} is called after the last program.
+ * All methods are called from the thread that started the analysis.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public interface AnalysisListener {
+
+    /**
+     * Called once, before any result, when the analyzed path is a valid file or directory.
+     */
+    default void onStart() {
+    }
+
+    /**
+     * Called when the analysis of a program starts.
+     *
+     * @param programName The name of the directory, or an empty string when a single file is analyzed.
+     */
+    default void onProgramStart(String programName) {
+    }
+
+    /**
+     * Called when the analysis of a program starts, with the path of its directory. Two directories of a tree
+     * can have the same name, so the listeners that keep programs apart override this method. By default it
+     * calls {@link #onProgramStart(String)}.
+     *
+     * @param programName The name of the directory, or an empty string when a single file is analyzed.
+     * @param programPath The path of the directory relative to the analyzed path, with {@code /} separators,
+     *                    or {@code "."} for the analyzed path itself.
+     */
+    default void onProgramStart(String programName, String programPath) {
+        onProgramStart(programName);
+    }
+
+    /**
+     * Called for every analyzed file.
+     *
+     * @param file The result of the analysis of the file.
+     */
+    void onFile(SourceFile file);
+
+    /**
+     * Called when all files of a program were analyzed.
+     *
+     * @param programName      The name of the directory, or an empty string when a single file is analyzed.
+     * @param totalPhysicalLOC The total physical LOC of the files of the program.
+     */
+    default void onProgramEnd(String programName, int totalPhysicalLOC) {
+    }
+
+    /**
+     * Called after the last program when a directory is analyzed.
+     *
+     * @param totalPhysicalLOC The total physical LOC of all programs.
+     */
+    default void onProjectEnd(int totalPhysicalLOC) {
+    }
+
+    /**
+     * Called instead of any other method when the path is neither a file nor a directory.
+     *
+     * @param path The path that was given to the analyzer.
+     */
+    default void onInvalidPath(String path) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.FileChange;
+
+/**
+ * Prints the Java files that changed between two revisions as comma-separated values.
+ * <p>
+ * The first row is a header, followed by one row per changed file with the columns
+ * {@code program,path,change,previous_loc,current_loc,delta,status}. The status is empty for deleted files.
+ * The deltas of the programs are not printed, since they are the sum of the {@code delta} column.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class ChangeCsvPrinter implements ChangeListener {
+    private final ReportWriter writer;
+    private String programName = "";
+
+    /**
+     * Constructs a printer that writes the values to the specified writer.
+     *
+     * @param writer The writer that receives the values.
+     */
+    public ChangeCsvPrinter(ReportWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Prints the header row.
+     */
+    @Override
+    public void onStart() {
+        writer.write("program,path,change,previous_loc,current_loc,delta,status").newLine();
+    }
+
+    /**
+     * Keeps the name of the program to print it on the rows of its files.
+     *
+     * @param programName The name of the directory.
+     */
+    @Override
+    public void onProgramStart(String programName) {
+        this.programName = programName;
+    }
+
+    /**
+     * Prints the row of a changed file.
+     *
+     * @param change The file with its analysis in both revisions.
+     */
+    @Override
+    public void onChange(FileChange change) {
+        CsvPrinter.writeField(writer, programName);
+        writer.write(',');
+        CsvPrinter.writeField(writer, change.path());
+        writer.write(',').write(change.getChangeType())
+            .write(',').write(change.getPreviousLOC())
+            .write(',').write(change.getCurrentLOC())
+            .write(',').write(change.getDelta())
+            .write(',');
+        if (change.currentFile() != null) {
+            CsvPrinter.writeField(writer, change.currentFile().status());
+        }
+        writer.newLine();
+    }
+}
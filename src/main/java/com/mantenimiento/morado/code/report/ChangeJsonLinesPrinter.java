@@ -0,0 +1,103 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.FileChange;
+import com.mantenimiento.morado.code.model.SourceFile;
+
+/**
+ * Prints the Java files that changed between two revisions as JSON Lines, one JSON object per line.
+ * <p>
+ * Every object has a {@code type} member:
+ * </p>
+ * <ul>
+ *   <li>{@code "change"}: a changed file, with {@code program}, {@code path}, {@code change}, {@code delta},
+ *   and {@code previous} and {@code current} objects with the {@code methods}, {@code physicalLOC} and
+ *   {@code status} of each revision, or {@code null} where the file does not exist.</li>
+ *   <li>{@code "program"}: the LOC delta of a program, with {@code program} and {@code delta}.</li>
+ *   <li>{@code "project"}: the LOC delta of all programs, with {@code delta}.</li>
+ * </ul>
+ *
+ * @version 2.0.0
+ */
+public class ChangeJsonLinesPrinter implements ChangeListener {
+    private final ReportWriter writer;
+    private String programName = "";
+
+    /**
+     * Constructs a printer that writes the objects to the specified writer.
+     *
+     * @param writer The writer that receives the objects.
+     */
+    public ChangeJsonLinesPrinter(ReportWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Keeps the name of the program to print it in the objects of its files.
+     *
+     * @param programName The name of the directory.
+     */
+    @Override
+    public void onProgramStart(String programName) {
+        this.programName = programName;
+    }
+
+    /**
+     * Prints the object of a changed file.
+     *
+     * @param change The file with its analysis in both revisions.
+     */
+    @Override
+    public void onChange(FileChange change) {
+        writer.write("{\"type\":\"change\",\"program\":");
+        writer.writeJsonString(programName);
+        writer.write(",\"path\":");
+        writer.writeJsonString(change.path());
+        writer.write(",\"change\":\"").write(change.getChangeType())
+            .write("\",\"delta\":").write(change.getDelta())
+            .write(",\"previous\":");
+        writeFile(change.previousFile());
+        writer.write(",\"current\":");
+        writeFile(change.currentFile());
+        writer.write('}').newLine();
+    }
+
+    /**
+     * Prints the object with the LOC delta of a program.
+     *
+     * @param programName The name of the directory.
+     * @param delta       The LOC delta of the program.
+     */
+    @Override
+    public void onProgramEnd(String programName, int delta) {
+        writer.write("{\"type\":\"program\",\"program\":");
+        writer.writeJsonString(programName);
+        writer.write(",\"delta\":").write(delta).write('}').newLine();
+    }
+
+    /**
+     * Prints the object with the LOC delta of the project.
+     *
+     * @param delta The LOC delta of all programs.
+     */
+    @Override
+    public void onProjectEnd(int delta) {
+        writer.write("{\"type\":\"project\",\"delta\":").write(delta).write('}').newLine();
+    }
+
+    /**
+     * Writes the analysis of one revision of a file.
+     *
+     * @param file The analysis, or {@code null} if the file does not exist in that revision.
+     */
+    private void writeFile(SourceFile file) {
+        if (file == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write("{\"methods\":").write(file.numOfMethods())
+            .write(",\"physicalLOC\":").write(file.physicalLOC())
+            .write(",\"status\":");
+        writer.writeJsonString(file.status());
+        writer.write('}');
+    }
+}
@@ -0,0 +1,55 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.FileChange;
+
+/**
+ * Receives the Java files that changed between two revisions, grouped by program.
+ * <p>
+ * Like {@link AnalysisListener}, a program is a directory. For every program with changes the listener
+ * receives {@link #onProgramStart(String)}, {@link #onChange(FileChange)} for each changed file and
+ * {@link #onProgramEnd(String, int)} with the LOC delta of the program. {@link #onProjectEnd(int)} is
+ * called at the end with the delta of all programs.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public interface ChangeListener {
+
+    /**
+     * Called once, before any change, when the changes could be read.
+     */
+    default void onStart() {
+    }
+
+    /**
+     * Called when the changes of a program start.
+     *
+     * @param programName The name of the directory.
+     */
+    default void onProgramStart(String programName) {
+    }
+
+    /**
+     * Called for every changed file.
+     *
+     * @param change The file with its analysis in both revisions.
+     */
+    void onChange(FileChange change);
+
+    /**
+     * Called after the last changed file of a program.
+     *
+     * @param programName The name of the directory.
+     * @param delta       The difference between the current and the previous physical LOC of the program.
+     */
+    default void onProgramEnd(String programName, int delta) {
+    }
+
+    /**
+     * Called after the last program.
+     *
+     * @param delta The difference between the current and the previous physical LOC of all programs.
+     */
+    default void onProjectEnd(int delta) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.FileChange;
+
+/**
+ * Prints the Java files that changed between two revisions as a formatted table.
+ * <p>
+ * Each row shows the type of change, the physical LOC in both revisions and the difference, followed by a
+ * row with the delta of the program. The delta of the project is printed at the end. Positive deltas are
+ * printed with a leading plus sign.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class ChangeTablePrinter implements ChangeListener {
+    private static final String SEPARATOR =
+        "-------------------------------------------------------------------------------------------------------------------------------";
+
+    private final ReportWriter writer;
+    private String pendingProgramName = "";
+
+    /**
+     * Constructs a printer that writes the table to the specified writer.
+     *
+     * @param writer The writer that receives the table.
+     */
+    public ChangeTablePrinter(ReportWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Prints the header of the table.
+     */
+    @Override
+    public void onStart() {
+        writer.writePadded("Program", 18).write(' ')
+            .writePadded("Class", 30).write(' ')
+            .writePadded("Change", 10).write(' ')
+            .writePadded("Previous LOC", 14).write(' ')
+            .writePadded("Current LOC", 14).write(' ')
+            .writePadded("LOC delta", 14).write(' ')
+            .writePadded("Status", 10).newLine();
+        writer.write(SEPARATOR).newLine();
+    }
+
+    /**
+     * Keeps the name of the program to print it on the row of its first file.
+     *
+     * @param programName The name of the directory.
+     */
+    @Override
+    public void onProgramStart(String programName) {
+        pendingProgramName = programName;
+    }
+
+    /**
+     * Prints the row of a changed file. The status is the one of the current revision, or of the base
+     * revision for a deleted file.
+     *
+     * @param change The file with its analysis in both revisions.
+     */
+    @Override
+    public void onChange(FileChange change) {
+        String filename = change.getFilename();
+        String className = filename.endsWith(".java") ? filename.substring(0, filename.length() - 5) : filename;
+        String status = change.currentFile() != null ? change.currentFile().status() : change.previousFile().status();
+        writer.writePadded(pendingProgramName, 18).write(' ')
+            .writePadded(className, 30).write(' ')
+            .writePadded(change.getChangeType(), 10).write(' ')
+            .writePadded(change.getPreviousLOC(), 14).write(' ')
+            .writePadded(change.getCurrentLOC(), 14).write(' ');
+        writeDelta(change.getDelta());
+        writer.write(' ').writePadded(status, 10).newLine();
+        pendingProgramName = "";
+    }
+
+    /**
+     * Prints the LOC delta of a program.
+     *
+     * @param programName The name of the directory.
+     * @param delta       The LOC delta of the program.
+     */
+    @Override
+    public void onProgramEnd(String programName, int delta) {
+        writeTotalRow("", delta);
+    }
+
+    /**
+     * Prints the LOC delta of the project.
+     *
+     * @param delta The LOC delta of all programs.
+     */
+    @Override
+    public void onProjectEnd(int delta) {
+        writer.write(SEPARATOR).newLine();
+        writeTotalRow("Total delta", delta);
+    }
+
+    /**
+     * Writes a row with a delta in the "LOC delta" column.
+     *
+     * @param label The text of the "Program" column.
+     * @param delta The delta to print.
+     */
+    private void writeTotalRow(String label, int delta) {
+        writer.writePadded(label, 18).write(' ')
+            .writePadded("", 30).write(' ')
+            .writePadded("", 10).write(' ')
+            .writePadded("", 14).write(' ')
+            .writePadded("", 14).write(' ');
+        writeDelta(delta);
+        writer.write(' ').writePadded("", 10).newLine();
+    }
+
+    /**
+     * Writes a delta in the "LOC delta" column, with a plus sign when it is positive.
+     *
+     * @param delta The delta to print.
+     */
+    private void writeDelta(int delta) {
+        if (delta > 0) {
+            writer.write('+').writePadded(delta, 13);
+        } else {
+            writer.writePadded(delta, 14);
+        }
+    }
+}
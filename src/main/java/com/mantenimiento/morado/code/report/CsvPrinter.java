@@ -0,0 +1,102 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+
+/**
+ * Prints the results of an analysis as comma-separated values.
+ * <p>
+ * The first row is a header, followed by one row per analyzed file with the columns
+ * {@code program,file,methods,physical_loc,status}. The totals are not printed, since they are
+ * the sum of the {@code physical_loc} column. Fields that contain a comma, a quote or a line break
+ * are quoted as described in RFC 4180.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class CsvPrinter implements AnalysisListener {
+    private final ReportWriter writer;
+    private String programName = "";
+
+    /**
+     * Constructs a printer that writes the values to the specified writer.
+     *
+     * @param writer The writer that receives the values.
+     */
+    public CsvPrinter(ReportWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Prints the header row.
+     */
+    @Override
+    public void onStart() {
+        writer.write("program,file,methods,physical_loc,status").newLine();
+    }
+
+    /**
+     * Keeps the name of the program to print it on the rows of its files.
+     *
+     * @param programName The name of the directory.
+     */
+    @Override
+    public void onProgramStart(String programName) {
+        this.programName = programName;
+    }
+
+    /**
+     * Prints the row of a Java source file.
+     *
+     * @param file The result of the analysis of the file.
+     */
+    @Override
+    public void onFile(SourceFile file) {
+        writeField(writer, programName);
+        writer.write(',');
+        writeField(writer, file.filename());
+        writer.write(',').write(file.numOfMethods())
+            .write(',').write(file.physicalLOC())
+            .write(',');
+        writeField(writer, file.status());
+        writer.newLine();
+    }
+
+    /**
+     * Prints a message indicating that the path is neither a file nor a directory to the standard error,
+     * so that the output only contains values.
+     *
+     * @param path The path that was given to the analyzer.
+     */
+    @Override
+    public void onInvalidPath(String path) {
+        System.err.println("The specified path is not a valid file or directory.");
+    }
+
+    /**
+     * Writes a field, quoting it when it contains a separator, a quote or a line break.
+     *
+     * @param writer The writer that receives the field.
+     * @param field  The text of the field.
+     */
+    static void writeField(ReportWriter writer, String field) {
+        boolean quoted = false;
+        for (int i = 0; i < field.length() && !quoted; i++) {
+            char character = field.charAt(i);
+            quoted = character == ',' || character == '"' || character == '\n' || character == '\r';
+        }
+        if (!quoted) {
+            writer.write(field);
+            return;
+        }
+
+        writer.write('"');
+        for (int i = 0; i < field.length(); i++) {
+            char character = field.charAt(i);
+            if (character == '"') {
+                writer.write('"');
+            }
+            writer.write(character);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,109 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceType;
+
+/**
+ * Prints the results of an analysis as JSON Lines, one JSON object per line.
+ * <p>
+ * Every object has a {@code type} member:
+ * </p>
+ * <ul>
+ *   <li>{@code "file"}: the result of a file, with {@code program}, {@code file}, {@code package},
+ *   {@code methods}, {@code physicalLOC}, {@code status} and {@code types}, an array with the {@code name},
+ *   {@code kind}, {@code physicalLOC} and {@code methods} of every type declared in the file.</li>
+ *   <li>{@code "program"}: the total of a program, with {@code program} and {@code physicalLOC}.</li>
+ *   <li>{@code "project"}: the total of the analyzed directory, with {@code physicalLOC}.</li>
+ * </ul>
+ * <p>
+ * Non-ASCII characters are escaped, so the output is valid whatever the charset it is written in.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class JsonLinesPrinter implements AnalysisListener {
+    private final ReportWriter writer;
+    private String programName = "";
+
+    /**
+     * Constructs a printer that writes the objects to the specified writer.
+     *
+     * @param writer The writer that receives the objects.
+     */
+    public JsonLinesPrinter(ReportWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Keeps the name of the program to print it in the objects of its files.
+     *
+     * @param programName The name of the directory.
+     */
+    @Override
+    public void onProgramStart(String programName) {
+        this.programName = programName;
+    }
+
+    /**
+     * Prints the object of a Java source file.
+     *
+     * @param file The result of the analysis of the file.
+     */
+    @Override
+    public void onFile(SourceFile file) {
+        writer.write("{\"type\":\"file\",\"program\":");
+        writer.writeJsonString(programName);
+        writer.write(",\"file\":");
+        writer.writeJsonString(file.filename());
+        writer.write(",\"package\":");
+        writer.writeJsonString(file.packageName());
+        writer.write(",\"methods\":").write(file.numOfMethods())
+            .write(",\"physicalLOC\":").write(file.physicalLOC())
+            .write(",\"status\":");
+        writer.writeJsonString(file.status());
+        writer.write(",\"types\":[");
+        for (int i = 0; i < file.types().size(); i++) {
+            SourceType type = file.types().get(i);
+            writer.write(i == 0 ? "{\"name\":" : ",{\"name\":");
+            writer.writeJsonString(type.name());
+            writer.write(",\"kind\":\"").write(type.kind())
+                .write("\",\"physicalLOC\":").write(type.physicalLOC())
+                .write(",\"methods\":").write(type.numOfMethods()).write('}');
+        }
+        writer.write("]}").newLine();
+    }
+
+    /**
+     * Prints the object with the total of a program.
+     *
+     * @param programName      The name of the directory.
+     * @param totalPhysicalLOC The total physical LOC of the program.
+     */
+    @Override
+    public void onProgramEnd(String programName, int totalPhysicalLOC) {
+        writer.write("{\"type\":\"program\",\"program\":");
+        writer.writeJsonString(programName);
+        writer.write(",\"physicalLOC\":").write(totalPhysicalLOC).write('}').newLine();
+    }
+
+    /**
+     * Prints the object with the total of the project.
+     *
+     * @param totalPhysicalLOC The total physical LOC of all programs.
+     */
+    @Override
+    public void onProjectEnd(int totalPhysicalLOC) {
+        writer.write("{\"type\":\"project\",\"physicalLOC\":").write(totalPhysicalLOC).write('}').newLine();
+    }
+
+    /**
+     * Prints a message indicating that the path is neither a file nor a directory to the standard error,
+     * so that the output only contains JSON objects.
+     *
+     * @param path The path that was given to the analyzer.
+     */
+    @Override
+    public void onInvalidPath(String path) {
+        System.err.println("The specified path is not a valid file or directory.");
+    }
+}
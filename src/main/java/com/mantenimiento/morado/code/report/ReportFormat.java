@@ -0,0 +1,90 @@
+package com.mantenimiento.morado.code.report;
+
+import java.util.Locale;
+
+/**
+ * The formats in which the results of an analysis can be printed.
+ *
+ * @version 2.0.0
+ */
+public enum ReportFormat {
+    /**
+     * The fixed-width table printed by {@link TablePrinter} and {@link ChangeTablePrinter}.
+     */
+    TABLE,
+
+    /**
+     * Comma-separated values printed by {@link CsvPrinter} and {@link ChangeCsvPrinter}.
+     */
+    CSV,
+
+    /**
+     * One JSON object per line printed by {@link JsonLinesPrinter} and {@link ChangeJsonLinesPrinter}.
+     */
+    JSONL;
+
+    /**
+     * Creates the listener that prints the results in this format.
+     *
+     * @param writer The writer that receives the report.
+     * @return The listener of this format.
+     */
+    public AnalysisListener createListener(ReportWriter writer) {
+        switch (this) {
+            case CSV:
+                return new CsvPrinter(writer);
+            case JSONL:
+                return new JsonLinesPrinter(writer);
+            default:
+                return new TablePrinter(writer);
+        }
+    }
+
+    /**
+     * Creates the listener that prints the changes between two revisions in this format.
+     *
+     * @param writer The writer that receives the report.
+     * @return The change listener of this format.
+     */
+    public ChangeListener createChangeListener(ReportWriter writer) {
+        switch (this) {
+            case CSV:
+                return new ChangeCsvPrinter(writer);
+            case JSONL:
+                return new ChangeJsonLinesPrinter(writer);
+            default:
+                return new ChangeTablePrinter(writer);
+        }
+    }
+
+    /**
+     * Returns the media type of a report in this format, for the {@code Content-Type} of an HTTP response.
+     *
+     * @return The media type of the format.
+     */
+    public String getMediaType() {
+        switch (this) {
+            case CSV:
+                return "text/csv";
+            case JSONL:
+                return "application/x-ndjson";
+            default:
+                return "text/plain";
+        }
+    }
+
+    /**
+     * Returns the format with the specified name, ignoring case.
+     *
+     * @param name The name of the format: "table", "csv" or "jsonl".
+     * @return The format with that name.
+     * @throws IllegalArgumentException if there is no format with that name.
+     */
+    public static ReportFormat fromName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new IllegalArgumentException("Unknown report format: " + name);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.mantenimiento.morado.code.report;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@code ReportWriter} class writes the text of a report to the standard output or to a file.
+ * <p>
+ * Characters are collected in a buffer that is encoded and written only when it is full, when
+ * {@link #flush()} is called, or when the writer is closed. Unlike {@link System#out}, the writer is not
+ * synchronized and does not flush after every line, and numbers and padded columns are written
+ * without {@link String#format(String, Object...)}. Memory stays the same whatever the size of the report.
+ * A {@code ReportWriter} must be used from a single thread.
+ * </p>
+ * <p>
+ * Like {@link java.io.PrintStream}, the methods do not throw {@link IOException}. After the first error
+ * the rest of the report is discarded. Errors writing to a file are printed once; errors writing to the
+ * standard output, such as a closed pipe, are ignored as {@link System#out} does.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class ReportWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final OutputStream output;
+    private final boolean closeOutput;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes;
+    private boolean failed;
+
+    /**
+     * Constructs a writer over an output stream.
+     *
+     * @param output      The stream that receives the encoded report.
+     * @param charset     The charset of the report; characters it cannot encode are replaced.
+     * @param closeOutput Whether {@link #close()} closes the stream, or only flushes it.
+     */
+    public ReportWriter(OutputStream output, Charset charset, boolean closeOutput) {
+        this.output = output;
+        this.closeOutput = closeOutput;
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate((int) Math.ceil(BUFFER_SIZE * encoder.maxBytesPerChar()));
+    }
+
+    /**
+     * Creates a writer to the standard output in the platform charset, the same one {@link System#out} uses.
+     * Closing the writer flushes it but leaves the standard output open.
+     *
+     * @return A writer to the standard output.
+     */
+    public static ReportWriter toStandardOutput() {
+        return new ReportWriter(new FileOutputStream(FileDescriptor.out), Charset.defaultCharset(), false);
+    }
+
+    /**
+     * Creates a writer that replaces the content of a file with the report, encoded in UTF-8.
+     *
+     * @param file The file where the report is written.
+     * @return A writer to the file.
+     * @throws IOException If the file cannot be created.
+     */
+    public static ReportWriter toFile(Path file) throws IOException {
+        return new ReportWriter(Files.newOutputStream(file), StandardCharsets.UTF_8, true);
+    }
+
+    /**
+     * Writes a text.
+     *
+     * @param text The text to write.
+     * @return This writer.
+     */
+    public ReportWriter write(String text) {
+        int length = text.length();
+        int offset = 0;
+        while (offset < length) {
+            if (!chars.hasRemaining()) {
+                drain();
+            }
+            int count = Math.min(chars.remaining(), length - offset);
+            chars.put(text, offset, offset + count);
+            offset += count;
+        }
+        return this;
+    }
+
+    /**
+     * Writes a single character.
+     *
+     * @param character The character to write.
+     * @return This writer.
+     */
+    public ReportWriter write(char character) {
+        if (!chars.hasRemaining()) {
+            drain();
+        }
+        chars.put(character);
+        return this;
+    }
+
+    /**
+     * Writes an integer in decimal notation without creating a {@code String}.
+     *
+     * @param number The number to write.
+     * @return This writer.
+     */
+    public ReportWriter write(int number) {
+        return write((long) number);
+    }
+
+    /**
+     * Writes a long integer in decimal notation without creating a {@code String}.
+     *
+     * @param number The number to write.
+     * @return This writer.
+     */
+    public ReportWriter write(long number) {
+        if (number < 0) {
+            write('-');
+            if (number == Long.MIN_VALUE) {
+                return write("9223372036854775808");
+            }
+            number = -number;
+        }
+        long divisor = 1;
+        while (number / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            write((char) ('0' + number / divisor % 10));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes, control characters and non-ASCII characters,
+     * so the output is valid JSON whatever the charset of the writer.
+     *
+     * @param text The text of the string.
+     * @return This writer.
+     */
+    public ReportWriter writeJsonString(String text) {
+        write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character == '"' || character == '\\') {
+                write('\\').write(character);
+            } else if (character < 0x20 || character > 0x7E) {
+                write("\\u")
+                    .write(HEX_DIGITS[character >> 12])
+                    .write(HEX_DIGITS[(character >> 8) & 0xF])
+                    .write(HEX_DIGITS[(character >> 4) & 0xF])
+                    .write(HEX_DIGITS[character & 0xF]);
+            } else {
+                write(character);
+            }
+        }
+        return write('"');
+    }
+
+    /**
+     * Writes a text left-aligned in a column, like the {@code %-Ns} conversion of {@code printf}.
+     * Texts longer than the column are written whole.
+     *
+     * @param text  The text to write.
+     * @param width The width of the column.
+     * @return This writer.
+     */
+    public ReportWriter writePadded(String text, int width) {
+        write(text);
+        return writeSpaces(width - text.length());
+    }
+
+    /**
+     * Writes an integer left-aligned in a column, like the {@code %-Ns} conversion of {@code printf}.
+     *
+     * @param number The number to write.
+     * @param width  The width of the column.
+     * @return This writer.
+     */
+    public ReportWriter writePadded(int number, int width) {
+        write(number);
+        return writeSpaces(width - getDigitCount(number));
+    }
+
+    /**
+     * Writes the line separator of the platform, like the {@code %n} conversion of {@code printf}.
+     *
+     * @return This writer.
+     */
+    public ReportWriter newLine() {
+        return write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes the buffered characters to the output and flushes it.
+     */
+    public void flush() {
+        drain();
+        if (!failed) {
+            try {
+                output.flush();
+            } catch (IOException ioException) {
+                fail(ioException);
+            }
+        }
+    }
+
+    /**
+     * Flushes the writer and closes the output if it belongs to the writer.
+     */
+    @Override
+    public void close() {
+        flush();
+        if (closeOutput) {
+            try {
+                output.close();
+            } catch (IOException ioException) {
+                fail(ioException);
+            }
+        }
+    }
+
+    /**
+     * Writes a number of spaces.
+     *
+     * @param count The number of spaces; nothing is written when it is zero or negative.
+     * @return This writer.
+     */
+    private ReportWriter writeSpaces(int count) {
+        for (int i = 0; i < count; i++) {
+            write(' ');
+        }
+        return this;
+    }
+
+    /**
+     * Encodes the buffered characters and writes them to the output.
+     */
+    private void drain() {
+        chars.flip();
+        CoderResult result = CoderResult.OVERFLOW;
+        while (!failed && result.isOverflow()) {
+            bytes.clear();
+            result = encoder.encode(chars, bytes, false);
+            try {
+                output.write(bytes.array(), 0, bytes.position());
+            } catch (IOException ioException) {
+                fail(ioException);
+            }
+        }
+        // A high surrogate left at the end is kept, so a pair split across two buffers is encoded whole
+        chars.compact();
+        if (failed) {
+            chars.clear();
+        }
+    }
+
+    /**
+     * Discards the rest of the report and reports the first error when the report goes to a file.
+     *
+     * @param ioException The error.
+     */
+    private void fail(IOException ioException) {
+        if (!failed && closeOutput) {
+            System.err.println("Error while writing report: " + ioException.getMessage());
+        }
+        failed = true;
+    }
+
+    /**
+     * Returns the number of characters of an integer in decimal notation.
+     *
+     * @param number The number.
+     * @return The number of digits, plus one for the sign of negative numbers.
+     */
+    private static int getDigitCount(int number) {
+        int digits = number < 0 ? 2 : 1;
+        long remaining = Math.abs((long) number);
+        while (remaining >= 10) {
+            remaining /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
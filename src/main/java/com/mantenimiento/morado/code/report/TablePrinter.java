@@ -0,0 +1,152 @@
+package com.mantenimiento.morado.code.report;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+
+/**
+ * Prints the results of an analysis as a formatted table.
+ * <p>
+ * The rows are written through a {@link ReportWriter} with the same fixed-width columns that
+ * {@code printf("%-18s %-30s %-18s %-18s %-18s %-10s%n", ...)} produces.
+ * </p>
+ * <p>
+ * The name of a program is printed only on the row of its first file, followed by a row with
+ * the total physical LOC of the program when it is greater than zero. The total of the project
+ * is printed at the end when it is greater than zero.
+ * </p>
+ *
+ * @author Reynaldo Couoh
+ * @version 2.0.0
+ */
+public class TablePrinter implements AnalysisListener {
+    private static final String SEPARATOR =
+        "---------------------------------------------------------------------------------------------------------------------------";
+
+    private final ReportWriter writer;
+    private String pendingProgramName = "";
+
+    /**
+     * Constructs a printer that writes the table to the specified writer.
+     *
+     * @param writer The writer that receives the table.
+     */
+    public TablePrinter(ReportWriter writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Prints the header for the LOC analysis results table.
+     * <p>
+     * The header includes the columns: "Program", "Class", "Number of methods", "Physical LOC",
+     * "Total physical LOC" and "Status".
+     * </p>
+     */
+    @Override
+    public void onStart() {
+        writeRow("Program", "Class", "Number of methods", "Physical LOC", "Total physical LOC", "Status");
+        writer.write(SEPARATOR).newLine();
+    }
+
+    /**
+     * Keeps the name of the program to print it on the row of its first file.
+     *
+     * @param programName The name of the directory.
+     */
+    @Override
+    public void onProgramStart(String programName) {
+        pendingProgramName = programName;
+    }
+
+    /**
+     * Prints the details of a Java source file.
+     * <p>
+     * The details include the file name, number of methods, physical LOC, and status.
+     * </p>
+     * @param file the {@link SourceFile} object containing the filename, number of methods,
+     *             physical LOC, and status to be printed
+     * @see SourceFile
+     */
+    @Override
+    public void onFile(SourceFile file) {
+        String filename = file.filename();
+        String className = filename.endsWith(".java") ? filename.substring(0, filename.length() - 5) : filename;
+        writer.writePadded(pendingProgramName, 18).write(' ')
+            .writePadded(className, 30).write(' ')
+            .writePadded(file.numOfMethods(), 18).write(' ')
+            .writePadded(file.physicalLOC(), 18).write(' ')
+            .writePadded("", 18).write(' ')
+            .writePadded(file.status(), 10).newLine();
+        pendingProgramName = "";
+    }
+
+    /**
+     * Prints the total physical lines of code (LOC) of a program in a formatted table.
+     *
+     * @param programName      The name of the directory.
+     * @param totalPhysicalLOC The total number of physical LOC to print.
+     */
+    @Override
+    public void onProgramEnd(String programName, int totalPhysicalLOC) {
+        if (totalPhysicalLOC <= 0) {
+            return;
+        }
+        writeTotalRow("", totalPhysicalLOC);
+    }
+
+    /**
+     * Prints the total physical lines of code (LOC) of a proyect in a formatted table.
+     *
+     * @param totalPhysicalLOC The total number of physical LOC to print.
+     */
+    @Override
+    public void onProjectEnd(int totalPhysicalLOC) {
+        if (totalPhysicalLOC <= 0) {
+            return;
+        }
+        writer.write(SEPARATOR).newLine();
+        writeTotalRow("Total Lines", totalPhysicalLOC);
+    }
+
+    /**
+     * Prints a message indicating that the path is neither a file nor a directory.
+     *
+     * @param path The path that was given to the analyzer.
+     */
+    @Override
+    public void onInvalidPath(String path) {
+        writer.write("The specified path is not a valid file or directory.").newLine();
+    }
+
+    /**
+     * Writes a row of text columns.
+     *
+     * @param program     The text of the "Program" column.
+     * @param className   The text of the "Class" column.
+     * @param methods     The text of the "Number of methods" column.
+     * @param physicalLOC The text of the "Physical LOC" column.
+     * @param totalLOC    The text of the "Total physical LOC" column.
+     * @param status      The text of the "Status" column.
+     */
+    private void writeRow(String program, String className, String methods, String physicalLOC, String totalLOC, String status) {
+        writer.writePadded(program, 18).write(' ')
+            .writePadded(className, 30).write(' ')
+            .writePadded(methods, 18).write(' ')
+            .writePadded(physicalLOC, 18).write(' ')
+            .writePadded(totalLOC, 18).write(' ')
+            .writePadded(status, 10).newLine();
+    }
+
+    /**
+     * Writes a row with a total in the "Total physical LOC" column.
+     *
+     * @param label            The text of the "Program" column.
+     * @param totalPhysicalLOC The total physical LOC.
+     */
+    private void writeTotalRow(String label, int totalPhysicalLOC) {
+        writer.writePadded(label, 18).write(' ')
+            .writePadded("", 30).write(' ')
+            .writePadded("", 18).write(' ')
+            .writePadded("", 18).write(' ')
+            .writePadded(totalPhysicalLOC, 18).write(' ')
+            .writePadded("", 10).newLine();
+    }
+}
@@ -0,0 +1,402 @@
+package com.mantenimiento.morado.code.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.mantenimiento.morado.code.cache.AnalysisCache;
+import com.mantenimiento.morado.code.cache.ContentCache;
+import com.mantenimiento.morado.code.counter.SourceFileAnalyzer;
+import com.mantenimiento.morado.code.ignore.IgnoreRules;
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.report.ReportFormat;
+import com.mantenimiento.morado.code.report.ReportWriter;
+import com.mantenimiento.morado.code.stats.AnalysisStatistics;
+import com.mantenimiento.morado.code.stats.MetricsRegistry;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The {@code AnalysisServer} class keeps the analyzer running in a single process and answers analysis
+ * requests over HTTP on the loopback interface.
+ * <p>
+ * Starting a new process for every small scan pays the start of the JVM, the loading of the classes and the
+ * warm-up of the JIT compiler each time. A server pays them once: after the first requests the analysis runs
+ * compiled code, and the results of the files that did not change are taken from an
+ * {@link AnalysisCache} shared by all the requests. A {@link ContentCache} can be shared the same way.
+ * </p>
+ * <p>
+ * The server answers these requests:
+ * </p>
+ * <ul>
+ *   <li>{@code GET /analyze?path=PATH}: analyzes {@code PATH}, or the default path of the server when the
+ *   parameter is left out, and returns the report, in JSON lines unless
+ *   {@code format=table} or {@code format=csv} is given. {@code languages=LIST} and
+ *   {@code gitignore=true} work like the options of the same name. The report is sent as it is written; if
+ *   the analysis fails after it started, the connection is dropped, so a partial report is never taken for a
+ *   complete one.</li>
+ *   <li>{@code GET /metrics}: returns the metrics of all the requests answered so far in the OpenMetrics text
+ *   format; see {@link MetricsRegistry}.</li>
+ *   <li>{@code POST /shutdown}: stops the server once the requests in progress are answered. The request
+ *   must have an {@code X-Requested-With} header.</li>
+ * </ul>
+ * <p>
+ * The server only listens on the loopback address, so it is not reachable from other machines. It also
+ * answers only the requests whose {@code Host} header names the loopback interface, so a web page cannot
+ * reach it through a host name that resolves to {@code 127.0.0.1}. A web page cannot add the header that a
+ * shutdown needs to a request for another origin unless the server allows it, which it never does. Only the
+ * default path and what is below it can be analyzed: a relative {@code PATH} is resolved against the default
+ * path, and a path outside it is refused, even through a symbolic link.
+ * </p>
+ * <p>
+ * Up to {@value #MAX_CONCURRENT_REQUESTS} requests are analyzed at the same time, each one with the threads
+ * given to the server. The results are kept in an in-memory cache of at most
+ * {@value AnalysisCache#DEFAULT_MEMORY_CAPACITY} files unless another cache is set.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class AnalysisServer implements AutoCloseable {
+    /**
+     * The number of requests analyzed at the same time.
+     */
+    public static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final String SHUTDOWN_HEADER = "X-Requested-With";
+
+    private final String defaultPath;
+    private final Path root;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int threads;
+    private final int concurrentReads;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private AnalysisCache cache = AnalysisCache.inMemory(AnalysisCache.DEFAULT_MEMORY_CAPACITY);
+    private ContentCache contents;
+    private MetricsRegistry metrics = new MetricsRegistry();
+
+    /**
+     * Constructs a server that listens on a port of the loopback address.
+     *
+     * @param defaultPath     The path analyzed by the requests that do not give one, which contains every path
+     *                        the requests can analyze.
+     * @param port            The port to listen on.
+     * @param threads         The number of threads used to analyze the files of each request.
+     * @param concurrentReads The number of files read at the same time by the pipeline of each request;
+     *                        {@code 0} does not use the pipeline.
+     * @throws IOException if the default path does not exist or the port cannot be bound.
+     */
+    public AnalysisServer(String defaultPath, int port, int threads, int concurrentReads) throws IOException {
+        this.defaultPath = defaultPath;
+        this.root = Paths.get(defaultPath).toRealPath();
+        this.threads = threads;
+        this.concurrentReads = concurrentReads;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS);
+        server.setExecutor(executor);
+        Filter hostFilter = new LoopbackHostFilter();
+        server.createContext("/analyze", this::handleAnalyze).getFilters().add(hostFilter);
+        server.createContext("/metrics", this::handleMetrics).getFilters().add(hostFilter);
+        server.createContext("/shutdown", this::handleShutdown).getFilters().add(hostFilter);
+    }
+
+    /**
+     * Sets the cache of previous results shared by all the requests. By default the results are only kept
+     * in memory while the server runs, for at most {@value AnalysisCache#DEFAULT_MEMORY_CAPACITY} files.
+     *
+     * @param cache The cache to use.
+     */
+    public void setCache(AnalysisCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets the results of the contents seen so far, shared by all the requests.
+     *
+     * @param contents The results to reuse and fill, or {@code null} to analyze every file.
+     */
+    public void setContentCache(ContentCache contents) {
+        this.contents = contents;
+    }
+
+    /**
+     * Sets the registry where the metrics of all the requests are recorded. By default the server has its own.
+     *
+     * @param metrics The registry to fill.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Starts answering requests and waits until a shutdown request arrives or the thread is interrupted.
+     */
+    public void serve() {
+        server.start();
+        System.err.println("Listening on http://" + server.getAddress().getHostString() + ":"
+            + server.getAddress().getPort());
+        try {
+            stopped.await();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Answers an analysis request with the report of the requested path.
+     *
+     * @param exchange The request and its response.
+     * @throws IOException If the response cannot be sent.
+     * @throws RuntimeException If the analysis fails after the report started, to drop the connection.
+     */
+    private void handleAnalyze(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendText(exchange, 405, "Only GET is supported");
+            return;
+        }
+
+        SourceFileAnalyzer analyzer;
+        ReportFormat format;
+        try {
+            Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+            format = ReportFormat.fromName(parameters.getOrDefault("format", "jsonl"));
+            analyzer = createAnalyzer(parameters);
+        } catch (IllegalArgumentException illegalArgumentException) {
+            sendText(exchange, 400, illegalArgumentException.getMessage());
+            return;
+        } catch (NoSuchFileException noSuchFileException) {
+            sendText(exchange, 404, "No such path: " + noSuchFileException.getFile());
+            return;
+        } catch (AccessDeniedException accessDeniedException) {
+            sendText(exchange, 403, "Path outside of " + root + ": " + accessDeniedException.getFile());
+            return;
+        } catch (IOException ioException) {
+            sendText(exchange, 500, "Error while reading ignore file: " + ioException.getMessage());
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", format.getMediaType() + "; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        ReportWriter writer = new ReportWriter(exchange.getResponseBody(), StandardCharsets.UTF_8, true);
+        try {
+            analyzer.analyzePath(format.createListener(writer));
+        } catch (RuntimeException runtimeException) {
+            // The status is already sent, and closing the exchange would end the body as if the report were
+            // complete. The exception reaches the HTTP server instead, which drops the connection.
+            System.err.println("Error while analyzing request: " + runtimeException.getMessage());
+            throw runtimeException;
+        }
+        writer.close();
+        exchange.close();
+    }
+
+    /**
+     * Creates the analyzer of a request.
+     *
+     * @param parameters The parameters of the request.
+     * @return An analyzer that uses the caches of the server.
+     * @throws IllegalArgumentException if the path is empty, is not a file or directory, or a parameter has an
+     *                                  invalid value.
+     * @throws NoSuchFileException If the path does not exist.
+     * @throws AccessDeniedException If the path is outside of the default path.
+     * @throws IOException If the path or the ignore files of the path cannot be read.
+     */
+    private SourceFileAnalyzer createAnalyzer(Map<String, String> parameters) throws IOException {
+        String path = parameters.containsKey("path") ? resolvePath(parameters.get("path")) : defaultPath;
+
+        SourceFileAnalyzer analyzer = new SourceFileAnalyzer(path, threads, concurrentReads);
+        analyzer.setCache(cache);
+        analyzer.setContentCache(contents);
+        AnalysisStatistics statistics = new AnalysisStatistics(0);
+        statistics.setMetrics(metrics);
+        analyzer.setStatistics(statistics);
+        analyzer.setMetrics(metrics);
+        if (parameters.containsKey("languages")) {
+            List<LanguageProfile> languages = LanguageRegistry.parse(parameters.get("languages"));
+            analyzer.setLanguages(languages);
+        }
+        if (Boolean.parseBoolean(parameters.get("gitignore")) && !SourceFileAnalyzer.isArchive(path)) {
+            analyzer.setIgnoreRules(IgnoreRules.load(Paths.get(path), null, true));
+        }
+        return analyzer;
+    }
+
+    /**
+     * Resolves a path given by a request against the default path and checks that it can be analyzed.
+     *
+     * @param path The path given by the request, absolute or relative to the default path.
+     * @return The real path to analyze.
+     * @throws IllegalArgumentException if the path is empty or is neither a file nor a directory.
+     * @throws NoSuchFileException If the path does not exist.
+     * @throws AccessDeniedException If the path is outside of the default path.
+     * @throws IOException If the path cannot be resolved.
+     */
+    private String resolvePath(String path) throws IOException {
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("Missing path to analyze");
+        }
+
+        Path realPath;
+        try {
+            realPath = root.resolve(path).toRealPath();
+        } catch (InvalidPathException invalidPathException) {
+            throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        if (!realPath.startsWith(root)) {
+            throw new AccessDeniedException(path);
+        }
+        if (!Files.isDirectory(realPath) && !Files.isRegularFile(realPath)) {
+            throw new IllegalArgumentException("Not a file or directory: " + path);
+        }
+        return realPath.toString();
+    }
+
+    /**
+     * Answers a metrics request with the metrics of all the requests answered so far.
+     *
+     * @param exchange The request and its response.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendText(exchange, 405, "Only GET is supported");
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", MetricsRegistry.MEDIA_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+        try (ReportWriter writer = new ReportWriter(exchange.getResponseBody(), StandardCharsets.UTF_8, true)) {
+            metrics.writeOpenMetrics(writer);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers a shutdown request and releases the thread waiting in {@link #serve()}.
+     *
+     * @param exchange The request and its response.
+     * @throws IOException If the response cannot be sent.
+     */
+    private void handleShutdown(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendText(exchange, 405, "Only POST is supported");
+            return;
+        }
+        if (!exchange.getRequestHeaders().containsKey(SHUTDOWN_HEADER)) {
+            sendText(exchange, 403, "Missing " + SHUTDOWN_HEADER + " header");
+            return;
+        }
+        sendText(exchange, 200, "Stopping");
+        stopped.countDown();
+    }
+
+    /**
+     * Parses the query of a request URI.
+     *
+     * @param query The raw query, or {@code null} when the URI has none.
+     * @return The decoded value of every parameter; a parameter without a value maps to an empty string.
+     */
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            String value = equals < 0 ? "" : parameter.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Sends a response with a line of text and closes the exchange.
+     *
+     * @param exchange The request and its response.
+     * @param status   The HTTP status code.
+     * @param text     The text of the response.
+     * @throws IOException If the response cannot be sent.
+     */
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Checks whether the {@code Host} header of a request names the loopback interface.
+     *
+     * @param host The value of the header, with or without a port, or {@code null} when it is missing.
+     * @return {@code true} if the host is {@code localhost}, {@code 127.0.0.1} or {@code [::1]}.
+     */
+    static boolean isLoopbackHost(String host) {
+        if (host == null) {
+            return false;
+        }
+        String name = host;
+        if (name.startsWith("[")) {
+            int end = name.indexOf(']');
+            name = end < 0 ? name : name.substring(0, end + 1);
+        } else if (name.indexOf(':') >= 0) {
+            name = name.substring(0, name.indexOf(':'));
+        }
+        return name.equalsIgnoreCase("localhost") || name.equals("127.0.0.1") || name.equals("[::1]");
+    }
+
+    /**
+     * A filter that answers 403 to the requests whose {@code Host} header does not name the loopback
+     * interface, before they reach their handler.
+     */
+    private static final class LoopbackHostFilter extends Filter {
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            if (!isLoopbackHost(host)) {
+                sendText(exchange, 403, "Unknown host: " + host);
+                return;
+            }
+            chain.doFilter(exchange);
+        }
+
+        @Override
+        public String description() {
+            return "Rejects the requests for a host other than the loopback interface";
+        }
+    }
+
+    /**
+     * Stops the server, waiting a moment for the responses in progress.
+     */
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdownNow();
+    }
+}
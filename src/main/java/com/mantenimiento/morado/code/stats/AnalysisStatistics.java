@@ -0,0 +1,285 @@
+package com.mantenimiento.morado.code.stats;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mantenimiento.morado.code.report.ReportWriter;
+
+/**
+ * The {@code AnalysisStatistics} class records where the time of an analysis goes.
+ * <p>
+ * The time is split in four phases: walking the tree, reading the files, analyzing them and reporting the
+ * results. Walking and reporting happen on the main thread, so their time is wall time. Reading and analyzing
+ * happen on every analysis thread, so their time is the sum over all threads and can exceed the elapsed time.
+ * The statistics also count the files, bytes and lines processed and keep the slowest files.
+ * </p>
+ * <p>
+ * Recording is cheap enough to leave on: every counter is a {@link LongAdder}, so threads do not contend,
+ * and the list of slowest files is only locked when a file is slower than all the files already in it.
+ * Every recorded file is also passed to the {@link MetricsRegistry} set with {@link #setMetrics(MetricsRegistry)}.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class AnalysisStatistics {
+    /**
+     * The number of slowest files kept by default.
+     */
+    public static final int DEFAULT_SLOWEST_FILES = 10;
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder walkNanos = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder analyzeNanos = new LongAdder();
+    private final LongAdder reportNanos = new LongAdder();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+    private final int slowestFileCount;
+    private final PriorityQueue<FileTiming> slowestFiles;
+    private volatile long slowestThreshold = -1;
+    private volatile long endNanos;
+    private MetricsRegistry metrics;
+
+    /**
+     * The time spent reading and analyzing one file.
+     *
+     * @param path  the path of the file
+     * @param nanos the time in nanoseconds
+     */
+    public record FileTiming(String path, long nanos) {
+    }
+
+    /**
+     * Constructs statistics that keep the {@value #DEFAULT_SLOWEST_FILES} slowest files. The elapsed time
+     * is measured from now.
+     */
+    public AnalysisStatistics() {
+        this(DEFAULT_SLOWEST_FILES);
+    }
+
+    /**
+     * Constructs statistics that keep the specified number of slowest files. The elapsed time is measured from now.
+     *
+     * @param slowestFileCount The number of slowest files to keep.
+     * @throws IllegalArgumentException if {@code slowestFileCount} is negative.
+     */
+    public AnalysisStatistics(int slowestFileCount) {
+        if (slowestFileCount < 0) {
+            throw new IllegalArgumentException("The number of slowest files cannot be negative: " + slowestFileCount);
+        }
+        this.slowestFileCount = slowestFileCount;
+        this.slowestFiles = new PriorityQueue<>(Comparator.comparingLong(FileTiming::nanos));
+    }
+
+    /**
+     * Sets the registry where every recorded file is also added, with its size and the time spent on it.
+     *
+     * @param metrics The registry to fill, or {@code null} to keep the files in these statistics only.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Adds time spent walking the tree.
+     *
+     * @param nanos The time in nanoseconds.
+     */
+    public void addWalkTime(long nanos) {
+        walkNanos.add(nanos);
+    }
+
+    /**
+     * Adds time spent reporting the results.
+     *
+     * @param nanos The time in nanoseconds.
+     */
+    public void addReportTime(long nanos) {
+        reportNanos.add(nanos);
+    }
+
+    /**
+     * Adds the lines scanned in a file.
+     *
+     * @param count The number of lines.
+     */
+    public void addLines(long count) {
+        lines.add(count);
+    }
+
+    /**
+     * Records a file that was read and analyzed.
+     *
+     * @param path         The path of the file.
+     * @param size         The size of the file in bytes.
+     * @param readNanos    The time spent reading the file.
+     * @param analyzeNanos The time spent analyzing the file.
+     */
+    public void recordFile(String path, long size, long readNanos, long analyzeNanos) {
+        files.increment();
+        bytes.add(size);
+        this.readNanos.add(readNanos);
+        this.analyzeNanos.add(analyzeNanos);
+
+        long nanos = readNanos + analyzeNanos;
+        if (metrics != null) {
+            metrics.recordFile(size, nanos);
+        }
+        if (slowestFileCount > 0 && nanos > slowestThreshold) {
+            synchronized (slowestFiles) {
+                slowestFiles.add(new FileTiming(path, nanos));
+                if (slowestFiles.size() > slowestFileCount) {
+                    slowestFiles.poll();
+                }
+                if (slowestFiles.size() == slowestFileCount) {
+                    slowestThreshold = slowestFiles.peek().nanos();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the elapsed time. The rates are computed over the time between the construction and this call,
+     * or until now while it has not been called.
+     */
+    public void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * @return The time from the construction until {@link #stop()}, or until now, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    /**
+     * @return The number of files read and analyzed.
+     */
+    public long getFiles() {
+        return files.sum();
+    }
+
+    /**
+     * @return The number of bytes read.
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return The number of lines scanned.
+     */
+    public long getLines() {
+        return lines.sum();
+    }
+
+    /**
+     * @return The slowest files, from the slowest.
+     */
+    public List<FileTiming> getSlowestFiles() {
+        List<FileTiming> timings;
+        synchronized (slowestFiles) {
+            timings = new ArrayList<>(slowestFiles);
+        }
+        timings.sort(Comparator.comparingLong(FileTiming::nanos).reversed());
+        return timings;
+    }
+
+    /**
+     * Prints a human-readable summary.
+     *
+     * @param output The stream where the summary is printed, usually the standard error.
+     */
+    public void printSummary(PrintStream output) {
+        long elapsedNanos = getElapsedNanos();
+        output.println("Analysis statistics");
+        output.printf(Locale.ROOT, "%-10s %12s%n", "Phase", "Time (ms)");
+        output.printf(Locale.ROOT, "%-10s %12.1f%n", "Walk", toMillis(walkNanos.sum()));
+        output.printf(Locale.ROOT, "%-10s %12.1f  (all threads)%n", "Read", toMillis(readNanos.sum()));
+        output.printf(Locale.ROOT, "%-10s %12.1f  (all threads)%n", "Analyze", toMillis(analyzeNanos.sum()));
+        output.printf(Locale.ROOT, "%-10s %12.1f%n", "Report", toMillis(reportNanos.sum()));
+        output.printf(Locale.ROOT, "%-10s %12.1f%n", "Elapsed", toMillis(elapsedNanos));
+        output.printf(Locale.ROOT, "Files: %d (%.1f/s)  Bytes: %d (%.2f MB/s)  Lines: %d (%.1f/s)%n",
+            getFiles(), perSecond(getFiles(), elapsedNanos),
+            getBytes(), perSecond(getBytes(), elapsedNanos) / (1024 * 1024),
+            getLines(), perSecond(getLines(), elapsedNanos));
+
+        List<FileTiming> timings = getSlowestFiles();
+        if (!timings.isEmpty()) {
+            output.println("Slowest files:");
+            for (FileTiming timing : timings) {
+                output.printf(Locale.ROOT, "%12.3f ms  %s%n", toMillis(timing.nanos()), timing.path());
+            }
+        }
+    }
+
+    /**
+     * Writes the statistics as a JSON object. Times are in nanoseconds and rates are per second of elapsed time.
+     *
+     * @param writer The writer that receives the object.
+     */
+    public void writeJson(ReportWriter writer) {
+        long elapsedNanos = getElapsedNanos();
+        writer.write("{\"elapsedNanos\":").write(elapsedNanos)
+            .write(",\"phases\":{\"walkNanos\":").write(walkNanos.sum())
+            .write(",\"readNanos\":").write(readNanos.sum())
+            .write(",\"analyzeNanos\":").write(analyzeNanos.sum())
+            .write(",\"reportNanos\":").write(reportNanos.sum())
+            .write("},\"files\":").write(getFiles())
+            .write(",\"bytes\":").write(getBytes())
+            .write(",\"lines\":").write(getLines())
+            .write(",\"filesPerSecond\":").write(formatRate(perSecond(getFiles(), elapsedNanos)))
+            .write(",\"bytesPerSecond\":").write(formatRate(perSecond(getBytes(), elapsedNanos)))
+            .write(",\"linesPerSecond\":").write(formatRate(perSecond(getLines(), elapsedNanos)))
+            .write(",\"slowestFiles\":[");
+        List<FileTiming> timings = getSlowestFiles();
+        for (int i = 0; i < timings.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"path\":").writeJsonString(timings.get(i).path())
+                .write(",\"nanos\":").write(timings.get(i).nanos()).write('}');
+        }
+        writer.write("]}").newLine();
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     *
+     * @param nanos The time in nanoseconds.
+     * @return The time in milliseconds.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Computes a rate per second.
+     *
+     * @param count The number of processed units.
+     * @param nanos The time in nanoseconds.
+     * @return The units per second, {@code 0} when no time elapsed.
+     */
+    private static double perSecond(long count, long nanos) {
+        return nanos <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * Formats a rate for JSON with one decimal.
+     *
+     * @param rate The rate.
+     * @return The formatted rate.
+     */
+    private static String formatRate(double rate) {
+        return String.format(Locale.ROOT, "%.1f", rate);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mantenimiento.morado.code.stats;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mantenimiento.morado.code.report.ReportWriter;
+
+/**
+ * The {@code Histogram} class counts observations in buckets with fixed upper bounds, like a histogram of
+ * OpenMetrics.
+ * <p>
+ * The values are whole numbers in a base unit, such as bytes or nanoseconds, so observing one is a few
+ * comparisons and two {@link LongAdder} increments: threads never wait for each other. The bounds are
+ * converted to the unit of the metric only when the histogram is written, by moving the decimal point
+ * {@code exponent} places to the left; nanoseconds are written as seconds with an exponent of {@code 9}.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class Histogram {
+    private final long[] bounds;
+    private final int exponent;
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Constructs an empty histogram.
+     *
+     * @param bounds   The upper bounds of the buckets in the base unit, in increasing order. A last bucket
+     *                 without bound holds the larger values.
+     * @param exponent The number of places the decimal point moves to write the values in the unit of the metric.
+     * @throws IllegalArgumentException if the bounds are not in increasing order.
+     */
+    public Histogram(long[] bounds, int exponent) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("The bounds must be in increasing order: " + bounds[i]);
+            }
+        }
+        this.bounds = bounds.clone();
+        this.exponent = exponent;
+        this.buckets = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Adds an observation to the first bucket whose bound is not less than the value.
+     *
+     * @param value The observed value in the base unit.
+     */
+    public void observe(long value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sum.add(value);
+    }
+
+    /**
+     * Writes the samples of the histogram in the OpenMetrics text format: the cumulative count of every bucket,
+     * then the total count and the sum of the observations.
+     *
+     * @param writer The writer that receives the samples.
+     * @param name   The name of the metric family.
+     */
+    public void writeOpenMetrics(ReportWriter writer, String name) {
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i].sum();
+            String bound = i < bounds.length ? format(bounds[i], exponent) : "+Inf";
+            writer.write(name).write("_bucket{le=\"").write(bound).write("\"} ").write(count).newLine();
+        }
+        writer.write(name).write("_count ").write(count).newLine();
+        writer.write(name).write("_sum ").write(format(sum.sum(), exponent)).newLine();
+    }
+
+    /**
+     * Formats a value of the base unit in the unit of the metric.
+     *
+     * @param value    The value in the base unit.
+     * @param exponent The number of places the decimal point moves to the left.
+     * @return The value without exponent nor trailing zeros, such as {@code 0.0005} or {@code 4096}.
+     */
+    static String format(long value, int exponent) {
+        return BigDecimal.valueOf(value, exponent).stripTrailingZeros().toPlainString();
+    }
+}
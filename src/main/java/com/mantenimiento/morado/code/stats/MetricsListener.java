@@ -0,0 +1,78 @@
+package com.mantenimiento.morado.code.stats;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+
+/**
+ * An {@link AnalysisListener} that passes every call to another listener and records the status of every
+ * file, the LOC of every program and the duration of the scan in a {@link MetricsRegistry}. The scan is timed
+ * from the construction of the listener until the project ends.
+ * <p>
+ * Programs are named by their path relative to the analyzed directory, so two directories with the same name
+ * are kept apart. Their LOC is collected during the scan and replaces the programs of the previous scan in the
+ * registry when the project ends, so the registry only holds the programs of the last completed scan.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class MetricsListener implements AnalysisListener {
+    private final AnalysisListener listener;
+    private final MetricsRegistry metrics;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> programPhysicalLOC = new HashMap<>();
+    private String programPath;
+
+    /**
+     * Constructs a listener that records the results reported to another one.
+     *
+     * @param listener The listener that receives the calls.
+     * @param metrics  The registry where the results are recorded.
+     */
+    public MetricsListener(AnalysisListener listener, MetricsRegistry metrics) {
+        this.listener = listener;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onStart() {
+        listener.onStart();
+    }
+
+    @Override
+    public void onProgramStart(String programName) {
+        programPath = programName;
+        listener.onProgramStart(programName);
+    }
+
+    @Override
+    public void onProgramStart(String programName, String programPath) {
+        this.programPath = programPath;
+        listener.onProgramStart(programName, programPath);
+    }
+
+    @Override
+    public void onFile(SourceFile file) {
+        metrics.recordStatus(file.status());
+        listener.onFile(file);
+    }
+
+    @Override
+    public void onProgramEnd(String programName, int totalPhysicalLOC) {
+        programPhysicalLOC.put(programPath, (long) totalPhysicalLOC);
+        listener.onProgramEnd(programName, totalPhysicalLOC);
+    }
+
+    @Override
+    public void onProjectEnd(int totalPhysicalLOC) {
+        listener.onProjectEnd(totalPhysicalLOC);
+        metrics.recordScan(programPhysicalLOC, totalPhysicalLOC, System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void onInvalidPath(String path) {
+        listener.onInvalidPath(path);
+    }
+}
@@ -0,0 +1,191 @@
+package com.mantenimiento.morado.code.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mantenimiento.morado.code.report.ReportWriter;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code MetricsRegistry} class keeps the metrics of the scans made by a process and writes them in the
+ * OpenMetrics text format, which Prometheus and compatible collectors read.
+ * <p>
+ * These metrics are kept:
+ * </p>
+ * <ul>
+ *   <li>{@code morado_scans_total} and {@code morado_scan_duration_seconds}: the number of scans completed and
+ *   the duration of the last one.</li>
+ *   <li>{@code morado_files_read_total} and {@code morado_read_bytes_total}: the files read and analyzed and
+ *   their size. The files taken from a cache are not read, so they are not counted here.</li>
+ *   <li>{@code morado_files_total{status}}: the files reported with each status, including the ones taken from
+ *   a cache.</li>
+ *   <li>{@code morado_program_physical_loc{program}} and {@code morado_project_physical_loc}: the physical LOC
+ *   of every program and of the whole project in the last completed scan. Programs are labelled with their path
+ *   relative to the analyzed directory, and those that were not in the last scan are no longer written.</li>
+ *   <li>{@code morado_file_size_bytes} and {@code morado_file_duration_seconds}: histograms of the size of the
+ *   files read and of the time spent reading and analyzing each one.</li>
+ * </ul>
+ * <p>
+ * The counters are {@link LongAdder}s and the histograms are made of them, so the analysis threads record
+ * files without contending. The files are recorded through an {@link AnalysisStatistics} and the reported
+ * results through a {@link MetricsListener}. A registry can be shared by all the scans of a process, such as
+ * the requests of a server, and written while they run.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class MetricsRegistry {
+    /**
+     * The media type of the OpenMetrics text format.
+     */
+    public static final String MEDIA_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final long[] FILE_SIZE_BOUNDS = {
+        256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304
+    };
+    private static final long[] FILE_DURATION_BOUNDS = {
+        10_000, 50_000, 100_000, 500_000, 1_000_000, 5_000_000, 10_000_000, 50_000_000, 100_000_000,
+        500_000_000, 1_000_000_000
+    };
+    private static final int NANOS_EXPONENT = 9;
+
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder filesRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final Map<String, LongAdder> filesByStatus = new ConcurrentHashMap<>();
+    private volatile Map<String, Long> programPhysicalLOC = new TreeMap<>();
+    private final Histogram fileSizes = new Histogram(FILE_SIZE_BOUNDS, 0);
+    private final Histogram fileDurations = new Histogram(FILE_DURATION_BOUNDS, NANOS_EXPONENT);
+    private volatile long lastScanNanos;
+    private volatile long projectPhysicalLOC;
+
+    /**
+     * Constructs an empty registry. The statuses of {@link Constants} are written from the start, so the
+     * series of every status exists even before a file has it.
+     */
+    public MetricsRegistry() {
+        filesByStatus.put(Constants.JAVA_FILE_STATUS_OK, new LongAdder());
+        filesByStatus.put(Constants.JAVA_FILE_STATUS_ERROR, new LongAdder());
+        filesByStatus.put(Constants.JAVA_FILE_STATUS_NO_CLASS, new LongAdder());
+    }
+
+    /**
+     * Records a file that was read and analyzed.
+     *
+     * @param size  The size of the file in bytes.
+     * @param nanos The time spent reading and analyzing the file.
+     */
+    public void recordFile(long size, long nanos) {
+        filesRead.increment();
+        bytesRead.add(size);
+        fileSizes.observe(size);
+        fileDurations.observe(nanos);
+    }
+
+    /**
+     * Counts a reported file with its status.
+     *
+     * @param status The status of the file.
+     */
+    public void recordStatus(String status) {
+        filesByStatus.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a completed scan. Its programs replace those of the previous scan.
+     *
+     * @param programPhysicalLOC The physical LOC of every program of the scan, by the path of the program.
+     * @param totalPhysicalLOC   The physical LOC of the whole project.
+     * @param nanos              The duration of the scan.
+     */
+    public void recordScan(Map<String, Long> programPhysicalLOC, long totalPhysicalLOC, long nanos) {
+        this.programPhysicalLOC = new TreeMap<>(programPhysicalLOC);
+        projectPhysicalLOC = totalPhysicalLOC;
+        lastScanNanos = nanos;
+        scans.increment();
+    }
+
+    /**
+     * Writes every metric in the OpenMetrics text format, ending with the {@code # EOF} line. The labels are
+     * written in alphabetical order, so two writes of the same values are identical.
+     *
+     * @param writer The writer that receives the metrics.
+     */
+    public void writeOpenMetrics(ReportWriter writer) {
+        writeFamily(writer, "morado_scans", "counter", null, "Number of scans completed.");
+        writer.write("morado_scans_total ").write(scans.sum()).newLine();
+        writeFamily(writer, "morado_scan_duration_seconds", "gauge", "seconds", "Duration of the last scan.");
+        writer.write("morado_scan_duration_seconds ").write(Histogram.format(lastScanNanos, NANOS_EXPONENT))
+            .newLine();
+
+        writeFamily(writer, "morado_files_read", "counter", null, "Number of files read and analyzed.");
+        writer.write("morado_files_read_total ").write(filesRead.sum()).newLine();
+        writeFamily(writer, "morado_read_bytes", "counter", "bytes", "Number of bytes read.");
+        writer.write("morado_read_bytes_total ").write(bytesRead.sum()).newLine();
+
+        writeFamily(writer, "morado_files", "counter", null, "Number of files reported, by status.");
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(filesByStatus).entrySet()) {
+            writer.write("morado_files_total{status=");
+            writeLabelValue(writer, entry.getKey());
+            writer.write("} ").write(entry.getValue().sum()).newLine();
+        }
+
+        writeFamily(writer, "morado_program_physical_loc", "gauge", null,
+            "Physical lines of code of each program in its last scan.");
+        for (Map.Entry<String, Long> entry : programPhysicalLOC.entrySet()) {
+            writer.write("morado_program_physical_loc{program=");
+            writeLabelValue(writer, entry.getKey());
+            writer.write("} ").write(entry.getValue()).newLine();
+        }
+        writeFamily(writer, "morado_project_physical_loc", "gauge", null,
+            "Physical lines of code of the project in the last scan.");
+        writer.write("morado_project_physical_loc ").write(projectPhysicalLOC).newLine();
+
+        writeFamily(writer, "morado_file_size_bytes", "histogram", "bytes", "Size of the files read.");
+        fileSizes.writeOpenMetrics(writer, "morado_file_size_bytes");
+        writeFamily(writer, "morado_file_duration_seconds", "histogram", "seconds",
+            "Time spent reading and analyzing each file.");
+        fileDurations.writeOpenMetrics(writer, "morado_file_duration_seconds");
+        writer.write("# EOF").newLine();
+    }
+
+    /**
+     * Writes the metadata of a metric family.
+     *
+     * @param writer The writer that receives the metadata.
+     * @param name   The name of the family.
+     * @param type   The OpenMetrics type of the family.
+     * @param unit   The unit the name ends with, or {@code null} when it has none.
+     * @param help   The description of the family.
+     */
+    private static void writeFamily(ReportWriter writer, String name, String type, String unit, String help) {
+        writer.write("# TYPE ").write(name).write(' ').write(type).newLine();
+        if (unit != null) {
+            writer.write("# UNIT ").write(name).write(' ').write(unit).newLine();
+        }
+        writer.write("# HELP ").write(name).write(' ').write(help).newLine();
+    }
+
+    /**
+     * Writes the value of a label between quotes, escaping backslashes, quotes and line feeds.
+     *
+     * @param writer The writer that receives the value.
+     * @param value  The value of the label.
+     */
+    private static void writeLabelValue(ReportWriter writer, String value) {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '\\' || character == '"') {
+                writer.write('\\').write(character);
+            } else if (character == '\n') {
+                writer.write("\\n");
+            } else {
+                writer.write(character);
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,73 @@
+package com.mantenimiento.morado.code.stats;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+
+/**
+ * An {@link AnalysisListener} that passes every call to another listener and adds the time spent in it to
+ * the report phase of an {@link AnalysisStatistics}.
+ *
+ * @version 2.0.0
+ */
+public class TimedListener implements AnalysisListener {
+    private final AnalysisListener listener;
+    private final AnalysisStatistics statistics;
+
+    /**
+     * Constructs a listener that times the calls to another one.
+     *
+     * @param listener   The listener that receives the calls.
+     * @param statistics The statistics where the time is added.
+     */
+    public TimedListener(AnalysisListener listener, AnalysisStatistics statistics) {
+        this.listener = listener;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void onStart() {
+        long start = System.nanoTime();
+        listener.onStart();
+        statistics.addReportTime(System.nanoTime() - start);
+    }
+
+    @Override
+    public void onProgramStart(String programName) {
+        long start = System.nanoTime();
+        listener.onProgramStart(programName);
+        statistics.addReportTime(System.nanoTime() - start);
+    }
+
+    @Override
+    public void onProgramStart(String programName, String programPath) {
+        long start = System.nanoTime();
+        listener.onProgramStart(programName, programPath);
+        statistics.addReportTime(System.nanoTime() - start);
+    }
+
+    @Override
+    public void onFile(SourceFile file) {
+        long start = System.nanoTime();
+        listener.onFile(file);
+        statistics.addReportTime(System.nanoTime() - start);
+    }
+
+    @Override
+    public void onProgramEnd(String programName, int totalPhysicalLOC) {
+        long start = System.nanoTime();
+        listener.onProgramEnd(programName, totalPhysicalLOC);
+        statistics.addReportTime(System.nanoTime() - start);
+    }
+
+    @Override
+    public void onProjectEnd(int totalPhysicalLOC) {
+        long start = System.nanoTime();
+        listener.onProjectEnd(totalPhysicalLOC);
+        statistics.addReportTime(System.nanoTime() - start);
+    }
+
+    @Override
+    public void onInvalidPath(String path) {
+        listener.onInvalidPath(path);
+    }
+}
@@ -0,0 +1,319 @@
+package com.mantenimiento.morado.code.syntax;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code ByteLineScanner} class walks the lines of a source file directly over its bytes.
+ * <p>
+ * Lines end with a line feed, a carriage return, or a carriage return followed by a line feed, like
+ * {@link java.nio.file.Files#readAllLines(java.nio.file.Path)}. For each line the scanner keeps the
+ * bounds of the line and of its trimmed part, where bytes up to {@code 0x20} are removed from both ends
+ * like {@link String#trim()} does. Since every byte of a multi-byte UTF-8 character is {@code 0x80} or more,
+ * these bounds are the same as for the decoded line.
+ * </p>
+ * <p>
+ * The same holds for Latin-1 and the other encodings that keep ASCII as single bytes, so the scanner does not
+ * need to know the encoding of a file to walk it. A UTF-8 byte order mark is skipped, and UTF-16 content is
+ * re-encoded as UTF-8 first; see {@link SourceCharset}. The encoding is only detected the first time a range
+ * with a byte of {@code 0x80} or more is decoded: it is UTF-8 when the whole content is valid UTF-8, and
+ * Latin-1 otherwise. Decoding never throws, whatever the bytes.
+ * </p>
+ * <p>
+ * The checks of this class work on the bytes, so no {@code String} is built for a line unless
+ * {@link #getLine()} or {@link #getTrimmedLine()} is called. The content can be a heap buffer or a
+ * memory-mapped file. A {@code ByteLineScanner} is not thread-safe.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class ByteLineScanner {
+    private final ByteBuffer content;
+    private final int start;
+    private final int limit;
+    private Charset charset;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+    private int trimmedStart;
+    private int trimmedEnd;
+    private int lineNumber;
+    private byte[] lineBytes = new byte[256];
+
+    /**
+     * Constructs a scanner over the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param content The content of the source file.
+     */
+    public ByteLineScanner(ByteBuffer content) {
+        int start = content.position();
+        Charset byteOrderMark = SourceCharset.detectByteOrderMark(content);
+        Charset utf16 = byteOrderMark == null ? SourceCharset.detectUtf16(content) : byteOrderMark;
+        if (StandardCharsets.UTF_8.equals(byteOrderMark)) {
+            start += SourceCharset.getByteOrderMarkLength(byteOrderMark);
+            charset = StandardCharsets.UTF_8;
+        } else if (utf16 != null) {
+            content = SourceCharset.toUtf8(content, utf16);
+            start = content.position();
+            charset = StandardCharsets.UTF_8;
+        }
+        this.content = content;
+        this.start = start;
+        this.position = start;
+        this.limit = content.limit();
+    }
+
+    /**
+     * Moves to the next line.
+     *
+     * @return {@code true} if there is a next line, {@code false} at the end of the content.
+     */
+    public boolean nextLine() {
+        if (position >= limit) {
+            return false;
+        }
+
+        int end = position;
+        while (end < limit) {
+            byte character = content.get(end);
+            if (character == '\n' || character == '\r') {
+                break;
+            }
+            end++;
+        }
+
+        lineNumber++;
+        lineStart = position;
+        lineEnd = end;
+        position = end + 1;
+        if (end < limit && content.get(end) == '\r' && position < limit && content.get(position) == '\n') {
+            position++;
+        }
+
+        trimmedStart = lineStart;
+        while (trimmedStart < lineEnd && isTrimmable(content.get(trimmedStart))) {
+            trimmedStart++;
+        }
+        trimmedEnd = lineEnd;
+        while (trimmedEnd > trimmedStart && isTrimmable(content.get(trimmedEnd - 1))) {
+            trimmedEnd--;
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of the current line, starting at 1, or {@code 0} before the first line.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return {@code true} if the trimmed line is empty.
+     */
+    public boolean isEmpty() {
+        return trimmedStart == trimmedEnd;
+    }
+
+    /**
+     * @return The number of bytes of the trimmed line.
+     */
+    public int length() {
+        return trimmedEnd - trimmedStart;
+    }
+
+    /**
+     * Checks whether the trimmed line starts with the given ASCII character.
+     *
+     * @param character The expected first character.
+     * @return {@code true} if the trimmed line starts with the character.
+     */
+    public boolean startsWith(char character) {
+        return trimmedStart < trimmedEnd && content.get(trimmedStart) == character;
+    }
+
+    /**
+     * Checks whether the trimmed line starts with the given ASCII characters.
+     *
+     * @param first  The expected first character.
+     * @param second The expected second character.
+     * @return {@code true} if the trimmed line starts with both characters.
+     */
+    public boolean startsWith(char first, char second) {
+        return trimmedEnd - trimmedStart >= 2
+            && content.get(trimmedStart) == first
+            && content.get(trimmedStart + 1) == second;
+    }
+
+    /**
+     * Checks whether the trimmed line ends with the given ASCII character.
+     *
+     * @param character The expected last character.
+     * @return {@code true} if the trimmed line ends with the character.
+     */
+    public boolean endsWith(char character) {
+        return trimmedStart < trimmedEnd && content.get(trimmedEnd - 1) == character;
+    }
+
+    /**
+     * Checks whether the trimmed line ends with the given ASCII characters.
+     *
+     * @param first  The expected second to last character.
+     * @param second The expected last character.
+     * @return {@code true} if the trimmed line ends with both characters.
+     */
+    public boolean endsWith(char first, char second) {
+        return trimmedEnd - trimmedStart >= 2
+            && content.get(trimmedEnd - 2) == first
+            && content.get(trimmedEnd - 1) == second;
+    }
+
+    /**
+     * Checks whether the line contains the given ASCII character.
+     *
+     * @param character The character to look for.
+     * @return {@code true} if the character appears anywhere in the line.
+     */
+    public boolean contains(char character) {
+        for (int i = trimmedStart; i < trimmedEnd; i++) {
+            if (content.get(i) == character) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes the whole line, as {@code Files.readAllLines} would return it.
+     *
+     * @return The line without its line terminator.
+     */
+    public String getLine() {
+        return decode(lineStart, lineEnd);
+    }
+
+    /**
+     * Decodes the trimmed line.
+     *
+     * @return The line without leading and trailing whitespace.
+     */
+    public String getTrimmedLine() {
+        return decode(trimmedStart, trimmedEnd);
+    }
+
+    /**
+     * @param index The position of a byte of the content.
+     * @return The byte at that position.
+     */
+    byte byteAt(int index) {
+        return content.get(index);
+    }
+
+    /**
+     * Checks whether a range of the content holds the given ASCII text.
+     *
+     * @param start The position of the first byte of the range.
+     * @param end   The position after the last byte of the range.
+     * @param text  The text, made only of ASCII characters.
+     * @return {@code true} if the bytes of the range are the characters of the text.
+     */
+    boolean regionEquals(int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (content.get(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a range of the content holds the given ASCII text, in any case.
+     *
+     * @param start The position of the first byte of the range.
+     * @param end   The position after the last byte of the range.
+     * @param text  The text, made only of lower case ASCII characters.
+     * @return {@code true} if the bytes of the range are the characters of the text in upper or lower case.
+     */
+    boolean regionEqualsIgnoreCase(int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            int character = content.get(start + i);
+            if (character >= 'A' && character <= 'Z') {
+                character += 'a' - 'A';
+            }
+            if (character != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The position of the first byte of the line.
+     */
+    int getLineStart() {
+        return lineStart;
+    }
+
+    /**
+     * @return The position after the last byte of the line, without its line terminator.
+     */
+    int getLineEnd() {
+        return lineEnd;
+    }
+
+    /**
+     * Decodes a range of the content with the encoding of the file, reusing the same array to copy the bytes.
+     *
+     * @param start The first byte of the range.
+     * @param end   The byte after the range.
+     * @return The decoded text; bytes that are not valid in the encoding become replacement characters.
+     */
+    String decode(int start, int end) {
+        int length = end - start;
+        if (lineBytes.length < length) {
+            lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+        }
+        content.get(start, lineBytes, 0, length);
+        return new String(lineBytes, 0, length, getCharset(lineBytes, length));
+    }
+
+    /**
+     * Returns the encoding to decode some bytes of the content with. ASCII bytes decode the same in every
+     * supported encoding, so the content is only checked for valid UTF-8 the first time other bytes appear.
+     *
+     * @param bytes  The bytes to decode.
+     * @param length The number of bytes to decode.
+     * @return The encoding of the content, or UTF-8 if it is not known yet and the bytes are ASCII.
+     */
+    private Charset getCharset(byte[] bytes, int length) {
+        if (charset != null) {
+            return charset;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] < 0) {
+                charset = SourceCharset.isUtf8(content, start, limit)
+                    ? StandardCharsets.UTF_8
+                    : StandardCharsets.ISO_8859_1;
+                return charset;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Checks whether a byte is removed by {@link String#trim()}.
+     *
+     * @param character The byte to check.
+     * @return {@code true} if the byte is a space or an ASCII control character.
+     */
+    static boolean isTrimmable(byte character) {
+        return character >= 0 && character <= ' ';
+    }
+}
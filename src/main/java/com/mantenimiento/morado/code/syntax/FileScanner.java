@@ -0,0 +1,63 @@
+package com.mantenimiento.morado.code.syntax;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.model.SourceFile;
+
+/**
+ * Scans the lines of a single source file, separating its code from its comments and finding its types and
+ * methods.
+ * <p>
+ * The lexer and the structure behind a scanner are chosen by the {@link LanguageProfile.Lexer} of the
+ * language, so {@link #forProfile(LanguageProfile)} is the only place where Java and the other languages are
+ * told apart. A {@code FileScanner} keeps the state of a single file and is not thread-safe.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public interface FileScanner {
+
+    /**
+     * Creates a scanner for a file of a language.
+     *
+     * @param profile The profile of the language of the file.
+     * @return A scanner that has not seen any line.
+     */
+    static FileScanner forProfile(LanguageProfile profile) {
+        switch (profile.lexer()) {
+            case JAVA:
+                return new JavaFileScanner();
+            default:
+                return new ProfileFileScanner(profile);
+        }
+    }
+
+    /**
+     * Checks the style rules of the language on a line, before it is scanned.
+     *
+     * @param line The scanner positioned on the line.
+     * @return {@code true} if the line follows the rules, or the language has none.
+     */
+    boolean isWellWrittenLine(ByteLineScanner line);
+
+    /**
+     * Scans the next line of the file.
+     *
+     * @param line The scanner positioned on the line.
+     * @return {@code true} if the line has code.
+     */
+    boolean scanLine(ByteLineScanner line);
+
+    /**
+     * @return The number of methods found in the lines scanned so far.
+     */
+    int getNumOfMethods();
+
+    /**
+     * Returns the result of the file once all its lines were scanned and all of them were well-written.
+     *
+     * @param filename    The name of the file.
+     * @param physicalLOC The number of lines with code.
+     * @return A {@code SourceFile} with the status and the types of the file.
+     */
+    SourceFile getResult(String filename, int physicalLOC);
+}
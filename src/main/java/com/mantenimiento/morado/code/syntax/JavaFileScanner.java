@@ -0,0 +1,41 @@
+package com.mantenimiento.morado.code.syntax;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code JavaFileScanner} class scans a Java file with a {@link JavaLexer} and a {@link JavaStructure},
+ * and checks the style rules of {@link SyntaxAnalyzer} on every line. A file without types is reported with
+ * the "No class" status.
+ *
+ * @version 2.0.0
+ */
+class JavaFileScanner implements FileScanner {
+    private final JavaStructure structure = new JavaStructure();
+    private final JavaLexer lexer = new JavaLexer(structure);
+    private final LineMatcher lineMatcher = new LineMatcher();
+
+    @Override
+    public boolean isWellWrittenLine(ByteLineScanner line) {
+        return SyntaxAnalyzer.isWellWrittenLine(line, lineMatcher);
+    }
+
+    @Override
+    public boolean scanLine(ByteLineScanner line) {
+        return lexer.scanLine(line);
+    }
+
+    @Override
+    public int getNumOfMethods() {
+        return structure.getNumOfMethods();
+    }
+
+    @Override
+    public SourceFile getResult(String filename, int physicalLOC) {
+        if (!structure.hasTypes()) {
+            return new SourceFile(filename, physicalLOC, 0, Constants.JAVA_FILE_STATUS_NO_CLASS);
+        }
+        return new SourceFile(filename, physicalLOC, structure.getNumOfMethods(), Constants.JAVA_FILE_STATUS_OK,
+            structure.getPackageName(), structure.getTypes());
+    }
+}
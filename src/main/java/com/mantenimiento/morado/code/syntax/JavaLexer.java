@@ -0,0 +1,251 @@
+package com.mantenimiento.morado.code.syntax;
+
+/**
+ * The {@code JavaLexer} class separates the code of a Java source file from its comments, one line at a time.
+ * <p>
+ * The lexer walks every byte of a line once and keeps its state from one line to the next, so a block
+ * comment or a text block that spans several lines is recognized wherever it starts and ends. Comment
+ * markers inside string literals, character literals and text blocks are not taken as comments, and code
+ * before or after a comment on the same line is still code. The content of literals counts as code.
+ * </p>
+ * <p>
+ * The code is split into words, symbols and literals, which are passed to a {@link JavaStructure} when the
+ * lexer has one. Scanning a line does not allocate. A {@code JavaLexer} keeps the state of a single file
+ * and is not thread-safe.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class JavaLexer {
+    private final JavaStructure structure;
+    private State state = State.CODE;
+    private boolean hasCode;
+
+    /**
+     * The construct the lexer is in between two bytes.
+     */
+    private enum State {
+        CODE,
+        BLOCK_COMMENT,
+        TEXT_BLOCK
+    }
+
+    /**
+     * Constructs a lexer that only separates code from comments.
+     */
+    public JavaLexer() {
+        this(null);
+    }
+
+    /**
+     * Constructs a lexer that also passes the tokens of the code to a structure.
+     *
+     * @param structure The structure that receives the tokens, or {@code null}.
+     */
+    public JavaLexer(JavaStructure structure) {
+        this.structure = structure;
+    }
+
+    /**
+     * Scans the current line of a scanner, continuing from the state left by the previous line.
+     * <p>
+     * String and character literals end at the end of the line, since Java does not allow them to span lines.
+     * </p>
+     *
+     * @param line The scanner positioned on the line to scan.
+     * @return {@code true} if the line has code besides whitespace and comments, otherwise {@code false}.
+     */
+    public boolean scanLine(ByteLineScanner line) {
+        int end = line.getLineEnd();
+        int index = line.getLineStart();
+        hasCode = false;
+
+        while (index < end) {
+            switch (state) {
+                case BLOCK_COMMENT:
+                    index = scanBlockComment(line, index, end);
+                    break;
+                case TEXT_BLOCK:
+                    index = scanTextBlock(line, index, end);
+                    break;
+                default:
+                    index = scanCode(line, index, end);
+                    break;
+            }
+        }
+
+        if (hasCode && structure != null) {
+            structure.onCodeLine();
+        }
+        return hasCode;
+    }
+
+    /**
+     * Scans one construct of code: a whitespace, a comment marker, a literal, a word or a symbol.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the first byte of the construct.
+     * @param end   The end of the line.
+     * @return The position after the construct.
+     */
+    private int scanCode(ByteLineScanner line, int index, int end) {
+        byte character = line.byteAt(index);
+        if (ByteLineScanner.isTrimmable(character)) {
+            return index + 1;
+        }
+
+        if (character == '/' && index + 1 < end) {
+            byte next = line.byteAt(index + 1);
+            if (next == '/') {
+                return end;
+            }
+            if (next == '*') {
+                state = State.BLOCK_COMMENT;
+                return index + 2;
+            }
+        }
+
+        if (character == '"' && isTextBlockDelimiter(line, index, end)) {
+            state = State.TEXT_BLOCK;
+            hasCode = true;
+            if (structure != null) {
+                structure.onLiteral();
+            }
+            return index + 3;
+        }
+
+        if (character == '"' || character == '\'') {
+            if (structure != null) {
+                structure.onLiteral();
+            }
+            return scanLiteral(line, index, end, character);
+        }
+
+        if (isWordCharacter(character)) {
+            return scanWord(line, index, end);
+        }
+
+        hasCode = true;
+        if (structure != null) {
+            structure.onSymbol(character);
+        }
+        return index + 1;
+    }
+
+    /**
+     * Scans an identifier, a keyword or a number.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the first byte of the word.
+     * @param end   The end of the line.
+     * @return The position after the word.
+     */
+    private int scanWord(ByteLineScanner line, int index, int end) {
+        int position = index + 1;
+        while (position < end && isWordCharacter(line.byteAt(position))) {
+            position++;
+        }
+
+        hasCode = true;
+        if (structure != null) {
+            structure.onWord(line, index, position);
+        }
+        return position;
+    }
+
+    /**
+     * Scans a string or character literal up to its closing quote or the end of the line.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the opening quote.
+     * @param end   The end of the line.
+     * @param quote The quote that closes the literal.
+     * @return The position after the literal.
+     */
+    private int scanLiteral(ByteLineScanner line, int index, int end, byte quote) {
+        int position = index + 1;
+        while (position < end) {
+            byte character = line.byteAt(position);
+            if (character == '\\') {
+                position += 2;
+            } else if (character == quote) {
+                position++;
+                break;
+            } else {
+                position++;
+            }
+        }
+
+        position = Math.min(position, end);
+        hasCode = true;
+        return position;
+    }
+
+    /**
+     * Scans one byte of a block comment, or its closing marker.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the byte.
+     * @param end   The end of the line.
+     * @return The position after the byte or the marker.
+     */
+    private int scanBlockComment(ByteLineScanner line, int index, int end) {
+        if (line.byteAt(index) == '*' && index + 1 < end && line.byteAt(index + 1) == '/') {
+            state = State.CODE;
+            return index + 2;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Scans one byte of a text block, an escape sequence or the closing delimiter.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the byte.
+     * @param end   The end of the line.
+     * @return The position after the scanned bytes.
+     */
+    private int scanTextBlock(ByteLineScanner line, int index, int end) {
+        byte character = line.byteAt(index);
+        if (character == '\\') {
+            int position = Math.min(index + 2, end);
+            hasCode = true;
+            return position;
+        }
+
+        if (character == '"' && isTextBlockDelimiter(line, index, end)) {
+            state = State.CODE;
+            hasCode = true;
+            return index + 3;
+        }
+
+        if (!ByteLineScanner.isTrimmable(character)) {
+            hasCode = true;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Checks whether three double quotes start at a position.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the first quote.
+     * @param end   The end of the line.
+     * @return {@code true} if the bytes at the position are {@code """}, otherwise {@code false}.
+     */
+    private static boolean isTextBlockDelimiter(ByteLineScanner line, int index, int end) {
+        return index + 2 < end && line.byteAt(index + 1) == '"' && line.byteAt(index + 2) == '"';
+    }
+
+    /**
+     * Checks whether a byte can be part of a Java identifier or a number. Every byte of a non-ASCII
+     * character is taken as part of an identifier.
+     *
+     * @param character The byte to check.
+     * @return {@code true} if the byte is a letter, a digit, {@code _}, {@code $} or a non-ASCII byte.
+     */
+    private static boolean isWordCharacter(byte character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z')
+            || (character >= '0' && character <= '9') || character == '_' || character == '$' || character < 0;
+    }
+}
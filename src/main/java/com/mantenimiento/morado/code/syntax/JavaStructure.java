@@ -0,0 +1,478 @@
+package com.mantenimiento.morado.code.syntax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code JavaStructure} class finds the types and methods of a Java source file from the tokens of a
+ * {@link JavaLexer}.
+ * <p>
+ * Instead of matching each line against a pattern, it follows the nesting of braces and, for every brace
+ * that opens, decides from the tokens of the declaration before it whether the block is the body of a type,
+ * of a method or of anything else. A method is a member of a type body with a parameter list and a body, so
+ * abstract and interface methods without a body, control-flow statements, lambdas and initializers are not
+ * counted, while multi-line signatures, annotated methods and methods of nested, local and anonymous
+ * classes are. Every token is looked at once, so the cost is linear in the size of the file.
+ * </p>
+ * <p>
+ * The size of a type or a method is the number of physical lines of code from the first token of its
+ * declaration, annotations included, to its closing brace. It is taken from the number of code lines seen
+ * when the declaration starts and when the body closes, so nothing is stored per line.
+ * </p>
+ * <p>
+ * A {@code JavaStructure} keeps the state of a single file and is not thread-safe.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class JavaStructure {
+    private static final int TYPE_BODY = 0;
+    private static final int ANONYMOUS_BODY = 1;
+    private static final int METHOD_BODY = 2;
+    private static final int BLOCK = 3;
+
+    private static final int OTHER = 0;
+    private static final int WORD = 1;
+    private static final int AT = 2;
+    private static final int DOT = 3;
+    private static final int MINUS = 4;
+    private static final int CLOSE_PARENTHESIS = 5;
+
+    private final List<String> typeNames = new ArrayList<>();
+    private final List<String> simpleTypeNames = new ArrayList<>();
+    private final List<String> typeKinds = new ArrayList<>();
+    private int[] typeStarts = new int[8];
+    private int[] typeLOC = new int[8];
+    private final List<String> methodNames = new ArrayList<>();
+    private int[] methodTypes = new int[16];
+    private int[] methodStarts = new int[16];
+    private int[] methodLOC = new int[16];
+    private StringBuilder packageName;
+    private boolean readingPackage;
+    private int codeLines;
+
+    private int[] frameKinds = new int[16];
+    private int[] frameTypes = new int[16];
+    private int[] frameItems = new int[16];
+    private int[] frameParenthesisDepths = new int[16];
+    private boolean[] frameEnumConstants = new boolean[16];
+    private int depth;
+
+    private int previous = OTHER;
+    private int declarationStart = -1;
+    private int parenthesisDepth;
+    private String pendingKind;
+    private String pendingName;
+    private boolean expectingTypeName;
+    private boolean recordCandidate;
+    private boolean methodCandidate;
+    private String methodName;
+    private boolean hasParameters;
+    private boolean assignment;
+    private boolean lambda;
+    private boolean typeNameWord;
+    private boolean annotationName;
+    private int annotationParenthesisDepth = -1;
+    private int newParenthesisDepth = -1;
+    private ByteLineScanner wordLine;
+    private int wordStart;
+    private int wordEnd;
+
+    /**
+     * @return The types declared in the file, in the order their bodies open, each with its methods.
+     */
+    public List<SourceType> getTypes() {
+        List<List<SourceMethod>> methods = new ArrayList<>(typeNames.size());
+        for (int i = 0; i < typeNames.size(); i++) {
+            methods.add(new ArrayList<>());
+        }
+        for (int i = 0; i < methodNames.size(); i++) {
+            methods.get(methodTypes[i]).add(new SourceMethod(methodNames.get(i), getLOC(methodStarts[i], methodLOC[i])));
+        }
+
+        List<SourceType> types = new ArrayList<>(typeNames.size());
+        for (int i = 0; i < typeNames.size(); i++) {
+            types.add(new SourceType(typeNames.get(i), typeKinds.get(i), getLOC(typeStarts[i], typeLOC[i]), methods.get(i)));
+        }
+        return types;
+    }
+
+    /**
+     * @return {@code true} if the file declares at least one class, interface, enum or record.
+     */
+    public boolean hasTypes() {
+        return !typeNames.isEmpty();
+    }
+
+    /**
+     * @return The number of methods with a body declared in all the types of the file.
+     */
+    public int getNumOfMethods() {
+        return methodNames.size();
+    }
+
+    /**
+     * @return The name of the package declared in the file, or an empty string for the default package.
+     */
+    public String getPackageName() {
+        return packageName == null ? "" : packageName.toString();
+    }
+
+    /**
+     * Receives the end of a line that has code.
+     */
+    void onCodeLine() {
+        codeLines++;
+    }
+
+    /**
+     * Receives an identifier, a keyword or a number.
+     *
+     * @param line  The scanner positioned on the line of the word.
+     * @param start The position of the first byte of the word.
+     * @param end   The position after the last byte of the word.
+     */
+    void onWord(ByteLineScanner line, int start, int end) {
+        startDeclaration();
+        if (readingPackage) {
+            packageName.append(line.decode(start, end));
+            previous = WORD;
+            return;
+        }
+        if (expectingTypeName) {
+            pendingName = line.decode(start, end);
+            expectingTypeName = false;
+            previous = WORD;
+            return;
+        }
+        checkRecord(false);
+
+        if (previous == AT) {
+            if (line.regionEquals(start, end, "interface")) {
+                startType(Constants.TYPE_KIND_ANNOTATION);
+            } else {
+                annotationName = true;
+            }
+            previous = WORD;
+            return;
+        }
+        if (previous == DOT && annotationName) {
+            // A qualified annotation name goes on
+            previous = WORD;
+            return;
+        }
+        annotationName = false;
+
+        if (previous != DOT) {
+            if (line.regionEquals(start, end, "class")) {
+                startType(Constants.TYPE_KIND_CLASS);
+            } else if (line.regionEquals(start, end, "interface")) {
+                startType(Constants.TYPE_KIND_INTERFACE);
+            } else if (line.regionEquals(start, end, "enum")) {
+                startType(Constants.TYPE_KIND_ENUM);
+            } else if (line.regionEquals(start, end, "record")) {
+                // "record" is also a valid identifier, so it is confirmed by the tokens after it
+                startType(Constants.TYPE_KIND_RECORD);
+                recordCandidate = true;
+            } else if (line.regionEquals(start, end, "new")) {
+                newParenthesisDepth = parenthesisDepth;
+            } else if (depth == 0 && line.regionEquals(start, end, "package")) {
+                readingPackage = true;
+                packageName = new StringBuilder();
+            }
+        }
+
+        typeNameWord = isRecordBody() && line.regionEquals(start, end, simpleTypeNames.get(frameTypes[depth - 1]));
+        wordLine = line;
+        wordStart = start;
+        wordEnd = end;
+        previous = WORD;
+    }
+
+    /**
+     * Receives a character of code that is not part of a word or a literal.
+     *
+     * @param symbol The character.
+     */
+    void onSymbol(byte symbol) {
+        startDeclaration();
+        if (readingPackage) {
+            if (symbol == '.') {
+                packageName.append('.');
+            } else if (symbol == ';') {
+                readingPackage = false;
+                resetDeclaration();
+            }
+            return;
+        }
+        checkRecord(symbol == '(' || symbol == '<');
+        int before = previous;
+        boolean afterWord = before == WORD;
+        previous = OTHER;
+
+        switch (symbol) {
+            case '@':
+                previous = AT;
+                return;
+            case '.':
+                previous = DOT;
+                return;
+            case '-':
+                previous = MINUS;
+                break;
+            case '>':
+                lambda |= parenthesisDepth == 0 && before == MINUS;
+                break;
+            case '(':
+                if (annotationName && afterWord && annotationParenthesisDepth < 0) {
+                    annotationParenthesisDepth = parenthesisDepth;
+                } else if (parenthesisDepth == 0 && afterWord && pendingKind == null && isMemberContext()) {
+                    methodCandidate = true;
+                    methodName = wordLine.decode(wordStart, wordEnd);
+                }
+                parenthesisDepth++;
+                break;
+            case ')':
+                if (parenthesisDepth > 0) {
+                    parenthesisDepth--;
+                }
+                if (parenthesisDepth == annotationParenthesisDepth) {
+                    annotationParenthesisDepth = -1;
+                } else if (parenthesisDepth == 0 && methodCandidate) {
+                    hasParameters = true;
+                }
+                previous = CLOSE_PARENTHESIS;
+                break;
+            case '=':
+                assignment |= parenthesisDepth == 0;
+                break;
+            case ';':
+                if (parenthesisDepth == 0) {
+                    if (depth > 0) {
+                        frameEnumConstants[depth - 1] = false;
+                    }
+                    resetDeclaration();
+                }
+                break;
+            case '{':
+                openBrace(before);
+                break;
+            case '}':
+                closeBrace();
+                break;
+            default:
+                break;
+        }
+        annotationName = false;
+    }
+
+    /**
+     * Receives a string literal, a character literal or the start of a text block.
+     */
+    void onLiteral() {
+        startDeclaration();
+        checkRecord(false);
+        annotationName = false;
+        previous = OTHER;
+    }
+
+    /**
+     * Opens a block and decides what it is the body of.
+     *
+     * @param before The kind of token before the brace.
+     */
+    private void openBrace(int before) {
+        int enclosingType = depth == 0 ? -1 : frameTypes[depth - 1];
+        boolean memberContext = isMemberContext();
+        boolean anonymous = before == CLOSE_PARENTHESIS && newParenthesisDepth == parenthesisDepth;
+        boolean enumConstant = memberContext && parenthesisDepth == 0 && frameEnumConstants[depth - 1];
+        boolean method = memberContext && parenthesisDepth == 0 && !assignment && !lambda
+            && (hasParameters || (before == WORD && typeNameWord));
+
+        if (pendingKind != null && pendingName != null) {
+            int type = addType(enclosingType);
+            push(TYPE_BODY, type, type);
+            frameEnumConstants[depth - 1] = pendingKind.equals(Constants.TYPE_KIND_ENUM);
+        } else if (anonymous || enumConstant) {
+            push(ANONYMOUS_BODY, enclosingType, -1);
+        } else if (method && enclosingType >= 0) {
+            String name = hasParameters ? methodName : simpleTypeNames.get(enclosingType);
+            push(METHOD_BODY, enclosingType, addMethod(enclosingType, name));
+        } else {
+            push(BLOCK, enclosingType, -1);
+        }
+        resetDeclaration();
+        parenthesisDepth = 0;
+    }
+
+    /**
+     * Closes the innermost block and goes back to the declaration that contains it.
+     */
+    private void closeBrace() {
+        if (depth > 0) {
+            depth--;
+            parenthesisDepth = frameParenthesisDepths[depth];
+            // The closing brace is code of the current line, which is not counted yet
+            if (frameKinds[depth] == TYPE_BODY) {
+                typeLOC[frameItems[depth]] = codeLines + 1 - typeStarts[frameItems[depth]];
+            } else if (frameKinds[depth] == METHOD_BODY) {
+                methodLOC[frameItems[depth]] = codeLines + 1 - methodStarts[frameItems[depth]];
+            }
+        }
+        resetDeclaration();
+    }
+
+    /**
+     * Starts the declaration of a type, whose name is the next word.
+     *
+     * @param kind The kind of the type.
+     */
+    private void startType(String kind) {
+        pendingKind = kind;
+        pendingName = null;
+        expectingTypeName = true;
+    }
+
+    /**
+     * Confirms or discards a pending {@code record} declaration. A record declaration is the
+     * word {@code record} followed by a name and a parameter list or type parameters; anything else uses
+     * {@code record} as an identifier.
+     *
+     * @param confirms Whether the current token is one that may follow the name of a record.
+     */
+    private void checkRecord(boolean confirms) {
+        if (!recordCandidate) {
+            return;
+        }
+        recordCandidate = false;
+        if (pendingName == null || !confirms) {
+            pendingKind = null;
+            pendingName = null;
+            expectingTypeName = false;
+        }
+    }
+
+    /**
+     * Adds the pending type to the list of types of the file.
+     *
+     * @param enclosingType The index of the enclosing named type, or {@code -1} for a top-level type.
+     * @return The index of the added type.
+     */
+    private int addType(int enclosingType) {
+        int index = typeNames.size();
+        typeNames.add(enclosingType < 0 ? pendingName : typeNames.get(enclosingType) + "." + pendingName);
+        simpleTypeNames.add(pendingName);
+        typeKinds.add(pendingKind);
+        if (index == typeStarts.length) {
+            typeStarts = Arrays.copyOf(typeStarts, index * 2);
+            typeLOC = Arrays.copyOf(typeLOC, index * 2);
+        }
+        typeStarts[index] = declarationStart;
+        return index;
+    }
+
+    /**
+     * Adds a method whose body opens to the list of methods of the file.
+     *
+     * @param type The index of the named type the method belongs to.
+     * @param name The name of the method.
+     * @return The index of the added method.
+     */
+    private int addMethod(int type, String name) {
+        int index = methodNames.size();
+        methodNames.add(name);
+        if (index == methodStarts.length) {
+            methodTypes = Arrays.copyOf(methodTypes, index * 2);
+            methodStarts = Arrays.copyOf(methodStarts, index * 2);
+            methodLOC = Arrays.copyOf(methodLOC, index * 2);
+        }
+        methodTypes[index] = type;
+        methodStarts[index] = declarationStart;
+        return index;
+    }
+
+    /**
+     * Pushes a block on the stack of open blocks, saving the parenthesis depth of the declaration it belongs to.
+     *
+     * @param kind The kind of block.
+     * @param type The index of the innermost named type that contains the block, or {@code -1}.
+     * @param item The index of the type or the method whose body the block is, or {@code -1}.
+     */
+    private void push(int kind, int type, int item) {
+        if (depth == frameKinds.length) {
+            int capacity = depth * 2;
+            frameKinds = Arrays.copyOf(frameKinds, capacity);
+            frameTypes = Arrays.copyOf(frameTypes, capacity);
+            frameItems = Arrays.copyOf(frameItems, capacity);
+            frameParenthesisDepths = Arrays.copyOf(frameParenthesisDepths, capacity);
+            frameEnumConstants = Arrays.copyOf(frameEnumConstants, capacity);
+        }
+        frameKinds[depth] = kind;
+        frameTypes[depth] = type;
+        frameItems[depth] = item;
+        frameParenthesisDepths[depth] = parenthesisDepth;
+        frameEnumConstants[depth] = false;
+        depth++;
+    }
+
+    /**
+     * @return {@code true} if the innermost block is the body of a type, where members are declared.
+     */
+    private boolean isMemberContext() {
+        return depth > 0 && (frameKinds[depth - 1] == TYPE_BODY || frameKinds[depth - 1] == ANONYMOUS_BODY);
+    }
+
+    /**
+     * Remembers the current line as the start of the declaration in progress, if it has not started yet.
+     */
+    private void startDeclaration() {
+        if (declarationStart < 0) {
+            declarationStart = codeLines;
+        }
+    }
+
+    /**
+     * Computes the lines of code of a type or a method.
+     *
+     * @param start The number of code lines before its declaration.
+     * @param loc   The lines of code set when its body closed, or {@code 0} if the file ended before.
+     * @return The lines of code, up to the end of the file for a body that is not closed.
+     */
+    private int getLOC(int start, int loc) {
+        return loc > 0 ? loc : codeLines - start;
+    }
+
+    /**
+     * @return {@code true} if the innermost block is the body of a record, where a compact constructor is
+     *         declared with the name of the record and no parameter list.
+     */
+    private boolean isRecordBody() {
+        return depth > 0 && frameKinds[depth - 1] == TYPE_BODY
+            && typeKinds.get(frameTypes[depth - 1]).equals(Constants.TYPE_KIND_RECORD);
+    }
+
+    /**
+     * Forgets the declaration in progress, at the end of a statement or of a block.
+     */
+    private void resetDeclaration() {
+        pendingKind = null;
+        pendingName = null;
+        expectingTypeName = false;
+        recordCandidate = false;
+        methodCandidate = false;
+        methodName = null;
+        hasParameters = false;
+        assignment = false;
+        lambda = false;
+        typeNameWord = false;
+        annotationName = false;
+        annotationParenthesisDepth = -1;
+        newParenthesisDepth = -1;
+        declarationStart = -1;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mantenimiento.morado.code.syntax;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.mantenimiento.morado.util.Regex;
+
+/**
+ * The {@code LineMatcher} class classifies lines of Java code with the rules defined in {@link Regex}.
+ * <p>
+ * Every pattern is compiled once for the whole application, and each {@code LineMatcher} keeps one
+ * {@link Matcher} per pattern that is reset for every line, so classifying a line allocates nothing.
+ * Before a regular expression is run, a cheap check on the characters every match needs
+ * (an equals sign, a comma, a semicolon) discards most lines, with exactly the same results as
+ * running the expression on every line. Types and methods are found by {@link JavaStructure} instead.
+ * </p>
+ * <p>
+ * A {@code LineMatcher} is not thread-safe; use one per thread or per analyzed file.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class LineMatcher {
+    private static final Pattern MULTI_INSTANCE_PATTERN = Pattern.compile(Regex.MULTI_INSTANCE_REGEX);
+
+    private final Matcher multiInstanceMatcher = MULTI_INSTANCE_PATTERN.matcher("");
+
+    /**
+     * Checks whether a line declares several variables, as defined by {@link Regex#MULTI_INSTANCE_REGEX}.
+     *
+     * @param line the line as read from the source file
+     * @return {@code true} if the line matches the multi-instance pattern; {@code false} otherwise
+     */
+    public boolean isMultiInstanceLine(String line) {
+        if (line.indexOf('=') < 0 || line.indexOf(',') < 0 || line.indexOf(';') < 0) {
+            return false;
+        }
+        return multiInstanceMatcher.reset(line).matches();
+    }
+}
@@ -0,0 +1,48 @@
+package com.mantenimiento.morado.code.syntax;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code ProfileFileScanner} class scans a file with a {@link SourceLexer} and a {@link SourceStructure} driven
+ * by the profile of its language. The style rules only apply to Java, so every line is well-written and
+ * the files are always reported with the OK status. The top-level functions of the file belong to a
+ * module named after the file without its extension.
+ *
+ * @version 2.0.0
+ */
+class ProfileFileScanner implements FileScanner {
+    private final SourceStructure structure;
+    private final SourceLexer lexer;
+
+    /**
+     * @param profile The profile of the language of the file.
+     */
+    ProfileFileScanner(LanguageProfile profile) {
+        this.structure = new SourceStructure(profile);
+        this.lexer = new SourceLexer(profile, structure);
+    }
+
+    @Override
+    public boolean isWellWrittenLine(ByteLineScanner line) {
+        return true;
+    }
+
+    @Override
+    public boolean scanLine(ByteLineScanner line) {
+        return lexer.scanLine(line);
+    }
+
+    @Override
+    public int getNumOfMethods() {
+        return structure.getNumOfMethods();
+    }
+
+    @Override
+    public SourceFile getResult(String filename, int physicalLOC) {
+        int extension = filename.lastIndexOf('.');
+        return new SourceFile(filename, physicalLOC, structure.getNumOfMethods(), Constants.JAVA_FILE_STATUS_OK,
+            "", structure.getTypes(filename.substring(0, extension)));
+    }
+}
@@ -0,0 +1,220 @@
+package com.mantenimiento.morado.code.syntax;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code SourceCharset} class finds the encoding of a source file from its bytes, without decoding it.
+ * <p>
+ * A byte order mark gives the encoding right away. A file without one is taken as UTF-16 when its first
+ * characters are ASCII with a zero byte next to each one, as UTF-8 when its bytes form valid UTF-8, and as
+ * Latin-1 otherwise, which is what legacy files that are not UTF-8 usually are. The UTF-8 check reads eight
+ * bytes at a time while they are ASCII, so it costs little on the files that are mostly ASCII.
+ * </p>
+ * <p>
+ * Decoding is always lenient: bytes that are not valid in the detected encoding become replacement
+ * characters, and no exception is thrown whatever the content. The scanners of this package work on the bytes
+ * of UTF-8, Latin-1 and any other ASCII-compatible encoding alike, so only UTF-16 content has to be re-encoded
+ * before it is scanned; see {@link ByteLineScanner}.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public final class SourceCharset {
+    private static final long NON_ASCII_BYTES = 0x8080808080808080L;
+    private static final int UTF_16_SAMPLE_BYTES = 256;
+
+    private SourceCharset() {
+    }
+
+    /**
+     * Detects the encoding of the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param content The content of the file.
+     * @return The encoding given by the byte order mark, UTF-16 for ASCII with zero bytes in between, UTF-8 for
+     *         valid UTF-8, or Latin-1.
+     */
+    public static Charset detect(ByteBuffer content) {
+        Charset charset = detectByteOrderMark(content);
+        if (charset == null) {
+            charset = detectUtf16(content);
+        }
+        if (charset == null) {
+            charset = isUtf8(content, content.position(), content.limit())
+                ? StandardCharsets.UTF_8
+                : StandardCharsets.ISO_8859_1;
+        }
+        return charset;
+    }
+
+    /**
+     * Detects the encoding given by the byte order mark at the start of a buffer.
+     *
+     * @param content The content of the file.
+     * @return UTF-8, UTF-16BE or UTF-16LE, or {@code null} if the content has no byte order mark.
+     */
+    public static Charset detectByteOrderMark(ByteBuffer content) {
+        int start = content.position();
+        int length = content.remaining();
+        if (length >= 3 && content.get(start) == (byte) 0xEF && content.get(start + 1) == (byte) 0xBB
+            && content.get(start + 2) == (byte) 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && content.get(start) == (byte) 0xFE && content.get(start + 1) == (byte) 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (length >= 2 && content.get(start) == (byte) 0xFF && content.get(start + 1) == (byte) 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the length of the byte order mark of an encoding.
+     *
+     * @param charset An encoding returned by {@link #detectByteOrderMark(ByteBuffer)}.
+     * @return The number of bytes of its byte order mark.
+     */
+    public static int getByteOrderMarkLength(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) ? 3 : 2;
+    }
+
+    /**
+     * Detects UTF-16 content without a byte order mark from its first bytes. Source text has no zero bytes,
+     * so the sample is only read when one of the first two bytes is zero.
+     *
+     * @param content The content of the file.
+     * @return UTF-16BE or UTF-16LE if every character of the sample has one zero byte on the same side,
+     *         otherwise {@code null}.
+     */
+    public static Charset detectUtf16(ByteBuffer content) {
+        int start = content.position();
+        int length = Math.min(content.remaining(), UTF_16_SAMPLE_BYTES) & ~1;
+        if (length < 2 || (content.get(start) != 0 && content.get(start + 1) != 0)) {
+            return null;
+        }
+
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i < length; i += 2) {
+            if (content.get(start + i) == 0) {
+                evenZeros++;
+            }
+            if (content.get(start + i + 1) == 0) {
+                oddZeros++;
+            }
+        }
+
+        int characters = length / 2;
+        if (evenZeros == characters && oddZeros == 0) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (oddZeros == characters && evenZeros == 0) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a range of bytes is valid UTF-8: no overlong forms, no surrogates and nothing above
+     * {@code U+10FFFF}. A character cut by the end of the range is invalid.
+     *
+     * @param content The bytes to check.
+     * @param start   The first byte of the range.
+     * @param end     The byte after the range.
+     * @return {@code true} if the range is valid UTF-8, which includes plain ASCII.
+     */
+    public static boolean isUtf8(ByteBuffer content, int start, int end) {
+        ByteBuffer bytes = content.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int index = start;
+        while (index < end) {
+            if (index + Long.BYTES <= end && (bytes.getLong(index) & NON_ASCII_BYTES) == 0) {
+                index += Long.BYTES;
+                continue;
+            }
+
+            int first = bytes.get(index) & 0xFF;
+            if (first < 0x80) {
+                index++;
+                continue;
+            }
+
+            int continuation;
+            int minimumSecond = 0x80;
+            int maximumSecond = 0xBF;
+            if (first >= 0xC2 && first <= 0xDF) {
+                continuation = 1;
+            } else if (first >= 0xE0 && first <= 0xEF) {
+                continuation = 2;
+                if (first == 0xE0) {
+                    minimumSecond = 0xA0;
+                } else if (first == 0xED) {
+                    maximumSecond = 0x9F;
+                }
+            } else if (first >= 0xF0 && first <= 0xF4) {
+                continuation = 3;
+                if (first == 0xF0) {
+                    minimumSecond = 0x90;
+                } else if (first == 0xF4) {
+                    maximumSecond = 0x8F;
+                }
+            } else {
+                return false;
+            }
+
+            if (index + continuation >= end) {
+                return false;
+            }
+            int second = bytes.get(index + 1) & 0xFF;
+            if (second < minimumSecond || second > maximumSecond) {
+                return false;
+            }
+            for (int i = 2; i <= continuation; i++) {
+                if ((bytes.get(index + i) & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            index += continuation + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer with the detected encoding, without its byte order mark.
+     *
+     * @param content The content of the file.
+     * @return The text of the file; invalid bytes are decoded as replacement characters.
+     */
+    public static String decode(ByteBuffer content) {
+        Charset charset = detect(content);
+        return charset.decode(skipByteOrderMark(content, charset)).toString();
+    }
+
+    /**
+     * Re-encodes UTF-16 content as UTF-8, so it can be scanned byte by byte.
+     *
+     * @param content The content of the file.
+     * @param charset The UTF-16 encoding of the content.
+     * @return A new buffer with the UTF-8 bytes of the content, without byte order mark.
+     */
+    public static ByteBuffer toUtf8(ByteBuffer content, Charset charset) {
+        return StandardCharsets.UTF_8.encode(charset.decode(skipByteOrderMark(content, charset)));
+    }
+
+    /**
+     * Returns the bytes of a buffer that follow its byte order mark. The position of the buffer is not changed.
+     *
+     * @param content The content of the file.
+     * @param charset The detected encoding of the content.
+     * @return A view of the content without byte order mark.
+     */
+    private static ByteBuffer skipByteOrderMark(ByteBuffer content, Charset charset) {
+        ByteBuffer bytes = content.duplicate();
+        if (detectByteOrderMark(content) != null) {
+            bytes.position(bytes.position() + getByteOrderMarkLength(charset));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,306 @@
+package com.mantenimiento.morado.code.syntax;
+
+import java.util.List;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+
+/**
+ * The {@code SourceLexer} class separates the code of a source file from its comments, one line at a time,
+ * following the comment and string rules of a {@link LanguageProfile}.
+ * <p>
+ * It works like {@link JavaLexer} for any language of the registry: every byte of a line is looked at once,
+ * the state is kept from one line to the next for block comments and multi-line strings, and the content of
+ * literals counts as code. The bytes that can start a comment or a literal are kept in a table built from
+ * the profile, so the other bytes are checked with a single array lookup.
+ * </p>
+ * <p>
+ * The code is split into words and symbols, which are passed to a {@link SourceStructure} when the lexer has
+ * one, together with the indentation of every line that starts in code. A {@code SourceLexer} keeps the
+ * state of a single file and is not thread-safe.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class SourceLexer {
+    private final SourceStructure structure;
+    private final List<String> lineComments;
+    private final String blockCommentStart;
+    private final String blockCommentEnd;
+    private final boolean nestedComments;
+    private final String quotes;
+    private final List<String> multiLineStrings;
+    private final boolean backslashEscapes;
+    private final boolean[] markerStarts = new boolean[128];
+
+    private int commentDepth;
+    private String openString;
+    private boolean hasCode;
+    private boolean lineStartsInCode;
+
+    /**
+     * Constructs a lexer that only separates code from comments.
+     *
+     * @param profile The rules of the language of the file.
+     */
+    public SourceLexer(LanguageProfile profile) {
+        this(profile, null);
+    }
+
+    /**
+     * Constructs a lexer that also passes the tokens of the code to a structure.
+     *
+     * @param profile   The rules of the language of the file.
+     * @param structure The structure that receives the tokens, or {@code null}.
+     */
+    public SourceLexer(LanguageProfile profile, SourceStructure structure) {
+        this.structure = structure;
+        this.lineComments = profile.lineComments();
+        this.blockCommentStart = profile.blockCommentStart();
+        this.blockCommentEnd = profile.blockCommentEnd();
+        this.nestedComments = profile.nestedComments();
+        this.quotes = profile.quotes();
+        this.multiLineStrings = profile.multiLineStrings();
+        this.backslashEscapes = profile.backslashEscapes();
+
+        for (String marker : lineComments) {
+            markerStarts[marker.charAt(0)] = true;
+        }
+        if (blockCommentStart != null) {
+            markerStarts[blockCommentStart.charAt(0)] = true;
+        }
+        for (String delimiter : multiLineStrings) {
+            markerStarts[delimiter.charAt(0)] = true;
+        }
+        for (int i = 0; i < quotes.length(); i++) {
+            markerStarts[quotes.charAt(i)] = true;
+        }
+    }
+
+    /**
+     * Scans the current line of a scanner, continuing from the state left by the previous line.
+     *
+     * @param line The scanner positioned on the line to scan.
+     * @return {@code true} if the line has code besides whitespace and comments, otherwise {@code false}.
+     */
+    public boolean scanLine(ByteLineScanner line) {
+        int start = line.getLineStart();
+        int end = line.getLineEnd();
+        int index = start;
+        hasCode = false;
+        lineStartsInCode = commentDepth == 0 && openString == null;
+
+        while (index < end) {
+            if (commentDepth > 0) {
+                index = scanBlockComment(line, index, end);
+            } else if (openString != null) {
+                index = scanString(line, index, end);
+            } else {
+                index = scanCode(line, start, index, end);
+            }
+        }
+
+        if (hasCode && structure != null) {
+            structure.onCodeLine();
+        }
+        return hasCode;
+    }
+
+    /**
+     * Scans one construct of code: a whitespace, a comment marker, a literal, a word or a symbol.
+     *
+     * @param line      The scanner positioned on the line.
+     * @param lineStart The start of the line.
+     * @param index     The position of the first byte of the construct.
+     * @param end       The end of the line.
+     * @return The position after the construct.
+     */
+    private int scanCode(ByteLineScanner line, int lineStart, int index, int end) {
+        byte character = line.byteAt(index);
+        if (ByteLineScanner.isTrimmable(character)) {
+            return index + 1;
+        }
+
+        if (character >= 0 && markerStarts[character]) {
+            int position = scanMarker(line, lineStart, index, end, character);
+            if (position > index) {
+                return position;
+            }
+        }
+
+        startCode(lineStart, index);
+        if (isWordCharacter(character)) {
+            int position = index + 1;
+            while (position < end && isWordCharacter(line.byteAt(position))) {
+                position++;
+            }
+            if (structure != null) {
+                structure.onWord(line, index, position);
+            }
+            return position;
+        }
+
+        if (structure != null) {
+            structure.onSymbol(character);
+        }
+        return index + 1;
+    }
+
+    /**
+     * Scans a comment marker or the opening of a literal.
+     *
+     * @param line      The scanner positioned on the line.
+     * @param lineStart The start of the line.
+     * @param index     The position of the marker.
+     * @param end       The end of the line.
+     * @param character The byte at the position.
+     * @return The position after the comment or the literal, or {@code index} if no marker starts there.
+     */
+    private int scanMarker(ByteLineScanner line, int lineStart, int index, int end, byte character) {
+        for (String marker : lineComments) {
+            if (startsWith(line, index, end, marker)) {
+                return end;
+            }
+        }
+        if (blockCommentStart != null && startsWith(line, index, end, blockCommentStart)) {
+            commentDepth = 1;
+            return index + blockCommentStart.length();
+        }
+        for (String delimiter : multiLineStrings) {
+            if (startsWith(line, index, end, delimiter)) {
+                startLiteral(lineStart, index);
+                openString = delimiter;
+                return index + delimiter.length();
+            }
+        }
+        if (quotes.indexOf(character) >= 0) {
+            startLiteral(lineStart, index);
+            return scanLiteral(line, index, end, character);
+        }
+        return index;
+    }
+
+    /**
+     * Scans a literal that ends on the same line, up to its closing quote or the end of the line.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the opening quote.
+     * @param end   The end of the line.
+     * @param quote The quote that closes the literal.
+     * @return The position after the literal.
+     */
+    private int scanLiteral(ByteLineScanner line, int index, int end, byte quote) {
+        int position = index + 1;
+        while (position < end) {
+            byte character = line.byteAt(position);
+            if (character == '\\' && backslashEscapes) {
+                position += 2;
+            } else if (character == quote) {
+                position++;
+                break;
+            } else {
+                position++;
+            }
+        }
+        return Math.min(position, end);
+    }
+
+    /**
+     * Scans one byte of a block comment, or one of its markers.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the byte.
+     * @param end   The end of the line.
+     * @return The position after the byte or the marker.
+     */
+    private int scanBlockComment(ByteLineScanner line, int index, int end) {
+        if (startsWith(line, index, end, blockCommentEnd)) {
+            commentDepth--;
+            return index + blockCommentEnd.length();
+        }
+        if (nestedComments && startsWith(line, index, end, blockCommentStart)) {
+            commentDepth++;
+            return index + blockCommentStart.length();
+        }
+        return index + 1;
+    }
+
+    /**
+     * Scans one byte of a multi-line literal, an escape sequence or the closing delimiter.
+     *
+     * @param line  The scanner positioned on the line.
+     * @param index The position of the byte.
+     * @param end   The end of the line.
+     * @return The position after the scanned bytes.
+     */
+    private int scanString(ByteLineScanner line, int index, int end) {
+        byte character = line.byteAt(index);
+        if (character == '\\' && backslashEscapes) {
+            hasCode = true;
+            return Math.min(index + 2, end);
+        }
+
+        if (startsWith(line, index, end, openString)) {
+            hasCode = true;
+            int position = index + openString.length();
+            openString = null;
+            return position;
+        }
+
+        if (!ByteLineScanner.isTrimmable(character)) {
+            hasCode = true;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Marks the line as having code and passes a literal to the structure.
+     *
+     * @param lineStart The start of the line.
+     * @param index     The position of the literal.
+     */
+    private void startLiteral(int lineStart, int index) {
+        startCode(lineStart, index);
+        if (structure != null) {
+            structure.onLiteral();
+        }
+    }
+
+    /**
+     * Marks the line as having code, passing the indentation of the line to the structure before its first
+     * token when the line does not start inside a comment or a literal.
+     *
+     * @param lineStart The start of the line.
+     * @param index     The position of the token.
+     */
+    private void startCode(int lineStart, int index) {
+        if (!hasCode && lineStartsInCode && structure != null) {
+            structure.onLineStart(index - lineStart);
+        }
+        hasCode = true;
+    }
+
+    /**
+     * Checks whether a marker starts at a position of the line.
+     *
+     * @param line   The scanner positioned on the line.
+     * @param index  The position to check.
+     * @param end    The end of the line.
+     * @param marker The marker, made of ASCII characters.
+     * @return {@code true} if the bytes at the position are the marker.
+     */
+    private static boolean startsWith(ByteLineScanner line, int index, int end, String marker) {
+        return index + marker.length() <= end && line.regionEquals(index, index + marker.length(), marker);
+    }
+
+    /**
+     * Checks whether a byte can be part of an identifier or a number. Every byte of a non-ASCII character is
+     * taken as part of an identifier.
+     *
+     * @param character The byte to check.
+     * @return {@code true} if the byte is a letter, a digit, {@code _}, {@code $} or a non-ASCII byte.
+     */
+    private static boolean isWordCharacter(byte character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z')
+            || (character >= '0' && character <= '9') || character == '_' || character == '$' || character < 0;
+    }
+}
@@ -0,0 +1,615 @@
+package com.mantenimiento.morado.code.syntax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageProfile.BlockStyle;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+/**
+ * The {@code SourceStructure} class finds the types and methods of a source file from the tokens of a
+ * {@link SourceLexer}, following the declaration keywords of a {@link LanguageProfile}.
+ * <p>
+ * A declaration is a type or method keyword followed by a name; a keyword after a dot or two colons, such as
+ * {@code Foo::class}, or a keyword followed by anything else, such as an anonymous {@code object}, declares
+ * nothing. Where the body of a declaration ends depends on the block style of the language: the matching
+ * closing brace, the next line indented at the same level or less, or the semicolon that ends the statement.
+ * A declaration with braces but no body, such as a Kotlin class without members or a function with an
+ * expression body, ends with the line where its declaration ends.
+ * </p>
+ * <p>
+ * The size of a type or a method is counted like in {@link JavaStructure}, in physical lines of code from the
+ * line of its keyword to the end of its body. Methods declared outside any type are grouped in a type of kind
+ * {@value Constants#TYPE_KIND_MODULE} that spans the whole file. A {@code SourceStructure} keeps the state of
+ * a single file and is not thread-safe.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class SourceStructure {
+    private static final int OTHER = 0;
+    private static final int WORD = 1;
+    private static final int DOT = 2;
+    private static final int COLON = 3;
+    private static final int DOUBLE_COLON = 4;
+    private static final String[] END_SUFFIXES = {"if", "loop", "while", "repeat", "for"};
+
+    private final BlockStyle blocks;
+    private final boolean caseSensitive;
+    private final String[] typeKeywords;
+    private final String[] typeKeywordKinds;
+    private final String[] methodKeywords;
+    private final String declarationLeader;
+    private final String[] skippedWords;
+
+    private final List<String> typeNames = new ArrayList<>();
+    private final List<String> simpleTypeNames = new ArrayList<>();
+    private final List<String> typeKinds = new ArrayList<>();
+    private int[] typeStarts = new int[8];
+    private int[] typeLOC = new int[8];
+    private final List<String> methodNames = new ArrayList<>();
+    private int[] methodTypes = new int[16];
+    private int[] methodStarts = new int[16];
+    private int[] methodLOC = new int[16];
+    private int codeLines;
+
+    private boolean[] openTypes = new boolean[16];
+    private int[] openItems = new int[16];
+    private int[] openLevels = new int[16];
+    private int open;
+
+    private int previous = OTHER;
+    private String pendingKind;
+    private boolean pendingMethod;
+    private boolean expectingName;
+    private int angleDepth;
+    private int declarationStart;
+    private boolean namedType;
+    private int namedItem = -1;
+    private boolean afterName;
+    private boolean receiver;
+
+    private boolean awaitingBody;
+    private boolean awaitingType;
+    private int awaitingItem;
+    private int awaitingParenthesisDepth;
+    private boolean expressionBody;
+    private boolean continuesLine;
+    private int braceDepth;
+    private int parenthesisDepth;
+    private int indentation;
+
+    private boolean statementStart = true;
+    private boolean statementLed;
+    private boolean pendingEnd;
+    private int nesting;
+
+    /**
+     * Constructs the structure of a file of the given language.
+     *
+     * @param profile The rules of the language of the file.
+     */
+    public SourceStructure(LanguageProfile profile) {
+        this.blocks = profile.blocks();
+        this.caseSensitive = profile.caseSensitive();
+        this.typeKeywords = new String[profile.typeKeywords().size()];
+        this.typeKeywordKinds = new String[typeKeywords.length];
+        int index = 0;
+        for (Map.Entry<String, String> keyword : profile.typeKeywords().entrySet()) {
+            typeKeywords[index] = keyword.getKey();
+            typeKeywordKinds[index++] = keyword.getValue();
+        }
+        this.methodKeywords = profile.methodKeywords().toArray(new String[0]);
+        this.declarationLeader = profile.declarationLeader();
+        this.skippedWords = profile.skippedWords().toArray(new String[0]);
+    }
+
+    /**
+     * Builds the types of the file.
+     *
+     * @param moduleName The name of the type that groups the methods declared outside any type.
+     * @return The types declared in the file, in the order they were found, each with its methods, preceded
+     *         by the module type if there are methods outside any type.
+     */
+    public List<SourceType> getTypes(String moduleName) {
+        List<SourceMethod> moduleMethods = new ArrayList<>();
+        List<List<SourceMethod>> methods = new ArrayList<>(typeNames.size());
+        for (int i = 0; i < typeNames.size(); i++) {
+            methods.add(new ArrayList<>());
+        }
+        for (int i = 0; i < methodNames.size(); i++) {
+            SourceMethod method = new SourceMethod(methodNames.get(i), getLOC(methodStarts[i], methodLOC[i]));
+            (methodTypes[i] < 0 ? moduleMethods : methods.get(methodTypes[i])).add(method);
+        }
+
+        List<SourceType> types = new ArrayList<>(typeNames.size() + 1);
+        if (!moduleMethods.isEmpty()) {
+            types.add(new SourceType(moduleName, Constants.TYPE_KIND_MODULE, codeLines, moduleMethods));
+        }
+        for (int i = 0; i < typeNames.size(); i++) {
+            types.add(new SourceType(typeNames.get(i), typeKinds.get(i), getLOC(typeStarts[i], typeLOC[i]), methods.get(i)));
+        }
+        return types;
+    }
+
+    /**
+     * @return The number of methods and functions declared in the file.
+     */
+    public int getNumOfMethods() {
+        return methodNames.size();
+    }
+
+    /**
+     * Receives the indentation of a line whose first token is code, before the token.
+     *
+     * @param indentation The number of whitespace bytes before the first token.
+     */
+    void onLineStart(int indentation) {
+        if (blocks != BlockStyle.INDENTATION || parenthesisDepth > 0 || braceDepth > 0) {
+            return;
+        }
+        // The line is not counted yet, so the bodies it closes end with the previous code line
+        while (open > 0 && openLevels[open - 1] >= indentation) {
+            close(codeLines);
+        }
+        this.indentation = indentation;
+    }
+
+    /**
+     * Receives the end of a line that has code.
+     */
+    void onCodeLine() {
+        codeLines++;
+        previous = OTHER;
+        if (awaitingBody && parenthesisDepth <= awaitingParenthesisDepth && !continuesLine) {
+            setLOC(awaitingType, awaitingItem, codeLines);
+            awaitingBody = false;
+        }
+    }
+
+    /**
+     * Receives an identifier, a keyword or a number.
+     *
+     * @param line  The scanner positioned on the line of the word.
+     * @param start The position of the first byte of the word.
+     * @param end   The position after the last byte of the word.
+     */
+    void onWord(ByteLineScanner line, int start, int end) {
+        continuesLine = false;
+        if (blocks == BlockStyle.STATEMENTS && onStatementWord(line, start, end)) {
+            previous = WORD;
+            return;
+        }
+
+        if (expectingName) {
+            if (angleDepth == 0) {
+                readName(line, start, end);
+            }
+            previous = WORD;
+            return;
+        }
+        if (receiver) {
+            // The name was the receiver or the schema of the declaration, and this word is its actual name
+            rename(line.decode(start, end));
+            receiver = false;
+            afterName = true;
+            previous = WORD;
+            return;
+        }
+        afterName = false;
+
+        if (previous != DOT && previous != DOUBLE_COLON && (declarationLeader == null || statementLed)) {
+            String kind = findTypeKind(line, start, end);
+            if (kind != null) {
+                startDeclaration(kind, false);
+            } else if (matchesAny(line, start, end, methodKeywords)) {
+                startDeclaration(null, true);
+            }
+        }
+        previous = WORD;
+    }
+
+    /**
+     * Receives a character of code that is not part of a word or a literal.
+     *
+     * @param symbol The character.
+     */
+    void onSymbol(byte symbol) {
+        int before = previous;
+        if (pendingEnd) {
+            endNesting();
+        }
+        if (expectingName) {
+            if (symbol == '<') {
+                angleDepth++;
+                return;
+            }
+            if (angleDepth > 0) {
+                angleDepth -= symbol == '>' ? 1 : 0;
+                return;
+            }
+            cancelDeclaration();
+        }
+        receiver = afterName && symbol == '.';
+        afterName = false;
+        statementStart = false;
+        continuesLine = symbol == ',' || symbol == ':' || symbol == '=' || symbol == '.';
+
+        switch (symbol) {
+            case '(':
+            case '[':
+                parenthesisDepth++;
+                break;
+            case ')':
+            case ']':
+                parenthesisDepth = Math.max(parenthesisDepth - 1, 0);
+                break;
+            case '=':
+                expressionBody |= awaitingBody && parenthesisDepth == awaitingParenthesisDepth;
+                break;
+            case '{':
+                openBrace();
+                break;
+            case '}':
+                closeBrace();
+                break;
+            case ';':
+                endStatement();
+                break;
+            default:
+                break;
+        }
+        if (symbol == ':') {
+            previous = before == COLON ? DOUBLE_COLON : COLON;
+        } else {
+            previous = symbol == '.' ? DOT : OTHER;
+        }
+    }
+
+    /**
+     * Receives a string literal, a character literal or the start of a multi-line literal.
+     */
+    void onLiteral() {
+        if (pendingEnd) {
+            endNesting();
+        }
+        if (expectingName) {
+            cancelDeclaration();
+        }
+        receiver = false;
+        afterName = false;
+        statementStart = false;
+        continuesLine = false;
+        previous = OTHER;
+    }
+
+    /**
+     * Follows the statements and the {@code BEGIN ... END} blocks of a language whose declarations end with
+     * their statement.
+     *
+     * @param line  The scanner positioned on the line of the word.
+     * @param start The position of the first byte of the word.
+     * @param end   The position after the last byte of the word.
+     * @return {@code true} if the word was consumed as part of a block marker.
+     */
+    private boolean onStatementWord(ByteLineScanner line, int start, int end) {
+        if (pendingEnd) {
+            boolean suffix = matchesAny(line, start, end, END_SUFFIXES);
+            endNesting();
+            if (suffix) {
+                return true;
+            }
+        }
+        if (statementStart) {
+            statementStart = false;
+            statementLed = declarationLeader != null && matches(line, start, end, declarationLeader);
+        }
+        if (!statementLed || expectingName) {
+            return false;
+        }
+
+        if (matches(line, start, end, "begin") || matches(line, start, end, "case")) {
+            nesting++;
+            return true;
+        }
+        if (matches(line, start, end, "end")) {
+            pendingEnd = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the word after a declaration keyword, which is its name unless it is a skipped word or another
+     * keyword that refines the declaration, as in {@code fun interface}.
+     *
+     * @param line  The scanner positioned on the line of the word.
+     * @param start The position of the first byte of the word.
+     * @param end   The position after the last byte of the word.
+     */
+    private void readName(ByteLineScanner line, int start, int end) {
+        if (matchesAny(line, start, end, skippedWords)) {
+            return;
+        }
+        String kind = findTypeKind(line, start, end);
+        if (kind != null) {
+            pendingKind = kind;
+            pendingMethod = false;
+            return;
+        }
+
+        expectingName = false;
+        angleDepth = 0;
+        String name = line.decode(start, end);
+        namedType = pendingKind != null;
+        namedItem = namedType ? addType(name) : addMethod(name);
+        pendingKind = null;
+        pendingMethod = false;
+        afterName = true;
+
+        if (blocks == BlockStyle.BRACES) {
+            awaitingBody = true;
+            awaitingType = namedType;
+            awaitingItem = namedItem;
+            awaitingParenthesisDepth = parenthesisDepth;
+            expressionBody = false;
+        } else {
+            push(namedType, namedItem, blocks == BlockStyle.INDENTATION ? indentation : nesting);
+        }
+    }
+
+    /**
+     * Opens a block, which is the body of the declaration that waits for one unless the declaration has an
+     * expression body or the brace is inside its parameters.
+     */
+    private void openBrace() {
+        braceDepth++;
+        if (awaitingBody && parenthesisDepth == awaitingParenthesisDepth && !expressionBody) {
+            push(awaitingType, awaitingItem, braceDepth);
+            awaitingBody = false;
+        }
+    }
+
+    /**
+     * Closes a block and the bodies that end with it.
+     */
+    private void closeBrace() {
+        if (braceDepth == 0) {
+            return;
+        }
+        braceDepth--;
+        if (blocks != BlockStyle.BRACES) {
+            return;
+        }
+        // The closing brace is code of the current line, which is not counted yet
+        if (awaitingBody) {
+            setLOC(awaitingType, awaitingItem, codeLines + 1);
+            awaitingBody = false;
+        }
+        while (open > 0 && openLevels[open - 1] > braceDepth) {
+            close(codeLines + 1);
+        }
+    }
+
+    /**
+     * Ends a statement at a semicolon outside any {@code BEGIN ... END} block, with all the declarations it
+     * contains.
+     */
+    private void endStatement() {
+        if (blocks != BlockStyle.STATEMENTS || nesting > 0) {
+            return;
+        }
+        while (open > 0) {
+            close(codeLines + 1);
+        }
+        statementStart = true;
+        statementLed = false;
+    }
+
+    /**
+     * Closes a {@code BEGIN ... END} block after its {@code END}.
+     */
+    private void endNesting() {
+        pendingEnd = false;
+        nesting = Math.max(nesting - 1, 0);
+    }
+
+    /**
+     * Starts a declaration whose name is the next word.
+     *
+     * @param kind   The kind of the declared type, or {@code null} for a method.
+     * @param method Whether a method is declared.
+     */
+    private void startDeclaration(String kind, boolean method) {
+        pendingKind = kind;
+        pendingMethod = method;
+        expectingName = true;
+        angleDepth = 0;
+        declarationStart = codeLines;
+    }
+
+    /**
+     * Forgets a declaration keyword that is not followed by a name.
+     */
+    private void cancelDeclaration() {
+        pendingKind = null;
+        pendingMethod = false;
+        expectingName = false;
+        angleDepth = 0;
+    }
+
+    /**
+     * Replaces the name of the last declared type or method.
+     *
+     * @param name The new name.
+     */
+    private void rename(String name) {
+        if (!namedType) {
+            methodNames.set(namedItem, name);
+            return;
+        }
+        String qualifiedName = typeNames.get(namedItem);
+        String simpleName = simpleTypeNames.get(namedItem);
+        typeNames.set(namedItem, qualifiedName.substring(0, qualifiedName.length() - simpleName.length()) + name);
+        simpleTypeNames.set(namedItem, name);
+    }
+
+    /**
+     * Adds a type to the list of types of the file, named after the innermost open type that contains it.
+     *
+     * @param name The name of the type.
+     * @return The index of the added type.
+     */
+    private int addType(String name) {
+        int enclosingType = getEnclosingType();
+        int index = typeNames.size();
+        typeNames.add(enclosingType < 0 ? name : typeNames.get(enclosingType) + "." + name);
+        simpleTypeNames.add(name);
+        typeKinds.add(pendingKind);
+        if (index == typeStarts.length) {
+            typeStarts = Arrays.copyOf(typeStarts, index * 2);
+            typeLOC = Arrays.copyOf(typeLOC, index * 2);
+        }
+        typeStarts[index] = declarationStart;
+        return index;
+    }
+
+    /**
+     * Adds a method to the list of methods of the file, as a member of the innermost open type.
+     *
+     * @param name The name of the method.
+     * @return The index of the added method.
+     */
+    private int addMethod(String name) {
+        int index = methodNames.size();
+        methodNames.add(name);
+        if (index == methodStarts.length) {
+            methodTypes = Arrays.copyOf(methodTypes, index * 2);
+            methodStarts = Arrays.copyOf(methodStarts, index * 2);
+            methodLOC = Arrays.copyOf(methodLOC, index * 2);
+        }
+        methodTypes[index] = getEnclosingType();
+        methodStarts[index] = declarationStart;
+        return index;
+    }
+
+    /**
+     * @return The index of the innermost type whose body is open, or {@code -1} outside any type.
+     */
+    private int getEnclosingType() {
+        for (int i = open - 1; i >= 0; i--) {
+            if (openTypes[i]) {
+                return openItems[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pushes the body of a declaration on the stack of open bodies.
+     *
+     * @param type  Whether the declaration is a type.
+     * @param item  The index of the type or the method.
+     * @param level The brace depth, indentation or nesting that ends the body.
+     */
+    private void push(boolean type, int item, int level) {
+        if (open == openItems.length) {
+            openTypes = Arrays.copyOf(openTypes, open * 2);
+            openItems = Arrays.copyOf(openItems, open * 2);
+            openLevels = Arrays.copyOf(openLevels, open * 2);
+        }
+        openTypes[open] = type;
+        openItems[open] = item;
+        openLevels[open] = level;
+        open++;
+    }
+
+    /**
+     * Closes the innermost open body.
+     *
+     * @param lines The number of code lines up to the end of the body.
+     */
+    private void close(int lines) {
+        open--;
+        setLOC(openTypes[open], openItems[open], lines);
+    }
+
+    /**
+     * Sets the lines of code of a type or a method whose body ended.
+     *
+     * @param type  Whether the declaration is a type.
+     * @param item  The index of the type or the method.
+     * @param lines The number of code lines up to the end of the body.
+     */
+    private void setLOC(boolean type, int item, int lines) {
+        if (type) {
+            typeLOC[item] = lines - typeStarts[item];
+        } else {
+            methodLOC[item] = lines - methodStarts[item];
+        }
+    }
+
+    /**
+     * Computes the lines of code of a type or a method.
+     *
+     * @param start The number of code lines before its declaration.
+     * @param loc   The lines of code set when its body ended, or {@code 0} if the file ended before.
+     * @return The lines of code, up to the end of the file for a body that did not end.
+     */
+    private int getLOC(int start, int loc) {
+        return loc > 0 ? loc : codeLines - start;
+    }
+
+    /**
+     * Finds the kind of type declared by a keyword.
+     *
+     * @param line  The scanner positioned on the line of the word.
+     * @param start The position of the first byte of the word.
+     * @param end   The position after the last byte of the word.
+     * @return The kind of the type, or {@code null} if the word is not a type keyword.
+     */
+    private String findTypeKind(ByteLineScanner line, int start, int end) {
+        for (int i = 0; i < typeKeywords.length; i++) {
+            if (matches(line, start, end, typeKeywords[i])) {
+                return typeKeywordKinds[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a word is one of several keywords.
+     *
+     * @param line     The scanner positioned on the line of the word.
+     * @param start    The position of the first byte of the word.
+     * @param end      The position after the last byte of the word.
+     * @param keywords The keywords, in lower case.
+     * @return {@code true} if the word is one of the keywords.
+     */
+    private boolean matchesAny(ByteLineScanner line, int start, int end, String[] keywords) {
+        for (String keyword : keywords) {
+            if (matches(line, start, end, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a word is a keyword, in any case if the language is not case-sensitive.
+     *
+     * @param line    The scanner positioned on the line of the word.
+     * @param start   The position of the first byte of the word.
+     * @param end     The position after the last byte of the word.
+     * @param keyword The keyword, in lower case.
+     * @return {@code true} if the word is the keyword.
+     */
+    private boolean matches(ByteLineScanner line, int start, int end, String keyword) {
+        return caseSensitive ? line.regionEquals(start, end, keyword) : line.regionEqualsIgnoreCase(start, end, keyword);
+    }
+}
@@ -1,8 +1,10 @@
 package com.mantenimiento.morado.code.syntax;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import com.mantenimiento.morado.code.model.SourceFile;
 import com.mantenimiento.morado.util.Regex;
@@ -49,19 +51,10 @@ public class SyntaxAnalyzer {
 
         try {
             List<String> codeLines = SourceFile.getAllLinesFromFile(filepath);
-
-            if (hasMultiInstance(codeLines)) {
-                return false;
-            }
+            LineMatcher lineMatcher = new LineMatcher();
 
             for (String line : codeLines) {
-                String trimmedLine = line.trim();
-
-                if (trimmedLine.startsWith("{")) {
-                    return false;
-                }
-
-                if (trimmedLine.endsWith("}") && !trimmedLine.equals("}")) {
+                if (!isWellWrittenLine(line, line.trim(), lineMatcher)) {
                     return false;
                 }
             }
@@ -73,25 +66,57 @@ public class SyntaxAnalyzer {
     }
 
     /**
-     * Checks whether any line in the provided list matches the multi-instance variable declaration pattern.
+     * Checks whether a single line of a Java file follows the syntactical criteria.
      * <p>
-     * A multi-instance declaration typically involves declaring multiple variables on a single line,
-     * e.g., "int a, b, c;". This method uses a regular expression (defined in {@link Regex#MULTI_INSTANCE_REGEX})
-     * to detect such patterns.
+     * A line is considered invalid when it matches the multi-instance variable declaration pattern,
+     * starts with an opening curly brace '{', or ends with a closing curly brace '}' without being exactly "}".
      * </p>
      *
-     * @param fileLines the list of lines read from the source file
-     * @return {@code true} if at least one line matches the multi-instance pattern; {@code false} otherwise
+     * @param line        the line as read from the source file
+     * @param trimmedLine the same line without leading and trailing whitespace
+     * @param lineMatcher the matcher used to apply {@link Regex#MULTI_INSTANCE_REGEX} to the line
+     * @return {@code true} if the line is well-written; {@code false} otherwise
      */
-    private static boolean hasMultiInstance(List<String> fileLines) {
-        Pattern pattern = Pattern.compile(Regex.MULTI_INSTANCE_REGEX);
-        boolean multiInstanceFound = fileLines.stream().anyMatch(line -> pattern.matcher(line).matches());
-        return multiInstanceFound;
+    public static boolean isWellWrittenLine(String line, String trimmedLine, LineMatcher lineMatcher) {
+        if (lineMatcher.isMultiInstanceLine(line)) {
+            return false;
+        }
+
+        if (trimmedLine.startsWith("{")) {
+            return false;
+        }
+
+        return !(trimmedLine.endsWith("}") && !trimmedLine.equals("}"));
+    }
+
+    /**
+     * Checks whether the current line of a {@link ByteLineScanner} follows the syntactical criteria.
+     * <p>
+     * The checks are the same as {@link #isWellWrittenLine(String, String, LineMatcher)}, applied to the bytes
+     * of the line. The line is decoded only when it contains the characters a multi-instance declaration needs.
+     * </p>
+     *
+     * @param line        the scanner positioned on the line to check
+     * @param lineMatcher the matcher used to apply {@link Regex#MULTI_INSTANCE_REGEX} to the line
+     * @return {@code true} if the line is well-written; {@code false} otherwise
+     */
+    public static boolean isWellWrittenLine(ByteLineScanner line, LineMatcher lineMatcher) {
+        if (line.startsWith('{')) {
+            return false;
+        }
+
+        if (line.endsWith('}') && line.length() != 1) {
+            return false;
+        }
+
+        return !(line.contains('=') && line.contains(',') && line.contains(';')
+            && lineMatcher.isMultiInstanceLine(line.getLine()));
     }
 
     /**
      * Checks if a given Java file contains a class definition.
-     * It reads the file line by line and looks for the presence of a class declaration.
+     * It scans the file with a {@link JavaLexer} and a {@link JavaStructure}, and looks for the
+     * declaration of a class, interface, enum or record outside comments and literals.
      * 
      * @param filepath The path to the Java file to check.
      * @return {@code true} if the file contains a class, {@code false} otherwise.
@@ -99,12 +124,13 @@ public class SyntaxAnalyzer {
     public static boolean isClassJavaFile(String filepath) {
 
         try {
-            List<String> codeLines = SourceFile.getAllLinesFromFile(filepath);
-
-            for (String line : codeLines) {
-                String trimmedLine = line.trim();
+            ByteLineScanner line = new ByteLineScanner(ByteBuffer.wrap(Files.readAllBytes(Paths.get(filepath))));
+            JavaStructure structure = new JavaStructure();
+            JavaLexer lexer = new JavaLexer(structure);
 
-                if (isClassLine(trimmedLine)) {
+            while (line.nextLine()) {
+                lexer.scanLine(line);
+                if (structure.hasTypes()) {
                     return true;
                 }
             }
@@ -116,14 +142,4 @@ public class SyntaxAnalyzer {
 
         return true;
     }
-
-    /**
-     * Checks if a given line of code matches the pattern of a class declaration.
-     * 
-     * @param line The line of code to check.
-     * @return {@code true} if the line matches the class declaration pattern, {@code false} otherwise.
-     */
-    private static boolean isClassLine(String line) {
-        return line.matches(Regex.CLASS_REGEX);
-    }
 }
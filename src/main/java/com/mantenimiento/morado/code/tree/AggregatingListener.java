@@ -0,0 +1,62 @@
+package com.mantenimiento.morado.code.tree;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+
+/**
+ * An {@link AnalysisListener} that passes every call to another listener and adds every file to an
+ * {@link AggregationTree}.
+ *
+ * @version 2.0.0
+ */
+public class AggregatingListener implements AnalysisListener {
+    private final AnalysisListener listener;
+    private final AggregationTree tree;
+
+    /**
+     * Constructs a listener that fills a tree with the files reported to another one.
+     *
+     * @param listener The listener that receives the calls.
+     * @param tree     The tree where the files are added.
+     */
+    public AggregatingListener(AnalysisListener listener, AggregationTree tree) {
+        this.listener = listener;
+        this.tree = tree;
+    }
+
+    @Override
+    public void onStart() {
+        listener.onStart();
+    }
+
+    @Override
+    public void onProgramStart(String programName) {
+        listener.onProgramStart(programName);
+    }
+
+    @Override
+    public void onProgramStart(String programName, String programPath) {
+        listener.onProgramStart(programName, programPath);
+    }
+
+    @Override
+    public void onFile(SourceFile file) {
+        tree.addFile(file);
+        listener.onFile(file);
+    }
+
+    @Override
+    public void onProgramEnd(String programName, int totalPhysicalLOC) {
+        listener.onProgramEnd(programName, totalPhysicalLOC);
+    }
+
+    @Override
+    public void onProjectEnd(int totalPhysicalLOC) {
+        listener.onProjectEnd(totalPhysicalLOC);
+    }
+
+    @Override
+    public void onInvalidPath(String path) {
+        listener.onInvalidPath(path);
+    }
+}
@@ -0,0 +1,415 @@
+package com.mantenimiento.morado.code.tree;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+
+/**
+ * The {@code AggregationTree} class rolls up the results of an analysis as a tree of packages, files, types
+ * and methods.
+ * <p>
+ * The root of the tree is the project. Its children are the packages declared by the files, the children of
+ * a package are its files, the children of a file are the types it declares and the children of a type are
+ * its methods. Every node has a name, its physical LOC and its number of methods, and the counters of a
+ * package and of the project are the sums over their files.
+ * </p>
+ * <p>
+ * The nodes are stored in parallel {@code int} arrays indexed by node, with the links of each node to its
+ * parent, first and last child and next sibling, so the tree holds no boxed numbers and no node objects.
+ * Packages are found through an open-addressing table of node indexes. The tree is filled with the results
+ * of the single pass over each file and queried afterwards, for example for the largest types and methods,
+ * without reading any file again.
+ * </p>
+ * <p>
+ * An {@code AggregationTree} is not thread-safe; it is filled from the thread that reports the results.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class AggregationTree {
+    /**
+     * The level of the root node, the whole project.
+     */
+    public static final int PROJECT = 0;
+
+    /**
+     * The level of a package node.
+     */
+    public static final int PACKAGE = 1;
+
+    /**
+     * The level of a file node.
+     */
+    public static final int FILE = 2;
+
+    /**
+     * The level of a type node.
+     */
+    public static final int TYPE = 3;
+
+    /**
+     * The level of a method node.
+     */
+    public static final int METHOD = 4;
+
+    /**
+     * The index of the root node.
+     */
+    public static final int ROOT = 0;
+
+    private static final int NONE = -1;
+
+    private int size;
+    private String[] names = new String[64];
+    private int[] levels = new int[64];
+    private int[] parents = new int[64];
+    private int[] firstChildren = new int[64];
+    private int[] lastChildren = new int[64];
+    private int[] nextSiblings = new int[64];
+    private int[] physicalLOC = new int[64];
+    private int[] numOfMethods = new int[64];
+    private int[] packageSlots = new int[16];
+    private int packageCount;
+
+    /**
+     * Constructs a tree with only the project node.
+     */
+    public AggregationTree() {
+        addNode(NONE, PROJECT, "", 0, 0);
+    }
+
+    /**
+     * Adds a file with its types and methods under the node of its package, and adds its counters to the
+     * package and the project.
+     *
+     * @param file The result of the analysis of the file.
+     */
+    public void addFile(SourceFile file) {
+        int packageNode = getPackageNode(file.packageName());
+        int fileNode = addNode(packageNode, FILE, file.filename(), file.physicalLOC(), file.numOfMethods());
+        for (SourceType type : file.types()) {
+            int typeNode = addNode(fileNode, TYPE, type.name(), type.physicalLOC(), type.numOfMethods());
+            for (SourceMethod method : type.methods()) {
+                addNode(typeNode, METHOD, method.name(), method.physicalLOC(), 0);
+            }
+        }
+
+        physicalLOC[packageNode] += file.physicalLOC();
+        numOfMethods[packageNode] += file.numOfMethods();
+        physicalLOC[ROOT] += file.physicalLOC();
+        numOfMethods[ROOT] += file.numOfMethods();
+    }
+
+    /**
+     * @return The number of nodes in the tree, the root included.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param node The index of a node.
+     * @return The name of the node: the package, file, type or method name, empty for the project and for
+     *         the default package.
+     */
+    public String getName(int node) {
+        return names[node];
+    }
+
+    /**
+     * @param node The index of a node.
+     * @return The level of the node, from {@link #PROJECT} to {@link #METHOD}.
+     */
+    public int getLevel(int node) {
+        return levels[node];
+    }
+
+    /**
+     * @param node The index of a node.
+     * @return The index of the parent of the node, or {@code -1} for the root.
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * @param node The index of a node.
+     * @return The index of the first child of the node, or {@code -1} if it has none.
+     */
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    /**
+     * @param node The index of a node.
+     * @return The index of the next child of the same parent, or {@code -1} if the node is the last one.
+     */
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * @param node The index of a node.
+     * @return The physical LOC of the node.
+     */
+    public int getPhysicalLOC(int node) {
+        return physicalLOC[node];
+    }
+
+    /**
+     * @param node The index of a node.
+     * @return The number of methods of the node, {@code 0} for a method.
+     */
+    public int getNumOfMethods(int node) {
+        return numOfMethods[node];
+    }
+
+    /**
+     * Builds the qualified name of a type or a method, starting from its package.
+     *
+     * @param node The index of a type or method node.
+     * @return The name of the package, the type and the method joined by dots.
+     */
+    public String getQualifiedName(int node) {
+        if (levels[node] == METHOD) {
+            return getQualifiedName(parents[node]) + "." + names[node];
+        }
+
+        String packageName = names[parents[parents[node]]];
+        return packageName.isEmpty() ? names[node] : packageName + "." + names[node];
+    }
+
+    /**
+     * @param node The index of a type or method node.
+     * @return The name of the file that declares the node.
+     */
+    public String getFilename(int node) {
+        int fileNode = node;
+        while (levels[fileNode] > FILE) {
+            fileNode = parents[fileNode];
+        }
+        return names[fileNode];
+    }
+
+    /**
+     * Finds the nodes of a level with the most physical LOC.
+     * <p>
+     * The nodes are selected with a bounded heap of node indexes, so the query takes one pass over the
+     * nodes. Nodes with the same LOC keep the order in which they were added.
+     * </p>
+     *
+     * @param level The level of the nodes, such as {@link #TYPE} or {@link #METHOD}.
+     * @param count The maximum number of nodes to return.
+     * @return The indexes of the largest nodes, from the largest.
+     */
+    public int[] getLargest(int level, int count) {
+        int[] heap = new int[Math.max(count, 0)];
+        int heapSize = 0;
+        for (int node = 0; node < size; node++) {
+            if (levels[node] != level || heap.length == 0) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize++] = node;
+                siftUp(heap, heapSize - 1);
+            } else if (isLarger(node, heap[0])) {
+                heap[0] = node;
+                siftDown(heap, heapSize);
+            }
+        }
+
+        int[] largest = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            largest[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+        return largest;
+    }
+
+    /**
+     * Prints the largest types and methods.
+     *
+     * @param output The stream where the lists are printed, usually the standard error.
+     * @param count  The number of types and of methods to print.
+     */
+    public void printLargest(PrintStream output, int count) {
+        output.println("Largest types");
+        output.printf(Locale.ROOT, "%10s %8s  %s%n", "LOC", "Methods", "Type (File)");
+        for (int node : getLargest(TYPE, count)) {
+            output.printf(Locale.ROOT, "%10d %8d  %s (%s)%n", physicalLOC[node], numOfMethods[node],
+                getQualifiedName(node), getFilename(node));
+        }
+
+        output.println("Largest methods");
+        output.printf(Locale.ROOT, "%10s  %s%n", "LOC", "Method (File)");
+        for (int node : getLargest(METHOD, count)) {
+            output.printf(Locale.ROOT, "%10d  %s (%s)%n", physicalLOC[node], getQualifiedName(node), getFilename(node));
+        }
+    }
+
+    /**
+     * Returns the node of a package, adding it under the root the first time it is seen.
+     *
+     * @param packageName The name of the package, empty for the default package.
+     * @return The index of the package node.
+     */
+    private int getPackageNode(String packageName) {
+        int mask = packageSlots.length - 1;
+        int slot = packageName.hashCode() & mask;
+        while (packageSlots[slot] != 0) {
+            int node = packageSlots[slot] - 1;
+            if (names[node].equals(packageName)) {
+                return node;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int node = addNode(ROOT, PACKAGE, packageName, 0, 0);
+        packageSlots[slot] = node + 1;
+        if (++packageCount * 2 > packageSlots.length) {
+            rehashPackages();
+        }
+        return node;
+    }
+
+    /**
+     * Doubles the table of packages.
+     */
+    private void rehashPackages() {
+        int[] slots = new int[packageSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int entry : packageSlots) {
+            if (entry != 0) {
+                int slot = names[entry - 1].hashCode() & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+        packageSlots = slots;
+    }
+
+    /**
+     * Adds a node as the last child of its parent.
+     *
+     * @param parent      The index of the parent, or {@code -1} for the root.
+     * @param level       The level of the node.
+     * @param name        The name of the node.
+     * @param loc         The physical LOC of the node.
+     * @param methodCount The number of methods of the node.
+     * @return The index of the new node.
+     */
+    private int addNode(int parent, int level, String name, int loc, int methodCount) {
+        if (size == levels.length) {
+            grow();
+        }
+
+        int node = size++;
+        names[node] = name;
+        levels[node] = level;
+        parents[node] = parent;
+        firstChildren[node] = NONE;
+        lastChildren[node] = NONE;
+        nextSiblings[node] = NONE;
+        physicalLOC[node] = loc;
+        numOfMethods[node] = methodCount;
+
+        if (parent != NONE) {
+            if (firstChildren[parent] == NONE) {
+                firstChildren[parent] = node;
+            } else {
+                nextSiblings[lastChildren[parent]] = node;
+            }
+            lastChildren[parent] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Doubles the capacity of the node arrays.
+     */
+    private void grow() {
+        int capacity = levels.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        physicalLOC = Arrays.copyOf(physicalLOC, capacity);
+        numOfMethods = Arrays.copyOf(numOfMethods, capacity);
+    }
+
+    /**
+     * Compares two nodes by size.
+     *
+     * @param node  A node.
+     * @param other Another node.
+     * @return {@code true} if {@code node} has more LOC, or the same LOC and was added first.
+     */
+    private boolean isLarger(int node, int other) {
+        return physicalLOC[node] > physicalLOC[other] || (physicalLOC[node] == physicalLOC[other] && node < other);
+    }
+
+    /**
+     * Moves a node up the heap until its parent is smaller.
+     *
+     * @param heap  The heap, with the smallest node first.
+     * @param index The position of the node.
+     */
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isLarger(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    /**
+     * Moves the first node down the heap until its children are larger.
+     *
+     * @param heap     The heap, with the smallest node first.
+     * @param heapSize The number of nodes in the heap.
+     */
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && isLarger(heap[smallest], heap[left])) {
+                smallest = left;
+            }
+            if (right < heapSize && isLarger(heap[smallest], heap[right])) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, smallest, index);
+            index = smallest;
+        }
+    }
+
+    /**
+     * Swaps two positions of a heap.
+     *
+     * @param heap   The heap.
+     * @param first  A position.
+     * @param second Another position.
+     */
+    private static void swap(int[] heap, int first, int second) {
+        int node = heap[first];
+        heap[first] = heap[second];
+        heap[second] = node;
+    }
+}
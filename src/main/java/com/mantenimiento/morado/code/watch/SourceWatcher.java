@@ -0,0 +1,469 @@
+package com.mantenimiento.morado.code.watch;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.mantenimiento.morado.code.cache.ContentCache;
+import com.mantenimiento.morado.code.counter.AnalysisEngine;
+import com.mantenimiento.morado.code.counter.DirectoryScanner;
+import com.mantenimiento.morado.code.ignore.IgnoreRules;
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+
+/**
+ * The {@code SourceWatcher} class keeps the analysis of a directory up to date while its files change.
+ * <p>
+ * The tree is analyzed once and every directory found by the {@link DirectoryScanner} is registered with a
+ * {@link WatchService}. The results are kept in an in-memory index grouped by directory, together with the
+ * total physical LOC of every directory and of the whole tree. When files are created, modified or deleted,
+ * only those files are analyzed again and the totals are adjusted by the difference, so an update takes
+ * milliseconds whatever the size of the tree. New subdirectories are walked and watched as they appear.
+ * </p>
+ * <p>
+ * Events that arrive close together, such as the several writes of an editor saving a file, are handled as
+ * a single update in which each file is analyzed once. After each update the programs that changed are
+ * reported again to the listener, followed by the new total of the project.
+ * </p>
+ * <p>
+ * Like {@link com.mantenimiento.morado.code.counter.SourceFileAnalyzer}, the watcher can be given
+ * {@link IgnoreRules}, the languages to analyze and a {@link ContentCache}. Excluded directories are neither
+ * walked nor watched when they appear, and the events of excluded files are left out.
+ * </p>
+ *
+ * @version 2.0.0
+ */
+public class SourceWatcher implements AutoCloseable {
+    private static final long SETTLE_MILLIS = 20;
+
+    private final Path root;
+    private final int threads;
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+    private final Map<Path, DirectoryIndex> index = new LinkedHashMap<>();
+    private IgnoreRules ignoreRules;
+    private List<LanguageProfile> languages = List.of(LanguageRegistry.JAVA);
+    private ContentCache contents;
+    private int totalPhysicalLOC;
+
+    /**
+     * The analyzed files of a directory, in the order they were found, and their total physical LOC.
+     */
+    private static class DirectoryIndex {
+        private final Map<Path, SourceFile> files = new LinkedHashMap<>();
+        private int totalPhysicalLOC;
+    }
+
+    /**
+     * Constructs a watcher for the specified directory.
+     *
+     * @param directoryPath The path to the directory containing source files.
+     * @param threads       The number of threads used for the first analysis of the tree.
+     * @throws IOException if the file system cannot watch directories.
+     * @throws IllegalArgumentException if {@code threads} is less than 1.
+     */
+    public SourceWatcher(String directoryPath, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1: " + threads);
+        }
+        this.root = Paths.get(directoryPath);
+        this.threads = threads;
+        this.watchService = root.getFileSystem().newWatchService();
+    }
+
+    /**
+     * Sets the rules that exclude files and directories from the analysis.
+     *
+     * @param ignoreRules The rules of the directory, or {@code null} to watch every directory.
+     */
+    public void setIgnoreRules(IgnoreRules ignoreRules) {
+        this.ignoreRules = ignoreRules;
+    }
+
+    /**
+     * Sets the languages whose files are analyzed. By default only Java files are analyzed.
+     *
+     * @param languages The languages to analyze.
+     */
+    public void setLanguages(List<LanguageProfile> languages) {
+        this.languages = languages;
+    }
+
+    /**
+     * Sets the cache that analyzes only once the files whose bytes are identical.
+     *
+     * @param contents The results of the contents seen so far, or {@code null} to analyze every file.
+     */
+    public void setContentCache(ContentCache contents) {
+        this.contents = contents;
+    }
+
+    /**
+     * Analyzes the directory and then reports every change until the watcher is closed, the thread is
+     * interrupted or the directory is deleted.
+     * <p>
+     * The whole tree is reported first, as {@link com.mantenimiento.morado.code.counter.SourceFileAnalyzer} does.
+     * Then, for every update, the listener receives each changed program with all its files, followed by
+     * {@link AnalysisListener#onProjectEnd(int)} with the new total.
+     * </p>
+     *
+     * @param listener    The listener that receives the results.
+     * @param afterUpdate Called after the first report and after every update, for example to flush the output.
+     */
+    public void watch(AnalysisListener listener, Runnable afterUpdate) {
+        Set<Path> changedDirectories = new LinkedHashSet<>();
+        addDirectory(root, changedDirectories);
+        listener.onStart();
+        report(changedDirectories, listener);
+        afterUpdate.run();
+
+        while (!watchKeys.isEmpty()) {
+            changedDirectories = awaitChanges();
+            if (changedDirectories == null) {
+                return;
+            }
+            if (!changedDirectories.isEmpty()) {
+                report(changedDirectories, listener);
+                afterUpdate.run();
+            }
+        }
+    }
+
+    /**
+     * Stops watching. A thread blocked in {@link #watch(AnalysisListener, Runnable)} returns.
+     *
+     * @throws IOException if the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Waits for the next changes and applies them to the index.
+     * <p>
+     * After the first event, the events that keep arriving within {@value #SETTLE_MILLIS} ms of each other
+     * are collected too, and every changed file is analyzed once at the end.
+     * </p>
+     *
+     * @return The directories whose results changed, or {@code null} if the watcher was closed or interrupted.
+     */
+    private Set<Path> awaitChanges() {
+        Set<Path> changedDirectories = new LinkedHashSet<>();
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        try {
+            WatchKey key = watchService.take();
+            while (key != null) {
+                processEvents(key, changedFiles, changedDirectories);
+                key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ClosedWatchServiceException closedWatchServiceException) {
+            return null;
+        }
+
+        for (Path file : changedFiles) {
+            updateFile(file, changedDirectories);
+        }
+        return changedDirectories;
+    }
+
+    /**
+     * Handles the events of a watched directory.
+     * <p>
+     * Changes to directories are applied right away, so new directories are watched as soon as possible.
+     * Changed source files are only collected, to be analyzed once the events settle. Entries excluded by the
+     * ignore rules are left out.
+     * </p>
+     *
+     * @param key                The key of the directory with pending events.
+     * @param changedFiles       Collects the source files that were created, modified or deleted.
+     * @param changedDirectories Collects the directories whose results changed.
+     */
+    private void processEvents(WatchKey key, Set<Path> changedFiles, Set<Path> changedDirectories) {
+        Path directory = (Path) key.watchable();
+        boolean watched = watchKeys.get(directory) == key;
+        IgnoreRules rules = watched ? getRules(directory) : null;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (!watched) {
+                continue;
+            }
+            if (event.kind() == OVERFLOW) {
+                // Some events were lost, so the directory is walked again, which covers the other events too
+                removeDirectory(directory, changedDirectories);
+                addDirectory(directory, changedDirectories);
+                break;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == ENTRY_DELETE && index.containsKey(path)) {
+                removeDirectory(path, changedDirectories);
+            } else if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                if (!isIgnored(rules, path, true)) {
+                    addDirectory(path, changedDirectories);
+                }
+            } else if (isSourceFilename(path) && !isIgnored(rules, path, false)) {
+                changedFiles.add(path);
+            }
+        }
+
+        if (!key.reset() && watchKeys.get(directory) == key) {
+            // The directory was deleted or can no longer be watched
+            removeDirectory(directory, changedDirectories);
+        }
+    }
+
+    /**
+     * Walks a directory, watches it and all its subdirectories, and adds their source files to the index.
+     *
+     * @param directory          The directory to add.
+     * @param changedDirectories Collects the directories that were added.
+     */
+    private void addDirectory(Path directory, Set<Path> changedDirectories) {
+        // The tree is walked again until no new directory appears, so the files created before a
+        // directory was watched are found by the last walk and the later ones raise an event
+        IgnoreRules rules = directory.equals(root) ? ignoreRules : getRules(directory.getParent());
+        DirectoryScanner scanner = new DirectoryScanner(directory.toString(), rules, languages);
+        Map<Path, List<String>> javaFilesByDirectory;
+        boolean newDirectories;
+        do {
+            javaFilesByDirectory = scanner.getJavaFilesByDirectory();
+            newDirectories = false;
+            for (Path subdirectory : javaFilesByDirectory.keySet()) {
+                if (!watchKeys.containsKey(subdirectory)) {
+                    register(subdirectory);
+                    newDirectories = true;
+                }
+            }
+        } while (newDirectories);
+
+        List<String> filePaths = new ArrayList<>();
+        javaFilesByDirectory.values().forEach(filePaths::addAll);
+        Iterator<SourceFile> files = analyzeFiles(filePaths).iterator();
+        for (Map.Entry<Path, List<String>> entry : javaFilesByDirectory.entrySet()) {
+            DirectoryIndex directoryIndex = index.computeIfAbsent(entry.getKey(), key -> new DirectoryIndex());
+            for (String filePath : entry.getValue()) {
+                putFile(directoryIndex, Paths.get(filePath), files.next());
+            }
+            changedDirectories.add(entry.getKey());
+        }
+    }
+
+    /**
+     * Removes a directory and all its subdirectories from the index and stops watching them.
+     *
+     * @param directory          The directory to remove.
+     * @param changedDirectories Collects the directories that were removed.
+     */
+    private void removeDirectory(Path directory, Set<Path> changedDirectories) {
+        List<Path> removedDirectories = new ArrayList<>();
+        for (Path indexedDirectory : index.keySet()) {
+            if (indexedDirectory.startsWith(directory)) {
+                removedDirectories.add(indexedDirectory);
+            }
+        }
+        for (Path removedDirectory : removedDirectories) {
+            DirectoryIndex directoryIndex = index.remove(removedDirectory);
+            totalPhysicalLOC -= directoryIndex.totalPhysicalLOC;
+            changedDirectories.add(removedDirectory);
+        }
+        watchKeys.entrySet().removeIf(watched -> {
+            if (!watched.getKey().startsWith(directory)) {
+                return false;
+            }
+            if (watched.getValue() != null) {
+                watched.getValue().cancel();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Starts watching a directory for created, modified and deleted entries.
+     * <p>
+     * A directory that cannot be watched is reported and registered with no key, so it is not tried again.
+     * </p>
+     *
+     * @param directory The directory to watch.
+     */
+    private void register(Path directory) {
+        try {
+            watchKeys.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+        } catch (IOException ioException) {
+            System.err.println("Error while watching directory " + directory + ": " + ioException.getMessage());
+            watchKeys.put(directory, null);
+        }
+    }
+
+    /**
+     * Returns the ignore rules that apply inside a directory of the tree, adding the {@code .gitignore} files
+     * of the directory and of its parents up to the root, as the {@link DirectoryScanner} does while it walks.
+     *
+     * @param directory The directory, the root or one below it.
+     * @return The rules of the directory, or {@code null} when the watcher has no ignore rules.
+     */
+    private IgnoreRules getRules(Path directory) {
+        if (ignoreRules == null) {
+            return null;
+        }
+        Path current = root;
+        IgnoreRules rules = ignoreRules.forDirectory(current);
+        for (Path name : root.relativize(directory)) {
+            if (name.toString().isEmpty()) {
+                continue;
+            }
+            current = current.resolve(name);
+            rules = rules.forDirectory(current);
+        }
+        return rules;
+    }
+
+    /**
+     * Checks whether an entry of a directory is excluded by the ignore rules.
+     *
+     * @param rules     The ignore rules that apply inside the directory, or {@code null}.
+     * @param entry     The entry of the directory.
+     * @param directory Whether the entry is a directory.
+     * @return {@code true} if the entry must be left out.
+     */
+    private static boolean isIgnored(IgnoreRules rules, Path entry, boolean directory) {
+        return rules != null && rules.isIgnored(entry.toString(), entry.getFileName().toString(), directory);
+    }
+
+    /**
+     * Checks whether a file has the extension of one of the analyzed languages.
+     *
+     * @param file The path of the file.
+     * @return {@code true} if the file is a source file of an analyzed language.
+     */
+    private boolean isSourceFilename(Path file) {
+        LanguageProfile profile = LanguageRegistry.forFilename(file.getFileName().toString());
+        return profile != null && LanguageRegistry.indexOf(languages, profile) >= 0;
+    }
+
+    /**
+     * Analyzes a changed source file again, or removes it from the index when it no longer exists.
+     *
+     * @param file               The path of the file.
+     * @param changedDirectories Collects the directory of the file when its results changed.
+     */
+    private void updateFile(Path file, Set<Path> changedDirectories) {
+        Path directory = file.getParent();
+        DirectoryIndex directoryIndex = index.get(directory);
+        if (directoryIndex == null) {
+            // The directory was deleted in the same update
+            return;
+        }
+
+        if (Files.isRegularFile(file)) {
+            putFile(directoryIndex, file, AnalysisEngine.analyze(file, null, contents));
+        } else {
+            SourceFile removedFile = directoryIndex.files.remove(file);
+            if (removedFile == null) {
+                return;
+            }
+            directoryIndex.totalPhysicalLOC -= removedFile.physicalLOC();
+            totalPhysicalLOC -= removedFile.physicalLOC();
+        }
+        changedDirectories.add(directory);
+    }
+
+    /**
+     * Stores the result of a file and adjusts the totals by the difference with its previous result.
+     *
+     * @param directoryIndex The index of the directory of the file.
+     * @param file           The path of the file.
+     * @param sourceFile     The result of the analysis of the file.
+     */
+    private void putFile(DirectoryIndex directoryIndex, Path file, SourceFile sourceFile) {
+        SourceFile previousFile = directoryIndex.files.put(file, sourceFile);
+        int difference = sourceFile.physicalLOC() - (previousFile == null ? 0 : previousFile.physicalLOC());
+        directoryIndex.totalPhysicalLOC += difference;
+        totalPhysicalLOC += difference;
+    }
+
+    /**
+     * Analyzes a list of files, with a pool of threads when the watcher was given more than one.
+     *
+     * @param filePaths The paths of the source files.
+     * @return The results, in the same order as the paths.
+     */
+    private List<SourceFile> analyzeFiles(List<String> filePaths) {
+        List<SourceFile> files = new ArrayList<>(filePaths.size());
+        if (threads == 1 || filePaths.size() < 2) {
+            for (String filePath : filePaths) {
+                files.add(AnalysisEngine.analyze(Paths.get(filePath), null, contents));
+            }
+            return files;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SourceFile>> results = new ArrayList<>(filePaths.size());
+            for (String filePath : filePaths) {
+                results.add(executor.submit(() -> AnalysisEngine.analyze(Paths.get(filePath), null, contents)));
+            }
+            for (Future<SourceFile> result : results) {
+                files.add(result.get());
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the analysis of a file", interruptedException);
+        } catch (ExecutionException executionException) {
+            throw new IllegalStateException("Error while analyzing file", executionException.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return files;
+    }
+
+    /**
+     * Reports the current results of some directories and the total of the project.
+     *
+     * @param directories The directories to report; those no longer in the index are reported without files.
+     * @param listener    The listener that receives the results.
+     */
+    private void report(Set<Path> directories, AnalysisListener listener) {
+        for (Path directory : directories) {
+            DirectoryIndex directoryIndex = index.get(directory);
+            Path name = directory.getFileName();
+            String programName = name == null ? directory.toString() : name.toString();
+            listener.onProgramStart(programName);
+            if (directoryIndex != null) {
+                for (SourceFile file : directoryIndex.files.values()) {
+                    listener.onFile(file);
+                }
+            }
+            listener.onProgramEnd(programName, directoryIndex == null ? 0 : directoryIndex.totalPhysicalLOC);
+        }
+        listener.onProjectEnd(totalPhysicalLOC);
+    }
+}
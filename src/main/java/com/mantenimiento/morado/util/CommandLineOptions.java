@@ -0,0 +1,399 @@
+package com.mantenimiento.morado.util;
+
+import java.util.List;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.report.ReportFormat;
+
+/**
+ * The {@code CommandLineOptions} class holds the arguments given to the application.
+ * <p>
+ * The first argument is always the path to analyze: a directory, a source file, or a JAR or ZIP archive
+ * whose source files are read without extracting it. It may be followed by these options:
+ * </p>
+ * <ul>
+ *   <li>{@code --threads N}: analyzes the files with {@code N} threads instead of the main thread only.</li>
+ *   <li>{@code --pipeline N}: reads up to {@code N} files at the same time and analyzes them with the
+ *   {@code --threads} workers. Meant for slow or network file systems.</li>
+ *   <li>{@code --cache FILE}: reuses the results stored in {@code FILE} for the files that did not change
+ *   and saves the new results there. It cannot be used with {@code --watch} or {@code --git}, which do not
+ *   use the cache.</li>
+ *   <li>{@code --format NAME}: prints the report as a {@code table}, the default, as {@code csv} or as
+ *   {@code jsonl}, one JSON object per line.</li>
+ *   <li>{@code --output FILE}: writes the report to {@code FILE}, encoded in UTF-8, instead of the standard
+ *   output.</li>
+ *   <li>{@code --watch}: after the first report, keeps watching the directory and prints again the programs
+ *   whose files are created, modified or deleted, with the new total, until it is stopped. It cannot be used
+ *   with {@code --pipeline}, {@code --stats}, {@code --stats-json} or {@code --top}.</li>
+ *   <li>{@code --git BASE..TARGET} or {@code --git BASE}: analyzes only the source files that changed between
+ *   two revisions of the git repository of the path, or between a revision and the working tree, and prints the
+ *   LOC delta of each file, program and of the whole change. Only {@code --format}, {@code --output} and
+ *   {@code --languages} can be used with it.</li>
+ *   <li>{@code --stats}: after the analysis, prints to the standard error where the time went (walking the
+ *   tree, reading, analyzing and reporting), the files, bytes and lines processed and the slowest files.</li>
+ *   <li>{@code --stats-json FILE}: writes the same statistics to {@code FILE} as a JSON object.</li>
+ *   <li>{@code --top N}: after the analysis, prints the {@code N} largest types and methods to the
+ *   standard error.</li>
+ *   <li>{@code --gitignore}: leaves out the files and directories excluded by the {@code .gitignore} files of
+ *   the tree and by {@code .git/info/exclude}, and never walks {@code .git}.</li>
+ *   <li>{@code --ignore-file FILE}: leaves out the files and directories matched by the {@code .gitignore}-style
+ *   patterns of {@code FILE}, relative to the analyzed directory.</li>
+ *   <li>{@code --languages LIST}: analyzes the files of the languages of the comma-separated {@code LIST},
+ *   such as {@code java,kotlin,python,sql} or {@code all}, instead of Java only, and prints the totals of
+ *   each language to the standard error. With {@code --watch} or {@code --git} the totals are not printed.</li>
+ *   <li>{@code --dedupe}: analyzes only once the files whose bytes are identical, and prints how many files and
+ *   lines of code are copies to the standard error. The files reused from the {@code --cache} are not read, so
+ *   they are not compared.</li>
+ *   <li>{@code --serve PORT}: instead of analyzing the path once, keeps running and answers analysis requests
+ *   over HTTP on port {@code PORT} of the loopback address, sharing the caches between requests. The path is
+ *   analyzed by the requests that do not give one, and the requests cannot analyze anything outside it. Each
+ *   request chooses its format, languages and ignore rules, so {@code --top}, {@code --languages},
+ *   {@code --stats}, {@code --stats-json}, {@code --gitignore}, {@code --ignore-file}, {@code --format} and
+ *   {@code --output} cannot be used with it.</li>
+ *   <li>{@code --metrics FILE}: writes the metrics of the scan to {@code FILE} in the OpenMetrics text format
+ *   when it ends, replacing the file at once so a collector never reads half of it. With {@code --serve} the
+ *   file is written when the server stops; the server always answers {@code GET /metrics}.</li>
+ * </ul>
+ *
+ * @version 2.0.0
+ */
+public class CommandLineOptions {
+    private final String path;
+    private int threads = 1;
+    private int concurrentReads = 0;
+    private String cacheFile;
+    private ReportFormat format = ReportFormat.TABLE;
+    private String outputFile;
+    private boolean watch;
+    private String baseRevision;
+    private String targetRevision;
+    private boolean stats;
+    private String statsFile;
+    private int topCount;
+    private boolean gitignore;
+    private String ignoreFile;
+    private List<LanguageProfile> languages;
+    private boolean dedupe;
+    private int servePort;
+    private String metricsFile;
+
+    /**
+     * Constructs the options for the specified path with the default values.
+     *
+     * @param path The path to the file or directory to analyze.
+     */
+    private CommandLineOptions(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Parses the arguments given to the application.
+     *
+     * @param args The command line arguments.
+     * @return The parsed options.
+     * @throws IllegalArgumentException if the path is missing or an option is unknown or has an invalid value.
+     */
+    public static CommandLineOptions parse(String[] args) {
+        if (args.length == 0 || args[0].isEmpty()) {
+            throw new IllegalArgumentException("Missing path to analyze");
+        }
+
+        CommandLineOptions options = new CommandLineOptions(args[0]);
+        boolean formatGiven = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    options.threads = parsePositiveInt(args[i], valueOf(args, ++i));
+                    break;
+                case "--pipeline":
+                    options.concurrentReads = parsePositiveInt(args[i], valueOf(args, ++i));
+                    break;
+                case "--cache":
+                    options.cacheFile = valueOf(args, ++i);
+                    break;
+                case "--format":
+                    options.format = ReportFormat.fromName(valueOf(args, ++i));
+                    formatGiven = true;
+                    break;
+                case "--output":
+                    options.outputFile = valueOf(args, ++i);
+                    break;
+                case "--watch":
+                    options.watch = true;
+                    break;
+                case "--git":
+                    options.parseRevisions(valueOf(args, ++i));
+                    break;
+                case "--stats":
+                    options.stats = true;
+                    break;
+                case "--stats-json":
+                    options.statsFile = valueOf(args, ++i);
+                    break;
+                case "--top":
+                    options.topCount = parsePositiveInt(args[i], valueOf(args, ++i));
+                    break;
+                case "--gitignore":
+                    options.gitignore = true;
+                    break;
+                case "--ignore-file":
+                    options.ignoreFile = valueOf(args, ++i);
+                    break;
+                case "--languages":
+                    options.languages = LanguageRegistry.parse(valueOf(args, ++i));
+                    break;
+                case "--dedupe":
+                    options.dedupe = true;
+                    break;
+                case "--serve":
+                    options.servePort = parsePort(args[i], valueOf(args, ++i));
+                    break;
+                case "--metrics":
+                    options.metricsFile = valueOf(args, ++i);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (options.watch && options.baseRevision != null) {
+            throw new IllegalArgumentException("The options --watch and --git cannot be used together");
+        }
+        if (options.watch && (options.concurrentReads > 0 || options.stats || options.statsFile != null
+            || options.topCount > 0)) {
+            throw new IllegalArgumentException(
+                "The options --pipeline, --stats, --stats-json and --top cannot be used with --watch");
+        }
+        if (options.baseRevision != null && (options.threads > 1 || options.concurrentReads > 0
+            || options.topCount > 0 || options.gitignore || options.ignoreFile != null || options.dedupe
+            || options.stats || options.statsFile != null)) {
+            throw new IllegalArgumentException("The options --threads, --pipeline, --top, --gitignore, --ignore-file,"
+                + " --dedupe, --stats and --stats-json cannot be used with --git");
+        }
+        if (options.servePort > 0 && (options.watch || options.baseRevision != null)) {
+            throw new IllegalArgumentException("The option --serve cannot be used with --watch or --git");
+        }
+        if (options.servePort > 0 && (options.topCount > 0 || options.languages != null || options.stats
+            || options.statsFile != null || options.gitignore || options.ignoreFile != null || formatGiven
+            || options.outputFile != null)) {
+            throw new IllegalArgumentException("The options --top, --languages, --stats, --stats-json, --gitignore,"
+                + " --ignore-file, --format and --output cannot be used with --serve");
+        }
+        if (options.cacheFile != null && (options.watch || options.baseRevision != null)) {
+            throw new IllegalArgumentException("The option --cache cannot be used with --watch or --git");
+        }
+        if (options.metricsFile != null && (options.watch || options.baseRevision != null)) {
+            throw new IllegalArgumentException("The option --metrics cannot be used with --watch or --git");
+        }
+        return options;
+    }
+
+    /**
+     * Parses the revisions given to the {@code --git} option.
+     *
+     * @param revisions A range {@code BASE..TARGET}, or a single revision to compare with the working tree.
+     * @throws IllegalArgumentException if a revision is empty or starts with {@code -}, which git would take
+     *                                  as one of its options.
+     */
+    private void parseRevisions(String revisions) {
+        int separator = revisions.indexOf("..");
+        if (separator < 0) {
+            baseRevision = revisions;
+        } else {
+            baseRevision = revisions.substring(0, separator);
+            targetRevision = revisions.substring(separator + 2);
+        }
+
+        boolean validTarget = targetRevision == null || isRevision(targetRevision) && !targetRevision.startsWith(".");
+        if (!isRevision(baseRevision) || !validTarget) {
+            throw new IllegalArgumentException("Invalid value for option --git: " + revisions);
+        }
+    }
+
+    /**
+     * @param revision A revision given to the {@code --git} option.
+     * @return {@code true} if the revision is not empty and cannot be mistaken for an option of git.
+     */
+    private static boolean isRevision(String revision) {
+        return !revision.isEmpty() && revision.charAt(0) != '-';
+    }
+
+    /**
+     * Returns the value that follows an option.
+     *
+     * @param args  The command line arguments.
+     * @param index The position of the value.
+     * @return The value of the option.
+     * @throws IllegalArgumentException if the option has no value.
+     */
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * Parses the value of an option that must be a positive integer.
+     *
+     * @param option The name of the option.
+     * @param value  The value to parse.
+     * @return The parsed value.
+     * @throws IllegalArgumentException if the value is not a positive integer.
+     */
+    private static int parsePositiveInt(String option, String value) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException numberFormatException) {
+            // Reported below with the name of the option
+        }
+        throw new IllegalArgumentException("Invalid value for option " + option + ": " + value);
+    }
+
+    /**
+     * Parses the value of an option that must be a TCP port.
+     *
+     * @param option The name of the option.
+     * @param value  The value to parse.
+     * @return The parsed port.
+     * @throws IllegalArgumentException if the value is not a port between 1 and 65535.
+     */
+    private static int parsePort(String option, String value) {
+        int port = parsePositiveInt(option, value);
+        if (port > 65535) {
+            throw new IllegalArgumentException("Invalid value for option " + option + ": " + value);
+        }
+        return port;
+    }
+
+    /**
+     * @return The path to the file or directory to analyze.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return The number of threads used to analyze files, {@code 1} when the analysis is sequential.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return The number of files read at the same time by the pipeline, {@code 0} when the pipeline is not used.
+     */
+    public int getConcurrentReads() {
+        return concurrentReads;
+    }
+
+    /**
+     * @return The path of the cache file, or {@code null} when no cache is used.
+     */
+    public String getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * @return The format in which the results are printed.
+     */
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return The path of the file where the results are written, or {@code null} for the standard output.
+     */
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * @return {@code true} if the directory is watched for changes after the first analysis.
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    /**
+     * @return The revision the git changes start from, or {@code null} when the whole path is analyzed.
+     */
+    public String getBaseRevision() {
+        return baseRevision;
+    }
+
+    /**
+     * @return The revision the git changes end at, or {@code null} for the working tree.
+     */
+    public String getTargetRevision() {
+        return targetRevision;
+    }
+
+    /**
+     * @return {@code true} if a summary of the statistics is printed to the standard error.
+     */
+    public boolean isStats() {
+        return stats;
+    }
+
+    /**
+     * @return The path of the file where the statistics are written as JSON, or {@code null} when they are not.
+     */
+    public String getStatsFile() {
+        return statsFile;
+    }
+
+    /**
+     * @return The number of largest types and methods printed after the analysis, {@code 0} when they are not.
+     */
+    public int getTopCount() {
+        return topCount;
+    }
+
+    /**
+     * @return {@code true} if the {@code .gitignore} files of the tree leave files and directories out.
+     */
+    public boolean isGitignore() {
+        return gitignore;
+    }
+
+    /**
+     * @return The path of the file with more ignore patterns, or {@code null} when there is none.
+     */
+    public String getIgnoreFile() {
+        return ignoreFile;
+    }
+
+    /**
+     * @return The languages to analyze, or {@code null} when only Java is analyzed.
+     */
+    public List<LanguageProfile> getLanguages() {
+        return languages;
+    }
+
+    /**
+     * @return {@code true} if the files with identical content are analyzed once and the duplication is reported.
+     */
+    public boolean isDedupe() {
+        return dedupe;
+    }
+
+    /**
+     * @return The port on which analysis requests are served, {@code 0} when the path is analyzed once.
+     */
+    public int getServePort() {
+        return servePort;
+    }
+
+    /**
+     * @return The path of the file where the metrics are written in the OpenMetrics text format, or
+     *         {@code null} when they are not.
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+}
@@ -3,7 +3,8 @@ package com.mantenimiento.morado.util;
 /**
  * The {@code Constants} class defines constant values used throughout the application.
  * <p>
- * These constants represent different statuses for Java source files based on their syntax validation.
+ * These constants represent different statuses for Java source files based on their syntax validation,
+ * and the kinds of the types they declare.
  * </p>
  *
  * @author Ruben Alvarado
@@ -23,7 +24,52 @@ public class Constants {
     public static final String JAVA_FILE_STATUS_ERROR = "Bad file";
 
     /**
-     * Represents the state of a Java file that does not contain a class
+     * Represents the state of a Java file that does not declare any class, interface, enum or record
      */
     public static final String JAVA_FILE_STATUS_NO_CLASS = "No class";
+
+    /**
+     * The kind of a type declared with {@code class}.
+     */
+    public static final String TYPE_KIND_CLASS = "class";
+
+    /**
+     * The kind of a type declared with {@code interface}.
+     */
+    public static final String TYPE_KIND_INTERFACE = "interface";
+
+    /**
+     * The kind of a type declared with {@code enum}.
+     */
+    public static final String TYPE_KIND_ENUM = "enum";
+
+    /**
+     * The kind of a type declared with {@code record}.
+     */
+    public static final String TYPE_KIND_RECORD = "record";
+
+    /**
+     * The kind of a type declared with {@code @interface}.
+     */
+    public static final String TYPE_KIND_ANNOTATION = "annotation";
+
+    /**
+     * The kind of a Kotlin type declared with {@code object}.
+     */
+    public static final String TYPE_KIND_OBJECT = "object";
+
+    /**
+     * The kind of an SQL table declared with {@code CREATE TABLE}.
+     */
+    public static final String TYPE_KIND_TABLE = "table";
+
+    /**
+     * The kind of an SQL view declared with {@code CREATE VIEW}.
+     */
+    public static final String TYPE_KIND_VIEW = "view";
+
+    /**
+     * The kind of the type that groups the functions declared outside any type of a file.
+     */
+    public static final String TYPE_KIND_MODULE = "module";
 }
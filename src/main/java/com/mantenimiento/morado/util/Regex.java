@@ -23,21 +23,14 @@ public class Regex {
      * String x = "hello", y = "world";
      * </pre>
      * <p>
-     * These patterns are typically discouraged in certain coding standards for better readability.
+     * The value before the first comma may contain parentheses, but not nested ones, and the comma must be
+     * followed by the name of another variable and then an {@code =}, a comma or the end of the statement. A
+     * single declaration initialized by a call with several arguments, such as
+     * {@code int n = Math.min(a, b);}, is not matched.
      * </p>
-     */
-    public static final String MULTI_INSTANCE_REGEX = "^\\s*\\w+\\s+\\w+\\s*=\\s*[^,;]+\\s*,\\s*\\w+.*;\\s*$";
-
-    /**
-     * Regular expression for detecting class declarations in Java files.
      * <p>
-     * This pattern matches lines where a class is declared, with optional access modifiers (public, private, protected),
-     * and optional additional modifiers like static or abstract). The class declaration must include the keyword "class" followed by the class name. Comments at the end of the line are also allowed.
+     * These patterns are typically discouraged in certain coding standards for better readability.
      * </p>
-     * <pre>
-     * public class MyClass {
-     * private static class AnotherClass {
-     * </pre>
      */
-    public static final String CLASS_REGEX = "(public|private|protected)(\\s\\w+)*\\s+(class).*\\s*(//.*)?$";
+    public static final String MULTI_INSTANCE_REGEX = "^\\s*\\w+\\s+\\w+\\s*=\\s*(?:[^,;()]|\\([^()]*\\))+,\\s*\\w+\\s*(?:(?:=(?!=)|,).*)?;\\s*$";
 }
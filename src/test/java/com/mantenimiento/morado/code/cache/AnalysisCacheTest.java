@@ -0,0 +1,199 @@
+package com.mantenimiento.morado.code.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class AnalysisCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savedResultsAreLoadedAgain() throws IOException {
+        Path cacheFile = directory.resolve("cache/morado.cache");
+        String source = createFile("com/example/Main.java");
+        SourceFile file = new SourceFile("Main.java", 12, 2, Constants.JAVA_FILE_STATUS_OK, "com.example",
+            List.of(new SourceType("Main", Constants.TYPE_KIND_CLASS, 12,
+                List.of(new SourceMethod("main", 4), new SourceMethod("run", 5)))));
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        AnalysisCache.FileStamp stamp = cache.getStamp(source);
+        cache.put(source, stamp, file);
+        cache.save();
+
+        AnalysisCache loaded = AnalysisCache.load(cacheFile);
+        assertEquals(file, loaded.get(source, stamp));
+        assertNull(loaded.get(source, new AnalysisCache.FileStamp(stamp.size() + 1, stamp.lastModified())));
+        assertNull(loaded.get(source, null));
+    }
+
+    @Test
+    void typesWithManyMethodsAreSaved() throws IOException {
+        Path cacheFile = directory.resolve("morado.cache");
+        String source = createFile("Generated.java");
+        List<SourceMethod> methods = new ArrayList<>();
+        for (int i = 0; i < 70_000; i++) {
+            methods.add(new SourceMethod("get" + i, 1));
+        }
+        SourceFile file = new SourceFile("Generated.java", 70_002, methods.size(), Constants.JAVA_FILE_STATUS_OK, "",
+            List.of(new SourceType("Generated", Constants.TYPE_KIND_CLASS, 70_002, methods)));
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        AnalysisCache.FileStamp stamp = cache.getStamp(source);
+        cache.put(source, stamp, file);
+        cache.save();
+
+        assertEquals(file, AnalysisCache.load(cacheFile).get(source, stamp));
+    }
+
+    @Test
+    void unknownTypeKindIsNotSaved() throws IOException {
+        String source = createFile("Main.java");
+        AnalysisCache cache = AnalysisCache.load(directory.resolve("morado.cache"));
+        cache.put(source, cache.getStamp(source), new SourceFile("Main.java", 2, 0, Constants.JAVA_FILE_STATUS_OK,
+            "", List.of(new SourceType("Main", "trait", 2, List.of()))));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, cache::save);
+        assertEquals("Unknown type kind: trait", exception.getMessage());
+    }
+
+    @Test
+    void cacheOfAnotherVersionIsIgnoredAndReplaced() throws IOException {
+        Path cacheFile = directory.resolve("morado.cache");
+        String source = createFile("Main.java");
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(cacheFile))) {
+            output.writeInt(0x4D4C4F43);
+            output.writeInt(0);
+            output.writeInt(0);
+        }
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        AnalysisCache.FileStamp stamp = cache.getStamp(source);
+        assertNull(cache.get(source, stamp));
+
+        cache.put(source, stamp, new SourceFile("Main.java", 1, 0, Constants.JAVA_FILE_STATUS_NO_CLASS));
+        cache.save();
+        assertNotNull(AnalysisCache.load(cacheFile).get(source, stamp));
+    }
+
+    @Test
+    void cacheOfThePreviousVersionIsIgnored() throws IOException {
+        Path cacheFile = directory.resolve("morado.cache");
+        String source = createFile("Main.java");
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        AnalysisCache.FileStamp stamp = cache.getStamp(source);
+        cache.put(source, stamp, new SourceFile("Main.java", 2, 0, Constants.JAVA_FILE_STATUS_NO_CLASS));
+        cache.save();
+
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        ByteBuffer.wrap(bytes).putInt(4, 5);
+        Files.write(cacheFile, bytes);
+
+        assertNull(AnalysisCache.load(cacheFile).get(source, stamp));
+    }
+
+    @Test
+    void unreadableCacheGivesAnEmptyCache() throws IOException {
+        Path cacheFile = directory.resolve("morado.cache");
+        String source = createFile("Main.java");
+        Files.write(cacheFile, new byte[] {0x4D, 0x4C});
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+
+        assertNull(cache.get(source, cache.getStamp(source)));
+    }
+
+    @Test
+    void resultsNotSeenAreKeptWhileTheirFilesExist() throws IOException {
+        Path cacheFile = directory.resolve("morado.cache");
+        String first = createFile("First.java");
+        String second = createFile("Second.java");
+        SourceFile firstFile = new SourceFile("First.java", 3, 1, Constants.JAVA_FILE_STATUS_OK);
+        SourceFile secondFile = new SourceFile("Second.java", 5, 0, Constants.JAVA_FILE_STATUS_NO_CLASS);
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        cache.put(first, cache.getStamp(first), firstFile);
+        cache.put(second, cache.getStamp(second), secondFile);
+        cache.save();
+
+        // A later run only analyzes the first file
+        AnalysisCache partialRun = AnalysisCache.load(cacheFile);
+        assertNotNull(partialRun.get(first, partialRun.getStamp(first)));
+        partialRun.save();
+        AnalysisCache afterPartialRun = AnalysisCache.load(cacheFile);
+        assertEquals(secondFile, afterPartialRun.get(second, afterPartialRun.getStamp(second)));
+
+        AnalysisCache.FileStamp deletedStamp = afterPartialRun.getStamp(second);
+        Files.delete(Path.of(second));
+        AnalysisCache.load(cacheFile).save();
+        assertNull(AnalysisCache.load(cacheFile).get(second, deletedStamp));
+    }
+
+    @Test
+    void memoryCacheNeedsACapacity() {
+        assertThrows(IllegalArgumentException.class, () -> AnalysisCache.inMemory(0));
+    }
+
+    @Test
+    void memoryCacheKeepsAtMostItsCapacity() throws IOException {
+        AnalysisCache cache = AnalysisCache.inMemory(4);
+        int stored = 0;
+        for (int i = 0; i < 8; i++) {
+            String source = createFile("File" + i + ".java");
+            cache.put(source, cache.getStamp(source), new SourceFile("File" + i + ".java", i, 0,
+                Constants.JAVA_FILE_STATUS_NO_CLASS));
+        }
+        for (int i = 0; i < 8; i++) {
+            String source = directory.resolve("File" + i + ".java").toString();
+            if (cache.get(source, cache.getStamp(source)) != null) {
+                stored++;
+            }
+        }
+
+        assertTrue(stored > 0 && stored <= 4, "stored " + stored);
+    }
+
+    @Test
+    void stampsWithTheSameSizeAndTimeAreEqual() {
+        AnalysisCache.FileStamp stamp = new AnalysisCache.FileStamp(120, 1_000_000L);
+
+        assertEquals(new AnalysisCache.FileStamp(120, 1_000_000L), stamp);
+        assertEquals(new AnalysisCache.FileStamp(120, 1_000_000L).hashCode(), stamp.hashCode());
+        assertNotEquals(new AnalysisCache.FileStamp(121, 1_000_000L), stamp);
+        assertNotEquals(new AnalysisCache.FileStamp(120, 1_000_001L), stamp);
+        assertNotEquals(null, stamp);
+    }
+
+    /**
+     * Creates a file under the temporary directory.
+     *
+     * @param name The path of the file, relative to the directory.
+     * @return The path of the created file.
+     */
+    private String createFile(String name) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class A {\n}\n");
+        return file.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.mantenimiento.morado.code.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.counter.AnalysisEngine;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class ContentCacheTest {
+
+    @Test
+    void copyIsAnalyzedOnceAndRenamed() {
+        ContentCache cache = new ContentCache(ContentCache.DEFAULT_CAPACITY);
+        AtomicInteger analyses = new AtomicInteger();
+        BiFunction<String, ByteBuffer, SourceFile> analyzer = (filename, content) -> {
+            analyses.incrementAndGet();
+            return AnalysisEngine.analyze(filename, content);
+        };
+
+        SourceFile original = cache.analyze("Main.java", bytes("public class Main {\n}\n"), analyzer);
+        SourceFile copy = cache.analyze("Copy.java", bytes("public class Main {\n}\n"), analyzer);
+
+        assertEquals(1, analyses.get());
+        assertEquals("Copy.java", copy.filename());
+        assertEquals(original.physicalLOC(), copy.physicalLOC());
+        assertEquals(original.types(), copy.types());
+        assertEquals(2, cache.getFiles());
+        assertEquals(1, cache.getDuplicateFiles());
+        assertEquals(2, cache.getDuplicatePhysicalLOC());
+    }
+
+    @Test
+    void copyUnderTheSameNameIsTheStoredResult() {
+        ContentCache cache = new ContentCache(ContentCache.DEFAULT_CAPACITY);
+
+        SourceFile first = cache.analyze("Main.java", bytes("class Main {\n}\n"), AnalysisEngine::analyze);
+        SourceFile second = cache.analyze("Main.java", bytes("class Main {\n}\n"), AnalysisEngine::analyze);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void moduleTypeIsRenamedAfterTheCopy() {
+        ContentCache cache = new ContentCache(ContentCache.DEFAULT_CAPACITY);
+        String script = "class Tool:\n    def run(self):\n        pass\n\ndef main():\n    Tool().run()\n";
+
+        cache.analyze("tool.py", bytes(script), AnalysisEngine::analyze);
+        SourceFile copy = cache.analyze("backup.py", bytes(script), AnalysisEngine::analyze);
+
+        List<SourceType> modules = copy.types().stream()
+            .filter(type -> type.kind().equals(Constants.TYPE_KIND_MODULE))
+            .toList();
+        assertEquals(1, modules.size());
+        assertEquals("backup", modules.get(0).name());
+        assertEquals(List.of("backup", "Tool"), copy.types().stream().map(SourceType::name).toList());
+    }
+
+    @Test
+    void sameBytesWithAnotherExtensionAreNotACopy() {
+        ContentCache cache = new ContentCache(ContentCache.DEFAULT_CAPACITY);
+
+        cache.analyze("query.sql", bytes("select 1;\n"), AnalysisEngine::analyze);
+        SourceFile other = cache.analyze("query.py", bytes("select 1;\n"), AnalysisEngine::analyze);
+
+        assertEquals("query.py", other.filename());
+        assertEquals(0, cache.getDuplicateFiles());
+    }
+
+    @Test
+    void hashDoesNotMoveTheBuffer() {
+        ByteBuffer content = bytes("class Main {\n}\n");
+        content.position(2);
+
+        long hash = ContentCache.hash(content);
+
+        assertEquals(2, content.position());
+        assertEquals(hash, ContentCache.hash(bytes("ass Main {\n}\n")));
+    }
+
+    /**
+     * @param text The content of a file.
+     * @return A buffer with the UTF-8 bytes of the content.
+     */
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,141 @@
+package com.mantenimiento.morado.code.counter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mantenimiento.morado.code.cache.AnalysisCache;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class AnalysisEngineTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void wellWrittenClassIsCounted() throws IOException {
+        SourceFile file = AnalysisEngine.analyze(createFile("Main.java",
+            "// The entry point",
+            "public class Main {",
+            "",
+            "    // Prints a greeting",
+            "    public static void main(String[] args) {",
+            "        System.out.println(\"Hello\");",
+            "    }",
+            "}"
+        ));
+
+        assertEquals(new SourceFile("Main.java", 5, 1, Constants.JAVA_FILE_STATUS_OK, "",
+            List.of(new SourceType("Main", Constants.TYPE_KIND_CLASS, 5, List.of(new SourceMethod("main", 3))))),
+            file);
+    }
+
+    @Test
+    void codeAroundCommentsIsCounted() throws IOException {
+        SourceFile file = AnalysisEngine.analyze(createFile("Main.java",
+            "public class Main { /* The entry point */",
+            "    /* class Commented {",
+            "    } */",
+            "    String marker = \"/* not a comment\";",
+            "    public void run() { // the only method",
+            "    }",
+            "}"
+        ));
+
+        assertEquals(new SourceFile("Main.java", 5, 1, Constants.JAVA_FILE_STATUS_OK, "",
+            List.of(new SourceType("Main", Constants.TYPE_KIND_CLASS, 5, List.of(new SourceMethod("run", 2))))),
+            file);
+    }
+
+    @Test
+    void encodingIsDetectedFromTheBytes() {
+        String source = "package caf\u00e9;\n\npublic class Main {\n}\n";
+
+        SourceFile utf16 = AnalysisEngine.analyze("Main.java",
+            ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_16)));
+        SourceFile latin1 = AnalysisEngine.analyze("Main.java",
+            ByteBuffer.wrap(source.getBytes(StandardCharsets.ISO_8859_1)));
+
+        assertEquals(Constants.JAVA_FILE_STATUS_OK, utf16.status());
+        assertEquals("caf\u00e9", utf16.packageName());
+        assertEquals(3, utf16.physicalLOC());
+        assertEquals("caf\u00e9", latin1.packageName());
+    }
+
+    @Test
+    void cachedResultIsUsedUntilTheFileChanges() throws IOException {
+        Path file = Path.of(createFile("Main.java", "public class Main {", "}"));
+        AnalysisCache cache = AnalysisCache.load(directory.resolve("morado.cache"));
+
+        SourceFile first = AnalysisEngine.analyze(file, null, null, cache);
+        assertSame(first, AnalysisEngine.analyze(file, null, null, cache));
+
+        Files.writeString(file, "public class Main {\n    int a;\n}\n");
+        assertEquals(3, AnalysisEngine.analyze(file, null, null, cache).physicalLOC());
+    }
+
+    @Test
+    void unreadableFileIsNotCached() throws IOException {
+        Path file = Files.createDirectory(directory.resolve("Broken.java"));
+        AnalysisCache cache = AnalysisCache.load(directory.resolve("morado.cache"));
+
+        SourceFile result = AnalysisEngine.analyze(file, null, null, cache);
+
+        assertEquals(0, result.physicalLOC());
+        assertEquals(Constants.JAVA_FILE_STATUS_ERROR, result.status());
+        assertNull(cache.get(file.toString(), cache.getStamp(file.toString())));
+    }
+
+    @Test
+    void fileWithoutClassIsReported() throws IOException {
+        SourceFile file = AnalysisEngine.analyze(createFile("Empty.java",
+            "import java.util.List;"
+        ));
+
+        assertEquals(Constants.JAVA_FILE_STATUS_NO_CLASS, file.status());
+        assertEquals(0, file.numOfMethods());
+    }
+
+    @Test
+    void badlyWrittenFileHasNoLOC() throws IOException {
+        SourceFile openingBrace = AnalysisEngine.analyze(createFile("Brace.java",
+            "public class Brace",
+            "{",
+            "}"
+        ));
+        SourceFile multiDeclaration = AnalysisEngine.analyze(createFile("Declaration.java",
+            "public class Declaration {",
+            "    int a = 1, b = 2;",
+            "}"
+        ));
+
+        assertEquals(new SourceFile("Brace.java", 0, 0, Constants.JAVA_FILE_STATUS_ERROR), openingBrace);
+        assertEquals(new SourceFile("Declaration.java", 0, 0, Constants.JAVA_FILE_STATUS_ERROR), multiDeclaration);
+    }
+
+    /**
+     * Creates a source file under the temporary directory.
+     *
+     * @param name  The name of the file.
+     * @param lines The lines of the file.
+     * @return The path of the created file.
+     */
+    private String createFile(String name, String... lines) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, String.join("\n", lines) + "\n");
+        return file.toString();
+    }
+}
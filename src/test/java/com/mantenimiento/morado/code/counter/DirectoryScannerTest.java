@@ -0,0 +1,122 @@
+package com.mantenimiento.morado.code.counter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mantenimiento.morado.code.ignore.IgnoreRules;
+
+class DirectoryScannerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void javaFilesAreGroupedByDirectory() throws IOException {
+        createFile("app/Main.java");
+        createFile("app/notes.txt");
+        createFile("app/util/Strings.java");
+        createFile("app/util/Numbers.java");
+        Files.createDirectories(directory.resolve("docs"));
+
+        Map<Path, List<String>> javaFiles = new DirectoryScanner(directory.toString()).getJavaFilesByDirectory();
+
+        assertEquals(List.of(), javaFiles.get(directory));
+        assertEquals(List.of(path("app/Main.java")), javaFiles.get(directory.resolve("app")));
+        assertEquals(List.of(path("app/util/Numbers.java"), path("app/util/Strings.java")),
+            sorted(javaFiles.get(directory.resolve("app/util"))));
+        assertEquals(List.of(), javaFiles.get(directory.resolve("docs")));
+        assertEquals(4, javaFiles.size());
+    }
+
+    @Test
+    void directoriesComeBeforeTheirSubdirectories() throws IOException {
+        createFile("a/b/c/Deep.java");
+
+        List<Path> directories = new DirectoryScanner(directory.toString()).getSubdirectories();
+
+        assertTrue(directories.indexOf(directory.resolve("a")) < directories.indexOf(directory.resolve("a/b")));
+        assertTrue(directories.indexOf(directory.resolve("a/b")) < directories.indexOf(directory.resolve("a/b/c")));
+    }
+
+    @Test
+    void iteratorGivesEachDirectoryInPreOrder() throws IOException {
+        createFile("a/A.java");
+        createFile("a/b/B.java");
+        createFile("c/C.java");
+        DirectoryScanner scanner = new DirectoryScanner(directory.toString());
+
+        List<Path> directories = new ArrayList<>();
+        Iterator<Map.Entry<Path, List<String>>> iterator = scanner.iterateJavaFilesByDirectory();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, List<String>> entry = iterator.next();
+            directories.add(entry.getKey());
+            assertEquals(scanner.getJavaFilesByDirectory().get(entry.getKey()), entry.getValue());
+        }
+
+        assertEquals(directory, directories.get(0));
+        assertEquals(4, directories.size());
+        assertEquals(directories.indexOf(directory.resolve("a")) + 1, directories.indexOf(directory.resolve("a/b")));
+        assertEquals(List.copyOf(scanner.getJavaFilesByDirectory().keySet()), directories);
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void ignoredFilesAndDirectoriesAreLeftOut() throws IOException {
+        createFile("app/Main.java");
+        createFile("app/Main.gen.java");
+        createFile("app/Keep.gen.java");
+        createFile("build/Output.java");
+        Files.writeString(directory.resolve(".gitignore"), "build/\n*.gen.java\n");
+        Files.writeString(directory.resolve("app/.gitignore"), "!Keep.gen.java\n");
+        IgnoreRules rules = IgnoreRules.load(directory, null, true);
+
+        Map<Path, List<String>> javaFiles = new DirectoryScanner(directory.toString(), rules)
+            .getJavaFilesByDirectory();
+
+        assertEquals(List.of(directory, directory.resolve("app")), List.copyOf(javaFiles.keySet()));
+        assertEquals(List.of(path("app/Keep.gen.java"), path("app/Main.java")),
+            sorted(javaFiles.get(directory.resolve("app"))));
+    }
+
+    /**
+     * Creates an empty file under the temporary directory.
+     *
+     * @param name The path of the file, relative to the directory.
+     */
+    private void createFile(String name) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.createFile(file);
+    }
+
+    /**
+     * @param name A path relative to the temporary directory.
+     * @return The path under the temporary directory, as the scanner returns it.
+     */
+    private String path(String name) {
+        return directory.resolve(name).toString();
+    }
+
+    /**
+     * @param paths Some paths.
+     * @return A sorted copy of the paths.
+     */
+    private static List<String> sorted(List<String> paths) {
+        List<String> copy = new ArrayList<>(paths);
+        copy.sort(null);
+        return copy;
+    }
+}
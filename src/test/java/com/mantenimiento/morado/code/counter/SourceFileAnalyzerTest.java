@@ -0,0 +1,204 @@
+package com.mantenimiento.morado.code.counter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+import com.mantenimiento.morado.code.report.ReportFormat;
+import com.mantenimiento.morado.code.report.ReportWriter;
+
+class SourceFileAnalyzerTest {
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void createPrograms() throws IOException {
+        createProgram("alpha", 3);
+        createProgram("beta", 6);
+    }
+
+    @Test
+    void threadsPrintTheSameReportAsTheMainThread() {
+        String sequential = analyze(new SourceFileAnalyzer(directory.toString()));
+
+        assertEquals(sequential, analyze(new SourceFileAnalyzer(directory.toString(), 4)));
+        assertTrue(sequential.contains("Beta5"), sequential);
+    }
+
+    @Test
+    void pipelinePrintsTheSameReportAsTheMainThread() {
+        String sequential = analyze(new SourceFileAnalyzer(directory.toString()));
+
+        assertEquals(sequential, analyze(new SourceFileAnalyzer(directory.toString(), 2, 3)));
+        assertEquals(sequential, analyze(new SourceFileAnalyzer(directory.toString(), 1, 1)));
+    }
+
+    @Test
+    void listenerReceivesEveryFileAndTheTotals() {
+        List<String> events = new ArrayList<>();
+        List<SourceFile> files = new ArrayList<>();
+        new SourceFileAnalyzer(directory.toString()).analyzePath(new AnalysisListener() {
+            @Override
+            public void onProgramStart(String programName) {
+                events.add("start " + programName);
+            }
+
+            @Override
+            public void onFile(SourceFile file) {
+                files.add(file);
+            }
+
+            @Override
+            public void onProgramEnd(String programName, int totalPhysicalLOC) {
+                events.add("end " + programName + " " + totalPhysicalLOC);
+            }
+
+            @Override
+            public void onProjectEnd(int totalPhysicalLOC) {
+                events.add("total " + totalPhysicalLOC);
+            }
+        });
+
+        assertEquals(9, files.size());
+        assertTrue(events.contains("start alpha") && events.contains("end alpha 24"), events.toString());
+        assertTrue(events.contains("start beta") && events.contains("end beta 75"), events.toString());
+        assertEquals("total 99", events.get(events.size() - 1));
+    }
+
+    @Test
+    void streamHasTheSameFilesAsTheReport() {
+        List<SourceFile> files = new SourceFileAnalyzer(directory.toString()).streamFiles().toList();
+
+        assertEquals(9, files.size());
+        assertEquals(99, files.stream().mapToInt(SourceFile::physicalLOC).sum());
+    }
+
+    @Test
+    void archiveIsAnalyzedLikeItsDirectory(@TempDir Path archiveDirectory) throws IOException {
+        Path archive = archiveDirectory.resolve("programs.zip");
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(archive));
+             Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                output.putNextEntry(new ZipEntry(directory.relativize(file).toString().replace('\\', '/')));
+                output.write(Files.readAllBytes(file));
+                output.closeEntry();
+            }
+        }
+        // Entries are listed in the order of the archive, so the results are compared in any order
+        List<String> results = sortedResults(new SourceFileAnalyzer(directory.toString()));
+
+        assertTrue(SourceFileAnalyzer.isArchive(archive.toString()));
+        assertFalse(SourceFileAnalyzer.isArchive(directory.toString()));
+        assertTrue(results.contains("beta 75") && results.contains("total 99"), results.toString());
+        assertEquals(results, sortedResults(new SourceFileAnalyzer(archive.toString())));
+        assertEquals(results, sortedResults(new SourceFileAnalyzer(archive.toString(), 3)));
+        assertEquals(results, sortedResults(new SourceFileAnalyzer(archive.toString(), 2, 2)));
+    }
+
+    @Test
+    void programsWithTheSameNameHaveTheirOwnPath() throws IOException {
+        Files.createDirectories(directory.resolve("alpha/util"));
+        Files.createDirectories(directory.resolve("beta/util"));
+        Files.writeString(directory.resolve("alpha/util/First.java"), "public class First {\n}\n");
+        Files.writeString(directory.resolve("beta/util/Second.java"), "public class Second {\n}\n");
+        List<String> programs = new ArrayList<>();
+
+        new SourceFileAnalyzer(directory.toString(), 2).analyzePath(new AnalysisListener() {
+            @Override
+            public void onProgramStart(String programName, String programPath) {
+                programs.add(programName + " " + programPath);
+            }
+
+            @Override
+            public void onFile(SourceFile file) {
+                programs.add(file.filename());
+            }
+        });
+
+        assertTrue(programs.containsAll(List.of("alpha alpha", "util alpha/util", "First.java", "util beta/util")),
+            programs.toString());
+        assertTrue(programs.contains(directory.getFileName() + " ."), programs.toString());
+    }
+
+    /**
+     * Creates a directory with some Java files of different sizes.
+     *
+     * @param name  The name of the directory.
+     * @param files The number of files.
+     */
+    private void createProgram(String name, int files) throws IOException {
+        Path program = Files.createDirectories(directory.resolve(name));
+        String prefix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (int i = 0; i < files; i++) {
+            StringBuilder source = new StringBuilder("public class " + prefix + i + " {\n");
+            for (int j = 0; j <= i; j++) {
+                source.append("    void run").append(j).append("() {\n        System.out.println(").append(j)
+                    .append(");\n    }\n");
+            }
+            Files.writeString(program.resolve(prefix + i + ".java"), source.append("}\n"));
+        }
+    }
+
+    /**
+     * Runs an analysis and captures its table.
+     *
+     * @param analyzer The analyzer to run.
+     * @return The report printed as a table.
+     */
+    private static String analyze(SourceFileAnalyzer analyzer) {
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(report, StandardCharsets.UTF_8, false)) {
+            analyzer.analyzePath(ReportFormat.TABLE.createListener(writer));
+        }
+        return report.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs an analysis and collects its files and totals.
+     *
+     * @param analyzer The analyzer to run.
+     * @return The files with their LOC and the totals of the programs with files and of the project, sorted.
+     */
+    private static List<String> sortedResults(SourceFileAnalyzer analyzer) {
+        List<String> results = new ArrayList<>();
+        analyzer.analyzePath(new AnalysisListener() {
+            @Override
+            public void onFile(SourceFile file) {
+                results.add(file.filename() + " " + file.physicalLOC() + " " + file.status());
+            }
+
+            @Override
+            public void onProgramEnd(String programName, int totalPhysicalLOC) {
+                // The root has no files and is named after the directory or the archive
+                if (totalPhysicalLOC > 0) {
+                    results.add(programName + " " + totalPhysicalLOC);
+                }
+            }
+
+            @Override
+            public void onProjectEnd(int totalPhysicalLOC) {
+                results.add("total " + totalPhysicalLOC);
+            }
+        });
+        results.sort(null);
+        return results;
+    }
+}
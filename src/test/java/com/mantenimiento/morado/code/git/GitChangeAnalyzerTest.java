@@ -0,0 +1,161 @@
+package com.mantenimiento.morado.code.git;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.model.FileChange;
+import com.mantenimiento.morado.code.report.ChangeListener;
+
+class GitChangeAnalyzerTest {
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void createRepository() throws IOException, InterruptedException {
+        git("init", "-q");
+        createFile("app/Main.java", 2);
+        createFile("app/Old.java", 2);
+        Files.writeString(directory.resolve("README.txt"), "first\n");
+        git("add", "-A");
+        git("commit", "-q", "-m", "first");
+
+        createFile("app/Main.java", 4);
+        createFile("app/New.java", 3);
+        Files.delete(directory.resolve("app/Old.java"));
+        Files.writeString(directory.resolve("README.txt"), "second\n");
+        git("add", "-A");
+        git("commit", "-q", "-m", "second");
+    }
+
+    @Test
+    void changesBetweenTwoRevisionsAreReported() throws IOException {
+        List<String> events = analyze("HEAD~1", "HEAD");
+
+        assertEquals(List.of(
+            "program app",
+            "app/Main.java Modified 2 4",
+            "app/New.java Added 0 3",
+            "app/Old.java Deleted 2 0",
+            "program app 3",
+            "total 3"
+        ), events);
+    }
+
+    @Test
+    void workingTreeIsComparedWithARevision() throws IOException {
+        createFile("app/Main.java", 5);
+
+        assertEquals(List.of("program app", "app/Main.java Modified 4 5", "program app 1", "total 1"),
+            analyze("HEAD", null));
+    }
+
+    @Test
+    void filesOfTheSelectedLanguagesAreReported() throws IOException, InterruptedException {
+        createFile("app/Main.java", 5);
+        Files.writeString(directory.resolve("app/run.py"), "def run():\n    return 1\n");
+        List<String> events = new ArrayList<>();
+        GitChangeAnalyzer analyzer = new GitChangeAnalyzer(directory.toString(), "HEAD", null);
+        analyzer.setLanguages(List.of(LanguageRegistry.PYTHON));
+
+        analyzer.analyzeChanges(new ChangeListener() {
+            @Override
+            public void onChange(FileChange change) {
+                events.add(change.path() + " " + change.getChangeType());
+            }
+        });
+
+        assertEquals(List.of(), events);
+        git("add", "app/run.py");
+        analyzer.analyzeChanges(new ChangeListener() {
+            @Override
+            public void onChange(FileChange change) {
+                events.add(change.path() + " " + change.getChangeType() + " " + change.getCurrentLOC());
+            }
+        });
+        assertEquals(List.of("app/run.py Added 2"), events);
+    }
+
+    @Test
+    void failedCommandGivesItsExitCodeAndError() {
+        IOException exception = assertThrows(IOException.class, () -> analyze("missing", "HEAD"));
+
+        assertTrue(exception.getMessage().startsWith("git diff failed with exit code 128: "), exception.getMessage());
+        assertTrue(exception.getMessage().contains("missing"), exception.getMessage());
+    }
+
+    /**
+     * Analyzes the changes of the repository.
+     *
+     * @param baseRevision   The revision the changes start from.
+     * @param targetRevision The revision the changes end at, or {@code null} for the working tree.
+     * @return The calls received by the listener.
+     */
+    private List<String> analyze(String baseRevision, String targetRevision) throws IOException {
+        List<String> events = new ArrayList<>();
+        new GitChangeAnalyzer(directory.toString(), baseRevision, targetRevision).analyzeChanges(new ChangeListener() {
+            @Override
+            public void onProgramStart(String programName) {
+                events.add("program " + programName);
+            }
+
+            @Override
+            public void onChange(FileChange change) {
+                events.add(change.path() + " " + change.getChangeType() + " " + change.getPreviousLOC() + " "
+                    + change.getCurrentLOC());
+            }
+
+            @Override
+            public void onProgramEnd(String programName, int delta) {
+                events.add("program " + programName + " " + delta);
+            }
+
+            @Override
+            public void onProjectEnd(int delta) {
+                events.add("total " + delta);
+            }
+        });
+        return events;
+    }
+
+    /**
+     * Writes a Java class with some lines of code under the temporary directory.
+     *
+     * @param name The path of the file, relative to the directory.
+     * @param loc  The physical LOC of the class, at least 2.
+     */
+    private void createFile(String name, int loc) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        String className = file.getFileName().toString().replace(".java", "");
+        StringBuilder source = new StringBuilder("public class " + className + " {\n");
+        for (int i = 2; i < loc; i++) {
+            source.append("    int field").append(i).append(";\n");
+        }
+        Files.writeString(file, source.append("}\n"));
+    }
+
+    /**
+     * Runs a git command in the temporary directory.
+     *
+     * @param arguments The arguments of the command.
+     */
+    private void git(String... arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of("git", "-c", "user.name=Test", "-c", "user.email=test@example.com"));
+        command.addAll(List.of(arguments));
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).inheritIO().start();
+        assertEquals(0, process.waitFor(), String.join(" ", command));
+    }
+}
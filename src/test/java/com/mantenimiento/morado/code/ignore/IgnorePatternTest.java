@@ -0,0 +1,146 @@
+package com.mantenimiento.morado.code.ignore;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IgnorePatternTest {
+
+    @Test
+    void blankLinesAndCommentsAreNotPatterns() {
+        assertNull(IgnorePattern.compile(""));
+        assertNull(IgnorePattern.compile("   "));
+        assertNull(IgnorePattern.compile("# comment"));
+    }
+
+    @Test
+    void patternWithoutSlashMatchesNameAtAnyDepth() {
+        IgnorePattern pattern = IgnorePattern.compile("target");
+
+        assertFalse(pattern.isAnchored());
+        assertTrue(pattern.matches("target", null, true));
+        assertTrue(pattern.matches("target", null, false));
+        assertFalse(pattern.matches("targets", null, true));
+    }
+
+    @Test
+    void patternWithSlashIsAnchoredToItsDirectory() {
+        IgnorePattern leading = IgnorePattern.compile("/build");
+        IgnorePattern inner = IgnorePattern.compile("src/generated");
+
+        assertTrue(leading.isAnchored());
+        assertTrue(leading.matches("build", "build", true));
+        assertFalse(leading.matches("build", "module/build", true));
+        assertTrue(inner.matches("generated", "src/generated", true));
+        assertFalse(inner.matches("generated", "lib/src/generated", true));
+    }
+
+    @Test
+    void trailingSlashMatchesOnlyDirectories() {
+        IgnorePattern pattern = IgnorePattern.compile("out/");
+
+        assertFalse(pattern.isAnchored());
+        assertTrue(pattern.matches("out", null, true));
+        assertFalse(pattern.matches("out", null, false));
+    }
+
+    @Test
+    void starDoesNotCrossDirectories() {
+        IgnorePattern suffix = IgnorePattern.compile("*.class");
+        IgnorePattern anchored = IgnorePattern.compile("src/*.java");
+
+        assertTrue(suffix.matches("Main.class", null, false));
+        assertFalse(suffix.matches("Main.java", null, false));
+        assertTrue(anchored.matches("Main.java", "src/Main.java", false));
+        assertFalse(anchored.matches("Main.java", "src/util/Main.java", false));
+    }
+
+    @Test
+    void doubleStarCrossesDirectories() {
+        IgnorePattern leading = IgnorePattern.compile("**/generated");
+        IgnorePattern inner = IgnorePattern.compile("src/**/Test*.java");
+        IgnorePattern trailing = IgnorePattern.compile("docs/**");
+
+        assertTrue(leading.matches("generated", "generated", true));
+        assertTrue(leading.matches("generated", "a/b/generated", true));
+        assertTrue(inner.matches("TestMain.java", "src/TestMain.java", false));
+        assertTrue(inner.matches("TestMain.java", "src/a/b/TestMain.java", false));
+        assertFalse(inner.matches("Main.java", "src/a/Main.java", false));
+        assertTrue(trailing.matches("page.md", "docs/api/page.md", false));
+        assertFalse(trailing.matches("docs", "docs", true));
+    }
+
+    @Test
+    void questionMarkAndCharacterClassesMatchOneCharacter() {
+        IgnorePattern question = IgnorePattern.compile("file?.txt");
+        IgnorePattern range = IgnorePattern.compile("log[0-9].txt");
+        IgnorePattern negatedClass = IgnorePattern.compile("log[!0-9].txt");
+
+        assertTrue(question.matches("file1.txt", null, false));
+        assertFalse(question.matches("file12.txt", null, false));
+        assertTrue(range.matches("log7.txt", null, false));
+        assertFalse(range.matches("logx.txt", null, false));
+        assertTrue(negatedClass.matches("logx.txt", null, false));
+        assertFalse(negatedClass.matches("log7.txt", null, false));
+    }
+
+    @Test
+    void escapedWildcardsAreLiteral() {
+        IgnorePattern pattern = IgnorePattern.compile("\\*.txt");
+
+        assertTrue(pattern.matches("*.txt", null, false));
+        assertFalse(pattern.matches("a.txt", null, false));
+    }
+
+    @Test
+    void negatedPatternReincludesWhatAnEarlierPatternExcluded(@TempDir Path root) throws IOException {
+        Path rulesFile = root.resolve("rules");
+        Files.write(rulesFile, List.of("*.log", "!keep.log"));
+        IgnoreRules rules = IgnoreRules.load(root, rulesFile, false);
+
+        assertTrue(IgnorePattern.compile("!keep.log").isNegated());
+        assertTrue(rules.isIgnored(root.resolve("debug.log").toString(), "debug.log", false));
+        assertFalse(rules.isIgnored(root.resolve("keep.log").toString(), "keep.log", false));
+    }
+
+    @Test
+    void manyStarsDoNotTakeExponentialTime() {
+        IgnorePattern pattern = IgnorePattern.compile("*a*a*a*a*a*a*a*a*a*b");
+        String name = "a".repeat(40);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertFalse(pattern.matches(name, null, false));
+            assertTrue(pattern.matches(name + "b", null, false));
+        });
+    }
+
+    @Test
+    void manyDoubleStarsDoNotTakeExponentialTime() {
+        IgnorePattern pattern = IgnorePattern.compile("**/a**a**a**a**a**a**a**a**b");
+        String path = "a/".repeat(20) + "a".repeat(20);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertFalse(pattern.matches("a".repeat(20), path, false));
+        });
+    }
+
+    @Test
+    void failuresOfAnEarlierMatchAreForgotten() {
+        IgnorePattern pattern = IgnorePattern.compile("*a*b?");
+
+        assertFalse(pattern.matches("a".repeat(40), null, false));
+        assertTrue(pattern.matches("abc", null, false));
+        assertFalse(pattern.matches("ab", null, false));
+        assertTrue(pattern.matches("xaybz", null, false));
+    }
+}
@@ -0,0 +1,80 @@
+package com.mantenimiento.morado.code.language;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class LanguageTotalsTest {
+
+    @Test
+    void profileIsFoundFromTheExtension() {
+        assertSame(LanguageRegistry.KOTLIN, LanguageRegistry.forFilename("src/build.gradle.kts"));
+        assertSame(LanguageRegistry.PYTHON, LanguageRegistry.forFilename("tool.py"));
+        assertNull(LanguageRegistry.forFilename("README"));
+        assertNull(LanguageRegistry.forFilename("notes.txt"));
+    }
+
+    @Test
+    void namesAreParsedWithoutRepetitions() {
+        assertEquals(List.of(LanguageRegistry.SQL, LanguageRegistry.JAVA), LanguageRegistry.parse("sql, Java,sql"));
+        assertEquals(LanguageRegistry.getProfiles(), LanguageRegistry.parse("all"));
+        assertThrows(IllegalArgumentException.class, () -> LanguageRegistry.parse("cobol"));
+    }
+
+    @Test
+    void profilesAreFoundByIdentity() {
+        List<LanguageProfile> profiles = List.of(LanguageRegistry.PYTHON, LanguageRegistry.SQL);
+
+        assertEquals(1, LanguageRegistry.indexOf(profiles, LanguageRegistry.SQL));
+        assertEquals(-1, LanguageRegistry.indexOf(profiles, LanguageRegistry.JAVA));
+        assertEquals(-1, LanguageRegistry.indexOf(profiles, null));
+    }
+
+    @Test
+    void filesAreAddedToTheTotalsOfTheirLanguage() {
+        LanguageTotals totals = new LanguageTotals();
+
+        totals.add(new SourceFile("Main.kt", 10, 1, Constants.JAVA_FILE_STATUS_OK));
+        totals.add(new SourceFile("Util.kt", 5, 0, Constants.JAVA_FILE_STATUS_OK));
+        totals.add(new SourceFile("tool.py", 7, 2, Constants.JAVA_FILE_STATUS_OK));
+        totals.add(new SourceFile("notes.txt", 3, 0, Constants.JAVA_FILE_STATUS_OK));
+
+        assertEquals(2, totals.getFiles(LanguageRegistry.KOTLIN));
+        assertEquals(15, totals.getPhysicalLOC(LanguageRegistry.KOTLIN));
+        assertEquals(1, totals.getFiles(LanguageRegistry.PYTHON));
+        assertEquals(0, totals.getFiles(LanguageRegistry.JAVA));
+        assertEquals(0, totals.getFiles(null));
+        assertEquals(0, totals.getPhysicalLOC(null));
+    }
+
+    @Test
+    void moduleOfTheTopLevelFunctionsIsNotAType() {
+        SourceMethod function = new SourceMethod("run", 2);
+        LanguageTotals totals = new LanguageTotals();
+        totals.add(new SourceFile("tool.py", 4, 2, Constants.JAVA_FILE_STATUS_OK, "", List.of(
+            new SourceType("tool", Constants.TYPE_KIND_MODULE, 2, List.of(function)),
+            new SourceType("Tool", Constants.TYPE_KIND_CLASS, 2, List.of(function)))));
+        ByteArrayOutputStream summary = new ByteArrayOutputStream();
+
+        totals.printSummary(new PrintStream(summary, true, StandardCharsets.UTF_8));
+
+        assertEquals(List.of(
+            "Languages",
+            "Language      Files          LOC    Types  Methods",
+            "python            1            4        1        2"
+        ), summary.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.mantenimiento.morado.code.report;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.util.Constants;
+
+class ReportWriterTest {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    @Test
+    void numbersAndColumnsAreWrittenWithoutFormatting() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(output, StandardCharsets.UTF_8, false)) {
+            writer.write(0).write(' ').write(-1234).write(' ').write(Integer.MIN_VALUE).newLine()
+                .writePadded("ab", 5).writePadded(42, 4).write('|');
+        }
+
+        assertEquals("0 -1234 -2147483648" + LINE_SEPARATOR + "ab   42  |", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void textIsWrittenWhenTheBufferIsFullOrFlushed() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ReportWriter writer = new ReportWriter(output, StandardCharsets.UTF_8, false);
+        String text = "x".repeat(20_000) + "caf\u00e9";
+
+        writer.write("abc");
+        assertEquals(0, output.size());
+        writer.write(text);
+        writer.flush();
+
+        assertEquals("abc" + text, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csvFieldsAreQuotedWhenNeeded() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(output, StandardCharsets.UTF_8, false)) {
+            AnalysisListener printer = ReportFormat.CSV.createListener(writer);
+            printer.onStart();
+            printer.onProgramStart("my,\"app\"");
+            printer.onFile(new SourceFile("Main.java", 12, 2, Constants.JAVA_FILE_STATUS_OK));
+        }
+
+        assertEquals("program,file,methods,physical_loc,status" + LINE_SEPARATOR
+            + "\"my,\"\"app\"\"\",Main.java,2,12,OK" + LINE_SEPARATOR, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void formatIsFoundByName() {
+        assertEquals(ReportFormat.JSONL, ReportFormat.fromName("JSONL"));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> ReportFormat.fromName("xml"));
+        assertEquals("Unknown report format: xml", exception.getMessage());
+    }
+}
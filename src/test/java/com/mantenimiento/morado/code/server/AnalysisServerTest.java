@@ -0,0 +1,179 @@
+package com.mantenimiento.morado.code.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mantenimiento.morado.code.stats.MetricsRegistry;
+
+class AnalysisServerTest {
+
+    @TempDir
+    Path directory;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private AnalysisServer server;
+    private Thread serving;
+    private int port;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        Files.createDirectories(directory.resolve("app"));
+        Files.writeString(directory.resolve("app/Main.java"), "public class Main {\n    int a;\n}\n");
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new AnalysisServer(directory.toString(), port, 1, 0);
+        serving = new Thread(server::serve);
+        serving.start();
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        server.close();
+        serving.interrupt();
+        serving.join();
+    }
+
+    @Test
+    void analyzeReturnsTheReportInTheRequestedFormat() throws IOException, InterruptedException {
+        String path = URLEncoder.encode(directory.toString(), StandardCharsets.UTF_8);
+        HttpResponse<String> jsonLines = send(HttpRequest.newBuilder(uri("/analyze?path=" + path)).build());
+        HttpResponse<String> csv = send(HttpRequest.newBuilder(uri("/analyze?format=csv")).build());
+
+        assertEquals(200, jsonLines.statusCode());
+        assertTrue(jsonLines.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"),
+            jsonLines.headers().toString());
+        assertTrue(jsonLines.body().contains("\"file\":\"Main.java\""), jsonLines.body());
+        assertEquals(200, csv.statusCode());
+        assertTrue(csv.body().contains("app,Main.java,0,3,OK"), csv.body());
+    }
+
+    @Test
+    void failedAnalysisDropsTheConnection() throws IOException, InterruptedException {
+        server.setMetrics(new MetricsRegistry() {
+            @Override
+            public void recordScan(Map<String, Long> programPhysicalLOC, long totalPhysicalLOC, long nanos) {
+                throw new IllegalStateException("Broken registry");
+            }
+        });
+
+        assertThrows(IOException.class, () -> send(HttpRequest.newBuilder(uri("/analyze")).build()));
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/metrics")).build()).statusCode());
+    }
+
+    @Test
+    void metricsCountTheAnalyzedFiles() throws IOException, InterruptedException {
+        send(HttpRequest.newBuilder(uri("/analyze")).build());
+        HttpResponse<String> metrics = send(HttpRequest.newBuilder(uri("/metrics")).build());
+
+        assertEquals(200, metrics.statusCode());
+        assertEquals(MetricsRegistry.MEDIA_TYPE, metrics.headers().firstValue("Content-Type").orElse(""));
+        assertTrue(metrics.body().contains("morado_scans_total 1\n"), metrics.body());
+        assertTrue(metrics.body().contains("morado_files_total{status=\"OK\"} 1\n"), metrics.body());
+        assertTrue(metrics.body().endsWith("# EOF\n"), metrics.body());
+    }
+
+    @Test
+    void invalidRequestsAreRejected() throws IOException, InterruptedException {
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/analyze?format=xml")).build()).statusCode());
+        assertEquals(400, send(HttpRequest.newBuilder(uri("/analyze?path=")).build()).statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(uri("/analyze"))
+            .POST(HttpRequest.BodyPublishers.noBody()).build()).statusCode());
+        assertEquals(405, send(HttpRequest.newBuilder(uri("/shutdown")).build()).statusCode());
+    }
+
+    @Test
+    void onlyTheLoopbackHostIsAnswered() throws IOException {
+        assertEquals("HTTP/1.1 403 Forbidden", statusLine("evil.example"));
+        assertEquals("HTTP/1.1 403 Forbidden", statusLine("127.0.0.1.evil.example:" + port));
+        assertEquals("HTTP/1.1 200 OK", statusLine("localhost:" + port));
+        assertTrue(AnalysisServer.isLoopbackHost("[::1]:" + port));
+        assertFalse(AnalysisServer.isLoopbackHost(null));
+    }
+
+    @Test
+    void pathsMustStayBelowTheRoot(@TempDir Path outside) throws IOException, InterruptedException {
+        Files.writeString(outside.resolve("Secret.java"), "public class Secret {\n}\n");
+        Files.createSymbolicLink(directory.resolve("link"), outside);
+        String parent = URLEncoder.encode(directory.getParent().toString(), StandardCharsets.UTF_8);
+
+        assertEquals(200, send(HttpRequest.newBuilder(uri("/analyze?path=app")).build()).statusCode());
+        assertEquals(403, send(HttpRequest.newBuilder(uri("/analyze?path=" + parent)).build()).statusCode());
+        assertEquals(403, send(HttpRequest.newBuilder(uri("/analyze?path=..")).build()).statusCode());
+        assertEquals(403, send(HttpRequest.newBuilder(uri("/analyze?path=link")).build()).statusCode());
+        assertEquals(404, send(HttpRequest.newBuilder(uri("/analyze?path=missing")).build()).statusCode());
+    }
+
+    @Test
+    void shutdownStopsServing() throws IOException, InterruptedException {
+        HttpRequest.Builder shutdown = HttpRequest.newBuilder(uri("/shutdown"))
+            .POST(HttpRequest.BodyPublishers.noBody());
+
+        assertEquals(403, send(shutdown.build()).statusCode());
+        HttpResponse<String> response = send(shutdown.header("X-Requested-With", "test").build());
+
+        assertEquals(200, response.statusCode());
+        serving.join(5000);
+        assertFalse(serving.isAlive());
+    }
+
+    /**
+     * @param pathAndQuery The path and the query of a request.
+     * @return The URI of the request on the server.
+     */
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://127.0.0.1:" + port + pathAndQuery);
+    }
+
+    /**
+     * Sends an analysis request with a {@code Host} header that the HTTP client would not let through.
+     *
+     * @param host The value of the header.
+     * @return The status line of the response.
+     */
+    private String statusLine(String host) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream output = socket.getOutputStream();
+            output.write(("GET /analyze HTTP/1.1\r\nHost: " + host + "\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            return reader.readLine();
+        }
+    }
+
+    /**
+     * Sends a request to the server.
+     *
+     * @param request The request.
+     * @return The response, with its body as a string.
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
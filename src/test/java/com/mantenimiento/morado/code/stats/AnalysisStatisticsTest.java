@@ -0,0 +1,64 @@
+package com.mantenimiento.morado.code.stats;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.report.ReportWriter;
+
+class AnalysisStatisticsTest {
+
+    @Test
+    void filesAreCountedAndOnlyTheSlowestKept() {
+        AnalysisStatistics statistics = new AnalysisStatistics(2);
+
+        statistics.recordFile("A.java", 100, 10, 20);
+        statistics.recordFile("B.java", 200, 50, 50);
+        statistics.recordFile("C.java", 300, 5, 5);
+        statistics.recordFile("D.java", 400, 40, 40);
+        statistics.addLines(12);
+        statistics.addLines(30);
+
+        assertEquals(4, statistics.getFiles());
+        assertEquals(1000, statistics.getBytes());
+        assertEquals(42, statistics.getLines());
+        assertEquals(List.of(new AnalysisStatistics.FileTiming("B.java", 100),
+            new AnalysisStatistics.FileTiming("D.java", 80)), statistics.getSlowestFiles());
+    }
+
+    @Test
+    void noSlowestFilesAreKeptWithACountOfZero() {
+        AnalysisStatistics statistics = new AnalysisStatistics(0);
+
+        statistics.recordFile("A.java", 100, 10, 20);
+
+        assertEquals(1, statistics.getFiles());
+        assertEquals(List.of(), statistics.getSlowestFiles());
+    }
+
+    @Test
+    void jsonHasThePhasesAndTheSlowestFiles() {
+        AnalysisStatistics statistics = new AnalysisStatistics(1);
+        statistics.addWalkTime(7);
+        statistics.addReportTime(9);
+        statistics.recordFile("src/\"Main\".java", 64, 3, 4);
+        statistics.stop();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(output, UTF_8, false)) {
+            statistics.writeJson(writer);
+        }
+        String json = output.toString(UTF_8);
+
+        assertTrue(json.startsWith("{\"elapsedNanos\":" + statistics.getElapsedNanos() + ","), json);
+        assertTrue(json.contains("\"phases\":{\"walkNanos\":7,\"readNanos\":3,\"analyzeNanos\":4,\"reportNanos\":9}"),
+            json);
+        assertTrue(json.contains("\"files\":1,\"bytes\":64,\"lines\":0,"), json);
+        assertTrue(json.endsWith("\"slowestFiles\":[{\"path\":\"src/\\\"Main\\\".java\",\"nanos\":7}]}\n"), json);
+    }
+}
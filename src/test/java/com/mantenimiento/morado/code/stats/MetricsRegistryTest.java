@@ -0,0 +1,97 @@
+package com.mantenimiento.morado.code.stats;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.report.ReportWriter;
+import com.mantenimiento.morado.util.Constants;
+
+class MetricsRegistryTest {
+
+    @Test
+    void histogramBucketsAreCumulative() {
+        Histogram histogram = new Histogram(new long[] {10, 100}, 3);
+        histogram.observe(5);
+        histogram.observe(10);
+        histogram.observe(50);
+        histogram.observe(5000);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(output, UTF_8, false)) {
+            histogram.writeOpenMetrics(writer, "size");
+        }
+
+        assertEquals(List.of(
+            "size_bucket{le=\"0.01\"} 2",
+            "size_bucket{le=\"0.1\"} 3",
+            "size_bucket{le=\"+Inf\"} 4",
+            "size_count 4",
+            "size_sum 5.065"
+        ), output.toString(UTF_8).lines().toList());
+    }
+
+    @Test
+    void histogramBoundsMustIncrease() {
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(new long[] {10, 10}, 0));
+    }
+
+    @Test
+    void registryWritesEveryFamilyAndEndsWithEof() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.recordFile(2048, 3_000_000);
+        metrics.recordStatus(Constants.JAVA_FILE_STATUS_OK);
+        metrics.recordStatus(Constants.JAVA_FILE_STATUS_OK);
+        metrics.recordStatus(Constants.JAVA_FILE_STATUS_ERROR);
+        metrics.recordScan(Map.of("my \"app\"", 120L), 120, 1_500_000_000L);
+
+        String text = write(metrics);
+        List<String> lines = text.lines().toList();
+
+        assertTrue(lines.contains("morado_scans_total 1"), text);
+        assertTrue(lines.contains("morado_scan_duration_seconds 1.5"), text);
+        assertTrue(lines.contains("morado_files_read_total 1"), text);
+        assertTrue(lines.contains("morado_read_bytes_total 2048"), text);
+        assertTrue(lines.contains("morado_files_total{status=\"OK\"} 2"), text);
+        assertTrue(lines.contains("morado_program_physical_loc{program=\"my \\\"app\\\"\"} 120"), text);
+        assertTrue(lines.contains("morado_file_size_bytes_bucket{le=\"1024\"} 0"), text);
+        assertTrue(lines.contains("morado_file_size_bytes_bucket{le=\"4096\"} 1"), text);
+        assertTrue(lines.contains("# UNIT morado_file_duration_seconds seconds"), text);
+        assertEquals("# EOF", lines.get(lines.size() - 1));
+        assertEquals(text, write(metrics));
+    }
+
+    @Test
+    void programsOfTheLastScanReplaceThoseOfThePreviousOne() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.recordScan(Map.of("alpha/util", 10L, "beta/util", 20L), 30, 1_000_000L);
+        metrics.recordScan(Map.of("beta/util", 25L), 25, 1_000_000L);
+
+        String text = write(metrics);
+        List<String> lines = text.lines().toList();
+
+        assertFalse(text.contains("alpha/util"), text);
+        assertTrue(lines.contains("morado_program_physical_loc{program=\"beta/util\"} 25"), text);
+        assertTrue(lines.contains("morado_scans_total 2"), text);
+    }
+
+    /**
+     * @param metrics A registry.
+     * @return The metrics of the registry in the OpenMetrics text format.
+     */
+    private static String write(MetricsRegistry metrics) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ReportWriter writer = new ReportWriter(output, UTF_8, false)) {
+            metrics.writeOpenMetrics(writer);
+        }
+        return output.toString(UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ByteLineScannerTest {
+
+    @Test
+    void linesEndLikeInReadAllLines() {
+        assertEquals(List.of("a", "b", "c", "d"), lines("a\nb\r\nc\rd"));
+        assertEquals(List.of("a"), lines("a\n"));
+        assertEquals(List.of("", ""), lines("\n\n"));
+        assertEquals(List.of("", "", "x"), lines("\r\n\rx"));
+        assertEquals(List.of(), lines(""));
+    }
+
+    @Test
+    void trimmedLineIsTheSameAsStringTrim() {
+        ByteLineScanner scanner = scanner("  \tint a; \u000B\n   \n");
+
+        assertTrue(scanner.nextLine());
+        assertEquals("int a;", scanner.getTrimmedLine());
+        assertTrue(scanner.startsWith('i'));
+        assertTrue(scanner.endsWith(';'));
+        assertTrue(scanner.contains(' '));
+        assertFalse(scanner.isEmpty());
+        assertTrue(scanner.nextLine());
+        assertTrue(scanner.isEmpty());
+        assertFalse(scanner.nextLine());
+    }
+
+    @Test
+    void multiByteCharactersAreDecoded() {
+        ByteLineScanner scanner = scanner("String s = \"caf\u00e9\"; // \u00bfs\u00ed?\n");
+
+        assertTrue(scanner.nextLine());
+        assertEquals("String s = \"caf\u00e9\"; // \u00bfs\u00ed?", scanner.getLine());
+        assertTrue(scanner.endsWith('?'));
+    }
+
+    /**
+     * @param text The content of a file.
+     * @return A scanner over the UTF-8 bytes of the content.
+     */
+    private static ByteLineScanner scanner(String text) {
+        return new ByteLineScanner(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param text The content of a file.
+     * @return The lines the scanner finds in the content.
+     */
+    private static List<String> lines(String text) {
+        ByteLineScanner scanner = scanner(text);
+        List<String> lines = new ArrayList<>();
+        while (scanner.nextLine()) {
+            lines.add(scanner.getLine());
+        }
+        return lines;
+    }
+}
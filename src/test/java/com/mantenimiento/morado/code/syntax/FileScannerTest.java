@@ -0,0 +1,84 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class FileScannerTest {
+
+    @Test
+    void onlyJavaHasStyleRules() {
+        ByteLineScanner line = scanner("int a = 1, b = 2;\n");
+        line.nextLine();
+
+        assertFalse(FileScanner.forProfile(LanguageRegistry.JAVA).isWellWrittenLine(line));
+        assertTrue(FileScanner.forProfile(LanguageRegistry.KOTLIN).isWellWrittenLine(line));
+    }
+
+    @Test
+    void javaFileGetsItsPackageAndTypes() {
+        FileScanner scanner = FileScanner.forProfile(LanguageRegistry.JAVA);
+
+        int physicalLOC = scan(scanner, "package app;\n// Entry point\npublic class Main {\n"
+            + "    public void run() {\n    }\n}\n");
+        SourceFile file = scanner.getResult("Main.java", physicalLOC);
+
+        assertEquals(5, physicalLOC);
+        assertEquals(1, scanner.getNumOfMethods());
+        assertEquals("app", file.packageName());
+        assertEquals(Constants.JAVA_FILE_STATUS_OK, file.status());
+        assertEquals(List.of("Main"), file.types().stream().map(SourceType::name).toList());
+    }
+
+    @Test
+    void functionsOfOtherLanguagesBelongToAModule() {
+        FileScanner scanner = FileScanner.forProfile(LanguageRegistry.PYTHON);
+
+        int physicalLOC = scan(scanner, "# Tools\ndef run():\n    return 1\n");
+        SourceFile file = scanner.getResult("tool.py", physicalLOC);
+
+        assertEquals(2, physicalLOC);
+        assertEquals(Constants.JAVA_FILE_STATUS_OK, file.status());
+        assertEquals(1, file.types().size());
+        assertEquals("tool", file.types().get(0).name());
+        assertEquals(Constants.TYPE_KIND_MODULE, file.types().get(0).kind());
+        assertEquals(1, file.types().get(0).methods().size());
+    }
+
+    /**
+     * Scans every line of a text.
+     *
+     * @param scanner The scanner of the file.
+     * @param text    The content of the file.
+     * @return The number of lines with code.
+     */
+    private static int scan(FileScanner scanner, String text) {
+        ByteLineScanner line = scanner(text);
+        int physicalLOC = 0;
+        while (line.nextLine()) {
+            if (scanner.scanLine(line)) {
+                physicalLOC++;
+            }
+        }
+        return physicalLOC;
+    }
+
+    /**
+     * @param text The content of a file.
+     * @return A scanner over the lines of the content.
+     */
+    private static ByteLineScanner scanner(String text) {
+        return new ByteLineScanner(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class JavaLexerTest {
+
+    @Test
+    void commentsAndBlankLinesAreNotCode() {
+        assertEquals(List.of(false, false, false, true, true), scan(
+            "// line comment",
+            "",
+            "   /** Javadoc */",
+            "int a; // trailing comment",
+            "/* leading comment */ int b;"
+        ));
+    }
+
+    @Test
+    void blockCommentSpansLines() {
+        assertEquals(List.of(false, false, true, true), scan(
+            "/* starts here",
+            "   int notCode;",
+            "   ends here */ int code;",
+            "int after;"
+        ));
+    }
+
+    @Test
+    void commentMarkersInLiteralsAreCode() {
+        assertEquals(List.of(true, true, true, true, true), scan(
+            "String url = \"http://example.com\";",
+            "String open = \"/*\";",
+            "int notInComment;",
+            "char quote = '\"'; String slash = \"//\";",
+            "char star = '*'; char escaped = '\\''; int end;"
+        ));
+    }
+
+    @Test
+    void escapedQuoteDoesNotEndString() {
+        assertEquals(List.of(true, true), scan(
+            "String s = \"a \\\" /* b\";",
+            "int notInComment;"
+        ));
+    }
+
+    @Test
+    void textBlockContentIsCode() {
+        assertEquals(List.of(true, true, true, true, true, false), scan(
+            "String text = \"\"\"",
+            "    // not a comment",
+            "    /* not a comment either",
+            "    \\\"\"\" still inside",
+            "    \"\"\";",
+            "// a comment again"
+        ));
+    }
+
+    @Test
+    void blankLineInsideTextBlockIsNotCode() {
+        assertEquals(List.of(true, false, true, false), scan(
+            "String text = \"\"\"",
+            "",
+            "    \"\"\";",
+            "/* a comment after the text block */"
+        ));
+    }
+
+    /**
+     * Scans some lines with a new lexer.
+     *
+     * @param lines The lines of the file.
+     * @return Whether each line has code.
+     */
+    private static List<Boolean> scan(String... lines) {
+        ByteBuffer content = ByteBuffer.wrap(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        ByteLineScanner scanner = new ByteLineScanner(content);
+        JavaLexer lexer = new JavaLexer();
+        List<Boolean> code = new ArrayList<>();
+        while (scanner.nextLine()) {
+            code.add(lexer.scanLine(scanner));
+        }
+        return code;
+    }
+}
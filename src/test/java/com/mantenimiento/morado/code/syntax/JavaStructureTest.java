@@ -0,0 +1,133 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class JavaStructureTest {
+
+    @Test
+    void classMethodsWithBodyAreCounted() {
+        JavaStructure structure = scan(
+            "package com.example.app;",
+            "",
+            "public class Main {",
+            "    @Override",
+            "    public String toString() {",
+            "        return \"Main\";",
+            "    }",
+            "",
+            "    abstract void declared();",
+            "",
+            "    static void run(",
+            "        int times",
+            "    ) {",
+            "        if (times > 0) {",
+            "            Runnable task = () -> {",
+            "                run(times - 1);",
+            "            };",
+            "        }",
+            "    }",
+            "}"
+        );
+
+        assertEquals("com.example.app", structure.getPackageName());
+        assertEquals(2, structure.getNumOfMethods());
+        SourceType type = structure.getTypes().get(0);
+        assertEquals("Main", type.name());
+        assertEquals(Constants.TYPE_KIND_CLASS, type.kind());
+        assertEquals(16, type.physicalLOC());
+        assertEquals(List.of(new SourceMethod("toString", 4), new SourceMethod("run", 9)), type.methods());
+    }
+
+    @Test
+    void compactConstructorIsAMethodButRecordComponentsAreNot() {
+        JavaStructure structure = scan(
+            "record Point(int x, int y) {",
+            "    Point {",
+            "        if (x < 0) {",
+            "            throw new IllegalArgumentException();",
+            "        }",
+            "    }",
+            "",
+            "    double length() {",
+            "        return Math.sqrt(x * x + y * y);",
+            "    }",
+            "}"
+        );
+
+        assertEquals("", structure.getPackageName());
+        assertEquals(2, structure.getNumOfMethods());
+        SourceType type = structure.getTypes().get(0);
+        assertEquals("Point", type.name());
+        assertEquals(Constants.TYPE_KIND_RECORD, type.kind());
+        assertEquals(10, type.physicalLOC());
+        assertEquals(List.of(new SourceMethod("Point", 5), new SourceMethod("length", 3)), type.methods());
+    }
+
+    @Test
+    void nestedTypesAreNamedAfterTheirEnclosingType() {
+        JavaStructure structure = scan(
+            "public interface Shape {",
+            "    double area();",
+            "",
+            "    record Square(double side) implements Shape {",
+            "        public double area() {",
+            "            return side * side;",
+            "        }",
+            "    }",
+            "",
+            "    enum Kind {",
+            "        ROUND, SQUARE",
+            "    }",
+            "}"
+        );
+
+        List<SourceType> types = structure.getTypes();
+        assertEquals(List.of("Shape", "Shape.Square", "Shape.Kind"), types.stream().map(SourceType::name).toList());
+        assertEquals(List.of(Constants.TYPE_KIND_INTERFACE, Constants.TYPE_KIND_RECORD, Constants.TYPE_KIND_ENUM),
+            types.stream().map(SourceType::kind).toList());
+        assertEquals(List.of(), types.get(0).methods());
+        assertEquals(List.of(new SourceMethod("area", 3)), types.get(1).methods());
+    }
+
+    @Test
+    void typeKeywordsInCommentsAndStringsAreIgnored() {
+        JavaStructure structure = scan(
+            "// class Commented {",
+            "/* interface Hidden { */",
+            "String text = \"\"\"",
+            "    class Quoted {",
+            "    \"\"\";"
+        );
+
+        assertFalse(structure.hasTypes());
+        assertEquals(0, structure.getNumOfMethods());
+    }
+
+    /**
+     * Scans some lines with a new structure.
+     *
+     * @param lines The lines of the file.
+     * @return The structure that received the tokens of the lines.
+     */
+    private static JavaStructure scan(String... lines) {
+        ByteBuffer content = ByteBuffer.wrap(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        ByteLineScanner scanner = new ByteLineScanner(content);
+        JavaStructure structure = new JavaStructure();
+        JavaLexer lexer = new JavaLexer(structure);
+        while (scanner.nextLine()) {
+            lexer.scanLine(scanner);
+        }
+        return structure;
+    }
+}
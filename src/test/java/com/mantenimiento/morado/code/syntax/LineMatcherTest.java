@@ -0,0 +1,36 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.util.Regex;
+
+class LineMatcherTest {
+
+    private static final List<String> LINES = List.of(
+        "",
+        "int a = 10, b = 20;",
+        "    String x = \"hello\", y = \"world\";",
+        "int n = Math.min(a, b);",
+        "public class Main {",
+        "public static void main(String[] args) {",
+        "return list.get(0);"
+    );
+
+    @Test
+    void prefilterGivesTheSameResultsAsTheRegularExpression() {
+        LineMatcher matcher = new LineMatcher();
+        for (String line : LINES) {
+            assertEquals(line.matches(Regex.MULTI_INSTANCE_REGEX), matcher.isMultiInstanceLine(line), line);
+        }
+    }
+
+    @Test
+    void multipleDeclarationsAreRecognized() {
+        assertTrue(new LineMatcher().isMultiInstanceLine("int a = 10, b = 20;"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class SourceCharsetTest {
+
+    @Test
+    void asciiAndWellFormedSequencesAreUtf8() {
+        assertTrue(isUtf8());
+        assertTrue(isUtf8('c', 'l', 'a', 's', 's', ' ', 'A', ' ', '{', ' ', '}'));
+        assertTrue(isUtf8(0xC2, 0x80));
+        assertTrue(isUtf8(0xDF, 0xBF));
+        assertTrue(isUtf8(0xE0, 0xA0, 0x80));
+        assertTrue(isUtf8(0xED, 0x9F, 0xBF));
+        assertTrue(isUtf8(0xEF, 0xBF, 0xBF));
+        assertTrue(isUtf8(0xF0, 0x90, 0x80, 0x80));
+        assertTrue(isUtf8(0xF4, 0x8F, 0xBF, 0xBF));
+    }
+
+    @Test
+    void overlongFormsAreNotUtf8() {
+        assertFalse(isUtf8(0xC0, 0xAF));
+        assertFalse(isUtf8(0xC1, 0xBF));
+        assertFalse(isUtf8(0xE0, 0x9F, 0xBF));
+        assertFalse(isUtf8(0xF0, 0x8F, 0xBF, 0xBF));
+    }
+
+    @Test
+    void surrogatesAndCodePointsAboveTheLastAreNotUtf8() {
+        assertFalse(isUtf8(0xED, 0xA0, 0x80));
+        assertFalse(isUtf8(0xED, 0xBF, 0xBF));
+        assertFalse(isUtf8(0xF4, 0x90, 0x80, 0x80));
+        assertFalse(isUtf8(0xF5, 0x80, 0x80, 0x80));
+        assertFalse(isUtf8(0xFF));
+    }
+
+    @Test
+    void strayAndMissingContinuationBytesAreNotUtf8() {
+        assertFalse(isUtf8(0x80));
+        assertFalse(isUtf8('a', 0xBF, 'b'));
+        assertFalse(isUtf8(0xE2, 0x82, 'a'));
+        assertFalse(isUtf8(0xF0, 0x9F, 0x98, 'a'));
+    }
+
+    @Test
+    void characterCutByTheEndOfTheRangeIsNotUtf8() {
+        ByteBuffer content = bytes('a', 0xE2, 0x82, 0xAC);
+
+        assertTrue(SourceCharset.isUtf8(content, 0, 4));
+        assertFalse(SourceCharset.isUtf8(content, 0, 3));
+        assertFalse(isUtf8(0xC3));
+    }
+
+    @Test
+    void invalidByteAfterALongAsciiRunIsFound() {
+        byte[] content = "public class Main {".repeat(4).getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(content.length + 1).put(content).put((byte) 0xE9);
+
+        assertTrue(SourceCharset.isUtf8(buffer, 0, content.length));
+        assertFalse(SourceCharset.isUtf8(buffer, 0, content.length + 1));
+    }
+
+    @Test
+    void zeroBytesOnOneSideAreUtf16() {
+        ByteBuffer bigEndian = ByteBuffer.wrap("class A".getBytes(StandardCharsets.UTF_16BE));
+        ByteBuffer littleEndian = ByteBuffer.wrap("class A".getBytes(StandardCharsets.UTF_16LE));
+
+        assertEquals(StandardCharsets.UTF_16BE, SourceCharset.detectUtf16(bigEndian));
+        assertEquals(StandardCharsets.UTF_16LE, SourceCharset.detectUtf16(littleEndian));
+        assertEquals(0, bigEndian.position());
+    }
+
+    @Test
+    void textWithoutZeroBytesOrWithMixedSidesIsNotUtf16() {
+        assertNull(SourceCharset.detectUtf16(ByteBuffer.wrap("class A".getBytes(StandardCharsets.US_ASCII))));
+        assertNull(SourceCharset.detectUtf16(bytes(0, 'a', 'b', 0)));
+        assertNull(SourceCharset.detectUtf16(bytes(0)));
+        assertNull(SourceCharset.detectUtf16(bytes()));
+    }
+
+    @Test
+    void byteOrderMarkDecidesTheEncoding() {
+        assertEquals(StandardCharsets.UTF_8, SourceCharset.detect(bytes(0xEF, 0xBB, 0xBF, 'a')));
+        assertEquals(StandardCharsets.UTF_16BE, SourceCharset.detect(bytes(0xFE, 0xFF, 0, 'a')));
+        assertEquals(StandardCharsets.UTF_16LE, SourceCharset.detect(bytes(0xFF, 0xFE, 'a', 0)));
+        assertEquals("a", SourceCharset.decode(bytes(0xFF, 0xFE, 'a', 0)));
+    }
+
+    @Test
+    void invalidUtf8IsDecodedAsLatin1() {
+        assertEquals(StandardCharsets.ISO_8859_1, SourceCharset.detect(bytes('c', 'a', 'f', 0xE9)));
+        assertEquals("caf\u00e9", SourceCharset.decode(bytes('c', 'a', 'f', 0xE9)));
+        assertEquals("caf\u00e9", SourceCharset.decode(bytes('c', 'a', 'f', 0xC3, 0xA9)));
+    }
+
+    /**
+     * @param values The bytes, each as an unsigned value.
+     * @return A buffer with the bytes.
+     */
+    private static ByteBuffer bytes(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length);
+        for (int value : values) {
+            buffer.put((byte) value);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * @param values The bytes, each as an unsigned value.
+     * @return {@code true} if all the bytes are valid UTF-8.
+     */
+    private static boolean isUtf8(int... values) {
+        return SourceCharset.isUtf8(bytes(values), 0, values.length);
+    }
+}
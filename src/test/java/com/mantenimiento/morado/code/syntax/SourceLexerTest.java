@@ -0,0 +1,77 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+
+class SourceLexerTest {
+
+    @Test
+    void kotlinBlockCommentsNest() {
+        assertEquals(List.of(false, false, false, true, true), scan(LanguageRegistry.KOTLIN,
+            "/* outer /* inner */",
+            "   still a comment */",
+            "// line comment",
+            "val a = 1 /* trailing /* nested */ comment */",
+            "/* leading */ val b = 2"
+        ));
+    }
+
+    @Test
+    void javaBlockCommentsDoNotNest() {
+        assertEquals(List.of(false, true), scan(LanguageRegistry.JAVA,
+            "/* outer /* inner */",
+            "   int code; */"
+        ));
+    }
+
+    @Test
+    void pythonTripleQuotedStringsAreCode() {
+        assertEquals(List.of(true, true, false, true, true, true, false), scan(LanguageRegistry.PYTHON,
+            "\"\"\"Module docstring",
+            "# not a comment inside the string",
+            "",
+            "\"\"\"",
+            "text = '''a # b",
+            "'''  # a comment after the string",
+            "# a comment again"
+        ));
+    }
+
+    @Test
+    void sqlDollarQuotedBodyIsCode() {
+        assertEquals(List.of(false, true, true, true, false), scan(LanguageRegistry.SQL,
+            "-- a comment",
+            "CREATE FUNCTION one() RETURNS INT AS $$",
+            "    -- inside the body",
+            "$$ LANGUAGE SQL;",
+            "/* a comment */"
+        ));
+    }
+
+    /**
+     * Scans some lines with a new lexer.
+     *
+     * @param profile The language of the lines.
+     * @param lines   The lines of the file.
+     * @return Whether each line has code.
+     */
+    private static List<Boolean> scan(LanguageProfile profile, String... lines) {
+        ByteBuffer content = ByteBuffer.wrap(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        ByteLineScanner scanner = new ByteLineScanner(content);
+        SourceLexer lexer = new SourceLexer(profile);
+        List<Boolean> code = new ArrayList<>();
+        while (scanner.nextLine()) {
+            code.add(lexer.scanLine(scanner));
+        }
+        return code;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mantenimiento.morado.code.syntax;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.language.LanguageProfile;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class SourceStructureTest {
+
+    @Test
+    void kotlinDeclarationsInCommentsAndStringsAreIgnored() {
+        SourceStructure structure = scan(LanguageRegistry.KOTLIN,
+            "/* class Commented /* fun nested() {} */ */",
+            "class Main {",
+            "    fun run() {",
+            "        println(\"\"\"",
+            "            fun notAFunction() {",
+            "        \"\"\")",
+            "    }",
+            "}",
+            "",
+            "fun main() = Main().run()"
+        );
+
+        assertEquals(2, structure.getNumOfMethods());
+        assertEquals(List.of(
+            new SourceType("Main", Constants.TYPE_KIND_MODULE, 8, List.of(new SourceMethod("main", 1))),
+            new SourceType("Main", Constants.TYPE_KIND_CLASS, 7, List.of(new SourceMethod("run", 5)))
+        ), structure.getTypes("Main"));
+    }
+
+    @Test
+    void pythonBlocksEndWithTheIndentation() {
+        SourceStructure structure = scan(LanguageRegistry.PYTHON,
+            "\"\"\"Module docstring",
+            "def not_a_function():",
+            "\"\"\"",
+            "class Tool:",
+            "    '''class doc'''",
+            "    def run(self):",
+            "        if True:",
+            "            pass",
+            "",
+            "    def stop(self):",
+            "        pass",
+            "",
+            "def main():",
+            "    Tool().run()"
+        );
+
+        assertEquals(List.of(
+            new SourceType("tool", Constants.TYPE_KIND_MODULE, 12, List.of(new SourceMethod("main", 2))),
+            new SourceType("Tool", Constants.TYPE_KIND_CLASS, 7,
+                List.of(new SourceMethod("run", 3), new SourceMethod("stop", 2)))
+        ), structure.getTypes("tool"));
+    }
+
+    @Test
+    void sqlStatementsEndWithTheirSemicolon() {
+        SourceStructure structure = scan(LanguageRegistry.SQL,
+            "-- create table commented (x int);",
+            "CREATE TABLE IF NOT EXISTS users (",
+            "    id INT,",
+            "    name TEXT",
+            ");",
+            "/* create table hidden (x int); */",
+            "CREATE FUNCTION add_one(x INT) RETURNS INT AS $$",
+            "    SELECT x + 1;",
+            "$$ LANGUAGE SQL;",
+            "create view if not exists names as select name from users;"
+        );
+
+        assertEquals(List.of(
+            new SourceType("schema", Constants.TYPE_KIND_MODULE, 8, List.of(new SourceMethod("add_one", 3))),
+            new SourceType("users", Constants.TYPE_KIND_TABLE, 4, List.of()),
+            new SourceType("names", Constants.TYPE_KIND_VIEW, 1, List.of())
+        ), structure.getTypes("schema"));
+    }
+
+    /**
+     * Scans some lines with a new structure.
+     *
+     * @param profile The language of the lines.
+     * @param lines   The lines of the file.
+     * @return The structure that received the tokens of the lines.
+     */
+    private static SourceStructure scan(LanguageProfile profile, String... lines) {
+        ByteBuffer content = ByteBuffer.wrap(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        ByteLineScanner scanner = new ByteLineScanner(content);
+        SourceStructure structure = new SourceStructure(profile);
+        SourceLexer lexer = new SourceLexer(profile, structure);
+        while (scanner.nextLine()) {
+            lexer.scanLine(scanner);
+        }
+        return structure;
+    }
+}
@@ -0,0 +1,84 @@
+package com.mantenimiento.morado.code.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.model.SourceMethod;
+import com.mantenimiento.morado.code.model.SourceType;
+import com.mantenimiento.morado.util.Constants;
+
+class AggregationTreeTest {
+
+    private AggregationTree tree;
+
+    @BeforeEach
+    void createTree() {
+        tree = new AggregationTree();
+        tree.addFile(new SourceFile("Main.java", 20, 2, Constants.JAVA_FILE_STATUS_OK, "com.example",
+            List.of(new SourceType("Main", Constants.TYPE_KIND_CLASS, 18,
+                List.of(new SourceMethod("main", 6), new SourceMethod("run", 9))))));
+        tree.addFile(new SourceFile("Util.java", 30, 1, Constants.JAVA_FILE_STATUS_OK, "com.example",
+            List.of(new SourceType("Util", Constants.TYPE_KIND_CLASS, 28, List.of(new SourceMethod("parse", 12))))));
+        tree.addFile(new SourceFile("Script.java", 5, 0, Constants.JAVA_FILE_STATUS_OK, "",
+            List.of(new SourceType("Script", Constants.TYPE_KIND_INTERFACE, 4, List.of()))));
+    }
+
+    @Test
+    void countersAreRolledUpToPackagesAndProject() {
+        assertEquals(55, tree.getPhysicalLOC(AggregationTree.ROOT));
+        assertEquals(3, tree.getNumOfMethods(AggregationTree.ROOT));
+
+        List<String> packages = new ArrayList<>();
+        for (int node = tree.getFirstChild(AggregationTree.ROOT); node >= 0; node = tree.getNextSibling(node)) {
+            assertEquals(AggregationTree.PACKAGE, tree.getLevel(node));
+            packages.add(tree.getName(node) + " " + tree.getPhysicalLOC(node) + " " + tree.getNumOfMethods(node));
+        }
+        assertEquals(List.of("com.example 50 3", " 5 0"), packages);
+    }
+
+    @Test
+    void largestNodesOfALevelComeFirst() {
+        int[] methods = tree.getLargest(AggregationTree.METHOD, 2);
+        int[] types = tree.getLargest(AggregationTree.TYPE, 10);
+
+        assertEquals(2, methods.length);
+        assertEquals("com.example.Util.parse", tree.getQualifiedName(methods[0]));
+        assertEquals("Util.java", tree.getFilename(methods[0]));
+        assertEquals("com.example.Main.run", tree.getQualifiedName(methods[1]));
+        assertEquals(List.of("com.example.Util", "com.example.Main", "Script"), qualifiedNames(types));
+        assertArrayEquals(new int[0], tree.getLargest(AggregationTree.METHOD, 0));
+    }
+
+    @Test
+    void listenerAddsTheReportedFilesAndPassesThemOn() {
+        AggregationTree listened = new AggregationTree();
+        List<SourceFile> reported = new ArrayList<>();
+        AggregatingListener listener = new AggregatingListener(reported::add, listened);
+        SourceFile file = new SourceFile("Main.java", 7, 0, Constants.JAVA_FILE_STATUS_OK);
+
+        listener.onFile(file);
+
+        assertEquals(List.of(file), reported);
+        assertEquals(7, listened.getPhysicalLOC(AggregationTree.ROOT));
+        assertEquals(3, listened.size());
+    }
+
+    /**
+     * @param nodes The indexes of type or method nodes.
+     * @return The qualified names of the nodes.
+     */
+    private List<String> qualifiedNames(int[] nodes) {
+        List<String> names = new ArrayList<>();
+        for (int node : nodes) {
+            names.add(tree.getQualifiedName(node));
+        }
+        return names;
+    }
+}
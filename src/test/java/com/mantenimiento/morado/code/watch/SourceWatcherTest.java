@@ -0,0 +1,127 @@
+package com.mantenimiento.morado.code.watch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mantenimiento.morado.code.ignore.IgnoreRules;
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.model.SourceFile;
+import com.mantenimiento.morado.code.report.AnalysisListener;
+
+class SourceWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void changedProgramIsReportedAgainWithTheNewTotal() throws Exception {
+        createFile("app/Main.java", "public class Main {\n}\n");
+        createFile("lib/Util.java", "public class Util {\n    int size;\n}\n");
+        List<String> events = new ArrayList<>();
+        BlockingQueue<List<String>> updates = new LinkedBlockingQueue<>();
+        AnalysisListener listener = new AnalysisListener() {
+            @Override
+            public void onFile(SourceFile file) {
+                events.add(file.filename() + " " + file.physicalLOC());
+            }
+
+            @Override
+            public void onProjectEnd(int totalPhysicalLOC) {
+                events.add("total " + totalPhysicalLOC);
+            }
+        };
+
+        try (SourceWatcher watcher = new SourceWatcher(directory.toString(), 1)) {
+            Thread thread = new Thread(() -> watcher.watch(listener, () -> {
+                updates.add(List.copyOf(events));
+                events.clear();
+            }));
+            thread.start();
+            assertEquals(List.of("Main.java 2", "Util.java 3", "total 5"), nextUpdate(updates));
+
+            createFile("app/Other.java", "public class Other {\n    int a;\n    int b;\n}\n");
+            assertEquals(List.of("Main.java 2", "Other.java 4", "total 9"), nextUpdate(updates));
+
+            Files.delete(directory.resolve("app/Main.java"));
+            assertEquals(List.of("Other.java 4", "total 7"), nextUpdate(updates));
+
+            watcher.close();
+            thread.join(10_000);
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    @Test
+    void ignoredFilesAndOtherLanguagesAreLeftOut() throws Exception {
+        createFile(".gitignore", "build/\n");
+        createFile("app/Main.java", "public class Main {\n}\n");
+        createFile("build/Generated.java", "public class Generated {\n}\n");
+        createFile("tools/run.py", "def run():\n    return 1\n");
+        createFile("tools/notes.sql", "SELECT 1;\n");
+        BlockingQueue<List<String>> updates = new LinkedBlockingQueue<>();
+        List<String> events = new ArrayList<>();
+        AnalysisListener listener = new AnalysisListener() {
+            @Override
+            public void onFile(SourceFile file) {
+                events.add(file.filename() + " " + file.physicalLOC());
+            }
+        };
+
+        try (SourceWatcher watcher = new SourceWatcher(directory.toString(), 1)) {
+            watcher.setIgnoreRules(IgnoreRules.load(directory, null, true));
+            watcher.setLanguages(List.of(LanguageRegistry.JAVA, LanguageRegistry.PYTHON));
+            Thread thread = new Thread(() -> watcher.watch(listener, () -> {
+                updates.add(List.copyOf(events));
+                events.clear();
+            }));
+            thread.start();
+            assertEquals(List.of("Main.java 2", "run.py 2"), nextUpdate(updates));
+
+            createFile("build/Later.java", "public class Later {\n}\n");
+            createFile("tools/query.sql", "SELECT 2;\n");
+            createFile("tools/util.py", "def util():\n    return 2\n");
+            assertEquals(List.of("run.py 2", "util.py 2"), nextUpdate(updates));
+
+            watcher.close();
+            thread.join(10_000);
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    /**
+     * Waits for the next report of the watcher.
+     *
+     * @param updates The reports of the watcher.
+     * @return The files and the total of the next report, sorted since the order of the files in a directory
+     *         depends on the file system.
+     */
+    private static List<String> nextUpdate(BlockingQueue<List<String>> updates) throws InterruptedException {
+        List<String> update = new ArrayList<>(updates.poll(10, TimeUnit.SECONDS));
+        update.sort(null);
+        return update;
+    }
+
+    /**
+     * Creates a file under the temporary directory.
+     *
+     * @param name    The path of the file, relative to the directory.
+     * @param content The content of the file.
+     */
+    private void createFile(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,182 @@
+package com.mantenimiento.morado.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mantenimiento.morado.code.language.LanguageRegistry;
+import com.mantenimiento.morado.code.report.ReportFormat;
+
+class CommandLineOptionsTest {
+
+    @Test
+    void pathAloneGivesTheDefaults() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {"src"});
+
+        assertEquals("src", options.getPath());
+        assertEquals(1, options.getThreads());
+        assertEquals(0, options.getConcurrentReads());
+        assertNull(options.getCacheFile());
+        assertEquals(ReportFormat.TABLE, options.getFormat());
+        assertNull(options.getOutputFile());
+        assertFalse(options.isWatch());
+        assertNull(options.getBaseRevision());
+        assertFalse(options.isStats());
+        assertEquals(0, options.getTopCount());
+        assertFalse(options.isGitignore());
+        assertNull(options.getIgnoreFile());
+        assertNull(options.getLanguages());
+        assertFalse(options.isDedupe());
+        assertEquals(0, options.getServePort());
+        assertNull(options.getMetricsFile());
+        assertNull(options.getStatsFile());
+    }
+
+    @Test
+    void optionsAreParsedInAnyOrder() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {
+            "src", "--pipeline", "8", "--cache", "morado.cache", "--format", "csv", "--threads", "4",
+            "--output", "loc.csv"
+        });
+
+        assertEquals(4, options.getThreads());
+        assertEquals(8, options.getConcurrentReads());
+        assertEquals("morado.cache", options.getCacheFile());
+        assertEquals(ReportFormat.CSV, options.getFormat());
+        assertEquals("loc.csv", options.getOutputFile());
+        assertTrue(CommandLineOptions.parse(new String[] {"src", "--watch"}).isWatch());
+    }
+
+    @Test
+    void statsAndLargestNodesCanBePrinted() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {
+            "src", "--stats", "--stats-json", "stats.json", "--top", "10", "--metrics", "morado.prom"
+        });
+
+        assertTrue(options.isStats());
+        assertEquals("morado.prom", options.getMetricsFile());
+        assertEquals(10, options.getTopCount());
+        assertEquals("stats.json", options.getStatsFile());
+    }
+
+    @Test
+    void ignoreRulesAndDedupeCanBeEnabled() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {
+            "src", "--gitignore", "--ignore-file", "rules.txt", "--dedupe"
+        });
+
+        assertTrue(options.isGitignore());
+        assertTrue(options.isDedupe());
+        assertEquals("rules.txt", options.getIgnoreFile());
+    }
+
+    @Test
+    void languagesAreGivenByName() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {"src", "--languages", "python,java"});
+
+        assertEquals(List.of(LanguageRegistry.PYTHON, LanguageRegistry.JAVA), options.getLanguages());
+        assertThrows(IllegalArgumentException.class,
+            () -> CommandLineOptions.parse(new String[] {"src", "--languages", "cobol"}));
+    }
+
+    @Test
+    void serveTakesAPort() {
+        assertEquals(8080, CommandLineOptions.parse(new String[] {"src", "--serve", "8080"}).getServePort());
+    }
+
+    @Test
+    void gitTakesARangeOrASingleRevision() {
+        CommandLineOptions range = CommandLineOptions.parse(new String[] {"src", "--git", "main..feature"});
+        CommandLineOptions single = CommandLineOptions.parse(new String[] {"src", "--git", "HEAD~2"});
+
+        assertEquals("main", range.getBaseRevision());
+        assertEquals("feature", range.getTargetRevision());
+        assertEquals("HEAD~2", single.getBaseRevision());
+        assertNull(single.getTargetRevision());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertMessage("Missing path to analyze");
+        assertMessage("Unknown option: --fast", "src", "--fast");
+        assertMessage("Missing value for option: --threads", "src", "--threads");
+        assertMessage("Invalid value for option --threads: 0", "src", "--threads", "0");
+        assertMessage("Invalid value for option --pipeline: many", "src", "--pipeline", "many");
+        assertMessage("Unknown report format: xml", "src", "--format", "xml");
+        assertMessage("Invalid value for option --top: 0", "src", "--top", "0");
+        assertMessage("Invalid value for option --serve: 70000", "src", "--serve", "70000");
+        assertMessage("Invalid value for option --git: main...", "src", "--git", "main...");
+        assertMessage("Invalid value for option --git: ..feature", "src", "--git", "..feature");
+        assertMessage("Invalid value for option --git: --output=x", "src", "--git", "--output=x");
+        assertMessage("Invalid value for option --git: main..-p", "src", "--git", "main..-p");
+        assertMessage("Invalid value for option --git: ", "src", "--git", "");
+        assertMessage("The option --metrics cannot be used with --watch or --git", "src", "--watch", "--metrics",
+            "m.prom");
+        assertMessage("The option --metrics cannot be used with --watch or --git", "src", "--git", "HEAD",
+            "--metrics", "m.prom");
+        assertMessage("The option --cache cannot be used with --watch or --git", "src", "--watch", "--cache", "c");
+        assertMessage("The option --cache cannot be used with --watch or --git", "src", "--git", "HEAD", "--cache",
+            "c");
+        assertMessage("The options --watch and --git cannot be used together", "src", "--watch", "--git", "HEAD");
+    }
+
+    @Test
+    void watchRejectsTheOptionsItDoesNotUse() {
+        String message = "The options --pipeline, --stats, --stats-json and --top cannot be used with --watch";
+
+        assertMessage(message, "src", "--watch", "--pipeline", "4");
+        assertMessage(message, "src", "--watch", "--stats");
+        assertMessage(message, "src", "--watch", "--stats-json", "stats.json");
+        assertMessage(message, "src", "--watch", "--top", "5");
+        assertTrue(CommandLineOptions.parse(new String[] {"src", "--watch", "--gitignore", "--dedupe"}).isWatch());
+    }
+
+    @Test
+    void gitRejectsTheOptionsItDoesNotUse() {
+        String message = "The options --threads, --pipeline, --top, --gitignore, --ignore-file, --dedupe, --stats"
+            + " and --stats-json cannot be used with --git";
+
+        assertMessage(message, "src", "--git", "HEAD", "--threads", "2");
+        assertMessage(message, "src", "--git", "HEAD", "--gitignore");
+        assertMessage(message, "src", "--git", "HEAD", "--ignore-file", ".ignore");
+        assertMessage(message, "src", "--git", "HEAD", "--dedupe");
+        assertMessage(message, "src", "--git", "HEAD", "--stats");
+        assertEquals(1, CommandLineOptions.parse(new String[] {"src", "--git", "HEAD", "--threads", "1"}).getThreads());
+    }
+
+    @Test
+    void serveRejectsTheOptionsOfASingleReport() {
+        String message = "The options --top, --languages, --stats, --stats-json, --gitignore, --ignore-file, --format"
+            + " and --output cannot be used with --serve";
+
+        assertMessage(message, "src", "--serve", "8080", "--top", "5");
+        assertMessage(message, "src", "--serve", "8080", "--languages", "java");
+        assertMessage(message, "src", "--serve", "8080", "--stats");
+        assertMessage(message, "src", "--serve", "8080", "--gitignore");
+        assertMessage(message, "src", "--serve", "8080", "--format", "table");
+        assertMessage(message, "src", "--serve", "8080", "--output", "loc.txt");
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {
+            "src", "--serve", "8080", "--threads", "4", "--cache", "morado.cache", "--dedupe", "--metrics", "m.prom"
+        });
+        assertEquals(8080, options.getServePort());
+        assertEquals(4, options.getThreads());
+    }
+
+    /**
+     * Checks that parsing some arguments fails with a message.
+     *
+     * @param message The expected message.
+     * @param args    The command line arguments.
+     */
+    private static void assertMessage(String message, String... args) {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> CommandLineOptions.parse(args));
+        assertEquals(message, exception.getMessage());
+    }
+}
@@ -0,0 +1,41 @@
+package com.mantenimiento.morado.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class RegexTest {
+
+    private static final Pattern MULTI_INSTANCE = Pattern.compile(Regex.MULTI_INSTANCE_REGEX);
+
+    @Test
+    void severalDeclarationsOnALineAreMatched() {
+        assertTrue(matches("int a = 10, b = 20, c = 30;"));
+        assertTrue(matches("    String x = \"hello\", y = \"world\";"));
+        assertTrue(matches("int a = 1, b;"));
+        assertTrue(matches("int a = f(1), b = 2;"));
+    }
+
+    @Test
+    void callsWithSeveralArgumentsAreNotMatched() {
+        assertFalse(matches("SourceFile file = cache.get(filePath, stamp);"));
+        assertFalse(matches("int count = Math.min(chars.remaining(), length - offset);"));
+        assertFalse(matches("Key key = new Key(hash(content), content.remaining(), getExtension(filename));"));
+    }
+
+    @Test
+    void commasInsideStringsAreNotMatched() {
+        assertFalse(matches("String s = \"a, b\";"));
+    }
+
+    /**
+     * @param line A line of a Java source file.
+     * @return Whether the line declares several variables.
+     */
+    private static boolean matches(String line) {
+        return MULTI_INSTANCE.matcher(line).matches();
+    }
+}